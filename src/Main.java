@@ -1,7 +1,20 @@
+import cli.LineaComandos;
+import servidor.ServidorEjecucion;
 import ui.JavaUSACApp;
 
+import java.util.Arrays;
+
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            int codigo = ServidorEjecucion.iniciar(Arrays.copyOfRange(args, 1, args.length));
+            if (codigo != 0) System.exit(codigo);
+            return;
+        }
+        // Con argumentos corre sin interfaz (ver cli.LineaComandos)
+        if (args.length > 0) {
+            System.exit(LineaComandos.ejecutar(args));
+        }
         JavaUSACApp.launch();
     }
 }
@@ -0,0 +1,60 @@
+package ast;
+
+import ast.sentencias.DeclaracionFuncion;
+
+import java.util.List;
+
+/**
+ * Ancla de las líneas de un fragmento ya parseado: el parseo incremental
+ * reutiliza los fragmentos que no se editaron aunque hayan quedado más
+ * arriba o más abajo en el archivo. Los nodos anclados guardan la línea
+ * relativa a delta, así que correr el fragmento es cambiar delta y no
+ * recorrer sus nodos.
+ */
+public final class DesplazadorLineas extends RecorridoAST {
+
+    private int delta;
+
+    private DesplazadorLineas() {
+    }
+
+    /** Ancla los nodos con las líneas que tienen ahora (delta 0). */
+    public static DesplazadorLineas anclar(List<? extends NodoAST> nodos) {
+        DesplazadorLineas d = new DesplazadorLineas();
+        d.recorrer(nodos);
+        return d;
+    }
+
+    /**
+     * Ancla los nodos nuevos de un subárbol que reemplaza a original (una
+     * pasada que reescribe el AST) al mismo fragmento que original; los nodos
+     * que comparte con él ya lo están. No hace nada si original no está anclado.
+     */
+    public static void anclarComo(NodoAST nuevo, NodoAST original) {
+        DesplazadorLineas d = original.getAncla();
+        if (d != null) d.recorrer(nuevo);
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+
+    @Override
+    protected void recorrer(NodoAST nodo) {
+        if (nodo == null || !nodo.anclar(this)) return;
+        nodo.accept(this);
+    }
+
+    @Override
+    public Void visit(DeclaracionFuncion stmt) {
+        List<Parametro> ps = stmt.getParametros();
+        if (ps != null) {
+            for (Parametro p : ps) p.anclar(this);
+        }
+        return super.visit(stmt);
+    }
+}
@@ -0,0 +1,15 @@
+package ast;
+
+/**
+ * Estado de un sitio aritmético/relacional en ModoEjecucion.ESPECIALIZADO,
+ * por corrida (VisitanteEspecializado).
+ * Empieza SIN_DATOS, pasa al caso que observa en la primera evaluación y cae
+ * a GENERICO (sin vuelta atrás) la primera vez que la guarda no se cumple.
+ */
+public enum Especializacion {
+    SIN_DATOS,
+    INT_INT,
+    DOUBLE_DOUBLE,
+    CADENAS,
+    GENERICO
+}
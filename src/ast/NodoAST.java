@@ -1,8 +1,10 @@
 package ast;
 
 public abstract class NodoAST {
-    private final int line;
+    private int line;
     private final int column;
+    // Nodos de un fragmento del editor: line es relativa y el fragmento dice cuánto se corrió
+    private DesplazadorLineas ancla;
 
     protected NodoAST(int line, int column) {
         this.line = line;
@@ -10,12 +12,24 @@ public abstract class NodoAST {
     }
 
     public int getLine() {
-        return line;
+        return line > 0 && ancla != null ? line + ancla.getDelta() : line;
     }
 
     public int getColumn() {
         return column;
     }
 
+    // Solo para DesplazadorLineas; 0 es "sin posición" y se conserva. false si ya estaba anclado
+    boolean anclar(DesplazadorLineas d) {
+        if (ancla != null) return false;
+        if (line > 0) line -= d.getDelta();
+        ancla = d;
+        return true;
+    }
+
+    DesplazadorLineas getAncla() {
+        return ancla;
+    }
+
     public abstract <T> T accept(Visitor<T> visitor);
 }
\ No newline at end of file
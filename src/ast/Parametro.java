@@ -6,8 +6,9 @@ import semantic.Tipo;
 public class Parametro {
     private final String nombre;
     private final Tipo tipo;
-    private final int line;
+    private int line;
     private final int column;
+    private DesplazadorLineas ancla;
 
     public Parametro(String nombre, Tipo tipo, int line, int column) {
         this.nombre = nombre;
@@ -25,10 +26,16 @@ public class Parametro {
     }
 
     public int getLine() {
-        return line;
+        return line > 0 && ancla != null ? line + ancla.getDelta() : line;
     }
 
     public int getColumn() {
         return column;
     }
+
+    void anclar(DesplazadorLineas d) {
+        if (ancla != null) return;
+        if (line > 0) line -= d.getDelta();
+        ancla = d;
+    }
 }
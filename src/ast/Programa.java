@@ -5,6 +5,8 @@ import java.util.List;
 
 public class Programa extends NodoAST {
     private final List<Sentencia> sentencias;
+    private int tamanoMarco = -1;
+    private int sitios;
 
     public Programa(List<Sentencia> sentencias, int line, int column) {
         super(line, column);
@@ -15,6 +17,24 @@ public class Programa extends NodoAST {
         return sentencias;
     }
 
+    /** Tamaño del marco global; -1 si las variables no se resolvieron a slots. */
+    public int getTamanoMarco() {
+        return tamanoMarco;
+    }
+
+    public void setTamanoMarco(int tamanoMarco) {
+        this.tamanoMarco = tamanoMarco;
+    }
+
+    /** Sitios aritméticos y relacionales numerados por VisitanteResolucion. */
+    public int getSitios() {
+        return sitios;
+    }
+
+    public void setSitios(int sitios) {
+        this.sitios = sitios;
+    }
+
     @Override
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
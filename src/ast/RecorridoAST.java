@@ -0,0 +1,219 @@
+package ast;
+
+import ast.expresiones.*;
+import ast.sentencias.*;
+
+import java.util.List;
+
+/**
+ * Recorrido completo del AST sin resultado. Las pasadas de análisis extienden
+ * esta clase y sobrescriben solo los nodos que les interesan.
+ */
+public abstract class RecorridoAST implements Visitor<Void> {
+
+    protected void recorrer(NodoAST nodo) {
+        if (nodo != null) nodo.accept(this);
+    }
+
+    protected void recorrer(List<? extends NodoAST> nodos) {
+        if (nodos == null) return;
+        for (NodoAST n : nodos) recorrer(n);
+    }
+
+    @Override
+    public Void visit(Programa programa) {
+        recorrer(programa.getSentencias());
+        return null;
+    }
+
+    @Override public Void visit(LiteralEntero expr) { return null; }
+    @Override public Void visit(LiteralDouble expr) { return null; }
+    @Override public Void visit(LiteralBooleano expr) { return null; }
+    @Override public Void visit(LiteralChar expr) { return null; }
+    @Override public Void visit(LiteralString expr) { return null; }
+    @Override public Void visit(Identificador expr) { return null; }
+    @Override public Void visit(NuevaLista expr) { return null; }
+
+    @Override
+    public Void visit(ExpresionAritmetica expr) {
+        recorrer(expr.getIzquierda());
+        recorrer(expr.getDerecha());
+        return null;
+    }
+
+    @Override
+    public Void visit(ExpresionRelacional expr) {
+        recorrer(expr.getIzquierda());
+        recorrer(expr.getDerecha());
+        return null;
+    }
+
+    @Override
+    public Void visit(ExpresionLogica expr) {
+        recorrer(expr.getIzquierda());
+        recorrer(expr.getDerecha());
+        return null;
+    }
+
+    @Override
+    public Void visit(ExpresionCasteo expr) {
+        recorrer(expr.getExpresion());
+        return null;
+    }
+
+    @Override
+    public Void visit(ExpresionAgrupada expr) {
+        recorrer(expr.getExpresion());
+        return null;
+    }
+
+    @Override
+    public Void visit(LlamadaFuncion expr) {
+        recorrer(expr.getArgumentos());
+        return null;
+    }
+
+    @Override
+    public Void visit(LiteralVector expr) {
+        recorrer(expr.getElementos());
+        return null;
+    }
+
+    @Override
+    public Void visit(LiteralMatriz expr) {
+        recorrer(expr.getFilas());
+        return null;
+    }
+
+    @Override
+    public Void visit(AccesoIndexado expr) {
+        recorrer(expr.getObjetivo());
+        recorrer(expr.getIndice1());
+        recorrer(expr.getIndice2());
+        return null;
+    }
+
+    @Override
+    public Void visit(LlamadaMiembro expr) {
+        recorrer(expr.getObjetivo());
+        recorrer(expr.getArgumentos());
+        return null;
+    }
+
+    @Override
+    public Void visit(BloqueSentencias stmt) {
+        recorrer(stmt.getSentencias());
+        return null;
+    }
+
+    @Override
+    public Void visit(DeclaracionVariable stmt) {
+        recorrer(stmt.getExpresionInicial());
+        return null;
+    }
+
+    @Override
+    public Void visit(AsignacionVariable stmt) {
+        recorrer(stmt.getExpresion());
+        return null;
+    }
+
+    @Override
+    public Void visit(IfSentencia stmt) {
+        recorrer(stmt.getCondicion());
+        recorrer(stmt.getBloqueIf());
+        recorrer(stmt.getBloqueElse());
+        recorrer(stmt.getElseIf());
+        return null;
+    }
+
+    @Override
+    public Void visit(SwitchSentencia stmt) {
+        recorrer(stmt.getExpresion());
+        recorrer(stmt.getCasos());
+        recorrer(stmt.getCasoDefault());
+        return null;
+    }
+
+    @Override
+    public Void visit(Case stmt) {
+        recorrer(stmt.getValor());
+        recorrer(stmt.getSentencias());
+        return null;
+    }
+
+    @Override
+    public Void visit(Default stmt) {
+        recorrer(stmt.getSentencias());
+        return null;
+    }
+
+    @Override
+    public Void visit(WhileSentencia stmt) {
+        recorrer(stmt.getCondicion());
+        recorrer(stmt.getBloque());
+        return null;
+    }
+
+    @Override
+    public Void visit(ForSentencia stmt) {
+        recorrer(stmt.getInicializacion());
+        recorrer(stmt.getCondicion());
+        recorrer(stmt.getBloque());
+        recorrer(stmt.getIncremento());
+        return null;
+    }
+
+    @Override
+    public Void visit(DoWhileSentencia stmt) {
+        recorrer(stmt.getBloque());
+        recorrer(stmt.getCondicion());
+        return null;
+    }
+
+    @Override public Void visit(BreakSentencia stmt) { return null; }
+    @Override public Void visit(ContinueSentencia stmt) { return null; }
+
+    @Override
+    public Void visit(PrintlnSentencia stmt) {
+        recorrer(stmt.getExpresion());
+        return null;
+    }
+
+    @Override
+    public Void visit(DeclaracionFuncion stmt) {
+        recorrer(stmt.getCuerpo());
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnSentencia stmt) {
+        recorrer(stmt.getValor());
+        return null;
+    }
+
+    @Override
+    public Void visit(StartSentencia stmt) {
+        recorrer(stmt.getArgumentos());
+        return null;
+    }
+
+    @Override
+    public Void visit(SentenciaExpresion stmt) {
+        recorrer(stmt.getExpresion());
+        return null;
+    }
+
+    @Override
+    public Void visit(IncDecSentencia stmt) {
+        recorrer(stmt.getObjetivo());
+        return null;
+    }
+
+    @Override
+    public Void visit(AsignacionIndexada stmt) {
+        recorrer(stmt.getAcceso());
+        recorrer(stmt.getValor());
+        return null;
+    }
+}
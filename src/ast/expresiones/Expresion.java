@@ -3,7 +3,18 @@ package ast.expresiones;
 import ast.NodoAST;
 
 public abstract class Expresion extends NodoAST {
+    // Valor ya calculado de un literal; lo guarda el intérprete en la primera evaluación
+    private Object constante;
+
     protected Expresion(int line, int column) {
         super(line, column);
     }
+
+    public Object getConstante() {
+        return constante;
+    }
+
+    public void setConstante(Object constante) {
+        this.constante = constante;
+    }
 }
\ No newline at end of file
@@ -7,6 +7,8 @@ public class ExpresionAritmetica extends Expresion {
     private final Expresion izquierda;
     private final Expresion derecha;
     private final OperadorAritmetico operador;
+    // Índice del sitio en ModoEjecucion.ESPECIALIZADO; lo asigna VisitanteResolucion
+    private int sitio = -1;
 
     public ExpresionAritmetica(Expresion izquierda, Expresion derecha, OperadorAritmetico operador, int line, int column) {
         super(line, column);
@@ -27,6 +29,14 @@ public class ExpresionAritmetica extends Expresion {
         return operador;
     }
 
+    public int getSitio() {
+        return sitio;
+    }
+
+    public void setSitio(int sitio) {
+        this.sitio = sitio;
+    }
+
     @Override
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
@@ -4,6 +4,9 @@ import ast.Visitor;
 
 public class Identificador extends Expresion {
     private final String nombre;
+    // Marco (0 = actual, 1 = global) y posición asignados por VisitanteResolucion
+    private int profundidad = -1;
+    private int slot = -1;
 
     public Identificador(String nombre, int line, int column) {
         super(line, column);
@@ -14,6 +17,19 @@ public class Identificador extends Expresion {
         return nombre;
     }
 
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int profundidad, int slot) {
+        this.profundidad = profundidad;
+        this.slot = slot;
+    }
+
     @Override
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
@@ -6,6 +6,8 @@ import ast.expresiones.Expresion;
 public class AsignacionVariable extends Sentencia {
     private final String identificador;
     private final Expresion expresion;
+    private int profundidad = -1;
+    private int slot = -1;
 
     public AsignacionVariable(String identificador, Expresion expresion, int line, int column) {
         super(line, column);
@@ -21,6 +23,19 @@ public class AsignacionVariable extends Sentencia {
         return expresion;
     }
 
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int profundidad, int slot) {
+        this.profundidad = profundidad;
+        this.slot = slot;
+    }
+
     @Override
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
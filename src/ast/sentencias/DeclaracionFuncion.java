@@ -12,6 +12,8 @@ public class DeclaracionFuncion extends Sentencia {
     private final String nombre;
     private final List<Parametro> parametros;
     private final BloqueSentencias cuerpo;
+    private int tamanoMarco = -1;
+    private boolean pura;
 
     public DeclaracionFuncion(Tipo tipoRetorno, String nombre, List<Parametro> parametros, BloqueSentencias cuerpo, int line, int column) {
         super(line, column);
@@ -37,6 +39,26 @@ public class DeclaracionFuncion extends Sentencia {
         return cuerpo;
     }
 
+    public int getTamanoMarco() {
+        return tamanoMarco;
+    }
+
+    public void setTamanoMarco(int tamanoMarco) {
+        this.tamanoMarco = tamanoMarco;
+    }
+
+    /**
+     * Sin println, sin escrituras ni lecturas de globales, sin append/remove y con
+     * parámetros primitivos (se puede memoizar); la marca VisitanteSemantico.
+     */
+    public boolean isPura() {
+        return pura;
+    }
+
+    public void setPura(boolean pura) {
+        this.pura = pura;
+    }
+
     @Override
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
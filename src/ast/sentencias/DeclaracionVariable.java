@@ -8,6 +8,7 @@ public class DeclaracionVariable extends Sentencia {
     private final String identificador;
     private final Tipo tipo;
     private final Expresion expresionInicial;
+    private int slot = -1;
 
     public DeclaracionVariable(String identificador, Tipo tipo, Expresion expresionInicial, int line, int column) {
         super(line, column);
@@ -28,6 +29,14 @@ public class DeclaracionVariable extends Sentencia {
         return expresionInicial;
     }
 
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     @Override
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
@@ -0,0 +1,39 @@
+package bench;
+
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+
+/**
+ * Programa con mucho acceso indexado a vectores y matrices (lectura, escritura
+ * y ++ sobre elementos). Compara el intérprete por visitante con el árbol de
+ * clausuras; solo se imprime una suma de verificación.
+ *
+ * Uso: java -cp out bench.BenchAccesoIndexado [repeticiones]
+ */
+public final class BenchAccesoIndexado {
+
+    private static final String PROGRAMA = String.join("\n",
+            "void main() {",
+            "    var v : int[] = [0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0];",
+            "    var m : int[][] = [[1, 2, 3, 4], [5, 6, 7, 8], [9, 10, 11, 12], [13, 14, 15, 16]];",
+            "    var suma : int = 0;",
+            "    for (var r : int = 0; r < 40000; r++) {",
+            "        for (var i : int = 0; i < 16; i++) {",
+            "            v[i] = v[i] + m[i % 4][(i + r) % 4];",
+            "            v[i]++;",
+            "            suma = suma + v[i] % 13;",
+            "        }",
+            "        m[r % 4][(r + 1) % 4] = m[r % 4][(r + 1) % 4] + 1;",
+            "    }",
+            "    println(suma);",
+            "}",
+            "start main();");
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        for (ModoEjecucion modo : new ModoEjecucion[]{ModoEjecucion.INTERPRETE, ModoEjecucion.CLAUSURAS}) {
+            double ms = Medicion.medianaMs(() -> Ejecutor.ejecutar(PROGRAMA, null, modo), 2, repeticiones);
+            Medicion.reportar("acceso indexado " + modo, ms);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import interpreter.Consola;
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+import interpreter.Presupuesto;
+import interpreter.SesionEjecucion;
+
+/**
+ * Ciclo de asignaciones simples a variables locales, con una declaración en
+ * el cuerpo: cada escritura también actualiza la fila del reporte de la tabla
+ * de símbolos. El análisis sale de la caché desde la segunda corrida.
+ *
+ * Uso: java -cp out bench.BenchAsignacion [iteraciones] [repeticiones]
+ */
+public final class BenchAsignacion {
+
+    private static final Consola SILENCIO = new Consola() {
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public void appendLine(String linea) {
+        }
+    };
+
+    public static void main(String[] args) {
+        int iteraciones = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 11;
+        String fuente = String.join("\n",
+                "void main() {",
+                "    var suma : int = 0;",
+                "    var contadorLargo : int = 0;",
+                "    while (contadorLargo < " + iteraciones + ") {",
+                "        var paso : int = contadorLargo % 3;",
+                "        suma = suma + paso;",
+                "        contadorLargo = contadorLargo + 1;",
+                "    }",
+                "    println(suma);",
+                "}",
+                "start main();");
+
+        ModoEjecucion[] modos = {ModoEjecucion.INTERPRETE, ModoEjecucion.CLAUSURAS, ModoEjecucion.PILA};
+        for (ModoEjecucion modo : modos) {
+            double ms = Medicion.medianaMs(() -> Ejecutor.ejecutar(fuente,
+                    new SesionEjecucion(SILENCIO, modo, Presupuesto.SIN_LIMITE, null)), 3, repeticiones);
+            Medicion.reportar("asignaciones " + modo, ms);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import interpreter.CacheAnalisis;
+import interpreter.Consola;
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+import interpreter.Presupuesto;
+import interpreter.SesionEjecucion;
+
+/**
+ * Re-ejecución del mismo programa: uno grande que casi no ejecuta (domina el
+ * análisis) y uno corto, sin reportes. Con y sin caché en JVMs separadas:
+ *
+ * Uso: java -cp out bench.BenchCacheAnalisis [repeticiones]
+ *      java -Djavausac.cache.analisis=0 -cp out bench.BenchCacheAnalisis
+ */
+public final class BenchCacheAnalisis {
+
+    private static final String CORTO = String.join("\n",
+            "int fib(int n) {",
+            "    if (n < 2) { return n; }",
+            "    return fib(n - 1) + fib(n - 2);",
+            "}",
+            "void main() {",
+            "    var s : int = 0;",
+            "    for (var i : int = 0; i < 200; i++) {",
+            "        s = s + i % 7;",
+            "    }",
+            "    println(s + fib(15));",
+            "}",
+            "start main();");
+
+    // La salida no interesa; solo que no vaya a stdout
+    private static final Consola SILENCIO = new Consola() {
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public void appendLine(String linea) {
+        }
+    };
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 21;
+        String grande = grande(300);
+        String[][] programas = {{"grande", grande}, {"corto", CORTO}};
+        for (String[] p : programas) {
+            for (ModoEjecucion modo : new ModoEjecucion[]{ModoEjecucion.INTERPRETE, ModoEjecucion.PILA}) {
+                double ms = Medicion.medianaMs(() -> Ejecutor.ejecutar(p[1],
+                        new SesionEjecucion(SILENCIO, modo, Presupuesto.SIN_LIMITE, null)), 5, repeticiones);
+                Medicion.reportar(p[0] + " " + modo, ms);
+            }
+        }
+        CacheAnalisis cache = Ejecutor.getCacheAnalisis();
+        System.out.println("aciertos=" + cache.getAciertos() + " fallos=" + cache.getFallos()
+                + " peso=" + cache.getPeso() + "/" + cache.getCapacidad());
+    }
+
+    // n funciones de unas cuantas sentencias; main solo llama a la primera
+    private static String grande(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            sb.append("int f").append(i).append("(int x) {\n")
+              .append("    var a : int = x * 2 + ").append(i).append(";\n")
+              .append("    var b : double = a / 3.0;\n")
+              .append("    if (a > 10) { a = a - 1; } else { a = a + 1; }\n")
+              .append("    while (a > 100) { a = a - 50; }\n")
+              .append("    return a + (int) b;\n")
+              .append("}\n");
+        }
+        sb.append("void main() {\n    println(f0(5));\n}\nstart main();\n");
+        return sb.toString();
+    }
+}
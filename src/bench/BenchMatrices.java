@@ -0,0 +1,85 @@
+package bench;
+
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+import interpreter.estructuras.Matrices;
+
+import java.util.function.BiFunction;
+
+/**
+ * Multiplicación de matrices y Floyd–Warshall sobre int[][] y double[][].
+ * Cada layout se mide en su propia JVM para que el JIT no mezcle los perfiles:
+ *
+ * Uso: java -cp out bench.BenchMatrices [repeticiones]            (matriz plana)
+ *      java -Djavausac.matriz.plana=false -cp out bench.BenchMatrices  (lista de filas)
+ */
+public final class BenchMatrices {
+
+    private static final int N = 24;
+
+    private static final String MULTIPLICACION = String.join("\n",
+            "void main() {",
+            "    var a : double[][] = " + literal(N, (i, j) -> (i + j) % 7 + 0.5) + ";",
+            "    var b : double[][] = " + literal(N, (i, j) -> (i * j) % 5 + 0.25) + ";",
+            "    var c : double[][] = " + literal(N, (i, j) -> 0.0) + ";",
+            "    for (var r : int = 0; r < 20; r++) {",
+            "        for (var i : int = 0; i < " + N + "; i++) {",
+            "            for (var j : int = 0; j < " + N + "; j++) {",
+            "                var s : double = 0.0;",
+            "                for (var k : int = 0; k < " + N + "; k++) {",
+            "                    s = s + a[i][k] * b[k][j];",
+            "                }",
+            "                c[i][j] = s;",
+            "            }",
+            "        }",
+            "        a[r][r] = c[r][(r + 1) % " + N + "] / 1000.0;",
+            "    }",
+            "    println(c[3][5] + c[" + (N - 1) + "][0]);",
+            "}",
+            "start main();");
+
+    private static final String FLOYD_WARSHALL = String.join("\n",
+            "void main() {",
+            "    var d : int[][] = " + literal(N, (i, j) -> i == j ? 0 : (i * 7 + j * 3) % 11 + 1) + ";",
+            "    for (var r : int = 0; r < 16; r++) {",
+            "        for (var k : int = 0; k < " + N + "; k++) {",
+            "            for (var i : int = 0; i < " + N + "; i++) {",
+            "                for (var j : int = 0; j < " + N + "; j++) {",
+            "                    if (d[i][k] + d[k][j] < d[i][j]) {",
+            "                        d[i][j] = d[i][k] + d[k][j];",
+            "                    }",
+            "                }",
+            "            }",
+            "        }",
+            "        d[r][(r + 2) % " + N + "] = d[r][(r + 2) % " + N + "] + 5;",
+            "    }",
+            "    println(d[0][" + (N - 1) + "] + d[" + (N - 1) + "][0]);",
+            "}",
+            "start main();");
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String layout = Matrices.esPlana() ? "plana" : "filas";
+        String[][] programas = {{"multiplicacion", MULTIPLICACION}, {"floyd-warshall", FLOYD_WARSHALL}};
+        for (String[] p : programas) {
+            for (ModoEjecucion modo : new ModoEjecucion[]{ModoEjecucion.INTERPRETE, ModoEjecucion.CLAUSURAS}) {
+                double ms = Medicion.medianaMs(() -> Ejecutor.ejecutar(p[1], null, modo), 3, repeticiones);
+                Medicion.reportar(p[0] + " " + modo + " " + layout, ms);
+            }
+        }
+    }
+
+    // Literal n x n; la celda se calcula aquí porque JavaUSAC no tiene new int[n][n]
+    private static String literal(int n, BiFunction<Integer, Integer, Object> celda) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            sb.append(i == 0 ? "[" : ", [");
+            for (int j = 0; j < n; j++) {
+                if (j > 0) sb.append(", ");
+                sb.append(celda.apply(i, j));
+            }
+            sb.append(']');
+        }
+        return sb.append(']').toString();
+    }
+}
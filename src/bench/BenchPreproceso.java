@@ -0,0 +1,67 @@
+package bench;
+
+import java_cup.runtime.Symbol;
+import lexer.FiltroPreproceso;
+import lexer.Lexer;
+import parser.sym;
+import reports.TablaErrores;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Preproceso y léxico de un fuente de varios MB hasta EOF, sin parser: es el
+ * tramo en que el texto se lee. Reporta la mediana y lo que se asigna por corrida.
+ *
+ * Uso: java -cp out bench.BenchPreproceso [funciones] [repeticiones]
+ */
+public final class BenchPreproceso {
+
+    public static void main(String[] args) {
+        int funciones = args.length > 0 ? Integer.parseInt(args[0]) : 12000;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 11;
+        String fuente = fuente(funciones);
+        System.out.printf("fuente: %d líneas, %.1f MB%n", funciones * 8 + 4, fuente.length() / 1e6);
+
+        Runnable tarea = () -> tokens(fuente);
+        Medicion.reportar("preproceso + lexico", Medicion.medianaMs(tarea, 3, repeticiones));
+
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long antes = hilos.getCurrentThreadAllocatedBytes();
+        int n = tokens(fuente);
+        long asignado = hilos.getCurrentThreadAllocatedBytes() - antes;
+        System.out.printf("%-32s %10.1f MB (%d tokens)%n", "asignado por corrida", asignado / 1e6, n);
+    }
+
+    private static int tokens(String fuente) {
+        TablaErrores tablaErrores = new TablaErrores();
+        try {
+            Lexer lexer = new Lexer(new FiltroPreproceso(new StringReader(fuente), 0, tablaErrores));
+            lexer.setTablaErrores(tablaErrores);
+            int n = 0;
+            for (Symbol s = lexer.next_token(); s.sym != sym.EOF; s = lexer.next_token()) {
+                n++;
+            }
+            return n;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Líneas con strings, println y comentarios, que es lo que mira el preproceso
+    private static String fuente(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            sb.append("int f").append(i).append("(int x) {\n")
+              .append("    // suma y compara; \"(\" no cuenta\n")
+              .append("    var a : int = x * 2 + ").append(i).append(";\n")
+              .append("    var s : string = \"valor (\" + a + \");\";\n")
+              .append("    if (a > 10) { a = a - 1; } else { a = a + 1; }\n")
+              .append("    if (a < 0) { println(\"negativo: \" + s); }\n")
+              .append("    return a;\n")
+              .append("}\n");
+        }
+        sb.append("void main() {\n    println(f0(5));\n}\nstart main();\n");
+        return sb.toString();
+    }
+}
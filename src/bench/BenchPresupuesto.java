@@ -0,0 +1,62 @@
+package bench;
+
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+import interpreter.Presupuesto;
+
+/**
+ * Costo de los puntos de control del Presupuesto en ciclos y llamadas. Los
+ * límites se fijan por JVM para que el JIT no mezcle perfiles; contra el build
+ * anterior a los puntos de control se mide con el mismo comando:
+ *
+ * Uso: java -cp out bench.BenchPresupuesto [repeticiones]                  (sin límite)
+ *      java -Djavausac.limite.sentencias=1000000000 -Djavausac.limite.iteraciones=1000000000
+ *           -Djavausac.limite.ms=600000 -cp out bench.BenchPresupuesto     (con límites)
+ */
+public final class BenchPresupuesto {
+
+    private static final String CICLOS = String.join("\n",
+            "void main() {",
+            "    var s : int = 0;",
+            "    for (var i : int = 0; i < 600; i++) {",
+            "        var j : int = 0;",
+            "        while (j < 1000) {",
+            "            s = (s + i * j) % 1000003;",
+            "            j++;",
+            "        }",
+            "    }",
+            "    println(s);",
+            "}",
+            "start main();");
+
+    // El println inalcanzable evita que f se memoice
+    private static final String LLAMADAS = String.join("\n",
+            "int f(int n) {",
+            "    if (n < 2) {",
+            "        if (n < -5) {",
+            "            println(n);",
+            "        }",
+            "        return n;",
+            "    }",
+            "    return f(n - 1) + f(n - 2);",
+            "}",
+            "void main() {",
+            "    println(f(24));",
+            "}",
+            "start main();");
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Presupuesto p = Presupuesto.POR_DEFECTO;
+        String limites = p.getMaxSentencias() > 0 || p.getMaxIteraciones() > 0 || p.getMaxMilis() > 0
+                ? "con-limites" : "sin-limite";
+        String[][] programas = {{"ciclos", CICLOS}, {"llamadas", LLAMADAS}};
+        ModoEjecucion[] modos = {ModoEjecucion.INTERPRETE, ModoEjecucion.CLAUSURAS, ModoEjecucion.PILA, ModoEjecucion.BYTECODE};
+        for (String[] prog : programas) {
+            for (ModoEjecucion modo : modos) {
+                double ms = Medicion.medianaMs(() -> Ejecutor.ejecutar(prog[1], null, modo), 3, repeticiones);
+                Medicion.reportar(prog[0] + " " + modo + " " + limites, ms);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package bench;
+
+import semantic.CategoriaSimbolo;
+import semantic.Simbolo;
+import semantic.TablaSimbolos;
+import semantic.Tipo;
+
+/**
+ * Tabla con muchos símbolos: se llena, se busca cada identificador por nombre
+ * (como al ubicar declaraciones) y se pide la lista varias veces (como los
+ * reportes).
+ *
+ * Uso: java -cp out bench.BenchTablaSimbolos [simbolos] [repeticiones]
+ */
+public final class BenchTablaSimbolos {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 11;
+
+        Runnable tarea = () -> {
+            TablaSimbolos tabla = new TablaSimbolos();
+            for (int i = 0; i < n; i++) {
+                Simbolo s = new Simbolo("v" + i, Tipo.INT, CategoriaSimbolo.VARIABLE, i + 1, 5);
+                s.setAmbito("f" + (i / 10));
+                tabla.agregarSimbolo(s);
+            }
+            for (int i = 0; i < n; i++) {
+                if (tabla.buscar("V" + i) == null) throw new IllegalStateException("v" + i);
+            }
+            int total = 0;
+            for (int i = 0; i < 100; i++) {
+                total += tabla.getSimbolos().size();
+            }
+            if (total != 100 * n) throw new IllegalStateException();
+        };
+        Medicion.reportar("tabla de " + n + " símbolos", Medicion.medianaMs(tarea, 3, repeticiones));
+    }
+}
@@ -0,0 +1,62 @@
+package bench;
+
+import interpreter.Consola;
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+import interpreter.Presupuesto;
+import interpreter.SesionEjecucion;
+
+/**
+ * Programa de ~20k líneas en que main llama a cada función una vez, así la
+ * tabla de ejecución queda con todas las funciones, parámetros y variables.
+ * El análisis sale de la caché desde la segunda corrida: lo medido es la
+ * ejecución y el armado de la tabla de símbolos.
+ *
+ * Uso: java -cp out bench.BenchUbicaciones [funciones] [repeticiones]
+ */
+public final class BenchUbicaciones {
+
+    private static final Consola SILENCIO = new Consola() {
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public void appendLine(String linea) {
+        }
+    };
+
+    public static void main(String[] args) {
+        int funciones = args.length > 0 ? Integer.parseInt(args[0]) : 2500;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 11;
+        String fuente = fuente(funciones);
+        System.out.printf("fuente: %d líneas%n", fuente.split("\n", -1).length - 1);
+
+        for (ModoEjecucion modo : new ModoEjecucion[]{ModoEjecucion.INTERPRETE, ModoEjecucion.PILA}) {
+            double ms = Medicion.medianaMs(() -> Ejecutor.ejecutar(fuente,
+                    new SesionEjecucion(SILENCIO, modo, Presupuesto.SIN_LIMITE, null)), 3, repeticiones);
+            Medicion.reportar("ejecución " + modo, ms);
+        }
+    }
+
+    private static String fuente(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            sb.append("var g").append(i).append(" : int = ").append(i).append(";\n");
+        }
+        for (int i = 0; i < n; i++) {
+            sb.append("int f").append(i).append("(int x, double y) {\n")
+              .append("    var a : int = x * 2 + g").append(i).append(";\n")
+              .append("    var b : double = a / y;\n")
+              .append("    if (a > 10) { a = a - 1; } else { a = a + 1; }\n")
+              .append("    return a + (int) b;\n")
+              .append("}\n");
+        }
+        sb.append("void main() {\n    var s : int = 0;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("    s = s + f").append(i).append("(").append(i).append(", 2.0);\n");
+        }
+        sb.append("    println(s);\n}\nstart main();\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package bench;
+
+import java.util.Arrays;
+
+/**
+ * Utilidad mínima para las mediciones de bench: corre la tarea unas veces de
+ * calentamiento y reporta la mediana de las repeticiones en milisegundos.
+ */
+public final class Medicion {
+
+    private Medicion() {
+    }
+
+    public static double medianaMs(Runnable tarea, int calentamiento, int repeticiones) {
+        for (int i = 0; i < calentamiento; i++) {
+            tarea.run();
+        }
+        double[] tiempos = new double[repeticiones];
+        for (int i = 0; i < repeticiones; i++) {
+            long t0 = System.nanoTime();
+            tarea.run();
+            tiempos[i] = (System.nanoTime() - t0) / 1_000_000.0;
+        }
+        Arrays.sort(tiempos);
+        return tiempos[repeticiones / 2];
+    }
+
+    public static void reportar(String nombre, double ms) {
+        System.out.printf("%-32s %10.1f ms%n", nombre, ms);
+    }
+}
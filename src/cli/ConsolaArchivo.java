@@ -0,0 +1,64 @@
+package cli;
+
+import interpreter.Consola;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Consola de un programa en modo por lotes: println va a {@code salida} y los
+ * mensajes de Ejecutor (errores, AST) a {@code errores}. Si falla la escritura
+ * se guarda el primer error y el resto de la corrida sigue sin escribir.
+ */
+final class ConsolaArchivo implements Consola, AutoCloseable {
+
+    private final BufferedWriter salida;
+    private final BufferedWriter errores;
+    private IOException fallo;
+
+    ConsolaArchivo(Path salida, Path errores) throws IOException {
+        Files.createDirectories(salida.toAbsolutePath().getParent());
+        this.salida = Files.newBufferedWriter(salida, StandardCharsets.UTF_8);
+        this.errores = Files.newBufferedWriter(errores, StandardCharsets.UTF_8);
+    }
+
+    IOException getFallo() {
+        return fallo;
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void appendLine(String texto) {
+        escribir(salida, texto);
+    }
+
+    @Override
+    public void appendDiagnostico(String texto) {
+        escribir(errores, texto);
+    }
+
+    private void escribir(BufferedWriter w, String texto) {
+        if (fallo != null) return;
+        try {
+            w.write(texto);
+            w.newLine();
+        } catch (IOException e) {
+            fallo = e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            salida.close();
+        } finally {
+            errores.close();
+        }
+    }
+}
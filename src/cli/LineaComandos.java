@@ -0,0 +1,259 @@
+package cli;
+
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+import interpreter.Presupuesto;
+import interpreter.SesionEjecucion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ejecución sin interfaz para scripts y CI. Corre cada programa .ju/.jc de los
+ * archivos y directorios indicados por el pipeline completo de Ejecutor, varios
+ * a la vez, y deja por programa {@code nombre.out} (println) y
+ * {@code nombre.err} (errores y mensajes). Al final imprime un resumen con el
+ * tiempo de cada programa.
+ *
+ * Uso: java Main [opciones] archivo|directorio...
+ *   -o, --salida DIR   directorio de resultados (por defecto ./salida)
+ *   -j, --hilos N      programas en paralelo (por defecto, los núcleos)
+ *   -m, --modo MODO    INTERPRETE, BYTECODE, ESPECIALIZADO, CLAUSURAS o PILA
+ *   --ast              genera también el reporte AST de cada programa
+ * Los límites de ejecución se toman de -Djavausac.limite.* (ver Presupuesto).
+ *
+ * Código de salida: 0 sin errores, 1 si algún programa tuvo errores, 2 si los
+ * argumentos no son válidos.
+ */
+public final class LineaComandos {
+
+    // Pila de cada hilo de trabajo: el intérprete recursivo la usa en cada llamada de JavaUSAC
+    private static final long PILA_HILO = Long.getLong("javausac.cli.pila", 64L << 20);
+
+    private static final class Resultado {
+        final Path programa;
+        final Path base;
+        long nanos;
+        int errores;
+        String fallo;
+
+        Resultado(Path programa, Path base) {
+            this.programa = programa;
+            this.base = base;
+        }
+    }
+
+    private Path salida = Paths.get("salida");
+    private int hilos = Runtime.getRuntime().availableProcessors();
+    private ModoEjecucion modo = ModoEjecucion.INTERPRETE;
+    private boolean ast;
+    private final List<Path> entradas = new ArrayList<>();
+
+    private LineaComandos() {
+    }
+
+    public static int ejecutar(String[] args) {
+        LineaComandos cli = new LineaComandos();
+        String problema = cli.leerArgumentos(args);
+        if (problema != null) {
+            System.err.println(problema);
+            System.err.println("Uso: java Main [-o DIR] [-j N] [-m MODO] [--ast] archivo|directorio...");
+            return 2;
+        }
+        List<Resultado> programas;
+        try {
+            programas = cli.buscarProgramas();
+        } catch (IOException e) {
+            System.err.println("No se pudo recorrer la entrada: " + e.getMessage());
+            return 2;
+        }
+        if (programas.isEmpty()) {
+            System.err.println("No se encontraron programas .ju/.jc");
+            return 2;
+        }
+        return cli.correr(programas);
+    }
+
+    private String leerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            switch (a) {
+                case "-o":
+                case "--salida":
+                    if (++i == args.length) return "Falta el directorio después de " + a;
+                    salida = Paths.get(args[i]);
+                    break;
+                case "-j":
+                case "--hilos":
+                    if (++i == args.length) return "Falta el número de hilos después de " + a;
+                    try {
+                        hilos = Integer.parseInt(args[i]);
+                    } catch (NumberFormatException e) {
+                        return "Número de hilos inválido: " + args[i];
+                    }
+                    if (hilos < 1) return "Número de hilos inválido: " + args[i];
+                    break;
+                case "-m":
+                case "--modo":
+                    if (++i == args.length) return "Falta el modo después de " + a;
+                    try {
+                        modo = ModoEjecucion.valueOf(args[i].toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        return "Modo desconocido: " + args[i];
+                    }
+                    break;
+                case "--ast":
+                    ast = true;
+                    break;
+                default:
+                    if (a.startsWith("-")) return "Opción desconocida: " + a;
+                    entradas.add(Paths.get(a));
+            }
+        }
+        return entradas.isEmpty() ? "No se indicó ningún archivo o directorio" : null;
+    }
+
+    // Un directorio conserva su estructura bajo salida/<nombre>; un archivo suelto va directo en salida
+    private List<Resultado> buscarProgramas() throws IOException {
+        List<Resultado> out = new ArrayList<>();
+        Set<Path> usadas = new HashSet<>();
+        for (Path entrada : entradas) {
+            if (Files.isDirectory(entrada)) {
+                Path raiz = entrada.toAbsolutePath().normalize();
+                Path destino = raiz.getFileName() == null ? salida : salida.resolve(raiz.getFileName());
+                List<Path> archivos;
+                try (Stream<Path> recorrido = Files.walk(raiz)) {
+                    archivos = recorrido.filter(p -> Files.isRegularFile(p) && esPrograma(p))
+                            .sorted()
+                            .collect(Collectors.toList());
+                }
+                for (Path p : archivos) {
+                    out.add(new Resultado(p, unica(destino.resolve(sinExtension(raiz.relativize(p))), usadas)));
+                }
+            } else if (Files.isRegularFile(entrada)) {
+                out.add(new Resultado(entrada, unica(salida.resolve(sinExtension(entrada.getFileName())), usadas)));
+            } else {
+                throw new IOException("no existe " + entrada);
+            }
+        }
+        return out;
+    }
+
+    private int correr(List<Resultado> programas) {
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(hilos, programas.size()), r -> {
+            Thread t = new Thread(null, r, "javausac-lote-" + contador.incrementAndGet(), PILA_HILO);
+            t.setDaemon(true);
+            return t;
+        });
+        long inicio = System.nanoTime();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (Resultado r : programas) {
+            tareas.add(pool.submit(() -> correrUno(r)));
+        }
+        for (int i = 0; i < tareas.size(); i++) {
+            try {
+                tareas.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pool.shutdownNow();
+                return 2;
+            } catch (ExecutionException e) {
+                Resultado r = programas.get(i);
+                r.fallo = String.valueOf(e.getCause());
+            }
+        }
+        long total = System.nanoTime() - inicio;
+        pool.shutdown();
+        return resumen(programas, total);
+    }
+
+    private void correrUno(Resultado r) {
+        String codigo;
+        try {
+            codigo = new String(Files.readAllBytes(r.programa), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            r.fallo = "no se pudo leer: " + e.getMessage();
+            return;
+        }
+        Path base = r.base;
+        Path reportes = ast ? base.resolveSibling(base.getFileName() + ".reportes") : null;
+        try (ConsolaArchivo consola = new ConsolaArchivo(conSufijo(base, ".out"), conSufijo(base, ".err"))) {
+            SesionEjecucion sesion = new SesionEjecucion(consola, modo, Presupuesto.POR_DEFECTO, reportes);
+            long t0 = System.nanoTime();
+            Ejecutor.ejecutar(codigo, sesion);
+            r.nanos = System.nanoTime() - t0;
+            r.errores = sesion.getTablaErrores().getErrores().size();
+            if (consola.getFallo() != null) {
+                r.fallo = "no se pudo escribir la salida: " + consola.getFallo().getMessage();
+            }
+        } catch (IOException e) {
+            r.fallo = "no se pudo escribir la salida: " + e.getMessage();
+        }
+    }
+
+    private int resumen(List<Resultado> programas, long totalNanos) {
+        int conErrores = 0;
+        int fallidos = 0;
+        long suma = 0;
+        for (Resultado r : programas) {
+            suma += r.nanos;
+            String estado;
+            if (r.fallo != null) {
+                estado = "FALLO";
+                fallidos++;
+            } else if (r.errores > 0) {
+                estado = "ERRORES";
+                conErrores++;
+            } else {
+                estado = "OK";
+            }
+            String detalle = r.fallo != null ? "  " + r.fallo : r.errores > 0 ? "  (" + r.errores + ")" : "";
+            System.out.printf(Locale.ROOT, "%-8s %10.1f ms  %s%s%n", estado, r.nanos / 1e6, r.programa, detalle);
+        }
+        System.out.printf(Locale.ROOT, "%d programas: %d sin errores, %d con errores, %d fallidos%n",
+                programas.size(), programas.size() - conErrores - fallidos, conErrores, fallidos);
+        System.out.printf(Locale.ROOT, "tiempo total %.1f ms (suma por programa %.1f ms) con %d hilos, modo %s; resultados en %s%n",
+                totalNanos / 1e6, suma / 1e6, Math.min(hilos, programas.size()), modo, salida.toAbsolutePath());
+        return conErrores + fallidos > 0 ? 1 : 0;
+    }
+
+    private static boolean esPrograma(Path p) {
+        String nombre = p.getFileName().toString().toLowerCase(Locale.ROOT);
+        return nombre.endsWith(".ju") || nombre.endsWith(".jc");
+    }
+
+    private static Path sinExtension(Path p) {
+        String nombre = p.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        return p.resolveSibling(punto > 0 ? nombre.substring(0, punto) : nombre);
+    }
+
+    private static Path conSufijo(Path base, String sufijo) {
+        return base.resolveSibling(base.getFileName() + sufijo);
+    }
+
+    // a.ju y a.jc en el mismo directorio, o dos archivos sueltos con el mismo nombre
+    private static Path unica(Path base, Set<Path> usadas) {
+        Path candidata = base;
+        for (int n = 2; !usadas.add(candidata.toAbsolutePath().normalize()); n++) {
+            candidata = base.resolveSibling(base.getFileName() + "_" + n);
+        }
+        return candidata;
+    }
+}
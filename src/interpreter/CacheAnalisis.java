@@ -0,0 +1,119 @@
+package interpreter;
+
+import ast.Programa;
+import reports.ErrorInfo;
+import semantic.TablaSimbolos;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado del análisis de un código (preprocesado, léxico, sintáctico,
+ * semántico, optimización y resolución a slots) indexado por el SHA-256 del
+ * texto, para que volver a correr el mismo programa vaya directo a la
+ * ejecución. LRU acotada por el tamaño de lo guardado (caracteres del código y
+ * del DOT del AST), no por cantidad de entradas.
+ *
+ * El Programa guardado es el que se ejecuta y se comparte entre corridas: los
+ * motores solo le escriben cachés idempotentes (constantes de literales,
+ * especialización de sitios).
+ */
+public final class CacheAnalisis {
+
+    // -Djavausac.cache.analisis=0 la desactiva
+    public static final long CAPACIDAD_POR_DEFECTO = Long.getLong("javausac.cache.analisis", 1_000_000);
+
+    static final class Entrada {
+        // null si el análisis dejó errores
+        final Programa programa;
+        final TablaSimbolos tablaSemantica;
+        // En el orden en que se registraron
+        final List<ErrorInfo> errores;
+        // null si la corrida que la creó no generaba reporte AST
+        final String dot;
+        final long peso;
+
+        Entrada(Programa programa, TablaSimbolos tablaSemantica, List<ErrorInfo> errores, String dot, long peso) {
+            this.programa = programa;
+            this.tablaSemantica = tablaSemantica;
+            this.errores = errores;
+            this.dot = dot;
+            this.peso = peso;
+        }
+    }
+
+    private final long capacidad;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long peso;
+    private long aciertos;
+    private long fallos;
+
+    public CacheAnalisis(long capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    /** SHA-256 del código en hexadecimal. */
+    static String clave(String codigo) {
+        try {
+            byte[] h = MessageDigest.getInstance("SHA-256").digest(codigo.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(h.length * 2);
+            for (byte b : h) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    synchronized Entrada buscar(String clave) {
+        Entrada e = entradas.get(clave);
+        if (e == null) fallos++;
+        else aciertos++;
+        return e;
+    }
+
+    synchronized void guardar(String clave, Entrada e) {
+        if (e.peso > capacidad) return;
+        Entrada previa = entradas.put(clave, e);
+        if (previa != null) peso -= previa.peso;
+        peso += e.peso;
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (peso > capacidad && it.hasNext()) {
+            Entrada vieja = it.next().getValue();
+            it.remove();
+            peso -= vieja.peso;
+        }
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+        peso = 0;
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized int getEntradas() {
+        return entradas.size();
+    }
+
+    /** Caracteres ocupados, contra getCapacidad(). */
+    public synchronized long getPeso() {
+        return peso;
+    }
+
+    public long getCapacidad() {
+        return capacidad;
+    }
+}
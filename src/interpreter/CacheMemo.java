@@ -0,0 +1,67 @@
+package interpreter;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import semantic.Tipo;
+
+/**
+ * Resultados de una función pura indexados por sus argumentos primitivos.
+ * Acotada: al llenarse descarta la entrada usada hace más tiempo (LRU).
+ */
+public final class CacheMemo {
+
+    // -Djavausac.memo.capacidad=0 desactiva la memoización
+    public static final int CAPACIDAD_POR_DEFECTO = Integer.getInteger("javausac.memo.capacidad", 4096);
+
+    private final LinkedHashMap<List<Object>, Valor> entradas;
+    private long aciertos;
+    private long fallos;
+
+    public CacheMemo(int capacidad) {
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Valor> mayor) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    public CacheMemo() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /** Clave de la llamada, o null si algún argumento no es primitivo (vector, matriz, lista). */
+    public static List<Object> clave(Valor[] args) {
+        Object[] k = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            if (!esPrimitivo(args[i].getEtiqueta())) return null;
+            k[i] = args[i].getValor();
+        }
+        return Arrays.asList(k);
+    }
+
+    public static boolean esPrimitivo(Tipo t) {
+        return t == Tipo.INT || t == Tipo.DOUBLE || t == Tipo.BOOL || t == Tipo.CHAR || t == Tipo.STRING;
+    }
+
+    public Valor buscar(List<Object> clave) {
+        Valor v = entradas.get(clave);
+        if (v == null) fallos++;
+        else aciertos++;
+        return v;
+    }
+
+    public void guardar(List<Object> clave, Valor v) {
+        entradas.put(clave, v);
+    }
+
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    public long getFallos() {
+        return fallos;
+    }
+}
@@ -0,0 +1,18 @@
+package interpreter;
+
+/**
+ * Destino de la salida de una corrida: lo que imprime el programa (println) y
+ * los mensajes de Ejecutor (errores, reporte AST). En la interfaz es
+ * ConsolePanel; en la línea de comandos, archivos por programa.
+ */
+public interface Consola {
+
+    void clear();
+
+    void appendLine(String texto);
+
+    /** Mensajes de Ejecutor; por defecto van junto con la salida del programa. */
+    default void appendDiagnostico(String texto) {
+        appendLine(texto);
+    }
+}
@@ -4,37 +4,55 @@ import semantic.Simbolo;
 import semantic.TablaSimbolos;
 import semantic.Tipo;
 import semantic.CategoriaSimbolo;
-import ui.ConsolePanel;
 
 import java.util.*;
 import ast.sentencias.DeclaracionFuncion; 
 
 public class ContextoEjecucion {
-    private final ConsolePanel consola;
+    private final Consola consola;
 
     private final TablaSimbolos tablaSimbolos;
 
     private final Deque<Map<String, Simbolo>> pilaEntornos;
     private final Deque<String> pilaAmbitos;
 
-    private final Map<String, Simbolo> indiceReporte;
+    // Marcos por slots (ver semantic.VisitanteResolucion)
+    private boolean usaSlots;
+    private Simbolo[] marcoGlobal;
+    private Simbolo[] marcoActual;
+    private final Deque<Simbolo[]> pilaMarcos;
+
     private final List<String> errores;
 
     private int cicloDepth;
     private int switchDepth;
 
+    // Contadores contra el Presupuesto; sin límite el máximo es Long.MAX_VALUE
+    private static final int REVISION = 1024;
+    private Presupuesto presupuesto = Presupuesto.SIN_LIMITE;
+    private long maxSentencias = Long.MAX_VALUE;
+    private long maxIteraciones = Long.MAX_VALUE;
+    private long sentencias;
+    private long iteraciones;
+    private long inicioNanos = System.nanoTime();
+    private int hastaRevision = REVISION;
+    // Declaración de la última función en la que se entró: ubica un desbordamiento de pila
+    private int lineaLlamada;
+    private int columnaLlamada;
+
     private boolean debeBreakCiclo;
     private boolean debeBreakSwitch;
     private boolean debeContinue;
 
 
     private final Map<String, DeclaracionFuncion> funciones = new HashMap<>();
+    private final Map<DeclaracionFuncion, CacheMemo> memos = new IdentityHashMap<>();
 
     private boolean debeReturn;
     private Valor valorReturn;
 
     private boolean returnActivo = false;
-    private Valor valorRetorno = new Valor(null, "void");
+    private Valor valorRetorno = Valor.VOID;
 
     public static class ControlSnapshot {
         final int cicloDepth;
@@ -58,14 +76,14 @@ public class ContextoEjecucion {
         }
     }
 
-    public ContextoEjecucion(ConsolePanel consola) {
+    public ContextoEjecucion(Consola consola) {
         this.consola = consola;
         this.tablaSimbolos = new TablaSimbolos();
         this.errores = new ArrayList<>();
 
         this.pilaEntornos = new ArrayDeque<>();
         this.pilaAmbitos = new ArrayDeque<>();
-        this.indiceReporte = new HashMap<>();
+        this.pilaMarcos = new ArrayDeque<>();
 
         // Global
         this.pilaEntornos.push(new HashMap<>());
@@ -95,11 +113,12 @@ public class ContextoEjecucion {
     }
 
     public void pushBloque() {
+        if (usaSlots) return;
         pilaEntornos.push(new HashMap<>());
     }
 
     public void popBloque() {
-        if (pilaEntornos.size() > 1) {
+        if (!usaSlots && pilaEntornos.size() > 1) {
             pilaEntornos.pop();
         }
     }
@@ -131,10 +150,6 @@ public class ContextoEjecucion {
         return id == null ? "" : id.toLowerCase();
     }
 
-private String claveReporte(String id, String ambito, CategoriaSimbolo categoria) {
-    return normId(id) + "|" + normId(ambito) + "|" + categoria;
-}
-
 private Simbolo declararSimbolo(String id, Tipo tipo, CategoriaSimbolo categoria, int line, int column) {
     String k = normId(id);
     Map<String, Simbolo> actual = pilaEntornos.peek();
@@ -144,23 +159,34 @@ private Simbolo declararSimbolo(String id, Tipo tipo, CategoriaSimbolo categoria
         return null;
     }
 
-   
+    Simbolo runtime = crearSimbolo(id, tipo, categoria, line, column);
+    actual.put(k, runtime);
+    return runtime;
+}
+
+private Simbolo crearSimbolo(String id, Tipo tipo, CategoriaSimbolo categoria, int line, int column) {
     Simbolo runtime = new Simbolo(id, tipo, categoria, line, column);
     runtime.setAmbito(ambitoActual());
-    actual.put(k, runtime);
 
-  
-    String cr = claveReporte(id, ambitoActual(), categoria);
-    Simbolo rep = indiceReporte.get(cr);
+    // La fila del reporte se busca una vez aquí; setValor solo sigue el enlace
+    runtime.setReporte(filaReporte(id, tipo, categoria, line, column, ambitoActual()));
+
+    return runtime;
+}
+
+/**
+ * Fila del reporte de id en el ámbito dado; la crea si aún no existe. El código
+ * de MotorBytecode la pide con el ámbito que resolvió al compilar.
+ */
+public Simbolo filaReporte(String id, Tipo tipo, CategoriaSimbolo categoria, int line, int column, String ambito) {
+    Simbolo rep = tablaSimbolos.buscar(id, ambito, categoria);
 
     if (rep == null) {
         rep = new Simbolo(id, tipo, categoria, line, column);
-        rep.setAmbito(ambitoActual());
-        indiceReporte.put(cr, rep);
+        rep.setAmbito(ambito);
         tablaSimbolos.agregarSimbolo(rep);
     }
-
-    return runtime;
+    return rep;
 }
 
 
@@ -172,6 +198,34 @@ public Simbolo declararParametro(String id, Tipo tipo, int line, int column) {
     return declararSimbolo(id, tipo, CategoriaSimbolo.PARAMETRO, line, column);
 }
 
+    /** Activa el acceso por slots; el programa ya fue resuelto por VisitanteResolucion. */
+    public void iniciarMarcoGlobal(int tamano) {
+        usaSlots = true;
+        marcoGlobal = new Simbolo[tamano];
+        marcoActual = marcoGlobal;
+    }
+
+    public boolean usaSlots() {
+        return usaSlots;
+    }
+
+    public Simbolo declararVariableEnSlot(int slot, String id, Tipo tipo, int line, int column) {
+        Simbolo s = crearSimbolo(id, tipo, CategoriaSimbolo.VARIABLE, line, column);
+        marcoActual[slot] = s;
+        return s;
+    }
+
+    public Simbolo declararParametroEnSlot(int slot, String id, Tipo tipo, int line, int column) {
+        Simbolo s = crearSimbolo(id, tipo, CategoriaSimbolo.PARAMETRO, line, column);
+        marcoActual[slot] = s;
+        return s;
+    }
+
+    // profundidad 0 = marco de la llamada en curso, 1 = marco global
+    public Simbolo simboloEnSlot(int profundidad, int slot) {
+        return (profundidad == 0 ? marcoActual : marcoGlobal)[slot];
+    }
+
 
     public Simbolo buscarSimbolo(String id) {
         String k = normId(id);
@@ -182,6 +236,46 @@ public Simbolo declararParametro(String id, Tipo tipo, int line, int column) {
         return null;
     }
 
+    /**
+     * Asigna un valor de ejecución. Los int, double, char y bool quedan sin caja
+     * en el símbolo y en su fila del reporte (Simbolo.setValorSinCaja).
+     */
+    public void setValor(Simbolo runtime, Valor v) {
+        if (!v.isSinCaja()) {
+            setValor(runtime, v.getValorSinAplanar());
+        } else if (v.getEtiqueta() == Tipo.DOUBLE) {
+            setValorSinCaja(runtime, Tipo.DOUBLE, 0L, v.comoDouble());
+        } else {
+            setValorSinCaja(runtime, v.getEtiqueta(), v.comoInt(), 0.0);
+        }
+    }
+
+    /** ++/-- sobre una variable; false si no es int/double/char. */
+    public boolean incrementar(Simbolo runtime, boolean inc) {
+        Tipo t = runtime.getEtiquetaSinCaja();
+        if (t == Tipo.INT) {
+            setValorSinCaja(runtime, t, (int) runtime.getEntero() + (inc ? 1 : -1), 0.0);
+            return true;
+        }
+        if (t == Tipo.DOUBLE) {
+            setValorSinCaja(runtime, t, 0L, runtime.getDecimal() + (inc ? 1.0 : -1.0));
+            return true;
+        }
+        Object nuevo = Operaciones.incrementar(runtime.getValor(), inc);
+        if (nuevo == null) return false;
+        setValor(runtime, nuevo);
+        return true;
+    }
+
+    private void setValorSinCaja(Simbolo runtime, Tipo etiqueta, long entero, double decimal) {
+        if (runtime == null) return;
+        runtime.setValorSinCaja(etiqueta, entero, decimal);
+        Simbolo rep = runtime.getReporte();
+        if (rep != null && (runtime.getCategoria() != CategoriaSimbolo.PARAMETRO || !rep.tieneValor())) {
+            rep.setValorSinCaja(etiqueta, entero, decimal);
+        }
+    }
+
     public void setValor(Simbolo runtime, Object valor) {
     if (runtime == null) return;
 
@@ -189,13 +283,12 @@ public Simbolo declararParametro(String id, Tipo tipo, int line, int column) {
     runtime.setValor(valor);
 
 
-    String cr = claveReporte(runtime.getIdentificador(), runtime.getAmbito(), runtime.getCategoria());
-    Simbolo rep = indiceReporte.get(cr);
+    Simbolo rep = runtime.getReporte();
 
     if (rep != null) {
 
         if (runtime.getCategoria() == CategoriaSimbolo.PARAMETRO) {
-            if (rep.getValor() == null) {
+            if (!rep.tieneValor()) {
                 rep.setValor(valor);
             }
         } else {
@@ -222,6 +315,65 @@ public Simbolo declararParametro(String id, Tipo tipo, int line, int column) {
     public boolean debeContinue() { return debeContinue; }
     public void setDebeContinue(boolean v) { this.debeContinue = v; }
 
+    // ---- presupuesto y puntos de control ----
+
+    public Presupuesto getPresupuesto() {
+        return presupuesto;
+    }
+
+    /** Fija los límites y arranca el reloj de la corrida. */
+    public void setPresupuesto(Presupuesto presupuesto) {
+        this.presupuesto = presupuesto;
+        this.maxSentencias = presupuesto.getMaxSentencias() > 0 ? presupuesto.getMaxSentencias() : Long.MAX_VALUE;
+        this.maxIteraciones = presupuesto.getMaxIteraciones() > 0 ? presupuesto.getMaxIteraciones() : Long.MAX_VALUE;
+        this.sentencias = 0;
+        this.iteraciones = 0;
+        this.inicioNanos = System.nanoTime();
+    }
+
+    /** Antes de cada sentencia de un bloque. */
+    public void puntoControl(int linea, int columna) {
+        if (++sentencias > maxSentencias) {
+            throw new EjecucionCancelada("Se excedió el límite de " + maxSentencias + " sentencias ejecutadas", linea, columna);
+        }
+        if (--hastaRevision == 0) revisar(linea, columna);
+    }
+
+    /** Al comenzar cada vuelta de un ciclo; (linea, columna) es la del ciclo. */
+    public void vueltaCiclo(int linea, int columna) {
+        if (++iteraciones > maxIteraciones) {
+            throw new EjecucionCancelada("Se excedió el límite de " + maxIteraciones + " iteraciones de ciclo", linea, columna);
+        }
+        if (--hastaRevision == 0) revisar(linea, columna);
+    }
+
+    /** Al entrar a una función de usuario; (linea, columna) es la de su declaración. */
+    public void entrarLlamada(int linea, int columna) {
+        lineaLlamada = linea;
+        columnaLlamada = columna;
+        if (--hastaRevision == 0) revisar(linea, columna);
+    }
+
+    public int getLineaLlamada() {
+        return lineaLlamada;
+    }
+
+    public int getColumnaLlamada() {
+        return columnaLlamada;
+    }
+
+    // Interrupción y reloj, cada REVISION puntos de control
+    private void revisar(int linea, int columna) {
+        hastaRevision = REVISION;
+        if (Thread.currentThread().isInterrupted()) {
+            throw new EjecucionCancelada("Ejecución detenida por el usuario", linea, columna);
+        }
+        long maxMilis = presupuesto.getMaxMilis();
+        if (maxMilis > 0 && System.nanoTime() - inicioNanos > maxMilis * 1_000_000L) {
+            throw new EjecucionCancelada("Se excedió el tiempo máximo de ejecución (" + maxMilis + " ms)", linea, columna);
+        }
+    }
+
     public void imprimir(String texto) {
         if (consola != null) consola.appendLine(texto);
         else System.out.println(texto);
@@ -241,7 +393,7 @@ public Simbolo declararParametro(String id, Tipo tipo, int line, int column) {
 
     public void activarReturn(Valor v) {
     this.returnActivo = true;
-    this.valorRetorno = (v == null) ? new Valor(null, "void") : v;
+    this.valorRetorno = (v == null) ? Valor.VOID : v;
 }
 
     public boolean debeReturn() {
@@ -292,13 +444,11 @@ public void registrarFuncion(DeclaracionFuncion f) {
             ? CategoriaSimbolo.METODO
             : CategoriaSimbolo.FUNCION;
 
-    String claveReporte = normId(f.getNombre()) + "|" + normId("Global") + "|" + cat;
-    if (!indiceReporte.containsKey(claveReporte)) {
+    if (tablaSimbolos.buscar(f.getNombre(), "Global", cat) == null) {
         Simbolo s = new Simbolo(f.getNombre(), f.getTipoRetorno(), cat, f.getLine(), f.getColumn());
         s.setAmbito("Global");
         s.setValor("-");
         tablaSimbolos.agregarSimbolo(s);
-        indiceReporte.put(claveReporte, s);
     }
 }
 
@@ -308,13 +458,50 @@ public DeclaracionFuncion obtenerFuncion(String nombre) {
     return funciones.get(normCallable(nombre));
 }
 
+/**
+ * Caché de f si es pura y devuelve un primitivo, o null. Con un switch activo
+ * no se memoiza: un break dentro del cuerpo también corta el switch del llamador.
+ * Con capacidad 0 siempre es null y la llamada no arma la clave.
+ */
+public CacheMemo memoDe(DeclaracionFuncion f) {
+    if (CacheMemo.CAPACIDAD_POR_DEFECTO <= 0) return null;
+    if (!f.isPura() || switchDepth > 0 || !CacheMemo.esPrimitivo(f.getTipoRetorno())) return null;
+    return memos.computeIfAbsent(f, k -> new CacheMemo());
+}
+
+/** Deja aciertos y fallos de cada función memoizada en su fila del reporte. */
+public void reportarMemoizacion() {
+    for (Map.Entry<DeclaracionFuncion, CacheMemo> e : memos.entrySet()) {
+        Simbolo s = tablaSimbolos.buscar(e.getKey().getNombre(), "Global", CategoriaSimbolo.FUNCION);
+        if (s != null) {
+            CacheMemo c = e.getValue();
+            s.setValor("memo: " + c.getAciertos() + " aciertos / " + c.getFallos() + " fallos");
+        }
+    }
+}
+
 
 public void pushCallFrame(String ambito) {
     pushAmbito(ambito);
     pushBloque();
 }
 
+public void pushCallFrame(String ambito, int tamanoMarco) {
+    if (!usaSlots) {
+        pushCallFrame(ambito);
+        return;
+    }
+    pushAmbito(ambito);
+    pilaMarcos.push(marcoActual);
+    marcoActual = new Simbolo[tamanoMarco];
+}
+
 public void popCallFrame() {
+    if (usaSlots) {
+        marcoActual = pilaMarcos.pop();
+        popAmbito();
+        return;
+    }
     popBloque();
     popAmbito();
 }
@@ -329,7 +516,7 @@ public boolean hayReturn() {
 public Valor tomarReturnYLimpiar() {
     Valor v = valorRetorno;
     returnActivo = false;
-    valorRetorno = new Valor(null, "void");
+    valorRetorno = Valor.VOID;
     return v;
 }
 
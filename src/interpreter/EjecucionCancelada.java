@@ -0,0 +1,29 @@
+package interpreter;
+
+/**
+ * Corta la corrida desde un punto de control de ContextoEjecucion: el hilo fue
+ * interrumpido (Detener en la interfaz) o se agotó el Presupuesto. Atraviesa
+ * el motor que esté corriendo hasta Ejecutor, que la reporta como error de
+ * ejecución en la sentencia donde se detuvo.
+ */
+public class EjecucionCancelada extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int linea;
+    private final int columna;
+
+    public EjecucionCancelada(String motivo, int linea, int columna) {
+        super(motivo, null, false, false);
+        this.linea = linea;
+        this.columna = columna;
+    }
+
+    public int getLinea() {
+        return linea;
+    }
+
+    public int getColumna() {
+        return columna;
+    }
+}
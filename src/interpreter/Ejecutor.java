@@ -2,14 +2,14 @@ package interpreter;
 
 import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import ast.Programa;
+import lexer.FiltroPreproceso;
 import lexer.Lexer;
+import lexer.RegistroTokens;
+import parser.FabricaSimbolos;
 import parser.Parser;
 import reports.ErrorTipo;
 import reports.TablaErrores;
@@ -17,8 +17,14 @@ import semantic.SemanticError;
 import semantic.TablaSimbolos;
 import semantic.Tipo;
 import semantic.VisitanteSemantico;
+import semantic.VisitanteResolucion;
+import semantic.OptimizadorAST;
+import interpreter.bytecode.MotorBytecode;
+import interpreter.clausuras.CompiladorClausuras;
+import interpreter.pila.CompiladorPila;
+import interpreter.pila.MaquinaPila;
+import semantic.CategoriaSimbolo;
 import semantic.Simbolo;
-import ui.ConsolePanel;
 import reports.ErrorInfo;
 
 import java.io.IOException;
@@ -34,109 +40,161 @@ import reports.AstDotGenerator;
 
 public class Ejecutor {
 
-    private static TablaErrores ultimaTablaErrores;
-    private static TablaSimbolos ultimaTablaSimbolos;
+    // Última corrida lanzada con las sobrecargas de la interfaz; la consultan los reportes
+    private static volatile SesionEjecucion ultimaSesion;
 
+    // -Djavausac.optimizar=false ejecuta el AST tal como sale del parser
+    private static final boolean OPTIMIZAR = Boolean.parseBoolean(System.getProperty("javausac.optimizar", "true"));
+    // -Djavausac.ast.optimizado=true escribe reportes/ast_optimizado.dot
+    private static final boolean VOLCAR_AST_OPTIMIZADO = Boolean.getBoolean("javausac.ast.optimizado");
 
-    private static Path ultimoAstDotPath;
-private static Path ultimoAstPngPath;
-private static String ultimoAstError;
+    // Análisis ya hechos, por SHA-256 del código; compartida por la interfaz, la CLI y el servidor
+    private static final CacheAnalisis CACHE = new CacheAnalisis(CacheAnalisis.CAPACIDAD_POR_DEFECTO);
 
-public static Path getUltimoAstDotPath() { return ultimoAstDotPath; }
-public static Path getUltimoAstPngPath() { return ultimoAstPngPath; }
-public static String getUltimoAstError() { return ultimoAstError; }
+    public static CacheAnalisis getCacheAnalisis() {
+        return CACHE;
+    }
+
+    public static SesionEjecucion getUltimaSesion() {
+        return ultimaSesion;
+    }
+
+public static Path getUltimoAstDotPath() { SesionEjecucion s = ultimaSesion; return s == null ? null : s.getAstDotPath(); }
+public static Path getUltimoAstPngPath() { SesionEjecucion s = ultimaSesion; return s == null ? null : s.getAstPngPath(); }
+public static String getUltimoAstError() { SesionEjecucion s = ultimaSesion; return s == null ? null : s.getAstError(); }
 
 
     public static TablaErrores getUltimaTablaErrores() {
-        return ultimaTablaErrores;
+        SesionEjecucion s = ultimaSesion;
+        return s == null ? null : s.getTablaErrores();
     }
 
     public static TablaSimbolos getUltimaTablaSimbolos() {
-        return ultimaTablaSimbolos;
+        SesionEjecucion s = ultimaSesion;
+        return s == null ? null : s.getTablaSimbolos();
     }
 
-    public static void ejecutar(String codigo, ConsolePanel console) {
+    public static SesionEjecucion ejecutar(String codigo, Consola console) {
+        return ejecutar(codigo, console, ModoEjecucion.INTERPRETE);
+    }
 
-        if (console != null) {
-            console.clear();
-        }
+    public static SesionEjecucion ejecutar(String codigo, Consola console, ModoEjecucion modo) {
+        return ejecutar(codigo, console, modo, Presupuesto.POR_DEFECTO);
+    }
 
-        TablaErrores tablaErrores = new TablaErrores();
-        ultimaTablaErrores = tablaErrores;
-        ultimaTablaSimbolos = null;
+    public static SesionEjecucion ejecutar(String codigo, Consola console, ModoEjecucion modo, Presupuesto presupuesto) {
+        return ejecutar(codigo, console, modo, presupuesto, null);
+    }
 
-        ultimoAstDotPath = null;
-        ultimoAstPngPath = null;
-        ultimoAstError = null;
+    /** Corrida de un documento del editor: fuente conserva su parseo por fragmentos entre corridas. */
+    public static SesionEjecucion ejecutar(String codigo, Consola console, FuenteIncremental fuente) {
+        return ejecutar(codigo, console, ModoEjecucion.INTERPRETE, Presupuesto.POR_DEFECTO, fuente);
+    }
 
+    private static SesionEjecucion ejecutar(String codigo, Consola console, ModoEjecucion modo, Presupuesto presupuesto,
+                                            FuenteIncremental fuente) {
+        SesionEjecucion sesion = new SesionEjecucion(console, modo, presupuesto,
+                Paths.get(System.getProperty("user.dir"), "reportes"));
+        sesion.setFuente(fuente);
+        ultimaSesion = sesion;
+        ejecutar(codigo, sesion);
+        return sesion;
+    }
 
-        final String codigoOriginal = (codigo == null) ? "" : codigo;
+    /** Corre el programa completo (léxico, sintáctico, semántico, ejecución) y deja los resultados en la sesión. */
+    public static void ejecutar(String codigo, SesionEjecucion sesion) {
 
-        SourceIndex sourceIndex = SourceIndex.build(codigoOriginal);
+        Consola console = sesion.getConsola();
+        ModoEjecucion modo = sesion.getModo();
 
-        PreprocessResult prep = preprocesarParaParseo(codigoOriginal, tablaErrores);
+        if (console != null) {
+            console.clear();
+        }
 
+        TablaErrores tablaErrores = sesion.getTablaErrores();
 
-if (tablaErrores.tieneErroresLexicos()) {
-    if (console != null) {
-        imprimirErroresEnConsola(tablaErrores, console);
-    }
-    return;
-}
 
+        final String codigoOriginal = (codigo == null) ? "" : codigo;
 
         try {
-    Lexer lexer = new Lexer(new StringReader(prep.codigoProcesado));
-    lexer.setTablaErrores(tablaErrores);
-
-    Parser parser = new Parser(lexer);
-    parser.setTablaErrores(tablaErrores);
+    boolean conDot = sesion.getDirectorioReportes() != null;
+    FuenteIncremental fuente = sesion.getFuente();
+    // Un documento del editor lleva su propio parseo por fragmentos; comparte nodos entre corridas
+    String clave = fuente == null && CACHE.getCapacidad() > 0 ? CacheAnalisis.clave(codigoOriginal) : null;
+    CacheAnalisis.Entrada analisis = clave == null ? null : CACHE.buscar(clave);
+    if (analisis != null && conDot && analisis.tablaSemantica != null && analisis.dot == null) {
+        // Se analizó sin reportes; hace falta el AST sin optimizar para el DOT
+        analisis = null;
+    }
+    if (analisis == null) {
+        analisis = analizar(codigoOriginal, tablaErrores, conDot, fuente);
+        if (clave != null) CACHE.guardar(clave, analisis);
+    } else {
+        for (ErrorInfo e : analisis.errores) {
+            tablaErrores.agregarError(e.getTipo(), e.getDescripcion(), e.getLinea(), e.getColumna());
+        }
+    }
 
-    parser.parse();
+    if (analisis.tablaSemantica != null) {
+        sesion.setTablaSimbolos(analisis.tablaSemantica);
+        generarReporteAST(analisis.dot, sesion);
+    }
 
-    Programa programa = parser.getPrograma();
+    Programa programa = analisis.programa;
     if (programa == null) {
-        tablaErrores.agregarError(
-            ErrorTipo.SINTACTICO,
-            "No se pudo construir el AST: el programa es nulo.",
-            1,
-            1
-        );
         return;
     }
 
-    VisitanteSemantico semantico = new VisitanteSemantico();
-    programa.accept(semantico);
-
-    TablaSimbolos tablaSemantica = semantico.getTablaSimbolos();
-
-    actualizarLineasYColumnas(tablaSemantica, codigoOriginal);
-
-    ultimaTablaSimbolos = tablaSemantica;
-
-    List<SemanticError> erroresSemanticos = semantico.getErrores();
-    agregarErroresSemanticosMapeados(tablaErrores, erroresSemanticos, sourceIndex);
-
-    agregarErroresLengthManual(tablaErrores, sourceIndex);
-
-
-generarReporteAST(programa, console);
-
-
-    if (tablaErrores.tieneErrores()) {
-        return;
+    if (OPTIMIZAR && VOLCAR_AST_OPTIMIZADO) {
+        generarReporteASTOptimizado(programa, sesion);
     }
 
     ContextoEjecucion contexto = new ContextoEjecucion(console);
-VisitanteEvaluacion eval = new VisitanteEvaluacion(contexto);
-programa.accept(eval);
+    contexto.setPresupuesto(sesion.getPresupuesto());
+    MaquinaPila maquina = null;
+    try {
+        if (modo == ModoEjecucion.BYTECODE && MotorBytecode.ejecutar(programa, contexto)) {
+            // El código compilado llenó el contexto como lo haría el intérprete
+        } else if (modo == ModoEjecucion.CLAUSURAS) {
+            new CompiladorClausuras(contexto).compilar(programa).ejecutar();
+        } else if (modo == ModoEjecucion.PILA) {
+            maquina = new MaquinaPila(contexto);
+            maquina.ejecutar(new CompiladorPila(contexto).compilar(programa));
+        } else {
+            VisitanteEvaluacion eval = modo == ModoEjecucion.ESPECIALIZADO
+                    ? new VisitanteEspecializado(contexto)
+                    : new VisitanteEvaluacion(contexto);
+            programa.accept(eval);
+        }
+    } catch (EjecucionCancelada ex) {
+        // Detener o presupuesto agotado: la tabla de ejecución queda con lo que alcanzó a correr
+        tablaErrores.agregarError(ErrorTipo.EJECUCION, ex.getMessage(),
+                Math.max(1, ex.getLinea()), Math.max(1, ex.getColumna()));
+    } catch (StackOverflowError ex) {
+        // El motor recursivo agotó la pila de Java; se ubica en la función en la que se entró por última vez
+        tablaErrores.agregarError(ErrorTipo.EJECUCION,
+                "Desbordamiento de pila: recursión demasiado profunda para este modo de ejecución",
+                Math.max(1, contexto.getLineaLlamada()), Math.max(1, contexto.getColumnaLlamada()));
+    }
 
 
+contexto.reportarMemoizacion();
 TablaSimbolos tablaEjecucion = contexto.getTablaSimbolos();
-completarUbicacionesSimbolos(tablaEjecucion, codigoOriginal);
-ultimaTablaSimbolos = tablaEjecucion;
+sesion.setTablaSimbolos(tablaEjecucion);
+
+if (maquina != null && maquina.getErrorPila() != null) {
+    agregarErrorPila(tablaErrores, tablaEjecucion, maquina);
+}
 
 
+} catch (StackOverflowError ex) {
+    // Fuera de la ejecución (análisis de un programa muy anidado); ModoEjecucion.PILA no depende de la pila
+    tablaErrores.agregarError(
+        ErrorTipo.EJECUCION,
+        "Desbordamiento de pila: recursión demasiado profunda para este modo de ejecución",
+        1,
+        1
+    );
 } catch (Exception ex) {
     
     if (!tablaErrores.tieneErroresLexicos() && !tablaErrores.tieneErroresSintacticos()) {
@@ -156,248 +214,145 @@ ultimaTablaSimbolos = tablaEjecucion;
 
     }
 
-    private static class PreprocessResult {
-        final String codigoProcesado;
-        PreprocessResult(String codigoProcesado) {
-            this.codigoProcesado = codigoProcesado;
-        }
-    }
-private static PreprocessResult preprocesarParaParseo(String codigoOriginal, TablaErrores tablaErrores) {
-
-    String[] lines = codigoOriginal.split("\\r\\n|\\r|\\n", -1);
-    List<String> out = new ArrayList<>();
-
-    for (int i = 0; i < lines.length; i++) {
-        String s = lines[i];
-
-        // Reporta caracteres inválidos, pero NO altera estructura del programa (Fase 2 requiere funciones/start)
-        s = reemplazarInvalidosYReportar(s, i + 1, tablaErrores);
-
-        // Arreglos menores de formato
-       s = repararMasPuntoYComa(s, i + 1, tablaErrores);
-s = repararPrintlnParentesis(s, i + 1, tablaErrores);
-
-
-        out.add(s);
-    }
-
-    String codigoProcesado = String.join("\n", out);
-    return new PreprocessResult(codigoProcesado);
-}
-
-
-    private static void imprimirErroresEnConsola(TablaErrores tablaErrores, ConsolePanel console) {
-    console.appendLine("----------- Errores -----------");
-    for (ErrorInfo e : tablaErrores.getErrores()) {
-        String tipo = tipoBonito(e.getTipo());
-        console.appendLine("[" + tipo + "] Línea " + e.getLinea() + ", Col " + e.getColumna() + ": " + e.getDescripcion());
-    }
-}
+    /**
+     * Preprocesado, léxico, sintáctico y semántico; si no hubo errores deja el
+     * programa optimizado y resuelto. Los errores quedan en tablaErrores y
+     * también en la entrada, para repetirlos cuando se use desde la caché.
+     */
+    private static CacheAnalisis.Entrada analizar(String codigoOriginal, TablaErrores tablaErrores, boolean conDot,
+                                                  FuenteIncremental fuente) throws Exception {
 
-private static String tipoBonito(ErrorTipo tipo) {
-    if (tipo == null) return "Desconocido";
-    switch (tipo) {
-        case LEXICO: return "Léxico";
-        case SINTACTICO: return "Sintáctico";
-        case SEMANTICO: return "Semántico";
-        default: return "Desconocido";
-    }
-}
-
-
-    private static String reemplazarInvalidosYReportar(String line, int lineNo, TablaErrores tablaErrores) {
-
-        StringBuilder sb = new StringBuilder(line.length());
-
-        boolean inString = false;
-        boolean inChar = false;
-        boolean escape = false;
-
-        for (int idx = 0; idx < line.length(); idx++) {
-            char ch = line.charAt(idx);
-            int col = idx + 1;
-
-            if (escape) {
-                sb.append(ch);
-                escape = false;
-                continue;
-            }
-
-            if (ch == '\\') {
-                if (inString || inChar) {
-                    sb.append(ch);
-                    escape = true;
-                    continue;
-                }
-                sb.append(ch);
-                continue;
-            }
-
-            if (ch == '"' && !inChar) {
-                inString = !inString;
-                sb.append(ch);
-                continue;
+        Programa programa;
+        RegistroTokens tokens = null;
+        boolean incremental = fuente != null && fuente.actualizar(codigoOriginal);
+        if (incremental) {
+            fuente.agregarErroresPreproceso(tablaErrores);
+            if (tablaErrores.tieneErroresLexicos()) {
+                return entrada(codigoOriginal, null, null, null, tablaErrores);
             }
-
-            if (ch == '\'' && !inString) {
-                inChar = !inChar;
-                sb.append(ch);
-                continue;
+            fuente.agregarErroresLexicos(tablaErrores);
+            programa = fuente.getPrograma();
+        } else {
+            // El preproceso corre mientras el Lexer lee; sus errores van primero, como si fuera una pasada aparte
+            TablaErrores preproceso = new TablaErrores();
+            TablaErrores lexicoSintactico = new TablaErrores();
+            FiltroPreproceso filtro = new FiltroPreproceso(new StringReader(codigoOriginal), 0, preproceso);
+
+            tokens = new RegistroTokens();
+            Lexer lexer = new Lexer(filtro);
+            lexer.setTablaErrores(lexicoSintactico);
+            lexer.setRegistro(tokens);
+
+            Parser parser = new Parser(lexer, new FabricaSimbolos());
+            parser.setTablaErrores(lexicoSintactico);
+
+            Exception fallo = null;
+            try {
+                parser.parse();
+            } catch (Exception e) {
+                fallo = e;
             }
+            filtro.consumirResto();
+            filtro.corregir(tokens);
 
-            if (inString || inChar) {
-                sb.append(ch);
-                continue;
+            tablaErrores.agregarErrores(preproceso);
+            // Con símbolos no reconocidos solo se reportan esos
+            if (tablaErrores.tieneErroresLexicos()) {
+                return entrada(codigoOriginal, null, null, null, tablaErrores);
             }
-
-            if (esCharPermitido(ch)) {
-                sb.append(ch);
-            } else {
-                tablaErrores.agregarError(
-                    ErrorTipo.LEXICO,
-                    "Símbolo no reconocido: '" + ch + "'",
-                    lineNo,
-                    col
-                );
-                sb.append(' ');
+            tablaErrores.agregarErrores(lexicoSintactico);
+            if (fallo != null) {
+                throw fallo;
             }
-        }
-
-        return sb.toString();
-    }
-
-    private static boolean esCharPermitido(char ch) {
-        if (Character.isWhitespace(ch)) return true;
-        if (Character.isLetterOrDigit(ch)) return true;
-        if (ch == '_') return true;
-
-        switch (ch) {
-            case '+': case '-': case '*': case '/': case '%': case '^':
-            case '=': case '<': case '>': case '!':
-            case '&': case '|':
-            case ';': case ':': case ',':
-            case '(': case ')':
-            case '{': case '}':
-            case '[': case ']':
-            case '.':
-                return true;
-            default:
-                return false;
-        }
-    }
-
-    private static String repararMasPuntoYComa(String line, int lineNo, TablaErrores tablaErrores) {
-    int from = 0;
-    String s = line;
-
-    while (true) {
-        int plus = s.indexOf('+', from);
-        if (plus < 0) break;
 
-        if ((plus + 1 < s.length() && s.charAt(plus + 1) == '+') ||
-            (plus - 1 >= 0 && s.charAt(plus - 1) == '+')) {
-            from = plus + 1;
-            continue;
+            programa = parser.getPrograma();
         }
-
-        int j = plus + 1;
-        while (j < s.length() && Character.isWhitespace(s.charAt(j))) j++;
-
-        if (j < s.length() && s.charAt(j) == ';') {
-            int colSemicolon = j + 1;
+        if (programa == null) {
             tablaErrores.agregarError(
                 ErrorTipo.SINTACTICO,
-                "Se esperaba una expresión después de '+', encontró ';'.",
-                lineNo,
-                colSemicolon
+                "No se pudo construir el AST: el programa es nulo.",
+                1,
+                1
             );
-
-            s = s.substring(0, j) + "0" + s.substring(j);
-            from = j + 1;
-        } else {
-            from = plus + 1;
+            return entrada(codigoOriginal, null, null, null, tablaErrores);
         }
-    }
 
-    return s;
-}
+        // Con FuenteIncremental las pasadas reutilizan lo que hicieron con las funciones que no cambiaron
+        VisitanteSemantico semantico = incremental
+                ? new VisitanteSemantico(fuente.getMemoriaSemantica())
+                : new VisitanteSemantico();
+        programa.accept(semantico);
 
+        TablaSimbolos tablaSemantica = semantico.getTablaSimbolos();
 
-    private static String repararPrintlnParentesis(String line, int lineNo, TablaErrores tablaErrores) {
+        List<SemanticError> erroresSemanticos = semantico.getErrores();
+        // Declaraciones, asignaciones, etc. solo hacen falta para ubicar errores semánticos
+        SourceIndex sourceIndex = incremental
+                ? fuente.getIndice()
+                : SourceIndex.build(tokens, codigoOriginal, !erroresSemanticos.isEmpty());
 
-        String lower = line.toLowerCase();
-        if (!lower.contains("println")) return line;
+        actualizarLineasYColumnas(tablaSemantica, sourceIndex);
 
-        int semicolon = line.lastIndexOf(';');
-        if (semicolon < 0) return line;
+        agregarErroresSemanticosMapeados(tablaErrores, erroresSemanticos, sourceIndex);
 
-        int opens = countCharOutsideStrings(line, '(');
-        int closes = countCharOutsideStrings(line, ')');
+        agregarErroresLengthManual(tablaErrores, sourceIndex);
 
-        if (opens > closes) {
-            int missing = opens - closes;
-            int colSemicolon = semicolon + 1;
+        String dot = conDot ? new AstDotGenerator().generate(programa) : null;
 
-            tablaErrores.agregarError(
-                ErrorTipo.SINTACTICO,
-                "Paréntesis desbalanceados en println(...): se esperaba ')' antes de ';'.",
-                lineNo,
-                colSemicolon
-            );
+        if (tablaErrores.tieneErrores()) {
+            return entrada(codigoOriginal, null, tablaSemantica, dot, tablaErrores);
+        }
 
-            StringBuilder sb = new StringBuilder();
-            sb.append(line, 0, semicolon);
-            for (int k = 0; k < missing; k++) sb.append(')');
-            sb.append(line.substring(semicolon));
-            return sb.toString();
+        if (OPTIMIZAR) {
+            programa = new OptimizadorAST().optimizar(programa, incremental ? fuente.getMemoriaOptimizador() : null);
         }
 
-        return line;
-    }
+        new VisitanteResolucion().resolver(programa, incremental ? fuente.getMemoriaResolucion() : null);
 
-    private static String reemplazarLengthPorCero(String line) {
-        Pattern p = Pattern.compile("(?i)\\blength\\s*\\([^\\)]*\\)");
-        Matcher m = p.matcher(line);
-        return m.replaceAll("0");
+        return entrada(codigoOriginal, programa, tablaSemantica, dot, tablaErrores);
     }
 
-    private static int countCharOutsideStrings(String line, char target) {
-
-        boolean inString = false;
-        boolean inChar = false;
-        boolean escape = false;
-        int count = 0;
-
-        for (int i = 0; i < line.length(); i++) {
-            char ch = line.charAt(i);
-
-            if (escape) {
-                escape = false;
-                continue;
-            }
-
-            if (ch == '\\') {
-                if (inString || inChar) escape = true;
-                continue;
-            }
-
-            if (ch == '"' && !inChar) {
-                inString = !inString;
-                continue;
-            }
-
-            if (ch == '\'' && !inString) {
-                inChar = !inChar;
-                continue;
-            }
-
-            if (inString || inChar) continue;
+    private static CacheAnalisis.Entrada entrada(String codigo, Programa programa, TablaSimbolos tablaSemantica,
+                                                 String dot, TablaErrores tablaErrores) {
+        List<ErrorInfo> errores = tablaErrores.getErrores();
+        errores.sort(Comparator.comparingInt(ErrorInfo::getNumero));
+        long peso = codigo.length() + (dot == null ? 0 : dot.length());
+        return new CacheAnalisis.Entrada(programa, tablaSemantica, errores, dot, peso);
+    }
 
-            if (ch == target) count++;
+    // El error se ubica en la declaración de la función que ya no cupo en la pila
+    private static void agregarErrorPila(TablaErrores tablaErrores, TablaSimbolos tablaEjecucion, MaquinaPila maquina) {
+        int linea = 1;
+        int columna = 1;
+        String nombre = maquina.getFuncionDesbordada().getNombre();
+        Simbolo s = tablaEjecucion.buscar(nombre, "Global", CategoriaSimbolo.FUNCION);
+        if (s == null) s = tablaEjecucion.buscar(nombre, "Global", CategoriaSimbolo.METODO);
+        if (s != null && s.getLinea() > 0) {
+            linea = s.getLinea();
+            columna = Math.max(1, s.getColumna());
         }
+        tablaErrores.agregarError(ErrorTipo.EJECUCION, maquina.getErrorPila(), linea, columna);
+    }
 
-        return count;
+    private static void imprimirErroresEnConsola(TablaErrores tablaErrores, Consola console) {
+    console.appendDiagnostico("----------- Errores -----------");
+    for (ErrorInfo e : tablaErrores.getErrores()) {
+        String tipo = tipoBonito(e.getTipo());
+        console.appendDiagnostico("[" + tipo + "] Línea " + e.getLinea() + ", Col " + e.getColumna() + ": " + e.getDescripcion());
     }
+}
+
+private static String tipoBonito(ErrorTipo tipo) {
+    if (tipo == null) return "Desconocido";
+    switch (tipo) {
+        case LEXICO: return "Léxico";
+        case SINTACTICO: return "Sintáctico";
+        case SEMANTICO: return "Semántico";
+        case EJECUCION: return "Ejecución";
+        default: return "Desconocido";
+    }
+}
+
 
     private static void agregarErroresSemanticosMapeados(
         TablaErrores tablaErrores,
@@ -406,7 +361,7 @@ private static String tipoBonito(ErrorTipo tipo) {
     ) {
         for (SemanticError e : erroresSemanticos) {
 
-            MappedSemantic ms = idx.mapearSemanticError(e);
+            SourceIndex.MappedSemantic ms = idx.mapearSemanticError(e);
 
             tablaErrores.agregarError(
                 ErrorTipo.SEMANTICO,
@@ -418,7 +373,7 @@ private static String tipoBonito(ErrorTipo tipo) {
     }
 
     private static void agregarErroresLengthManual(TablaErrores tablaErrores, SourceIndex idx) {
-        for (LengthCall lc : idx.lengthCalls) {
+        for (SourceIndex.LengthCall lc : idx.lengthCalls()) {
 
             String arg = lc.argumento == null ? "" : lc.argumento.trim();
 
@@ -442,488 +397,31 @@ private static String tipoBonito(ErrorTipo tipo) {
         }
     }
 
-    private static void actualizarLineasYColumnas(TablaSimbolos tablaSimbolos, String codigoOriginal) {
-
-        Pattern patronDeclaracion = Pattern.compile(
-            "(?i)\\bvar\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\s*:\\s*([a-zA-Z_][a-zA-Z0-9_]*)"
-        );
-
-        Matcher matcher = patronDeclaracion.matcher(codigoOriginal);
-
-        while (matcher.find()) {
-            String id = matcher.group(1);
-            int indexMatch = matcher.start(1);
-
-            int linea = 1;
-            int columna = 1;
-
-            for (int i = 0; i < indexMatch; i++) {
-                if (codigoOriginal.charAt(i) == '\n') {
-                    linea++;
-                    columna = 1;
-                } else {
-                    columna++;
-                }
-            }
-
-            for (Simbolo s : tablaSimbolos.getSimbolos()) {
-                if (s.getIdentificador().equalsIgnoreCase(id)) {
-                    s.setLinea(linea);
-                    s.setColumna(columna);
-                    break;
-                }
-            }
-        }
-    }
-
-
-private static void completarUbicacionesSimbolos(TablaSimbolos tablaSimbolos, String codigoOriginal) {
-    if (tablaSimbolos == null || codigoOriginal == null) return;
-
-    List<Simbolo> simbolos = tablaSimbolos.getSimbolos();
-    if (simbolos.isEmpty()) return;
-
-
-    Map<String, List<Simbolo>> idx = new HashMap<>();
-    for (Simbolo s : simbolos) {
-        String k = keySim(s.getIdentificador(), s.getAmbito(), s.getCategoria());
-        idx.computeIfAbsent(k, __ -> new ArrayList<>()).add(s);
-    }
-
-    String[] lines = codigoOriginal.split("\\r\\n|\\r|\\n", -1);
-
-
-    Pattern pFunc = Pattern.compile(
-            "^\\s*([a-zA-Z_][a-zA-Z0-9_<>\\[\\]]*)\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\s*\\(([^)]*)\\)",
-            Pattern.CASE_INSENSITIVE
-    );
-    Pattern pVar = Pattern.compile("\\bvar\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\s*:", Pattern.CASE_INSENSITIVE);
-    Pattern pParam = Pattern.compile("\\b([a-zA-Z_][a-zA-Z0-9_<>\\[\\]]*)\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\b", Pattern.CASE_INSENSITIVE);
-    Pattern pTypedVar = Pattern.compile(
-        "^\\s*([a-zA-Z_][a-zA-Z0-9_<>\\[\\]]*)\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\s*(=|;)",
-        Pattern.CASE_INSENSITIVE
-);
-
-
-    int braceDepth = 0;
-    String currentFunc = "Global";
-
-    for (int i = 0; i < lines.length; i++) {
-        String line = lines[i];
-        int lineNo = i + 1;
-
-
-        if (braceDepth == 0) {
-            Matcher mf = pFunc.matcher(line);
-            if (mf.find()) {
-                String nombre = mf.group(2);
-                currentFunc = nombre;
-
-                int colInicio = firstNonWsCol1(line);
-
-
-                update(idx, nombre, "Global", semantic.CategoriaSimbolo.METODO, lineNo, colInicio);
-                update(idx, nombre, "Global", semantic.CategoriaSimbolo.FUNCION, lineNo, colInicio);
-
-
-                int parenOpen = line.indexOf('(');
-                if (parenOpen >= 0) {
-                    String params = mf.group(3);
-                    Matcher mp = pParam.matcher(params);
-                    while (mp.find()) {
-                        String paramName = mp.group(2);
-                        int colParam = parenOpen + 1 + mp.start(2) + 1; 
-                        update(idx, paramName, nombre, semantic.CategoriaSimbolo.PARAMETRO, lineNo, colParam);
-                    }
-                }
-            }
-        }
-
-
-        Matcher mv = pVar.matcher(line);
-        while (mv.find()) {
-            String id = mv.group(1);
-            int colVar = mv.start() + 1; // inicio del "var"
-            String amb = (braceDepth == 0) ? "Global" : currentFunc;
-            update(idx, id, amb, semantic.CategoriaSimbolo.VARIABLE, lineNo, colVar);
-        }
-
-
-Matcher mtv = pTypedVar.matcher(line);
-if (mtv.find()) {
-    String id = mtv.group(2);
-    int colId = mtv.start(2) + 1; 
-    String amb = (braceDepth == 0) ? "Global" : currentFunc;
-
-    update(idx, id, amb, semantic.CategoriaSimbolo.VARIABLE, lineNo, colId);
-}
-
-
-
-        braceDepth += countChar(line, '{') - countChar(line, '}');
-        if (braceDepth == 0) {
-            currentFunc = "Global";
-        }
-    }
-}
-
-private static String keySim(String id, String ambito, semantic.CategoriaSimbolo cat) {
-    String a = (ambito == null) ? "" : ambito.toLowerCase();
-    String i = (id == null) ? "" : id.toLowerCase();
-    return i + "|" + a + "|" + (cat == null ? "" : cat.name());
-}
-
-private static void update(Map<String, List<Simbolo>> idx,
-                           String id,
-                           String ambito,
-                           semantic.CategoriaSimbolo cat,
-                           int line,
-                           int col) {
-    String k = keySim(id, ambito, cat);
-    List<Simbolo> lst = idx.get(k);
-    if (lst == null || lst.isEmpty()) return;
-
-
-    Simbolo s = lst.get(0);
-    if (line > 0) s.setLinea(line);
-    if (col > 0) s.setColumna(col);
-}
-
-private static int firstNonWsCol1(String line) {
-    if (line == null) return 1;
-    for (int i = 0; i < line.length(); i++) {
-        if (!Character.isWhitespace(line.charAt(i))) return i + 1;
-    }
-    return 1;
-}
-
-private static int countChar(String s, char c) {
-    if (s == null) return 0;
-    int n = 0;
-    for (int i = 0; i < s.length(); i++) {
-        if (s.charAt(i) == c) n++;
-    }
-    return n;
-}
-
-
-    private static class PosDecl {
-        final String idOriginal;
-        final String idLower;
-        final String tipo;
-        final int linea;
-        final int colId;
-        final int colTipo;
-        final int colRhs;
-        final String rhsSnippet;
-
-        PosDecl(String idOriginal, String tipo, int linea, int colId, int colTipo, int colRhs, String rhsSnippet) {
-            this.idOriginal = idOriginal;
-            this.idLower = idOriginal.toLowerCase();
-            this.tipo = tipo;
-            this.linea = linea;
-            this.colId = colId;
-            this.colTipo = colTipo;
-            this.colRhs = colRhs;
-            this.rhsSnippet = rhsSnippet;
-        }
-    }
-
-    private static class OpOcc {
-        final int linea;
-        final int colOp;
-        final String snippet;
-        OpOcc(int linea, int colOp, String snippet) {
-            this.linea = linea;
-            this.colOp = colOp;
-            this.snippet = snippet;
-        }
-    }
-
-    private static class CastOcc {
-        final int linea;
-        final int colError;
-        final String snippet;
-        CastOcc(int linea, int colError, String snippet) {
-            this.linea = linea;
-            this.colError = colError;
-            this.snippet = snippet;
-        }
-    }
-
-    private static class LengthCall {
-        final int linea;
-        final int colArg;
-        final String argumento;
-        LengthCall(int linea, int colArg, String argumento) {
-            this.linea = linea;
-            this.colArg = colArg;
-            this.argumento = argumento;
-        }
-    }
-
-    private static class MappedSemantic {
-        final String mensaje;
-        final int linea;
-        final int columna;
-
-        MappedSemantic(String mensaje, int linea, int columna) {
-            this.mensaje = mensaje;
-            this.linea = linea;
-            this.columna = columna;
-        }
-    }
-
-    private static class SourceIndex {
-
-        final Map<String, List<PosDecl>> decls = new HashMap<>();
-        final Map<String, List<int[]>> assigns = new HashMap<>();
-        final List<OpOcc> boolPlusOps = new ArrayList<>();
-        final List<OpOcc> stringMinusOps = new ArrayList<>();
-        final List<CastOcc> casts = new ArrayList<>();
-        final List<LengthCall> lengthCalls = new ArrayList<>();
-        final List<int[]> returns = new ArrayList<>();
-
-        private int idxReturns = 0;
-
-
-        private int idxBoolPlus = 0;
-        private int idxStrMinus = 0;
-        private int idxCasts = 0;
-
-        static SourceIndex build(String codigoOriginal) {
-            SourceIndex idx = new SourceIndex();
-
-            String[] lines = codigoOriginal.split("\\r\\n|\\r|\\n", -1);
-
-            Pattern pDecl = Pattern.compile("(?i)^\\s*var\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\s*:\\s*([a-zA-Z_][a-zA-Z0-9_]*)");
-            Pattern pAssign = Pattern.compile("^\\s*([a-zA-Z_][a-zA-Z0-9_]*)\\s*=");
-
-            Pattern pBoolPlus = Pattern.compile("(?i)\\b(true|false)\\b\\s*\\+\\s*([0-9]+(\\.[0-9]+)?)");
-            Pattern pStrMinus = Pattern.compile("\"[^\"]*\"\\s*-\\s*\"[^\"]*\"");
-            Pattern pLength = Pattern.compile("(?i)\\blength\\s*\\(\\s*([^\\)]*?)\\s*\\)");
-            Pattern pReturn = Pattern.compile("(?i)\\breturn\\b");
-
-            Pattern pCastBoolNum = Pattern.compile("(?i)\\(\\s*bool\\s*\\)\\s*([0-9]+(\\.[0-9]+)?)");
-
-            for (int i = 0; i < lines.length; i++) {
-                int lineNo = i + 1;
-                String line = lines[i];
-
-                Matcher md = pDecl.matcher(line);
-                if (md.find()) {
-                    String id = md.group(1);
-                    String tipo = md.group(2);
-
-                    int colId = md.start(1) + 1;
-                    int colTipo = md.start(2) + 1;
-
-                    int colRhs = 0;
-                    String rhsSnippet = "";
-                    int eq = line.indexOf('=');
-                    if (eq >= 0) {
-                        int k = eq + 1;
-                        while (k < line.length() && Character.isWhitespace(line.charAt(k))) k++;
-                        colRhs = (k < line.length()) ? (k + 1) : 0;
-
-                        int semi = line.lastIndexOf(';');
-                        if (semi < 0) semi = line.length();
-                        rhsSnippet = line.substring(k, semi).trim();
-                    }
-
-                    PosDecl occ = new PosDecl(id, tipo, lineNo, colId, colTipo, colRhs, rhsSnippet);
-
-                    idx.decls.computeIfAbsent(occ.idLower, _k -> new ArrayList<>()).add(occ);
-                }
-
-                Matcher ma = pAssign.matcher(line);
-                if (ma.find() && !line.trim().toLowerCase().startsWith("var ")) {
-                    String id = ma.group(1);
-                    int col = ma.start(1) + 1;
-                    idx.assigns.computeIfAbsent(id.toLowerCase(), _k -> new ArrayList<>()).add(new int[] { lineNo, col });
-                }
-
-                Matcher mb = pBoolPlus.matcher(line);
-                if (mb.find()) {
-                    int colPlus = line.indexOf('+', mb.start());
-                    if (colPlus >= 0) {
-                        idx.boolPlusOps.add(new OpOcc(lineNo, colPlus + 1, mb.group(0).trim()));
-                    }
-                }
-
-                Matcher ms = pStrMinus.matcher(line);
-                if (ms.find()) {
-                    int colMinus = line.indexOf('-', ms.start());
-                    if (colMinus >= 0) {
-                        idx.stringMinusOps.add(new OpOcc(lineNo, colMinus + 1, ms.group(0).trim()));
-                    }
-                }
-
-                Matcher ml = pLength.matcher(line);
-                if (ml.find()) {
-                    int idxParen = line.toLowerCase().indexOf("(", ml.start());
-                    if (idxParen >= 0) {
-                        int k = idxParen + 1;
-                        while (k < line.length() && Character.isWhitespace(line.charAt(k))) k++;
-                        int colArg = k + 1;
-                        idx.lengthCalls.add(new LengthCall(lineNo, colArg, ml.group(1)));
-                    }
-                }
-
-                Matcher mc = pCastBoolNum.matcher(line);
-                if (mc.find()) {
-                    int colError = 0;
-                    Matcher md2 = pDecl.matcher(line);
-                    if (md2.find()) {
-                        colError = md2.start(2) + 1;
-                    } else {
-                        int colCastBool = line.toLowerCase().indexOf("bool", mc.start());
-                        colError = (colCastBool >= 0) ? (colCastBool + 1) : 1;
-                    }
-                    idx.casts.add(new CastOcc(lineNo, colError, mc.group(0).trim()));
-                }
-
-                Matcher mr = pReturn.matcher(line);
-                while (mr.find()) {
-                    int colReturn = mr.start() + 1; // columna donde empieza "return"
-                    idx.returns.add(new int[] { lineNo, colReturn });
-                }
+    // Cada "var id : tipo" deja su línea y columna en el primer símbolo con ese nombre
+    private static void actualizarLineasYColumnas(TablaSimbolos tablaSimbolos, SourceIndex idx) {
+        for (SourceIndex.VarDecl v : idx.varDecls()) {
+            Simbolo s = tablaSimbolos.buscar(v.id);
+            if (s != null) {
+                tablaSimbolos.reubicar(s, v.linea, v.columna);
             }
-
-            return idx;
         }
-
-        MappedSemantic mapearSemanticError(SemanticError e) {
-
-            String msg = (e.getMensaje() == null) ? "" : e.getMensaje();
-            String lower = msg.toLowerCase();
-
-            if (lower.contains("ya declarada")) {
-                String id = extraerPrimeraComillaSimple(msg);
-                if (id != null) {
-                    List<PosDecl> occs = decls.get(id.toLowerCase());
-                    if (occs != null && occs.size() >= 2) {
-                        PosDecl prev = occs.get(0);
-                        PosDecl now = occs.get(1);
-                        return new MappedSemantic(
-                            "Redeclaración: '" + now.idOriginal + "' colisiona con '" + prev.idOriginal + "' (lenguaje insensitive)",
-                            now.linea,
-                            now.colId
-                        );
-                    }
-                }
-            }
-
-            if (lower.contains("no declarada")) {
-                String id = extraerPrimeraComillaSimple(msg);
-                if (id != null) {
-                    List<int[]> poss = assigns.get(id.toLowerCase());
-                    if (poss != null && !poss.isEmpty()) {
-                        int[] p = poss.get(0);
-                        return new MappedSemantic(
-                            "Variable no declarada: '" + id + "'",
-                            p[0],
-                            p[1]
-                        );
-                    }
-                }
-            }
-
-            if (lower.contains("tipos incompatibles") && lower.contains("expresión aritmética")) {
-                if (lower.contains("bool") && (lower.contains("suma") || lower.contains("+"))) {
-                    OpOcc op = (idxBoolPlus < boolPlusOps.size()) ? boolPlusOps.get(idxBoolPlus++) : null;
-                    if (op != null) {
-                        return new MappedSemantic(
-                            "Tipos incompatibles: 'bool + int' (` " + op.snippet + " `)",
-                            op.linea,
-                            op.colOp
-                        );
-                    }
-                }
-
-                if (lower.contains("string") && (lower.contains("resta") || lower.contains("-"))) {
-                    OpOcc op = (idxStrMinus < stringMinusOps.size()) ? stringMinusOps.get(idxStrMinus++) : null;
-                    if (op != null) {
-                        return new MappedSemantic(
-                            "Operación inválida: 'string - string' (` " + op.snippet + " `)",
-                            op.linea,
-                            op.colOp
-                        );
-                    }
-                }
-            }
-
-            if (lower.contains("casteo no permitido") || lower.contains("casteo")) {
-                CastOcc c = (idxCasts < casts.size()) ? casts.get(idxCasts++) : null;
-                if (c != null) {
-                    return new MappedSemantic(
-                        "Casteo inválido: " + c.snippet + " (no permitido int -> bool)",
-                        c.linea,
-                        c.colError
-                    );
-                }
-            }
-
-            if (lower.contains("tipo incompatible en declaración")) {
-                String id = extraerPrimeraComillaSimple(msg);
-                if (id != null) {
-                    List<PosDecl> occs = decls.get(id.toLowerCase());
-                    if (occs != null && !occs.isEmpty()) {
-                        PosDecl d = occs.get(0);
-                        int col = (d.colRhs > 0) ? d.colRhs : d.colId;
-                        String rhs = (d.rhsSnippet == null || d.rhsSnippet.isEmpty()) ? "..." : d.rhsSnippet;
-                        return new MappedSemantic(
-                            "Asignación incompatible: 'int = string' (` " + id + " = " + rhs + " `)",
-                            d.linea,
-                            col
-                        );
-                    }
-                }
-            }
-
-            if (lower.contains("tipo incompatible en return")
-        || lower.contains("no puede retornar un valor")
-        || lower.contains("debe retornar un valor")) {
-
-    int[] p = (idxReturns < returns.size()) ? returns.get(idxReturns++) : null;
-    if (p != null) {
-        return new MappedSemantic(msg, p[0], p[1]);
     }
-}
-
-
-            int ln = e.getLinea() > 0 ? e.getLinea() : 1;
-            int col = e.getColumna() > 0 ? e.getColumna() : 1;
 
-            return new MappedSemantic(msg, ln, col);
-        }
-
-        private String extraerPrimeraComillaSimple(String msg) {
-            if (msg == null) return null;
-            int a = msg.indexOf('\'');
-            if (a < 0) return null;
-            int b = msg.indexOf('\'', a + 1);
-            if (b < 0) return null;
-            return msg.substring(a + 1, b);
-        }
-    }
 
-    private static void generarReporteAST(Programa programa, ConsolePanel console) {
+    private static void generarReporteAST(String dot, SesionEjecucion sesion) {
+    Path reportDir = sesion.getDirectorioReportes();
+    if (reportDir == null || dot == null) return;
+    Consola console = sesion.getConsola();
+    Path dotPath = reportDir.resolve("ast.dot");
+    String astError;
     try {
-        Path reportDir = Paths.get(System.getProperty("user.dir"), "reportes");
         Files.createDirectories(reportDir);
 
-        Path dotPath = reportDir.resolve("ast.dot");
         Path pngPath = reportDir.resolve("ast.png");
 
-        AstDotGenerator gen = new AstDotGenerator();
-        String dot = gen.generate(programa);
-
         Files.write(dotPath, dot.getBytes(StandardCharsets.UTF_8));
 
-        ultimoAstDotPath = dotPath;
-        ultimoAstPngPath = null;
-        ultimoAstError = null;
+        sesion.setReporteAst(dotPath, null, null);
 
         // Ejecutar Graphviz (dot -Tpng ast.dot -o ast.png)
         ProcessBuilder pb = new ProcessBuilder(
@@ -940,40 +438,56 @@ private static int countChar(String s, char c) {
         int exitCode = p.waitFor();
 
         if (exitCode == 0 && Files.exists(pngPath)) {
-            ultimoAstPngPath = pngPath;
-
-            if (console != null) {
-                console.appendLine("[AST] Generado: " + pngPath.toAbsolutePath());
-            }
-        } else {
-            ultimoAstError = (output == null || output.isEmpty())
-                    ? ("Graphviz terminó con código " + exitCode)
-                    : output;
+            sesion.setReporteAst(dotPath, pngPath, null);
 
             if (console != null) {
-                console.appendLine("[AST] No se pudo generar PNG. " + ultimoAstError);
+                console.appendDiagnostico("[AST] Generado: " + pngPath.toAbsolutePath());
             }
+            return;
         }
+        astError = (output == null || output.isEmpty())
+                ? ("Graphviz terminó con código " + exitCode)
+                : output;
 
-    } catch (IOException ex) {
-        ultimoAstError = "No se encontró el comando 'dot' (Graphviz). Instálalo y asegúrate de que esté en PATH.\n" + ex.getMessage();
         if (console != null) {
-            console.appendLine("[AST] " + ultimoAstError);
+            console.appendDiagnostico("[AST] No se pudo generar PNG. " + astError);
         }
+        sesion.setReporteAst(dotPath, null, astError);
+        return;
+
+    } catch (IOException ex) {
+        astError = "No se encontró el comando 'dot' (Graphviz). Instálalo y asegúrate de que esté en PATH.\n" + ex.getMessage();
     } catch (InterruptedException ex) {
         Thread.currentThread().interrupt();
-        ultimoAstError = "La generación del AST fue interrumpida.";
-        if (console != null) {
-            console.appendLine("[AST] " + ultimoAstError);
-        }
+        astError = "La generación del AST fue interrumpida.";
     } catch (Exception ex) {
-        ultimoAstError = "Error inesperado generando AST: " + ex.getMessage();
-        if (console != null) {
-            console.appendLine("[AST] " + ultimoAstError);
-        }
+        astError = "Error inesperado generando AST: " + ex.getMessage();
+    }
+    sesion.setReporteAst(sesion.getAstDotPath(), null, astError);
+    if (console != null) {
+        console.appendDiagnostico("[AST] " + astError);
     }
 }
 
+    private static void generarReporteASTOptimizado(Programa programa, SesionEjecucion sesion) {
+        Path reportDir = sesion.getDirectorioReportes();
+        if (reportDir == null) return;
+        Consola console = sesion.getConsola();
+        try {
+            Files.createDirectories(reportDir);
+            Path dotPath = reportDir.resolve("ast_optimizado.dot");
+            String dot = new AstDotGenerator().generate(programa);
+            Files.write(dotPath, dot.getBytes(StandardCharsets.UTF_8));
+            if (console != null) {
+                console.appendDiagnostico("[AST] Optimizado: " + dotPath.toAbsolutePath());
+            }
+        } catch (IOException ex) {
+            if (console != null) {
+                console.appendDiagnostico("[AST] No se pudo escribir el AST optimizado: " + ex.getMessage());
+            }
+        }
+    }
+
 private static String readAll(InputStream in) throws IOException {
     java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
     byte[] buffer = new byte[4096];
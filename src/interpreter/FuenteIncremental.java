@@ -0,0 +1,370 @@
+package interpreter;
+
+import ast.DesplazadorLineas;
+import ast.Programa;
+import ast.sentencias.Sentencia;
+import lexer.FiltroPreproceso;
+import lexer.Lexer;
+import lexer.RegistroTokens;
+import parser.FabricaSimbolos;
+import parser.Parser;
+import reports.ErrorInfo;
+import reports.TablaErrores;
+import semantic.OptimizadorAST;
+import semantic.VisitanteResolucion;
+import semantic.VisitanteSemantico;
+import utils.LineTable;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parseo incremental de un documento del editor. El texto se parte en
+ * fragmentos de nivel superior (una función o una o más sentencias globales)
+ * que se preprocesan, lexean y parsean por separado; EditorTabPanel avisa qué
+ * rango se editó y en la siguiente corrida solo se vuelven a parsear los
+ * fragmentos que lo tocan. Los demás se reutilizan, corriendo sus líneas si el
+ * fragmento quedó más arriba o más abajo.
+ *
+ * Un fragmento termina en una línea que cierra en profundidad 0 (llaves,
+ * paréntesis y corchetes) con ';' o '}', fuera de strings y comentarios. Si
+ * la zona editada ya no cierra así, se vuelve a fragmentar todo el archivo; si
+ * algún fragmento tiene errores sintácticos, Ejecutor parsea el archivo
+ * completo para que la recuperación de errores sea la de siempre.
+ *
+ * Los nodos de cada fragmento quedan anclados a su DesplazadorLineas, así que
+ * correr un fragmento no recorre sus nodos. Cada fragmento guarda también su
+ * tramo de SourceIndex, y el documento lleva la memoria del semántico, del
+ * optimizador y de la resolución: esas pasadas reutilizan lo que hicieron
+ * con cada función que no cambió mientras no cambie nada de lo que
+ * consultaron fuera de ella. Las sentencias globales, la primera pasada del
+ * semántico y el reporte DOT del AST siguen recorriendo el programa completo.
+ *
+ * Una corrida a la vez por documento: UiController no lanza otra mientras
+ * la anterior no termina.
+ */
+public final class FuenteIncremental {
+
+    private static final class Fragmento {
+        // Línea (1..n) donde empieza y cuántas ocupa
+        int linea;
+        final int lineas;
+        // Caracteres del texto original, con los fines de línea
+        final int caracteres;
+        final List<Sentencia> sentencias;
+        // Ancla de los nodos, que se parsearon cuando el fragmento empezaba en lineaParseo
+        final DesplazadorLineas ancla;
+        final int lineaParseo;
+        // Líneas relativas al inicio del fragmento
+        final List<ErrorInfo> erroresPreproceso;
+        final List<ErrorInfo> erroresLexicos;
+        final boolean erroresSintacticos;
+        // Con las líneas que tenía al parsear
+        final SourceIndex.Tramo indice;
+
+        Fragmento(int linea, int lineas, int caracteres, List<Sentencia> sentencias, SourceIndex.Tramo indice,
+                  List<ErrorInfo> erroresPreproceso, List<ErrorInfo> erroresLexicos, boolean erroresSintacticos) {
+            this.linea = linea;
+            this.indice = indice;
+            this.lineas = lineas;
+            this.caracteres = caracteres;
+            this.sentencias = sentencias;
+            this.ancla = DesplazadorLineas.anclar(sentencias);
+            this.lineaParseo = linea;
+            this.erroresPreproceso = erroresPreproceso;
+            this.erroresLexicos = erroresLexicos;
+            this.erroresSintacticos = erroresSintacticos;
+        }
+    }
+
+    // Ediciones desde la última toma: caracteres iniciales y finales que no cambiaron
+    private int prefijo = Integer.MAX_VALUE;
+    private int sufijo = Integer.MAX_VALUE;
+
+    // Toma de la corrida en curso y la anterior (contra la que se midió la edición)
+    private String tomado;
+    private String tomadoAntes;
+    private int tomadoPrefijo;
+    private int tomadoSufijo;
+
+    // Resultado del último análisis y el texto del que salió
+    private List<Fragmento> fragmentos;
+    private String textoFragmentos;
+
+    private int reparseados;
+
+    // Lo que las pasadas posteriores al parseo guardan de cada función entre corridas
+    private final VisitanteSemantico.Memoria memoriaSemantica = new VisitanteSemantico.Memoria();
+    private final OptimizadorAST.Memoria memoriaOptimizador = new OptimizadorAST.Memoria();
+    private final VisitanteResolucion.Memoria memoriaResolucion = new VisitanteResolucion.Memoria();
+
+    /** Desde el DocumentListener: en offset se insertaron o borraron caracteres; largo es el del documento ya editado. */
+    public synchronized void editado(int offset, int insertados, int borrados, int largo) {
+        prefijo = Math.min(prefijo, offset);
+        sufijo = Math.min(sufijo, largo - offset - insertados);
+    }
+
+    /** Texto que se va a ejecutar; se llama en el EDT junto con getText() para no perder ediciones. */
+    public synchronized void tomar(String texto) {
+        tomadoAntes = tomado;
+        tomado = texto;
+        tomadoPrefijo = prefijo;
+        tomadoSufijo = sufijo;
+        prefijo = Integer.MAX_VALUE;
+        sufijo = Integer.MAX_VALUE;
+    }
+
+    /** Fragmentos que se parsearon en el último análisis (los demás se reutilizaron). */
+    public synchronized int getReparseados() {
+        return reparseados;
+    }
+
+    /**
+     * Deja los fragmentos al día con el código. false si alguno tiene errores
+     * sintácticos y hay que parsear el archivo completo.
+     */
+    synchronized boolean actualizar(String codigo) {
+        LineTable lineas = new LineTable(codigo);
+        List<Fragmento> nuevos = null;
+        reparseados = 0;
+        if (fragmentos != null && codigo == tomado && textoFragmentos == tomadoAntes) {
+            nuevos = reutilizar(codigo, lineas);
+        }
+        if (nuevos == null) {
+            nuevos = fragmentar(codigo, lineas, 0, lineas.getLineCount());
+        }
+        fragmentos = nuevos;
+        textoFragmentos = codigo;
+        for (Fragmento f : nuevos) {
+            if (f.erroresSintacticos) return false;
+        }
+        return true;
+    }
+
+    /** Programa con las sentencias de todos los fragmentos, en orden. */
+    synchronized Programa getPrograma() {
+        List<Sentencia> todas = new ArrayList<>();
+        for (Fragmento f : fragmentos) {
+            f.ancla.setDelta(f.linea - f.lineaParseo);
+            todas.addAll(f.sentencias);
+        }
+        return new Programa(todas, 0, 0);
+    }
+
+    /** SourceIndex del documento, armado con los tramos de los fragmentos. */
+    synchronized SourceIndex getIndice() {
+        SourceIndex.Tramo[] tramos = new SourceIndex.Tramo[fragmentos.size()];
+        int[] deltas = new int[tramos.length];
+        for (int i = 0; i < tramos.length; i++) {
+            Fragmento f = fragmentos.get(i);
+            tramos[i] = f.indice;
+            deltas[i] = f.linea - f.lineaParseo;
+        }
+        return SourceIndex.unir(tramos, deltas);
+    }
+
+    VisitanteSemantico.Memoria getMemoriaSemantica() {
+        return memoriaSemantica;
+    }
+
+    OptimizadorAST.Memoria getMemoriaOptimizador() {
+        return memoriaOptimizador;
+    }
+
+    VisitanteResolucion.Memoria getMemoriaResolucion() {
+        return memoriaResolucion;
+    }
+
+    // En el mismo orden en que los registra el análisis completo: todo el preproceso y luego el léxico
+    synchronized void agregarErroresPreproceso(TablaErrores tablaErrores) {
+        for (Fragmento f : fragmentos) agregar(tablaErrores, f.erroresPreproceso, f.linea);
+    }
+
+    synchronized void agregarErroresLexicos(TablaErrores tablaErrores) {
+        for (Fragmento f : fragmentos) agregar(tablaErrores, f.erroresLexicos, f.linea);
+    }
+
+    private static void agregar(TablaErrores tablaErrores, List<ErrorInfo> errores, int linea) {
+        for (ErrorInfo e : errores) {
+            tablaErrores.agregarError(e.getTipo(), e.getDescripcion(), e.getLinea() + linea - 1, e.getColumna());
+        }
+    }
+
+    /** Reparsea solo los fragmentos que tocó la edición; null si hay que fragmentar todo. */
+    private List<Fragmento> reutilizar(String codigo, LineTable lineas) {
+        int largoAntes = textoFragmentos.length();
+        int pre = Math.min(tomadoPrefijo, largoAntes);
+        int suf = Math.min(tomadoSufijo, largoAntes - pre);
+        if (pre == largoAntes && suf == 0 && codigo.length() == largoAntes) {
+            return fragmentos;
+        }
+        if (fragmentos.isEmpty() || largoAntes - suf < pre || codigo.length() - suf < pre) return null;
+
+        // Primer fragmento que contiene el prefijo intacto y último que contiene el inicio del sufijo
+        int primero = -1;
+        int ultimo = fragmentos.size() - 1;
+        int fin = 0;
+        int finUltimo = largoAntes;
+        for (int i = 0; i < fragmentos.size(); i++) {
+            fin += fragmentos.get(i).caracteres;
+            if (primero < 0 && fin > pre) primero = i;
+            if (fin >= largoAntes - suf + 1) {
+                ultimo = i;
+                finUltimo = fin;
+                break;
+            }
+        }
+        if (primero < 0) primero = fragmentos.size() - 1;
+        if (ultimo < primero) ultimo = primero;
+
+        Fragmento a = fragmentos.get(primero);
+        Fragmento b = fragmentos.get(ultimo);
+        int lineasAntes = b.linea + b.lineas - a.linea;
+        // Lo que quedó después de la zona no cambió: se cuenta desde el final del archivo
+        int lineasDespues = 0;
+        for (int i = ultimo + 1; i < fragmentos.size(); i++) lineasDespues += fragmentos.get(i).lineas;
+        int total = lineas.getLineCount();
+        int desde = a.linea - 1;
+        int hasta = total - lineasDespues;
+        if (hasta <= desde || lineas.lineStart(hasta + 1) != codigo.length() - (largoAntes - finUltimo)) return null;
+        if (hasta < total && !cierra(codigo, lineas, desde, hasta)) return null;
+
+        List<Fragmento> zona = fragmentar(codigo, lineas, desde, hasta);
+
+        List<Fragmento> out = new ArrayList<>(fragmentos.size() - (ultimo - primero + 1) + zona.size());
+        out.addAll(fragmentos.subList(0, primero));
+        out.addAll(zona);
+        int delta = (hasta - desde) - lineasAntes;
+        for (int i = ultimo + 1; i < fragmentos.size(); i++) {
+            Fragmento f = fragmentos.get(i);
+            f.linea += delta;
+            out.add(f);
+        }
+        return out;
+    }
+
+    // true si la última línea de [desde, hasta) es fin de fragmento
+    private static boolean cierra(String codigo, LineTable lineas, int desde, int hasta) {
+        Escaner e = new Escaner();
+        boolean fin = false;
+        for (int i = desde; i < hasta; i++) fin = e.linea(codigo, lineas.lineStart(i + 1), lineas.lineStart(i + 2));
+        return fin;
+    }
+
+    /** Parte las líneas [desde, hasta) en fragmentos y parsea cada uno. */
+    private List<Fragmento> fragmentar(String codigo, LineTable lineas, int desde, int hasta) {
+        List<Fragmento> out = new ArrayList<>();
+        Escaner e = new Escaner();
+        int inicio = desde;
+        for (int i = desde; i < hasta; i++) {
+            if (e.linea(codigo, lineas.lineStart(i + 1), lineas.lineStart(i + 2)) || i == hasta - 1) {
+                out.add(parsear(codigo, lineas, inicio, i + 1));
+                inicio = i + 1;
+                e = new Escaner();
+            }
+        }
+        return out;
+    }
+
+    private Fragmento parsear(String codigo, LineTable lineas, int desde, int hasta) {
+        reparseados++;
+        String texto = codigo.substring(lineas.lineStart(desde + 1), lineas.lineStart(hasta + 1));
+
+        TablaErrores pre = new TablaErrores();
+        FiltroPreproceso filtro = new FiltroPreproceso(new StringReader(texto), desde, pre);
+
+        TablaErrores lexicos = new TablaErrores();
+        TablaErrores sintacticos = new TablaErrores();
+        List<Sentencia> sentencias = new ArrayList<>();
+        RegistroTokens tokens = new RegistroTokens();
+        boolean fallo = false;
+        try {
+            Lexer lexer = new Lexer(filtro);
+            lexer.setLineaBase(desde);
+            lexer.setRegistro(tokens);
+            lexer.setTablaErrores(lexicos);
+            Parser parser = new Parser(lexer, new FabricaSimbolos());
+            parser.setTablaErrores(sintacticos);
+            parser.parse();
+            if (parser.getPrograma() == null) fallo = true;
+            else sentencias = parser.getPrograma().getSentencias();
+        } catch (Exception ex) {
+            fallo = true;
+        }
+        try {
+            filtro.consumirResto();
+        } catch (IOException ex) {
+            fallo = true;
+        }
+        filtro.corregir(tokens);
+        // Todo lo que puede ubicar un error, sin saber aún si el semántico va a dar alguno
+        SourceIndex.Tramo indice = SourceIndex.indexar(tokens, texto, desde + 1, true);
+        return new Fragmento(desde + 1, hasta - desde, texto.length(), sentencias, indice,
+                relativos(pre, desde), relativos(lexicos, desde), fallo || sintacticos.tieneErrores());
+    }
+
+    // Errores en el orden en que se registraron, con la línea relativa al fragmento
+    private static List<ErrorInfo> relativos(TablaErrores tabla, int desde) {
+        List<ErrorInfo> out = new ArrayList<>();
+        if (!tabla.tieneErrores()) return out;
+        List<ErrorInfo> errores = tabla.getErrores();
+        errores.sort((x, y) -> Integer.compare(x.getNumero(), y.getNumero()));
+        for (ErrorInfo e : errores) {
+            out.add(new ErrorInfo(e.getTipo(), e.getDescripcion(), e.getLinea() - desde, e.getColumna()));
+        }
+        return out;
+    }
+
+    /** Sigue llaves, paréntesis, corchetes, strings y comentarios línea por línea. */
+    private static final class Escaner {
+        private int profundidad;
+        private boolean enString;
+        private boolean enComentario;
+
+        // true si la línea s[desde, hasta) termina un fragmento
+        boolean linea(String s, int desde, int hasta) {
+            char ultimo = 0;
+            boolean escape = false;
+            for (int i = desde; i < hasta; i++) {
+                char c = s.charAt(i);
+                if (enComentario) {
+                    if (c == '*' && i + 1 < hasta && s.charAt(i + 1) == '/') {
+                        enComentario = false;
+                        i++;
+                    }
+                    continue;
+                }
+                if (enString) {
+                    if (escape) escape = false;
+                    else if (c == '\\') escape = true;
+                    else if (c == '"') enString = false;
+                    continue;
+                }
+                if (c == '/' && i + 1 < hasta) {
+                    char d = s.charAt(i + 1);
+                    if (d == '/') break;
+                    if (d == '*') {
+                        enComentario = true;
+                        i++;
+                        continue;
+                    }
+                }
+                switch (c) {
+                    case '"': enString = true; break;
+                    case '\'':
+                        // 'x' o '\x': se salta entero para que no cuente llaves ni comillas
+                        int cierre = s.indexOf('\'', i + (i + 1 < hasta && s.charAt(i + 1) == '\\' ? 3 : 2));
+                        if (cierre > 0 && cierre < hasta && cierre - i <= 3) i = cierre;
+                        break;
+                    case '{': case '(': case '[': profundidad++; break;
+                    case '}': case ')': case ']': profundidad--; break;
+                    default: break;
+                }
+                if (!Character.isWhitespace(c)) ultimo = c;
+            }
+            return profundidad == 0 && !enString && !enComentario && (ultimo == ';' || ultimo == '}');
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package interpreter;
+
+/**
+ * Motor con el que Ejecutor corre un programa ya validado.
+ */
+public enum ModoEjecucion {
+    // VisitanteEvaluacion sobre el AST
+    INTERPRETE,
+    // Clase JVM de interpreter.bytecode.MotorBytecode; sus bytes los produce javac, así que requiere un JDK (sin él se interpreta)
+    BYTECODE,
+    // VisitanteEspecializado: sitios aritméticos/relacionales con retroalimentación de tipos
+    ESPECIALIZADO,
+    // Árbol de clausuras de interpreter.clausuras.CompiladorClausuras
+    CLAUSURAS,
+    // interpreter.pila.MaquinaPila: marcos de llamada en el heap y return en cola sin crecer la pila
+    PILA
+}
@@ -0,0 +1,646 @@
+package interpreter;
+
+import ast.OperadorAritmetico;
+import ast.OperadorLogico;
+import ast.OperadorRelacional;
+import interpreter.estructuras.Cadena;
+import interpreter.estructuras.Matrices;
+import interpreter.estructuras.MatrizPrimitiva;
+import interpreter.estructuras.VectorPrimitivo;
+import interpreter.estructuras.Vectores;
+import semantic.Tipo;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Semántica de los operadores de JavaUSAC sobre Valor. La comparten todos los
+ * motores de ejecución para que den exactamente los mismos resultados.
+ */
+public final class Operaciones {
+
+    private Operaciones() {
+    }
+
+    public static boolean esNumerico(Valor v) {
+        if (v == null) return false;
+        Tipo t = v.getEtiqueta();
+        return t == Tipo.INT || t == Tipo.DOUBLE || t == Tipo.CHAR;
+    }
+
+    public static boolean esEntero(Valor v) {
+        if (v == null) return false;
+        Tipo t = v.getEtiqueta();
+        return t == Tipo.INT || t == Tipo.CHAR;
+    }
+
+    public static double toDouble(Valor v) {
+        if (v == null || !v.isSinCaja()) return 0.0;
+        switch (v.getEtiqueta()) {
+            case INT:
+            case DOUBLE:
+            case CHAR:
+                return v.comoDouble();
+            default:
+                return 0.0;
+        }
+    }
+
+    public static int toInt(Valor v) {
+        if (v == null || !v.isSinCaja()) return 0;
+        switch (v.getEtiqueta()) {
+            case INT:
+            case CHAR:
+            case DOUBLE:
+                return v.comoInt();
+            default:
+                return 0;
+        }
+    }
+
+    public static boolean esAsignableRuntime(Tipo destino, Valor origen) {
+        if (destino == null || origen == null) return false;
+        Tipo tOri = origen.getEtiqueta();
+
+        if (destino == tOri) return true;
+        if (destino == Tipo.INT && tOri == Tipo.BOOL) return true;
+        if (destino == Tipo.DOUBLE && (tOri == Tipo.INT || tOri == Tipo.CHAR)) return true;
+        return false;
+    }
+
+    public static Valor convertirSiAplica(Tipo destino, Valor v) {
+        if (destino == null || v == null) return v;
+        if (destino == Tipo.INT && v.getEtiqueta() == Tipo.BOOL) {
+            return Valor.entero(v.comoBool() ? 1 : 0);
+        }
+        if (destino == Tipo.DOUBLE && (v.getEtiqueta() == Tipo.INT || v.getEtiqueta() == Tipo.CHAR)) {
+            return Valor.decimal(toDouble(v));
+        }
+        return v;
+    }
+
+    public static String stringify(Object o) {
+        if (o == null) return "null";
+        if (o instanceof List) {
+            List<?> l = (List<?>) o;
+            StringBuilder sb = new StringBuilder();
+            sb.append("[");
+            for (int i = 0; i < l.size(); i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(stringify(l.get(i)));
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+        return String.valueOf(o);
+    }
+
+    public static String tipoDesdeObjeto(Object o) {
+        if (o instanceof Integer) return "int";
+        if (o instanceof Double) return "double";
+        if (o instanceof Boolean) return "bool";
+        if (o instanceof Character) return "char";
+        if (o instanceof String) return "string";
+        if (o instanceof List) return "list";
+        return "any";
+    }
+
+    public static boolean esVerdadero(Valor cond) {
+        return cond.getEtiqueta() == Tipo.BOOL && cond.isSinCaja() && cond.comoBool();
+    }
+
+    private static boolean esDouble(Valor v) {
+        return v.getEtiqueta() == Tipo.DOUBLE;
+    }
+
+    public static Valor aritmetica(OperadorAritmetico op, Valor izq, Valor der, ContextoEjecucion contexto) {
+        if (izq == null) {
+            if (op == OperadorAritmetico.NEGACION_UNARIA) {
+                return negar(der);
+            }
+            return Valor.ERROR;
+        }
+        switch (op) {
+            case SUMA:
+                return sumar(izq, der, contexto);
+            case RESTA:
+                return restar(izq, der, contexto);
+            case MULTIPLICACION:
+                return multiplicar(izq, der, contexto);
+            case DIVISION:
+                return dividir(izq, der, contexto);
+            case MODULO:
+                return modulo(izq, der, contexto);
+            case POTENCIA:
+                return potencia(izq, der, contexto);
+            default:
+                return Valor.ERROR;
+        }
+    }
+
+    /** izq + der con al menos un string; si izq es string puede seguir creciendo en su Cadena. */
+    public static Valor concatenar(Valor izq, Valor der) {
+        String s2 = der.getValor() != null ? der.getValor().toString() : "null";
+        Object a = izq.getValorSinAplanar();
+        if (izq.getEtiqueta() == Tipo.STRING && a != null) {
+            return Valor.de(Cadena.concatenar(a, s2), Tipo.STRING);
+        }
+        String s1 = a != null ? izq.getValor().toString() : "null";
+        return Valor.cadena(s1 + s2);
+    }
+
+    public static Valor negar(Valor der) {
+        if (der.getEtiqueta() == Tipo.INT) {
+            return Valor.entero(-toInt(der));
+        } else if (esDouble(der)) {
+            return Valor.decimal(-toDouble(der));
+        } else if (der.getEtiqueta() == Tipo.CHAR) {
+            return Valor.entero(-toInt(der));
+        }
+        return Valor.ERROR;
+    }
+
+    public static Valor sumar(Valor izq, Valor der, ContextoEjecucion contexto) {
+        if (izq.getEtiqueta() == Tipo.STRING || der.getEtiqueta() == Tipo.STRING) {
+            return concatenar(izq, der);
+        }
+        if (esNumerico(izq) && esNumerico(der)) {
+            if (esDouble(izq) || esDouble(der)) {
+                return Valor.decimal(toDouble(izq) + toDouble(der));
+            }
+            return Valor.entero(toInt(izq) + toInt(der));
+        }
+        contexto.agregarError("No se puede sumar tipos '" + izq.getTipo() + "' y '" + der.getTipo() + "'");
+        return Valor.ERROR;
+    }
+
+    public static Valor restar(Valor izq, Valor der, ContextoEjecucion contexto) {
+        if (esNumerico(izq) && esNumerico(der)) {
+            if (esDouble(izq) || esDouble(der)) {
+                return Valor.decimal(toDouble(izq) - toDouble(der));
+            }
+            return Valor.entero(toInt(izq) - toInt(der));
+        }
+        contexto.agregarError("No se puede restar tipos '" + izq.getTipo() + "' y '" + der.getTipo() + "'");
+        return Valor.ERROR;
+    }
+
+    public static Valor multiplicar(Valor izq, Valor der, ContextoEjecucion contexto) {
+        if (esNumerico(izq) && esNumerico(der)) {
+            if (esDouble(izq) || esDouble(der)) {
+                return Valor.decimal(toDouble(izq) * toDouble(der));
+            }
+            return Valor.entero(toInt(izq) * toInt(der));
+        }
+        contexto.agregarError("No se puede multiplicar tipos '" + izq.getTipo() + "' y '" + der.getTipo() + "'");
+        return Valor.ERROR;
+    }
+
+    public static Valor dividir(Valor izq, Valor der, ContextoEjecucion contexto) {
+        if (esNumerico(izq) && esNumerico(der)) {
+            double b = toDouble(der);
+            if (Math.abs(b) < 1e-9) {
+                contexto.agregarError("División entre cero");
+                return Valor.ERROR;
+            }
+            return Valor.decimal(toDouble(izq) / b);
+        }
+        contexto.agregarError("No se puede dividir tipos '" + izq.getTipo() + "' y '" + der.getTipo() + "'");
+        return Valor.ERROR;
+    }
+
+    public static Valor modulo(Valor izq, Valor der, ContextoEjecucion contexto) {
+        if (esEntero(izq) && esEntero(der)) {
+            int b = toInt(der);
+            if (b == 0) {
+                contexto.agregarError("Módulo por cero");
+                return Valor.ERROR;
+            }
+            return Valor.entero(toInt(izq) % b);
+        }
+        contexto.agregarError("El operador % solo se permite entre enteros (int/char)");
+        return Valor.ERROR;
+    }
+
+    public static Valor potencia(Valor izq, Valor der, ContextoEjecucion contexto) {
+        if (esNumerico(izq) && esNumerico(der)) {
+            if (izq.getEtiqueta() == Tipo.INT && der.getEtiqueta() == Tipo.INT) {
+                return Valor.entero((int) Math.pow(toInt(izq), toInt(der)));
+            }
+            return Valor.decimal(Math.pow(toDouble(izq), toDouble(der)));
+        }
+        contexto.agregarError("No se puede aplicar potencia a tipos '" + izq.getTipo() + "' y '" + der.getTipo() + "'");
+        return Valor.ERROR;
+    }
+
+    public static Valor relacional(OperadorRelacional op, Valor izq, Valor der, ContextoEjecucion contexto) {
+        Tipo tIzq = izq.getEtiqueta();
+        Tipo tDer = der.getEtiqueta();
+        boolean resultado = false;
+        if (esNumerico(izq) && esNumerico(der)) {
+            double a = toDouble(izq);
+            double b = toDouble(der);
+            switch (op) {
+                case MENOR: resultado = a < b; break;
+                case MAYOR: resultado = a > b; break;
+                case MENOR_IGUAL: resultado = a <= b; break;
+                case MAYOR_IGUAL: resultado = a >= b; break;
+                case IGUAL: resultado = Math.abs(a - b) < 1e-9; break;
+                case DIFERENTE: resultado = Math.abs(a - b) >= 1e-9; break;
+            }
+            return Valor.booleano(resultado);
+        }
+        if (tIzq == Tipo.BOOL && tDer == Tipo.BOOL) {
+            boolean a = izq.comoBool();
+            boolean b = der.comoBool();
+            switch (op) {
+                case IGUAL: resultado = (a == b); break;
+                case DIFERENTE: resultado = (a != b); break;
+                default:
+                    contexto.agregarError("Operador relacional no válido para booleanos");
+                    break;
+            }
+            return Valor.booleano(resultado);
+        }
+        if (tIzq == Tipo.STRING && tDer == Tipo.STRING) {
+            String a = (String) izq.getValor();
+            String b = (String) der.getValor();
+            switch (op) {
+                case IGUAL: resultado = a.equals(b); break;
+                case DIFERENTE: resultado = !a.equals(b); break;
+                default:
+                    contexto.agregarError("Operador relacional no válido para strings");
+                    break;
+            }
+            return Valor.booleano(resultado);
+        }
+        contexto.agregarError("Tipos incompatibles en expresión relacional");
+        return Valor.FALSE;
+    }
+
+    public static Valor logica(OperadorLogico op, Valor izq, Valor der) {
+        if (izq == null) {
+            if (der.getEtiqueta() == Tipo.BOOL) {
+                return Valor.booleano(!der.comoBool());
+            }
+        } else {
+            if (izq.getEtiqueta() == Tipo.BOOL && der.getEtiqueta() == Tipo.BOOL) {
+                boolean a = izq.comoBool();
+                boolean b = der.comoBool();
+                switch (op) {
+                    case AND: return Valor.booleano(a && b);
+                    case OR:  return Valor.booleano(a || b);
+                    case XOR: return Valor.booleano(a ^ b);
+                }
+            }
+        }
+        return Valor.FALSE;
+    }
+
+    public static Valor casteo(Tipo destino, Valor valor) {
+        switch (destino) {
+            case INT:
+                if (esDouble(valor) || valor.getEtiqueta() == Tipo.CHAR) {
+                    return Valor.entero(toInt(valor));
+                }
+                break;
+            case DOUBLE:
+                if (valor.getEtiqueta() == Tipo.INT || valor.getEtiqueta() == Tipo.CHAR) {
+                    return Valor.decimal(toDouble(valor));
+                }
+                break;
+            case CHAR:
+                if (valor.getEtiqueta() == Tipo.INT) {
+                    return Valor.caracter((char) toInt(valor));
+                }
+                break;
+            case STRING:
+                return Valor.cadena(valor.toString());
+        }
+        return Valor.ERROR;
+    }
+
+    public static boolean sonIguales(Valor a, Valor b) {
+        if (a == null || b == null) return false;
+        if (a.getEtiqueta() != b.getEtiqueta()) return false;
+        if (a.getEtiqueta() == null && !a.getTipo().equals(b.getTipo())) return false;
+        if (a.isSinCaja() && b.isSinCaja()) {
+            if (esDouble(a)) return Double.doubleToLongBits(a.comoDouble()) == Double.doubleToLongBits(b.comoDouble());
+            return a.comoInt() == b.comoInt();
+        }
+        if (a.getValor() == null) return b.getValor() == null;
+        return a.getValor().equals(b.getValor());
+    }
+
+    // ---- vectores, matrices y listas ----
+
+    public static Valor desdeElemento(Object val) {
+        if (val instanceof Integer) return Valor.entero((Integer) val);
+        if (val instanceof Double) return Valor.decimal((Double) val);
+        if (val instanceof Boolean) return Valor.booleano((Boolean) val);
+        if (val instanceof Character) return Valor.caracter((Character) val);
+        if (val instanceof String) return Valor.cadena((String) val);
+        return new Valor(val, "unknown");
+    }
+
+    public static Valor indexar(Object obj, int i1, ContextoEjecucion contexto) {
+        if (obj instanceof VectorPrimitivo) {
+            VectorPrimitivo v = (VectorPrimitivo) obj;
+            if (i1 < 0 || i1 >= v.size()) {
+                contexto.agregarError("Índice fuera de rango: " + i1);
+                return Valor.ERROR;
+            }
+            return v.valorEn(i1);
+        }
+        if (!(obj instanceof List)) {
+            contexto.agregarError("Acceso indexado 1D solo aplica a vector/lista (ejecución)");
+            return Valor.ERROR;
+        }
+        List<?> l = (List<?>) obj;
+        if (i1 < 0 || i1 >= l.size()) {
+            contexto.agregarError("Índice fuera de rango: " + i1);
+            return Valor.ERROR;
+        }
+        if (l instanceof MatrizPrimitiva) {
+            return Valor.de(l.get(i1), ((MatrizPrimitiva) l).getTipoFila());
+        }
+        Object val = l.get(i1);
+        if (val instanceof VectorPrimitivo) {
+            return Valor.de(val, ((VectorPrimitivo) val).getTipo());
+        }
+        if (val instanceof List) {
+            List<?> row = (List<?>) val;
+            Tipo base = Tipo.VECTOR_INT;
+            if (!row.isEmpty()) {
+                Object e0 = row.get(0);
+                if (e0 instanceof Double) base = Tipo.VECTOR_DOUBLE;
+                else if (e0 instanceof Boolean) base = Tipo.VECTOR_BOOL;
+                else if (e0 instanceof Character) base = Tipo.VECTOR_CHAR;
+                else if (e0 instanceof String) base = Tipo.VECTOR_STRING;
+            }
+            return Valor.de(row, base);
+        }
+        return desdeElemento(val);
+    }
+
+    public static Valor indexar(Object obj, int i1, int i2, ContextoEjecucion contexto) {
+        if (obj instanceof MatrizPrimitiva) {
+            MatrizPrimitiva m = (MatrizPrimitiva) obj;
+            if (i1 < 0 || i1 >= m.filas()) {
+                contexto.agregarError("Fila fuera de rango: " + i1);
+                return Valor.ERROR;
+            }
+            if (i2 < 0 || i2 >= m.columnas(i1)) {
+                contexto.agregarError("Columna fuera de rango: " + i2);
+                return Valor.ERROR;
+            }
+            return m.valorEn(i1, i2);
+        }
+        if (!(obj instanceof List)) {
+            contexto.agregarError("Acceso indexado 2D solo aplica a matriz (ejecución)");
+            return Valor.ERROR;
+        }
+        List<?> rows = (List<?>) obj;
+        if (i1 < 0 || i1 >= rows.size()) {
+            contexto.agregarError("Fila fuera de rango: " + i1);
+            return Valor.ERROR;
+        }
+        Object rowObj = rows.get(i1);
+        if (!(rowObj instanceof List)) {
+            contexto.agregarError("Estructura de matriz inválida (fila no es lista)");
+            return Valor.ERROR;
+        }
+        List<?> row = (List<?>) rowObj;
+        if (i2 < 0 || i2 >= row.size()) {
+            contexto.agregarError("Columna fuera de rango: " + i2);
+            return Valor.ERROR;
+        }
+        if (row instanceof VectorPrimitivo) return ((VectorPrimitivo) row).valorEn(i2);
+        return desdeElemento(row.get(i2));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void asignarIndexado(Object obj, int i1, Valor val, ContextoEjecucion contexto) {
+        if (!(obj instanceof List)) {
+            contexto.agregarError("Asignación indexada 1D solo aplica a vector/lista (ejecución)");
+            return;
+        }
+        List<Object> l = (List<Object>) obj;
+        if (i1 < 0 || i1 >= l.size()) {
+            contexto.agregarError("Índice fuera de rango en asignación: " + i1);
+            return;
+        }
+        if (l instanceof VectorPrimitivo) ((VectorPrimitivo) l).asignar(i1, val);
+        else l.set(i1, val.getValor());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void asignarIndexado(Object obj, int i1, int i2, Valor val, ContextoEjecucion contexto) {
+        if (obj instanceof MatrizPrimitiva) {
+            MatrizPrimitiva m = (MatrizPrimitiva) obj;
+            if (i1 < 0 || i1 >= m.filas()) {
+                contexto.agregarError("Fila fuera de rango en asignación: " + i1);
+            } else if (i2 < 0 || i2 >= m.columnas(i1)) {
+                contexto.agregarError("Columna fuera de rango en asignación: " + i2);
+            } else {
+                m.asignar(i1, i2, val);
+            }
+            return;
+        }
+        if (!(obj instanceof List)) {
+            contexto.agregarError("Asignación indexada 2D solo aplica a matriz (ejecución)");
+            return;
+        }
+        List<Object> rows = (List<Object>) obj;
+        if (i1 < 0 || i1 >= rows.size()) {
+            contexto.agregarError("Fila fuera de rango en asignación: " + i1);
+            return;
+        }
+        Object rowObj = rows.get(i1);
+        if (!(rowObj instanceof List)) {
+            contexto.agregarError("Estructura de matriz inválida en asignación");
+            return;
+        }
+        List<Object> row = (List<Object>) rowObj;
+        if (i2 < 0 || i2 >= row.size()) {
+            contexto.agregarError("Columna fuera de rango en asignación: " + i2);
+            return;
+        }
+        if (row instanceof VectorPrimitivo) ((VectorPrimitivo) row).asignar(i2, val);
+        else row.set(i2, val.getValor());
+    }
+
+    /** Valor de un ++/--; null si el actual no es int/double/char. */
+    public static Object incrementar(Object cur, boolean inc) {
+        if (cur instanceof Integer) return ((Integer) cur) + (inc ? 1 : -1);
+        if (cur instanceof Double) return ((Double) cur) + (inc ? 1.0 : -1.0);
+        if (cur instanceof Character) return (char) (((Character) cur) + (inc ? 1 : -1));
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void incDecIndexado(Object cont, int i1, boolean inc, ContextoEjecucion contexto) {
+        if (!(cont instanceof List)) {
+            contexto.agregarError("++/-- indexado 1D solo aplica a vector/lista");
+            return;
+        }
+        List<Object> l = (List<Object>) cont;
+        if (i1 < 0 || i1 >= l.size()) {
+            contexto.agregarError("Índice fuera de rango en ++/--");
+            return;
+        }
+        if (l instanceof VectorPrimitivo) {
+            if (!((VectorPrimitivo) l).incrementar(i1, inc)) {
+                contexto.agregarError("++/-- solo aplica a int/double/char (ejecución)");
+            }
+            return;
+        }
+        Object nuevo = incrementar(l.get(i1), inc);
+        if (nuevo != null) l.set(i1, nuevo);
+        else contexto.agregarError("++/-- solo aplica a int/double/char (ejecución)");
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void incDecIndexado(Object cont, int i1, int i2, boolean inc, ContextoEjecucion contexto) {
+        if (cont instanceof MatrizPrimitiva) {
+            MatrizPrimitiva m = (MatrizPrimitiva) cont;
+            if (i1 < 0 || i1 >= m.filas()) {
+                contexto.agregarError("Fila fuera de rango en ++/--");
+            } else if (i2 < 0 || i2 >= m.columnas(i1)) {
+                contexto.agregarError("Columna fuera de rango en ++/--");
+            } else if (!m.incrementar(i1, i2, inc)) {
+                contexto.agregarError("++/-- solo aplica a int/double/char (ejecución)");
+            }
+            return;
+        }
+        if (!(cont instanceof List)) {
+            contexto.agregarError("++/-- indexado 2D solo aplica a matriz");
+            return;
+        }
+        List<Object> rows = (List<Object>) cont;
+        if (i1 < 0 || i1 >= rows.size()) {
+            contexto.agregarError("Fila fuera de rango en ++/--");
+            return;
+        }
+        Object rowObj = rows.get(i1);
+        if (!(rowObj instanceof List)) {
+            contexto.agregarError("Estructura de matriz inválida en ++/--");
+            return;
+        }
+        List<Object> row = (List<Object>) rowObj;
+        if (i2 < 0 || i2 >= row.size()) {
+            contexto.agregarError("Columna fuera de rango en ++/--");
+            return;
+        }
+        if (row instanceof VectorPrimitivo) {
+            if (!((VectorPrimitivo) row).incrementar(i2, inc)) {
+                contexto.agregarError("++/-- solo aplica a int/double/char (ejecución)");
+            }
+            return;
+        }
+        Object nuevo = incrementar(row.get(i2), inc);
+        if (nuevo != null) row.set(i2, nuevo);
+        else contexto.agregarError("++/-- solo aplica a int/double/char (ejecución)");
+    }
+
+    // ---- literales y métodos de List (elementos ya evaluados) ----
+
+    public static Valor literalVector(Valor[] elementos) {
+        Object[] out = new Object[elementos.length];
+        String tipoBase = null;
+        for (int i = 0; i < elementos.length; i++) {
+            Valor v = elementos[i];
+            out[i] = v.getValor();
+            if (tipoBase == null) tipoBase = v.getTipo();
+            else if (!tipoBase.equals(v.getTipo())) {
+                if ((tipoBase.equals("int") && v.getTipo().equals("double")) ||
+                        (tipoBase.equals("double") && v.getTipo().equals("int"))) {
+                    tipoBase = "double";
+                }
+            }
+        }
+        if (tipoBase == null) tipoBase = "int";
+        return new Valor(Vectores.desde(out), tipoBase + "[]");
+    }
+
+    public static Valor literalMatriz(Valor[] filas) {
+        Object[] out = new Object[filas.length];
+        String tipoBase = null;
+        for (int i = 0; i < filas.length; i++) {
+            Valor row = filas[i];
+            out[i] = row.getValor();
+            String t = row.getTipo();
+            String base = t.endsWith("[]") ? t.substring(0, t.length() - 2) : t;
+            if (tipoBase == null) tipoBase = base;
+            else if (!tipoBase.equals(base)) {
+                if ((tipoBase.equals("int") && base.equals("double")) ||
+                        (tipoBase.equals("double") && base.equals("int"))) {
+                    tipoBase = "double";
+                }
+            }
+        }
+        if (tipoBase == null) tipoBase = "int";
+        return new Valor(Matrices.desde(out), tipoBase + "[][]");
+    }
+
+    public static Valor quitar(List<Object> lista, Valor indice, ContextoEjecucion contexto) {
+        if (indice.getEtiqueta() != Tipo.INT) {
+            contexto.agregarError("remove(indice) requiere indice int");
+            return Valor.ERROR;
+        }
+        int idx = indice.comoInt();
+        if (idx < 0 || idx >= lista.size()) {
+            contexto.agregarError("remove(indice) fuera de rango: " + idx);
+            return Valor.ERROR;
+        }
+        Object eliminado = lista.remove(idx);
+        return new Valor(eliminado, tipoDesdeObjeto(eliminado));
+    }
+
+    // ---- funciones nativas (argumentos ya evaluados) ----
+
+    public static Valor round(Valor a, ContextoEjecucion contexto) {
+        if (!esNumerico(a)) {
+            contexto.agregarError("round(exp) solo acepta int/double/char");
+            return Valor.ERROR;
+        }
+        return Valor.entero((int) Math.round(toDouble(a)));
+    }
+
+    public static Valor length(Valor a, ContextoEjecucion contexto) {
+        Object v = a.getValor();
+        if (v instanceof String) return Valor.entero(((String) v).length());
+        if (v instanceof List) return Valor.entero(((List<?>) v).size());
+        contexto.agregarError("length(exp) solo aplica a string, vector/lista/matriz");
+        return Valor.ERROR;
+    }
+
+    public static Valor find(Valor a0, Valor a1, ContextoEjecucion contexto) {
+        Object cont = a0.getValor();
+        Object needle = a1.getValor();
+        if (cont instanceof String && needle instanceof String) {
+            return Valor.entero(((String) cont).indexOf((String) needle));
+        }
+        if (cont instanceof List) {
+            return Valor.entero(posicion((List<?>) cont, needle));
+        }
+        contexto.agregarError("find(...) solo aplica a string o lista/vector");
+        return Valor.ERROR;
+    }
+
+    public static int posicion(List<?> l, Object needle) {
+        if (l instanceof VectorPrimitivo) return ((VectorPrimitivo) l).posicion(needle);
+        for (int i = 0; i < l.size(); i++) {
+            if (Objects.equals(l.get(i), needle)) return i;
+        }
+        return -1;
+    }
+
+    public static Valor empiezaCon(Valor a0, Valor a1, ContextoEjecucion contexto) {
+        if (!(a0.getValor() instanceof String) || !(a1.getValor() instanceof String)) {
+            contexto.agregarError("START_WITH(a,b) requiere string,string");
+            return Valor.ERROR;
+        }
+        return Valor.booleano(((String) a0.getValor()).startsWith((String) a1.getValor()));
+    }
+}
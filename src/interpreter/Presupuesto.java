@@ -0,0 +1,43 @@
+package interpreter;
+
+/**
+ * Límites de una corrida: sentencias ejecutadas, vueltas de ciclo y tiempo de
+ * reloj en milisegundos. 0 es sin límite. ContextoEjecucion los revisa en sus
+ * puntos de control y al excederse corta la corrida con EjecucionCancelada.
+ */
+public final class Presupuesto {
+
+    public static final Presupuesto SIN_LIMITE = new Presupuesto(0, 0, 0);
+
+    // -Djavausac.limite.sentencias, -Djavausac.limite.iteraciones, -Djavausac.limite.ms
+    public static final Presupuesto POR_DEFECTO = new Presupuesto(
+            Long.getLong("javausac.limite.sentencias", 0),
+            Long.getLong("javausac.limite.iteraciones", 0),
+            Long.getLong("javausac.limite.ms", 0));
+
+    private final long maxSentencias;
+    private final long maxIteraciones;
+    private final long maxMilis;
+
+    public Presupuesto(long maxSentencias, long maxIteraciones, long maxMilis) {
+        this.maxSentencias = Math.max(maxSentencias, 0);
+        this.maxIteraciones = Math.max(maxIteraciones, 0);
+        this.maxMilis = Math.max(maxMilis, 0);
+    }
+
+    public long getMaxSentencias() {
+        return maxSentencias;
+    }
+
+    public long getMaxIteraciones() {
+        return maxIteraciones;
+    }
+
+    public long getMaxMilis() {
+        return maxMilis;
+    }
+
+    public boolean limitaSentencias() {
+        return maxSentencias > 0;
+    }
+}
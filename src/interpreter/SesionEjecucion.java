@@ -0,0 +1,93 @@
+package interpreter;
+
+import java.nio.file.Path;
+
+import reports.TablaErrores;
+import semantic.TablaSimbolos;
+
+/**
+ * Entrada y resultados de una corrida de Ejecutor: a dónde va la salida, con
+ * qué motor y presupuesto se ejecuta, y las tablas y el reporte AST que deja.
+ * Cada corrida tiene la suya, así que se pueden ejecutar varios programas a
+ * la vez (ver cli.LineaComandos).
+ */
+public final class SesionEjecucion {
+
+    private final Consola consola;
+    private final ModoEjecucion modo;
+    private final Presupuesto presupuesto;
+    // null: no se genera el reporte AST
+    private final Path directorioReportes;
+
+    // null fuera del editor
+    private FuenteIncremental fuente;
+
+    private final TablaErrores tablaErrores = new TablaErrores();
+    private TablaSimbolos tablaSimbolos;
+
+    private Path astDotPath;
+    private Path astPngPath;
+    private String astError;
+
+    public SesionEjecucion(Consola consola, ModoEjecucion modo, Presupuesto presupuesto, Path directorioReportes) {
+        this.consola = consola;
+        this.modo = modo;
+        this.presupuesto = presupuesto;
+        this.directorioReportes = directorioReportes;
+    }
+
+    public Consola getConsola() {
+        return consola;
+    }
+
+    public ModoEjecucion getModo() {
+        return modo;
+    }
+
+    public Presupuesto getPresupuesto() {
+        return presupuesto;
+    }
+
+    public Path getDirectorioReportes() {
+        return directorioReportes;
+    }
+
+    public FuenteIncremental getFuente() {
+        return fuente;
+    }
+
+    /** Documento del editor: el análisis reutiliza los fragmentos que no cambiaron. */
+    public void setFuente(FuenteIncremental fuente) {
+        this.fuente = fuente;
+    }
+
+    public TablaErrores getTablaErrores() {
+        return tablaErrores;
+    }
+
+    public TablaSimbolos getTablaSimbolos() {
+        return tablaSimbolos;
+    }
+
+    void setTablaSimbolos(TablaSimbolos tablaSimbolos) {
+        this.tablaSimbolos = tablaSimbolos;
+    }
+
+    public Path getAstDotPath() {
+        return astDotPath;
+    }
+
+    public Path getAstPngPath() {
+        return astPngPath;
+    }
+
+    public String getAstError() {
+        return astError;
+    }
+
+    void setReporteAst(Path dotPath, Path pngPath, String error) {
+        this.astDotPath = dotPath;
+        this.astPngPath = pngPath;
+        this.astError = error;
+    }
+}
@@ -0,0 +1,452 @@
+package interpreter;
+
+import lexer.RegistroTokens;
+import parser.sym;
+import semantic.SemanticError;
+import utils.LineTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Posiciones del texto que necesita Ejecutor para ubicar errores semánticos y
+ * declaraciones, sacadas de los tokens del Lexer. Se arma en tramos: uno para
+ * el archivo completo o uno por fragmento de FuenteIncremental. Cada tramo
+ * guarda las líneas con las que se indexó y unir le suma el corrimiento del
+ * fragmento, así que un fragmento que no se editó no se vuelve a indexar.
+ */
+final class SourceIndex {
+
+    static final class PosDecl {
+        final String idOriginal;
+        final String idLower;
+        final String tipo;
+        final int linea;
+        final int colId;
+        final int colTipo;
+        final int colRhs;
+        final String rhsSnippet;
+
+        PosDecl(String idOriginal, String tipo, int linea, int colId, int colTipo, int colRhs, String rhsSnippet) {
+            this.idOriginal = idOriginal;
+            this.idLower = idOriginal.toLowerCase();
+            this.tipo = tipo;
+            this.linea = linea;
+            this.colId = colId;
+            this.colTipo = colTipo;
+            this.colRhs = colRhs;
+            this.rhsSnippet = rhsSnippet;
+        }
+    }
+
+    static final class OpOcc {
+        final int linea;
+        final int colOp;
+        final String snippet;
+        OpOcc(int linea, int colOp, String snippet) {
+            this.linea = linea;
+            this.colOp = colOp;
+            this.snippet = snippet;
+        }
+    }
+
+    static final class CastOcc {
+        final int linea;
+        final int colError;
+        final String snippet;
+        CastOcc(int linea, int colError, String snippet) {
+            this.linea = linea;
+            this.colError = colError;
+            this.snippet = snippet;
+        }
+    }
+
+    static final class LengthCall {
+        final int linea;
+        final int colArg;
+        final String argumento;
+        LengthCall(int linea, int colArg, String argumento) {
+            this.linea = linea;
+            this.colArg = colArg;
+            this.argumento = argumento;
+        }
+    }
+
+    /** Un "var id :" del texto. */
+    static final class VarDecl {
+        final String id;
+        final int linea;
+        final int columna;
+        VarDecl(String id, int linea, int columna) {
+            this.id = id;
+            this.linea = linea;
+            this.columna = columna;
+        }
+    }
+
+    static final class MappedSemantic {
+        final String mensaje;
+        final int linea;
+        final int columna;
+
+        MappedSemantic(String mensaje, int linea, int columna) {
+            this.mensaje = mensaje;
+            this.linea = linea;
+            this.columna = columna;
+        }
+    }
+
+    /** Lo indexado de un rango de líneas, con las líneas que tenía al indexarlo. */
+    static final class Tramo {
+        final Map<String, List<PosDecl>> decls = new HashMap<>();
+        final Map<String, List<int[]>> assigns = new HashMap<>();
+        final List<OpOcc> boolPlusOps = new ArrayList<>();
+        final List<OpOcc> stringMinusOps = new ArrayList<>();
+        final List<CastOcc> casts = new ArrayList<>();
+        final List<LengthCall> lengthCalls = new ArrayList<>();
+        final List<int[]> returns = new ArrayList<>();
+        final List<VarDecl> varDecls = new ArrayList<>();
+
+        private final RegistroTokens tokens;
+        private final String codigo;
+        private final int primeraLinea;
+        // Solo hace falta para sacar el texto de un fragmento
+        private LineTable lineas;
+
+        private Tramo(RegistroTokens tokens, String codigo, int primeraLinea) {
+            this.tokens = tokens;
+            this.codigo = codigo;
+            this.primeraLinea = primeraLinea;
+        }
+
+        // Tokens [a, b) de una misma línea; lo que antes buscaban las regex línea por línea
+        private void indexarLinea(int a, int b, boolean paraErrores) {
+            RegistroTokens t = tokens;
+            int lineNo = t.linea(a);
+
+            for (int i = a; i + 1 < b; i++) {
+                if (t.tipo(i) != sym.LENGTH || t.tipo(i + 1) != sym.LPAREN) continue;
+                int cierre = buscar(i + 2, b, sym.RPAREN);
+                if (cierre >= 0) {
+                    String arg = texto(lineNo, fin(i + 1), t.columna(cierre));
+                    lengthCalls.add(new LengthCall(lineNo, t.columna(i + 2), arg.trim()));
+                }
+                break;
+            }
+
+            if (!paraErrores) return;
+
+            int colTipoDecl = 0;
+            if (b - a >= 4 && t.tipo(a) == sym.VAR && t.tipo(a + 1) == sym.IDENTIFIER && t.tipo(a + 2) == sym.COLON) {
+                int colId = t.columna(a + 1);
+                colTipoDecl = t.columna(a + 3);
+
+                int colRhs = 0;
+                String rhsSnippet = "";
+                int eq = buscar(a + 4, b, sym.ASSIGN);
+                if (eq >= 0 && eq + 1 < b) {
+                    colRhs = t.columna(eq + 1);
+                    int semi = -1;
+                    for (int k = b - 1; k > eq; k--) {
+                        if (t.tipo(k) == sym.SEMICOLON) {
+                            semi = k;
+                            break;
+                        }
+                    }
+                    int hasta = semi >= 0 ? t.columna(semi) : Integer.MAX_VALUE;
+                    rhsSnippet = texto(lineNo, colRhs, hasta).trim();
+                }
+
+                PosDecl occ = new PosDecl(texto(a + 1), texto(a + 3), lineNo, colId, colTipoDecl, colRhs, rhsSnippet);
+                decls.computeIfAbsent(occ.idLower, _k -> new ArrayList<>()).add(occ);
+            }
+
+            if (b - a >= 2 && t.tipo(a) == sym.IDENTIFIER && t.tipo(a + 1) == sym.ASSIGN) {
+                assigns.computeIfAbsent(texto(a).toLowerCase(), _k -> new ArrayList<>())
+                       .add(new int[] { lineNo, t.columna(a) });
+            }
+
+            for (int i = a; i + 2 < b; i++) {
+                if (t.tipo(i) == sym.BOOLEAN_LITERAL && t.tipo(i + 1) == sym.PLUS && esNumero(t.tipo(i + 2))) {
+                    boolPlusOps.add(new OpOcc(lineNo, t.columna(i + 1), texto(lineNo, t.columna(i), fin(i + 2)).trim()));
+                    break;
+                }
+            }
+
+            for (int i = a; i + 2 < b; i++) {
+                if (t.tipo(i) == sym.STRING_LITERAL && t.tipo(i + 1) == sym.MINUS && t.tipo(i + 2) == sym.STRING_LITERAL) {
+                    stringMinusOps.add(new OpOcc(lineNo, t.columna(i + 1), texto(lineNo, t.columna(i), fin(i + 2)).trim()));
+                    break;
+                }
+            }
+
+            for (int i = a; i + 3 < b; i++) {
+                if (t.tipo(i) == sym.LPAREN && t.tipo(i + 1) == sym.BOOL && t.tipo(i + 2) == sym.RPAREN
+                        && esNumero(t.tipo(i + 3))) {
+                    int colError = colTipoDecl > 0 ? colTipoDecl : t.columna(i + 1);
+                    casts.add(new CastOcc(lineNo, colError, texto(lineNo, t.columna(i), fin(i + 3)).trim()));
+                    break;
+                }
+            }
+
+            for (int i = a; i < b; i++) {
+                if (t.tipo(i) == sym.RETURN) {
+                    returns.add(new int[] { lineNo, t.columna(i) });
+                }
+            }
+        }
+
+        // Cada "var id :" seguido de algún token, aunque cruce líneas
+        private void indexarVars() {
+            RegistroTokens t = tokens;
+            for (int i = 0; i + 3 < t.getTamano(); i++) {
+                if (t.tipo(i) != sym.VAR || t.tipo(i + 1) != sym.IDENTIFIER || t.tipo(i + 2) != sym.COLON) continue;
+                varDecls.add(new VarDecl(texto(i + 1), t.linea(i + 1), t.columna(i + 1)));
+            }
+        }
+
+        private int buscar(int desde, int hasta, int tipo) {
+            for (int i = desde; i < hasta; i++) {
+                if (tokens.tipo(i) == tipo) return i;
+            }
+            return -1;
+        }
+
+        private static boolean esNumero(int tipo) {
+            return tipo == sym.INTEGER_LITERAL || tipo == sym.DOUBLE_LITERAL;
+        }
+
+        // Columna justo después del token
+        private int fin(int i) {
+            return tokens.columna(i) + tokens.largo(i);
+        }
+
+        private String texto(int i) {
+            return texto(tokens.linea(i), tokens.columna(i), fin(i));
+        }
+
+        private String texto(int linea, int desde, int hasta) {
+            if (lineas == null) lineas = new LineTable(codigo);
+            return lineas.substring(linea - primeraLinea + 1, desde, hasta);
+        }
+    }
+
+    /**
+     * Indexa los tokens de texto, cuya primera línea es primeraLinea. Sin
+     * paraErrores solo junta lo que se usa aunque no haya errores semánticos
+     * (length y "var id :").
+     */
+    static Tramo indexar(RegistroTokens tokens, String texto, int primeraLinea, boolean paraErrores) {
+        Tramo tramo = new Tramo(tokens, texto, primeraLinea);
+        int n = tokens.getTamano();
+        int inicio = 0;
+        while (inicio < n) {
+            int fin = inicio + 1;
+            while (fin < n && tokens.linea(fin) == tokens.linea(inicio)) fin++;
+            tramo.indexarLinea(inicio, fin, paraErrores);
+            inicio = fin;
+        }
+        tramo.indexarVars();
+        // Lo que sigue se consulta sin volver a los tokens; un fragmento no los retiene
+        tramo.lineas = null;
+        return tramo;
+    }
+
+    static SourceIndex build(RegistroTokens tokens, String codigoOriginal, boolean paraErrores) {
+        return new SourceIndex(new Tramo[] { indexar(tokens, codigoOriginal, 1, paraErrores) }, new int[1]);
+    }
+
+    /** Tramos en orden de archivo; deltas[i] es lo que se corrió tramos[i] desde que se indexó. */
+    static SourceIndex unir(Tramo[] tramos, int[] deltas) {
+        return new SourceIndex(tramos, deltas);
+    }
+
+    private final Tramo[] tramos;
+    private final int[] deltas;
+
+    // Listas que se consumen en orden, una ocurrencia por error: {tramo, índice}
+    private final int[] idxReturns = new int[2];
+    private final int[] idxBoolPlus = new int[2];
+    private final int[] idxStrMinus = new int[2];
+    private final int[] idxCasts = new int[2];
+
+    private SourceIndex(Tramo[] tramos, int[] deltas) {
+        this.tramos = tramos;
+        this.deltas = deltas;
+    }
+
+    List<LengthCall> lengthCalls() {
+        List<LengthCall> out = new ArrayList<>();
+        for (int k = 0; k < tramos.length; k++) {
+            for (LengthCall lc : tramos[k].lengthCalls) {
+                out.add(deltas[k] == 0 ? lc : new LengthCall(lc.linea + deltas[k], lc.colArg, lc.argumento));
+            }
+        }
+        return out;
+    }
+
+    /** Cada "var id :" en orden de archivo. */
+    List<VarDecl> varDecls() {
+        List<VarDecl> out = new ArrayList<>();
+        for (int k = 0; k < tramos.length; k++) {
+            for (VarDecl v : tramos[k].varDecls) {
+                out.add(deltas[k] == 0 ? v : new VarDecl(v.id, v.linea + deltas[k], v.columna));
+            }
+        }
+        return out;
+    }
+
+    // Las primeras n declaraciones "var id :" de id en el archivo
+    private List<PosDecl> decls(String idLower, int n) {
+        List<PosDecl> out = new ArrayList<>(n);
+        for (int k = 0; k < tramos.length && out.size() < n; k++) {
+            List<PosDecl> occs = tramos[k].decls.get(idLower);
+            if (occs == null) continue;
+            for (int i = 0; i < occs.size() && out.size() < n; i++) {
+                PosDecl d = occs.get(i);
+                out.add(deltas[k] == 0 ? d
+                        : new PosDecl(d.idOriginal, d.tipo, d.linea + deltas[k], d.colId, d.colTipo, d.colRhs, d.rhsSnippet));
+            }
+        }
+        return out;
+    }
+
+    private int[] primeraAsignacion(String idLower) {
+        for (int k = 0; k < tramos.length; k++) {
+            List<int[]> poss = tramos[k].assigns.get(idLower);
+            if (poss != null && !poss.isEmpty()) return new int[] { poss.get(0)[0] + deltas[k], poss.get(0)[1] };
+        }
+        return null;
+    }
+
+    // Siguiente elemento de una de las listas de los tramos; delta(cursor) da el corrimiento de su tramo
+    private <T> T siguiente(int[] cursor, Function<Tramo, List<T>> lista) {
+        while (cursor[0] < tramos.length) {
+            List<T> l = lista.apply(tramos[cursor[0]]);
+            if (cursor[1] < l.size()) return l.get(cursor[1]++);
+            cursor[0]++;
+            cursor[1] = 0;
+        }
+        return null;
+    }
+
+    private int delta(int[] cursor) {
+        return deltas[cursor[0]];
+    }
+
+    MappedSemantic mapearSemanticError(SemanticError e) {
+
+        String msg = (e.getMensaje() == null) ? "" : e.getMensaje();
+        String lower = msg.toLowerCase();
+
+        if (lower.contains("ya declarada")) {
+            String id = extraerPrimeraComillaSimple(msg);
+            if (id != null) {
+                List<PosDecl> occs = decls(id.toLowerCase(), 2);
+                if (occs.size() >= 2) {
+                    PosDecl prev = occs.get(0);
+                    PosDecl now = occs.get(1);
+                    return new MappedSemantic(
+                        "Redeclaración: '" + now.idOriginal + "' colisiona con '" + prev.idOriginal + "' (lenguaje insensitive)",
+                        now.linea,
+                        now.colId
+                    );
+                }
+            }
+        }
+
+        if (lower.contains("no declarada")) {
+            String id = extraerPrimeraComillaSimple(msg);
+            if (id != null) {
+                int[] p = primeraAsignacion(id.toLowerCase());
+                if (p != null) {
+                    return new MappedSemantic(
+                        "Variable no declarada: '" + id + "'",
+                        p[0],
+                        p[1]
+                    );
+                }
+            }
+        }
+
+        if (lower.contains("tipos incompatibles") && lower.contains("expresión aritmética")) {
+            if (lower.contains("bool") && (lower.contains("suma") || lower.contains("+"))) {
+                OpOcc op = siguiente(idxBoolPlus, t -> t.boolPlusOps);
+                if (op != null) {
+                    return new MappedSemantic(
+                        "Tipos incompatibles: 'bool + int' (` " + op.snippet + " `)",
+                        op.linea + delta(idxBoolPlus),
+                        op.colOp
+                    );
+                }
+            }
+
+            if (lower.contains("string") && (lower.contains("resta") || lower.contains("-"))) {
+                OpOcc op = siguiente(idxStrMinus, t -> t.stringMinusOps);
+                if (op != null) {
+                    return new MappedSemantic(
+                        "Operación inválida: 'string - string' (` " + op.snippet + " `)",
+                        op.linea + delta(idxStrMinus),
+                        op.colOp
+                    );
+                }
+            }
+        }
+
+        if (lower.contains("casteo no permitido") || lower.contains("casteo")) {
+            CastOcc c = siguiente(idxCasts, t -> t.casts);
+            if (c != null) {
+                return new MappedSemantic(
+                    "Casteo inválido: " + c.snippet + " (no permitido int -> bool)",
+                    c.linea + delta(idxCasts),
+                    c.colError
+                );
+            }
+        }
+
+        if (lower.contains("tipo incompatible en declaración")) {
+            String id = extraerPrimeraComillaSimple(msg);
+            if (id != null) {
+                List<PosDecl> occs = decls(id.toLowerCase(), 1);
+                if (!occs.isEmpty()) {
+                    PosDecl d = occs.get(0);
+                    int col = (d.colRhs > 0) ? d.colRhs : d.colId;
+                    String rhs = (d.rhsSnippet == null || d.rhsSnippet.isEmpty()) ? "..." : d.rhsSnippet;
+                    return new MappedSemantic(
+                        "Asignación incompatible: 'int = string' (` " + id + " = " + rhs + " `)",
+                        d.linea,
+                        col
+                    );
+                }
+            }
+        }
+
+        if (lower.contains("tipo incompatible en return")
+    || lower.contains("no puede retornar un valor")
+    || lower.contains("debe retornar un valor")) {
+
+int[] p = siguiente(idxReturns, t -> t.returns);
+if (p != null) {
+    return new MappedSemantic(msg, p[0] + delta(idxReturns), p[1]);
+}
+}
+
+
+        int ln = e.getLinea() > 0 ? e.getLinea() : 1;
+        int col = e.getColumna() > 0 ? e.getColumna() : 1;
+
+        return new MappedSemantic(msg, ln, col);
+    }
+
+    private String extraerPrimeraComillaSimple(String msg) {
+        if (msg == null) return null;
+        int a = msg.indexOf('\'');
+        if (a < 0) return null;
+        int b = msg.indexOf('\'', a + 1);
+        if (b < 0) return null;
+        return msg.substring(a + 1, b);
+    }
+}
@@ -1,24 +1,203 @@
 package interpreter;
 
-public class Valor {
-    private final Object valor;
-    private final String tipo;
+import interpreter.estructuras.Cadena;
+import semantic.Simbolo;
+import semantic.Tipo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Valor en ejecución etiquetado con semantic.Tipo. Los int, char y bool se
+ * guardan sin caja en {@code entero} y los double en {@code decimal}; el resto
+ * (string, estructuras) va en {@code objeto}; un string armado por
+ * concatenación puede ser una Cadena, que getValor() entrega ya aplanada. Los tipos de ejecución que no
+ * son un Tipo ("unknown", "list", "any", "int[]" de un literal vacío...) no
+ * llevan etiqueta y conservan su nombre.
+ */
+public final class Valor {
+
+    private static final Map<String, Tipo> ETIQUETAS = new HashMap<>();
+
+    static {
+        for (Tipo t : Tipo.values()) {
+            ETIQUETAS.putIfAbsent(t.toString(), t);
+        }
+    }
+
+    public static final Valor VOID = new Valor(Tipo.VOID, null, null, 0L, 0.0, false);
+    public static final Valor ERROR = new Valor(Tipo.ERROR, null, null, 0L, 0.0, false);
+    public static final Valor TRUE = new Valor(Tipo.BOOL, null, null, 1L, 0.0, true);
+    public static final Valor FALSE = new Valor(Tipo.BOOL, null, null, 0L, 0.0, true);
+
+    private static final int MIN_CACHE = -128;
+    private static final int MAX_CACHE = 1024;
+    private static final Valor[] ENTEROS = new Valor[MAX_CACHE - MIN_CACHE + 1];
+    private static final Valor[] CARACTERES = new Valor[128];
+
+    static {
+        for (int i = 0; i < ENTEROS.length; i++) {
+            ENTEROS[i] = new Valor(Tipo.INT, null, null, i + MIN_CACHE, 0.0, true);
+        }
+        for (int i = 0; i < CARACTERES.length; i++) {
+            CARACTERES[i] = new Valor(Tipo.CHAR, null, null, i, 0.0, true);
+        }
+    }
+
+    private final Tipo etiqueta;
+    private final String nombreTipo;
+    private final Object objeto;
+    private final long entero;
+    private final double decimal;
+    // true si el valor está en entero/decimal y no en objeto
+    private final boolean sinCaja;
+
+    private Valor(Tipo etiqueta, String nombreTipo, Object objeto, long entero, double decimal, boolean sinCaja) {
+        this.etiqueta = etiqueta;
+        this.nombreTipo = nombreTipo;
+        this.objeto = objeto;
+        this.entero = entero;
+        this.decimal = decimal;
+        this.sinCaja = sinCaja;
+    }
 
     public Valor(Object valor, String tipo) {
-        this.valor = valor;
-        this.tipo = tipo;
+        Tipo t = ETIQUETAS.get(tipo);
+        this.etiqueta = t;
+        this.nombreTipo = t == null ? tipo : null;
+        if (t == Tipo.INT && valor instanceof Integer) {
+            this.entero = (Integer) valor;
+            this.decimal = 0.0;
+            this.objeto = null;
+            this.sinCaja = true;
+        } else if (t == Tipo.DOUBLE && valor instanceof Double) {
+            this.entero = 0L;
+            this.decimal = (Double) valor;
+            this.objeto = null;
+            this.sinCaja = true;
+        } else if (t == Tipo.CHAR && valor instanceof Character) {
+            this.entero = (Character) valor;
+            this.decimal = 0.0;
+            this.objeto = null;
+            this.sinCaja = true;
+        } else if (t == Tipo.BOOL && valor instanceof Boolean) {
+            this.entero = ((Boolean) valor) ? 1L : 0L;
+            this.decimal = 0.0;
+            this.objeto = null;
+            this.sinCaja = true;
+        } else {
+            this.entero = 0L;
+            this.decimal = 0.0;
+            this.objeto = valor;
+            this.sinCaja = false;
+        }
+    }
+
+    public static Valor entero(int v) {
+        if (v >= MIN_CACHE && v <= MAX_CACHE) return ENTEROS[v - MIN_CACHE];
+        return new Valor(Tipo.INT, null, null, v, 0.0, true);
+    }
+
+    public static Valor decimal(double v) {
+        return new Valor(Tipo.DOUBLE, null, null, 0L, v, true);
+    }
+
+    public static Valor booleano(boolean v) {
+        return v ? TRUE : FALSE;
+    }
+
+    public static Valor caracter(char v) {
+        if (v < CARACTERES.length) return CARACTERES[v];
+        return new Valor(Tipo.CHAR, null, null, v, 0.0, true);
+    }
+
+    public static Valor cadena(String v) {
+        return new Valor(Tipo.STRING, null, v, 0L, 0.0, false);
+    }
+
+    /** Valor de una variable: el tipo declarado sirve de etiqueta sin buscarla por nombre. */
+    public static Valor de(Object valor, Tipo tipo) {
+        if (tipo == null) return new Valor(valor, "error");
+        switch (tipo) {
+            case INT:
+                if (valor instanceof Integer) return entero((Integer) valor);
+                break;
+            case DOUBLE:
+                if (valor instanceof Double) return decimal((Double) valor);
+                break;
+            case BOOL:
+                if (valor instanceof Boolean) return booleano((Boolean) valor);
+                break;
+            case CHAR:
+                if (valor instanceof Character) return caracter((Character) valor);
+                break;
+            default:
+                return new Valor(tipo, null, valor, 0L, 0.0, false);
+        }
+        return new Valor(valor, tipo.toString());
+    }
+
+    /** Valor de una variable de ejecución; lo guardado sin caja se lee sin pasar por Integer/Double. */
+    public static Valor de(Simbolo simbolo) {
+        Tipo t = simbolo.getEtiquetaSinCaja();
+        if (t == null || t != simbolo.getTipo()) return de(simbolo.getValor(), simbolo.getTipo());
+        switch (t) {
+            case INT: return entero((int) simbolo.getEntero());
+            case DOUBLE: return decimal(simbolo.getDecimal());
+            case CHAR: return caracter((char) simbolo.getEntero());
+            default: return booleano(simbolo.getEntero() != 0);
+        }
     }
 
     public Object getValor() {
-        return valor;
+        if (!sinCaja) return objeto instanceof Cadena ? objeto.toString() : objeto;
+        switch (etiqueta) {
+            case INT: return (int) entero;
+            case DOUBLE: return decimal;
+            case CHAR: return (char) entero;
+            default: return entero != 0;
+        }
+    }
+
+    /** Como getValor, pero un string en construcción (Cadena) se entrega sin aplanar; para guardarlo en una variable. */
+    public Object getValorSinAplanar() {
+        return sinCaja ? getValor() : objeto;
     }
 
     public String getTipo() {
-        return tipo;
+        return etiqueta != null ? etiqueta.toString() : nombreTipo;
+    }
+
+    /** Tipo de ejecución como enum; null si no corresponde a ningún semantic.Tipo. */
+    public Tipo getEtiqueta() {
+        return etiqueta;
+    }
+
+    public boolean isSinCaja() {
+        return sinCaja;
+    }
+
+    // Solo válidos cuando isSinCaja(): int/char/bool en entero, double en decimal
+
+    public int comoInt() {
+        return etiqueta == Tipo.DOUBLE ? (int) decimal : (int) entero;
+    }
+
+    public double comoDouble() {
+        return etiqueta == Tipo.DOUBLE ? decimal : (double) entero;
+    }
+
+    public boolean comoBool() {
+        return entero != 0;
+    }
+
+    public char comoChar() {
+        return (char) entero;
     }
 
     @Override
     public String toString() {
-        return valor != null ? valor.toString() : "null";
+        Object v = getValor();
+        return v != null ? v.toString() : "null";
     }
-}
\ No newline at end of file
+}
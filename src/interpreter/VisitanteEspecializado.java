@@ -0,0 +1,219 @@
+package interpreter;
+
+import ast.Especializacion;
+import ast.OperadorAritmetico;
+import ast.OperadorRelacional;
+import ast.Programa;
+import ast.expresiones.ExpresionAritmetica;
+import ast.expresiones.ExpresionRelacional;
+import semantic.Tipo;
+
+/**
+ * VisitanteEvaluacion con nodos aritméticos y relacionales que se especializan
+ * según los tipos que observan (ModoEjecucion.ESPECIALIZADO). El estado de cada
+ * sitio es de esta corrida, en un arreglo indexado por el número que le dio
+ * VisitanteResolucion: el Programa sale de CacheAnalisis y lo comparten corridas
+ * de otros hilos. Si la guarda falla el sitio pasa a GENERICO y desde entonces
+ * usa Operaciones como el intérprete normal.
+ */
+public class VisitanteEspecializado extends VisitanteEvaluacion {
+
+    // null es SIN_DATOS
+    private Especializacion[] sitios = new Especializacion[0];
+
+    public VisitanteEspecializado(ContextoEjecucion contexto) {
+        super(contexto);
+    }
+
+    @Override
+    public Valor visit(Programa programa) {
+        sitios = new Especializacion[programa.getSitios()];
+        return super.visit(programa);
+    }
+
+    // Un sitio sin número (fuera del programa resuelto) se trata como GENERICO
+    private Especializacion estado(int sitio) {
+        if (sitio < 0 || sitio >= sitios.length) return Especializacion.GENERICO;
+        Especializacion e = sitios[sitio];
+        return e == null ? Especializacion.SIN_DATOS : e;
+    }
+
+    @Override
+    public Valor visit(ExpresionAritmetica expr) {
+        int sitio = expr.getSitio();
+        Especializacion e = estado(sitio);
+        if (expr.getIzquierda() == null || e == Especializacion.GENERICO) {
+            return super.visit(expr);
+        }
+        Valor izq = expr.getIzquierda().accept(this);
+        Valor der = expr.getDerecha().accept(this);
+        OperadorAritmetico op = expr.getOperador();
+        if (e == Especializacion.SIN_DATOS) {
+            e = observarAritmetica(op, izq, der);
+            sitios[sitio] = e;
+        }
+        Valor r;
+        switch (e) {
+            case INT_INT:
+                r = enteros(op, izq, der);
+                break;
+            case DOUBLE_DOUBLE:
+                r = decimales(op, izq, der);
+                break;
+            case CADENAS:
+                r = concatenar(izq, der);
+                break;
+            default:
+                r = null;
+                break;
+        }
+        if (r == null) {
+            sitios[sitio] = Especializacion.GENERICO;
+            return Operaciones.aritmetica(op, izq, der, contexto);
+        }
+        return r;
+    }
+
+    @Override
+    public Valor visit(ExpresionRelacional expr) {
+        int sitio = expr.getSitio();
+        Especializacion e = estado(sitio);
+        if (e == Especializacion.GENERICO) {
+            return super.visit(expr);
+        }
+        Valor izq = expr.getIzquierda().accept(this);
+        Valor der = expr.getDerecha().accept(this);
+        OperadorRelacional op = expr.getOperador();
+        if (e == Especializacion.SIN_DATOS) {
+            e = observarRelacional(op, izq, der);
+            sitios[sitio] = e;
+        }
+        Valor r;
+        switch (e) {
+            case INT_INT:
+                r = compararEnteros(op, izq, der);
+                break;
+            case DOUBLE_DOUBLE:
+                r = compararDecimales(op, izq, der);
+                break;
+            case CADENAS:
+                r = compararCadenas(op, izq, der);
+                break;
+            default:
+                r = null;
+                break;
+        }
+        if (r == null) {
+            sitios[sitio] = Especializacion.GENERICO;
+            return Operaciones.relacional(op, izq, der, contexto);
+        }
+        return r;
+    }
+
+    private static boolean es(Valor v, Tipo t) {
+        return v.getEtiqueta() == t && v.isSinCaja();
+    }
+
+    private static Especializacion observarAritmetica(OperadorAritmetico op, Valor a, Valor b) {
+        if (es(a, Tipo.INT) && es(b, Tipo.INT)) return Especializacion.INT_INT;
+        if (es(a, Tipo.DOUBLE) && es(b, Tipo.DOUBLE) && op != OperadorAritmetico.MODULO) {
+            return Especializacion.DOUBLE_DOUBLE;
+        }
+        if (op == OperadorAritmetico.SUMA && (a.getEtiqueta() == Tipo.STRING || b.getEtiqueta() == Tipo.STRING)) {
+            return Especializacion.CADENAS;
+        }
+        return Especializacion.GENERICO;
+    }
+
+    private static Especializacion observarRelacional(OperadorRelacional op, Valor a, Valor b) {
+        if (es(a, Tipo.INT) && es(b, Tipo.INT)) return Especializacion.INT_INT;
+        if (es(a, Tipo.DOUBLE) && es(b, Tipo.DOUBLE)) return Especializacion.DOUBLE_DOUBLE;
+        if (a.getValor() instanceof String && b.getValor() instanceof String
+                && (op == OperadorRelacional.IGUAL || op == OperadorRelacional.DIFERENTE)) {
+            return Especializacion.CADENAS;
+        }
+        return Especializacion.GENERICO;
+    }
+
+    // Devuelven null cuando la guarda falla
+
+    private Valor enteros(OperadorAritmetico op, Valor izq, Valor der) {
+        if (!es(izq, Tipo.INT) || !es(der, Tipo.INT)) return null;
+        int a = izq.comoInt();
+        int b = der.comoInt();
+        switch (op) {
+            case SUMA: return Valor.entero(a + b);
+            case RESTA: return Valor.entero(a - b);
+            case MULTIPLICACION: return Valor.entero(a * b);
+            case DIVISION:
+                if (b == 0) return Operaciones.dividir(izq, der, contexto);
+                return Valor.decimal((double) a / b);
+            case MODULO:
+                if (b == 0) return Operaciones.modulo(izq, der, contexto);
+                return Valor.entero(a % b);
+            case POTENCIA: return Valor.entero((int) Math.pow(a, b));
+            default: return null;
+        }
+    }
+
+    private Valor decimales(OperadorAritmetico op, Valor izq, Valor der) {
+        if (!es(izq, Tipo.DOUBLE) || !es(der, Tipo.DOUBLE)) return null;
+        double a = izq.comoDouble();
+        double b = der.comoDouble();
+        switch (op) {
+            case SUMA: return Valor.decimal(a + b);
+            case RESTA: return Valor.decimal(a - b);
+            case MULTIPLICACION: return Valor.decimal(a * b);
+            case DIVISION:
+                if (Math.abs(b) < 1e-9) return Operaciones.dividir(izq, der, contexto);
+                return Valor.decimal(a / b);
+            case POTENCIA: return Valor.decimal(Math.pow(a, b));
+            default: return null;
+        }
+    }
+
+    private static Valor concatenar(Valor izq, Valor der) {
+        if (izq.getEtiqueta() != Tipo.STRING && der.getEtiqueta() != Tipo.STRING) return null;
+        return Operaciones.concatenar(izq, der);
+    }
+
+    private static Valor compararEnteros(OperadorRelacional op, Valor izq, Valor der) {
+        if (!es(izq, Tipo.INT) || !es(der, Tipo.INT)) return null;
+        int a = izq.comoInt();
+        int b = der.comoInt();
+        switch (op) {
+            case MENOR: return Valor.booleano(a < b);
+            case MAYOR: return Valor.booleano(a > b);
+            case MENOR_IGUAL: return Valor.booleano(a <= b);
+            case MAYOR_IGUAL: return Valor.booleano(a >= b);
+            case IGUAL: return Valor.booleano(a == b);
+            case DIFERENTE: return Valor.booleano(a != b);
+            default: return null;
+        }
+    }
+
+    private static Valor compararDecimales(OperadorRelacional op, Valor izq, Valor der) {
+        if (!es(izq, Tipo.DOUBLE) || !es(der, Tipo.DOUBLE)) return null;
+        double a = izq.comoDouble();
+        double b = der.comoDouble();
+        switch (op) {
+            case MENOR: return Valor.booleano(a < b);
+            case MAYOR: return Valor.booleano(a > b);
+            case MENOR_IGUAL: return Valor.booleano(a <= b);
+            case MAYOR_IGUAL: return Valor.booleano(a >= b);
+            case IGUAL: return Valor.booleano(Math.abs(a - b) < 1e-9);
+            case DIFERENTE: return Valor.booleano(Math.abs(a - b) >= 1e-9);
+            default: return null;
+        }
+    }
+
+    private static Valor compararCadenas(OperadorRelacional op, Valor izq, Valor der) {
+        if (!(izq.getValor() instanceof String) || !(der.getValor() instanceof String)) return null;
+        boolean iguales = izq.getValor().equals(der.getValor());
+        switch (op) {
+            case IGUAL: return Valor.booleano(iguales);
+            case DIFERENTE: return Valor.booleano(!iguales);
+            default: return null;
+        }
+    }
+}
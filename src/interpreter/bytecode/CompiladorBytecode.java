@@ -0,0 +1,1357 @@
+package interpreter.bytecode;
+
+import ast.Parametro;
+import ast.Programa;
+import ast.expresiones.*;
+import ast.sentencias.*;
+import interpreter.CacheMemo;
+import semantic.Tipo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Traduce un Programa ya validado y resuelto a slots (VisitanteResolucion) a
+ * código Java. Lo que se sabe de tipo primitivo al compilar se vuelve una
+ * variable u operación primitiva; lo demás (elementos de estructuras, toda
+ * operación que puede fallar) es un interpreter.Valor y pasa por
+ * SoporteBytecode, que usa las mismas Operaciones que VisitanteEvaluacion: un
+ * error de ejecución se registra y la expresión da Valor.ERROR sin cortar la
+ * corrida. Lo que no se puede traducir con la misma semántica lanza
+ * NoSoportado y el programa se interpreta.
+ *
+ * Una variable se guarda tipada si nunca puede quedar sin valor; la que recibe
+ * en su declaración un Valor que puede no ser asignable se guarda como objeto
+ * crudo con su tipo declarado, igual que un Simbolo. Cada declaración escribe
+ * su fila de la tabla de ejecución como ContextoEjecucion.crearSimbolo.
+ */
+class CompiladorBytecode {
+
+    static final String PAQUETE = "interpreter.bytecode";
+    static final String CLASE = "ProgramaUsac";
+
+    static class NoSoportado extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NoSoportado(String motivo) {
+            super(motivo, null, false, false);
+        }
+    }
+
+    // Una variable, parámetro o retorno resultó dinámico: se vuelve a generar
+    private static class Reintentar extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Reintentar() {
+            super(null, null, false, false);
+        }
+    }
+
+    private enum K {
+        INT("int"), DOUBLE("double"), BOOL("boolean"), CHAR("char"), STRING("String"), VAL("Valor"), VOID("void");
+
+        final String java;
+
+        K(String java) {
+            this.java = java;
+        }
+    }
+
+    private static class Exp {
+        final String codigo;
+        final K k;
+        // VAL que puede ser un primitivo sin valor (variable cuya declaración falló)
+        final boolean nulo;
+        // Objeto crudo de una variable dinámica, para indexar sin armar el Valor
+        final String crudo;
+
+        Exp(String codigo, K k) {
+            this(codigo, k, false, null);
+        }
+
+        Exp(String codigo, K k, boolean nulo, String crudo) {
+            this.codigo = codigo;
+            this.k = k;
+            this.nulo = nulo;
+            this.crudo = crudo;
+        }
+    }
+
+    private static class Var {
+        final String nombre;
+        final Tipo tipo;
+        // Almacenamiento: primitivo, o VAL para el objeto crudo (Object)
+        final K k;
+        final String fila;
+        final boolean parametro;
+        // DeclaracionVariable o Parametro que la declara, para marcarla dinámica
+        final Object origen;
+
+        Var(String nombre, Tipo tipo, K k, String fila, boolean parametro, Object origen) {
+            this.nombre = nombre;
+            this.tipo = tipo;
+            this.k = k;
+            this.fila = fila;
+            this.parametro = parametro;
+            this.origen = origen;
+        }
+
+        String java() {
+            return k == K.VAL ? "Object" : k.java;
+        }
+    }
+
+    private static class Destino {
+        final boolean esCiclo;
+        final String salida;
+        final String continuar;
+
+        Destino(boolean esCiclo, String salida, String continuar) {
+            this.esCiclo = esCiclo;
+            this.salida = salida;
+            this.continuar = continuar;
+        }
+    }
+
+    private final Programa programa;
+    private final boolean contarSentencias;
+    private final Map<String, DeclaracionFuncion> funciones = new HashMap<>();
+    private final Map<DeclaracionFuncion, Integer> indices = new IdentityHashMap<>();
+    private final Set<String> retornoDinamico = new HashSet<>();
+    private final Set<Object> dinamicas = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private StringBuilder sb;
+    // Métodos de los sitios de llamada con memoización o parámetros a revisar
+    private StringBuilder sitios;
+    private List<String> campos;
+    private int sangria;
+    private int etiquetas;
+    private Var[] globales;
+    private Var[] locales;
+    private DeclaracionFuncion funcionActual;
+    // Código del ámbito de la tabla de ejecución en el que caen las declaraciones
+    private String ambito;
+    // Ámbitos "switch(...)": el texto sale del AST de la corrida y no entra en el código generado
+    private List<String> ambitosSwitch;
+    private final Deque<Destino> destinos = new ArrayDeque<>();
+    private Boolean llamadaEnSwitch;
+
+    CompiladorBytecode(Programa programa, boolean contarSentencias) {
+        this.programa = programa;
+        this.contarSentencias = contarSentencias;
+    }
+
+    /** Funciones del programa en el orden con el que el código generado las nombra. */
+    static DeclaracionFuncion[] funciones(Programa programa) {
+        List<DeclaracionFuncion> out = new ArrayList<>();
+        for (Sentencia s : programa.getSentencias()) {
+            if (s instanceof DeclaracionFuncion) out.add((DeclaracionFuncion) s);
+        }
+        return out.toArray(new DeclaracionFuncion[0]);
+    }
+
+    /** Textos de los ámbitos switch del último código generado; el código los pide con rt.ambito(i). */
+    String[] getAmbitosSwitch() {
+        return ambitosSwitch.toArray(new String[0]);
+    }
+
+    /** Devuelve el código fuente de la clase o lanza NoSoportado. */
+    String generar() {
+        if (programa.getTamanoMarco() < 0) throw new NoSoportado("programa sin resolver a slots");
+        DeclaracionFuncion[] todas = funciones(programa);
+        for (int i = 0; i < todas.length; i++) {
+            funciones.put(todas[i].getNombre().toLowerCase(), todas[i]);
+            indices.put(todas[i], i);
+        }
+        while (true) {
+            try {
+                return generarClase();
+            } catch (Reintentar r) {
+                // se marcó una variable, parámetro o retorno más como dinámico
+            }
+        }
+    }
+
+    private String generarClase() {
+        sb = new StringBuilder();
+        sitios = new StringBuilder();
+        campos = new ArrayList<>();
+        sangria = 0;
+        etiquetas = 0;
+        destinos.clear();
+        globales = new Var[programa.getTamanoMarco()];
+        locales = null;
+        funcionActual = null;
+        ambito = literalJava("Global");
+        ambitosSwitch = new ArrayList<>();
+
+        linea("package " + PAQUETE + ";");
+        linea("");
+        linea("import interpreter.CacheMemo;");
+        linea("import interpreter.Valor;");
+        linea("import semantic.Simbolo;");
+        linea("import semantic.Tipo;");
+        linea("import java.util.List;");
+        linea("");
+        linea("final class " + CLASE + " implements ProgramaCompilado {");
+        sangria++;
+        linea("private final SoporteBytecode rt;");
+        int marcaCampos = sb.length();
+        linea("");
+        linea(CLASE + "(SoporteBytecode rt) {");
+        linea("    this.rt = rt;");
+        linea("}");
+        linea("");
+        linea("public void ejecutar() {");
+        sangria++;
+        boolean hayStart = false;
+        int globalesPendientes = 0;
+        for (Sentencia s : programa.getSentencias()) {
+            if (s instanceof DeclaracionVariable) globalesPendientes++;
+        }
+        for (Sentencia s : programa.getSentencias()) {
+            if (s instanceof DeclaracionFuncion) continue;
+            if (s instanceof StartSentencia) {
+                hayStart = true;
+                continue;
+            }
+            // Mismo criterio que VisitanteEvaluacion.visit(Programa)
+            if (s instanceof DeclaracionVariable || !hayStart) {
+                // En el intérprete una global aún no declarada no existe; aquí sería un campo en 0
+                if (globalesPendientes > 0 && contieneLlamadaUsuario(s)) {
+                    throw new NoSoportado("llamada antes de declarar todas las globales");
+                }
+                sentencia(s);
+            }
+            if (s instanceof DeclaracionVariable) globalesPendientes--;
+        }
+        if (!hayStart) throw new NoSoportado("sin sentencia START");
+        for (Sentencia s : programa.getSentencias()) {
+            if (s instanceof StartSentencia) {
+                sentencia(s);
+                break;
+            }
+        }
+        sangria--;
+        linea("}");
+
+        for (Sentencia s : programa.getSentencias()) {
+            if (s instanceof DeclaracionFuncion) funcion((DeclaracionFuncion) s);
+        }
+        sb.append(sitios);
+        sangria--;
+        linea("}");
+
+        StringBuilder declarados = new StringBuilder();
+        for (Var g : globales) {
+            if (g != null) declarados.append("    ").append(g.java()).append(' ').append(g.nombre).append(";\n");
+        }
+        for (String c : campos) declarados.append("    ").append(c).append(";\n");
+        sb.insert(marcaCampos, declarados);
+        return sb.toString();
+    }
+
+    private void linea(String texto) {
+        linea(sb, sangria, texto);
+    }
+
+    private static void linea(StringBuilder out, int sangria, String texto) {
+        for (int i = 0; i < sangria; i++) out.append("    ");
+        out.append(texto).append('\n');
+    }
+
+    private String etiqueta(String prefijo) {
+        return prefijo + (etiquetas++);
+    }
+
+    // Campo con la fila de la tabla de ejecución de una declaración
+    private String nuevaFila() {
+        String fila = etiqueta("r");
+        campos.add("private Simbolo " + fila);
+        return fila;
+    }
+
+    // ---- tipos ----
+
+    private static K kDe(Tipo t) {
+        if (t == null) throw new NoSoportado("tipo nulo");
+        switch (t) {
+            case INT: return K.INT;
+            case DOUBLE: return K.DOUBLE;
+            case BOOL: return K.BOOL;
+            case CHAR: return K.CHAR;
+            case STRING: return K.STRING;
+            case VOID: return K.VOID;
+            case ERROR: throw new NoSoportado("tipo error");
+            default: return K.VAL;
+        }
+    }
+
+    private K almacenamiento(Tipo tipo, Object origen) {
+        K k = kDe(tipo);
+        if (k == K.VOID) throw new NoSoportado("variable void");
+        return dinamicas.contains(origen) ? K.VAL : k;
+    }
+
+    private void marcarDinamica(Object origen) {
+        dinamicas.add(origen);
+        throw new Reintentar();
+    }
+
+    private K retornoDe(DeclaracionFuncion f) {
+        K k = kDe(f.getTipoRetorno());
+        if (k != K.VOID && retornoDinamico.contains(f.getNombre().toLowerCase())) return K.VAL;
+        return k;
+    }
+
+    private static boolean esNum(K k) {
+        return k == K.INT || k == K.DOUBLE || k == K.CHAR;
+    }
+
+    private static boolean esTipado(K k) {
+        return k != K.VAL && k != K.VOID;
+    }
+
+    private static String comoDouble(Exp e) {
+        return e.k == K.DOUBLE ? e.codigo : "((double) " + e.codigo + ")";
+    }
+
+    private static String tipo(Tipo t) {
+        return "Tipo." + t.name();
+    }
+
+    /** El valor como interpreter.Valor, con la etiqueta que le daría el intérprete. */
+    private static String val(Exp e) {
+        switch (e.k) {
+            case INT: return "Valor.entero(" + e.codigo + ")";
+            case DOUBLE: return "Valor.decimal(" + e.codigo + ")";
+            case BOOL: return "Valor.booleano(" + e.codigo + ")";
+            case CHAR: return "Valor.caracter(" + e.codigo + ")";
+            case STRING: return "Valor.cadena(" + e.codigo + ")";
+            case VAL: return e.codigo;
+            default: throw new NoSoportado("valor void");
+        }
+    }
+
+    /** Un Valor ya revisado con esAsignableRuntime (y no vacío) como primitivo de tipo k. */
+    private static String desde(String valor, K k) {
+        switch (k) {
+            case INT: return valor + ".comoInt()";
+            case DOUBLE: return valor + ".comoDouble()";
+            case BOOL: return valor + ".comoBool()";
+            case CHAR: return valor + ".comoChar()";
+            case STRING: return "((String) " + valor + ".getValor())";
+            default: return valor;
+        }
+    }
+
+    /**
+     * Conversión de asignación (esAsignableRuntime + convertirSiAplica) cuando
+     * se resuelve al compilar; null si hay que revisarla en ejecución.
+     */
+    private static String convertirTipado(Exp e, K destino) {
+        switch (destino) {
+            case INT:
+                if (e.k == K.INT) return e.codigo;
+                if (e.k == K.BOOL) return "(" + e.codigo + " ? 1 : 0)";
+                break;
+            case DOUBLE:
+                if (e.k == K.DOUBLE) return e.codigo;
+                if (e.k == K.INT || e.k == K.CHAR) return comoDouble(e);
+                break;
+            case BOOL:
+            case CHAR:
+            case STRING:
+                if (e.k == destino) return e.codigo;
+                break;
+            default:
+                break;
+        }
+        return null;
+    }
+
+    private Var variable(int profundidad, int slot) {
+        Var v;
+        if (funcionActual == null || profundidad == 1) v = globales[slot];
+        else v = locales[slot];
+        if (v == null) throw new NoSoportado("variable sin declarar en slot " + slot);
+        return v;
+    }
+
+    private Exp leer(Var v) {
+        if (v.k != K.VAL) return new Exp(v.nombre, v.k);
+        return new Exp("Valor.de(" + v.nombre + ", " + tipo(v.tipo) + ")", K.VAL, kDe(v.tipo) != K.VAL, v.nombre);
+    }
+
+    // Fila del reporte tras escribir la variable; la de un parámetro solo guarda el primer valor
+    private void fijarFila(Var v) {
+        if (v.parametro) linea("if (!" + v.fila + ".tieneValor()) rt.fijar(" + v.fila + ", " + v.nombre + ");");
+        else linea("rt.fijar(" + v.fila + ", " + v.nombre + ");");
+    }
+
+    /** Asignación con la regla de VisitanteEvaluacion: si el valor no es asignable la variable queda como estaba. */
+    private void escribir(Var v, Exp e) {
+        if (e.k == K.VOID) throw new NoSoportado("asignación de void");
+        if (v.k != K.VAL) {
+            String c = convertirTipado(e, v.k);
+            if (c != null) {
+                linea(v.nombre + " = " + c + ";");
+                fijarFila(v);
+                return;
+            }
+            if (e.nulo) marcarDinamica(v.origen);
+        }
+        String t = etiqueta("t");
+        linea("{");
+        sangria++;
+        linea("Valor " + t + " = " + val(e) + ";");
+        linea("if (rt.asignable(" + tipo(v.tipo) + ", " + t + ")) {");
+        sangria++;
+        if (v.k == K.VAL) linea(v.nombre + " = rt.crudo(" + tipo(v.tipo) + ", " + t + ");");
+        else linea(v.nombre + " = " + desde(t, v.k) + ";");
+        fijarFila(v);
+        sangria--;
+        linea("}");
+        sangria--;
+        linea("}");
+    }
+
+    // ---- funciones ----
+
+    private void funcion(DeclaracionFuncion f) {
+        funcionActual = f;
+        ambito = literalJava(f.getNombre());
+        locales = new Var[Math.max(f.getTamanoMarco(), 0)];
+        K ret = retornoDe(f);
+        StringBuilder firma = new StringBuilder();
+        List<Parametro> ps = parametros(f);
+        for (int i = 0; i < ps.size(); i++) {
+            Parametro p = ps.get(i);
+            Var v = new Var("l" + i, p.getTipo(), almacenamiento(p.getTipo(), p), nuevaFila(), true, p);
+            locales[i] = v;
+            if (i > 0) firma.append(", ");
+            firma.append(v.java()).append(' ').append(v.nombre);
+        }
+        if (ret != K.VOID && !terminaConReturn(f)) {
+            // El intérprete devolvería void/null al terminar sin return
+            throw new NoSoportado("función que puede terminar sin return");
+        }
+        linea("");
+        linea(ret.java + " " + nombreMetodo(f.getNombre()) + "(" + firma + ") {");
+        sangria++;
+        linea("rt.entrarLlamada(" + f.getLine() + ", " + f.getColumn() + ");");
+        for (int i = 0; i < ps.size(); i++) {
+            Parametro p = ps.get(i);
+            Var v = locales[i];
+            linea("if (" + v.fila + " == null) " + v.fila + " = rt.filaParametro(" + literalJava(p.getNombre()) + ", "
+                    + tipo(p.getTipo()) + ", " + p.getLine() + ", " + p.getColumn() + ", " + ambito + ");");
+            fijarFila(v);
+        }
+        for (Sentencia s : f.getCuerpo().getSentencias()) {
+            puntoControl(s);
+            sentencia(s);
+        }
+        if (ret != K.VOID) {
+            // Inalcanzable (la última sentencia es un return), pero javac no lo sabe
+            linea("throw new IllegalStateException(\"función sin return\");");
+        }
+        sangria--;
+        linea("}");
+        funcionActual = null;
+        locales = null;
+        ambito = literalJava("Global");
+    }
+
+    private static List<Parametro> parametros(DeclaracionFuncion f) {
+        return f.getParametros() == null ? Collections.emptyList() : f.getParametros();
+    }
+
+    private static boolean terminaConReturn(DeclaracionFuncion f) {
+        List<Sentencia> cuerpo = f.getCuerpo().getSentencias();
+        return !cuerpo.isEmpty() && cuerpo.get(cuerpo.size() - 1) instanceof ReturnSentencia;
+    }
+
+    private static String nombreMetodo(String nombre) {
+        return "f_" + nombre.toLowerCase();
+    }
+
+    /**
+     * Llamada a una función del programa. Si se memoiza o algún argumento hay
+     * que revisarlo en ejecución (VisitanteEvaluacion.invocar) pasa por un
+     * método propio del sitio de llamada que recibe los argumentos sin convertir.
+     */
+    private Exp llamadaUsuario(DeclaracionFuncion f, List<Expresion> args, boolean esStart) {
+        List<Parametro> ps = parametros(f);
+        int n = ps.size();
+        if (args == null) args = Collections.emptyList();
+        if (args.size() != n) throw new NoSoportado("aridad");
+        Exp[] as = new Exp[n];
+        K[] pk = new K[n];
+        boolean[] revisar = new boolean[n];
+        boolean hayRevision = false;
+        for (int i = 0; i < n; i++) {
+            as[i] = expresion(args.get(i));
+            if (as[i].k == K.VOID) throw new NoSoportado("argumento void");
+            Parametro p = ps.get(i);
+            pk[i] = almacenamiento(p.getTipo(), p);
+            if (pk[i] != K.VAL && convertirTipado(as[i], pk[i]) == null) {
+                if (as[i].nulo) marcarDinamica(p);
+                revisar[i] = true;
+            }
+            if (pk[i] == K.VAL) revisar[i] = true;
+            hayRevision |= revisar[i];
+        }
+        K ret = retornoDe(f);
+        boolean memo = !esStart && f.isPura() && CacheMemo.esPrimitivo(f.getTipoRetorno());
+        if (!memo && !hayRevision) {
+            StringBuilder out = new StringBuilder(nombreMetodo(f.getNombre())).append('(');
+            for (int i = 0; i < n; i++) {
+                if (i > 0) out.append(", ");
+                out.append(convertirTipado(as[i], pk[i]));
+            }
+            return new Exp(out.append(')').toString(), ret, ret == K.VAL, null);
+        }
+
+        int idx = indices.get(f);
+        String sitio = etiqueta("k");
+        StringBuilder firma = new StringBuilder();
+        StringBuilder nombres = new StringBuilder();
+        StringBuilder llamada = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            String sep = i > 0 ? ", " : "";
+            firma.append(sep).append(as[i].k.java).append(" a").append(i);
+            nombres.append(sep).append("a").append(i);
+            llamada.append(sep).append(as[i].codigo);
+        }
+        K r = ret;
+        String invocacion = nombreMetodo(f.getNombre()) + "(" + argumentosDirectos(as, pk, n) + ")";
+        if (hayRevision) {
+            r = K.VAL;
+            String revision = sitio + "r";
+            sitioRevision(revision, firma.toString(), f, idx, as, pk, revisar, ret);
+            invocacion = revision + "(" + nombres + ")";
+        }
+        if (memo) {
+            sitioMemo(sitio, firma.toString(), idx, as, r, invocacion);
+        } else {
+            sitio = sitio + "r";
+        }
+        return new Exp(sitio + "(" + llamada + ")", r, ret == K.VAL, null);
+    }
+
+    private static String argumentosDirectos(Exp[] as, K[] pk, int n) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) out.append(", ");
+            String c = pk[i] == K.VAL ? null : convertirTipado(new Exp("a" + i, as[i].k), pk[i]);
+            out.append(c == null ? "" : c);
+        }
+        return out.toString();
+    }
+
+    // Revisa los argumentos en orden como invocar; el primero no asignable hace fallar la llamada
+    private void sitioRevision(String nombre, String firma, DeclaracionFuncion f, int idx, Exp[] as, K[] pk,
+                               boolean[] revisar, K ret) {
+        int n = as.length;
+        linea(sitios, 1, "");
+        linea(sitios, 1, "private Valor " + nombre + "(" + firma + ") {");
+        StringBuilder valores = new StringBuilder();
+        StringBuilder convertidos = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            linea(sitios, 2, "Valor v" + i + " = " + val(new Exp("a" + i, as[i].k)) + ";");
+            valores.append(", v").append(i);
+            if (i > 0) convertidos.append(", ");
+            Parametro p = parametros(f).get(i);
+            if (!revisar[i]) convertidos.append(convertirTipado(new Exp("a" + i, as[i].k), pk[i]));
+            else if (pk[i] == K.VAL) convertidos.append("rt.crudo(").append(tipo(p.getTipo())).append(", v").append(i).append(')');
+            else convertidos.append(desde("v" + i, pk[i]));
+        }
+        for (int i = 0; i < n; i++) {
+            if (!revisar[i]) continue;
+            linea(sitios, 2, "if (!rt.parametroValido(" + idx + ", " + i + ", v" + i + ")) return rt.llamadaFallida("
+                    + idx + ", " + i + valores + ");");
+        }
+        String llamada = nombreMetodo(f.getNombre()) + "(" + convertidos + ")";
+        if (ret == K.VOID) {
+            linea(sitios, 2, llamada + ";");
+            linea(sitios, 2, "return Valor.VOID;");
+        } else {
+            linea(sitios, 2, "return " + val(new Exp(llamada, ret)) + ";");
+        }
+        linea(sitios, 1, "}");
+    }
+
+    // Memoización como VisitanteEvaluacion.ejecutarCallable, con la clave de los argumentos sin convertir
+    private void sitioMemo(String nombre, String firma, int idx, Exp[] as, K r, String invocacion) {
+        StringBuilder clave = new StringBuilder();
+        for (int i = 0; i < as.length; i++) {
+            if (i > 0) clave.append(", ");
+            clave.append(val(new Exp("a" + i, as[i].k)));
+        }
+        linea(sitios, 1, "");
+        linea(sitios, 1, "private " + r.java + " " + nombre + "(" + firma + ") {");
+        linea(sitios, 2, "CacheMemo m = rt.memoDe(" + idx + ");");
+        linea(sitios, 2, "List<Object> c = m == null ? null : CacheMemo.clave(new Valor[]{" + clave + "});");
+        linea(sitios, 2, "if (c != null) {");
+        linea(sitios, 3, "Valor p = m.buscar(c);");
+        linea(sitios, 3, "if (p != null) return " + desde("p", r) + ";");
+        linea(sitios, 3, "int e = rt.errores();");
+        linea(sitios, 3, r.java + " v = " + invocacion + ";");
+        String guardar = "rt.errores() == e";
+        if (r == K.VAL) guardar = "v != Valor.ERROR && " + guardar;
+        linea(sitios, 3, "if (" + guardar + ") m.guardar(c, " + val(new Exp("v", r)) + ");");
+        linea(sitios, 3, "return v;");
+        linea(sitios, 2, "}");
+        linea(sitios, 2, "return " + invocacion + ";");
+        linea(sitios, 1, "}");
+    }
+
+    // ---- sentencias ----
+
+    private void bloque(BloqueSentencias b) {
+        linea("{");
+        sangria++;
+        if (b != null) {
+            for (Sentencia s : b.getSentencias()) {
+                puntoControl(s);
+                sentencia(s);
+            }
+        }
+        sangria--;
+        linea("}");
+    }
+
+    private void sentencia(Sentencia s) {
+        if (s instanceof DeclaracionVariable) declaracion((DeclaracionVariable) s);
+        else if (s instanceof AsignacionVariable) asignacion((AsignacionVariable) s);
+        else if (s instanceof PrintlnSentencia) println((PrintlnSentencia) s);
+        else if (s instanceof BloqueSentencias) bloque((BloqueSentencias) s);
+        else if (s instanceof IfSentencia) si((IfSentencia) s);
+        else if (s instanceof WhileSentencia) mientras((WhileSentencia) s);
+        else if (s instanceof ForSentencia) para((ForSentencia) s);
+        else if (s instanceof DoWhileSentencia) hacerMientras((DoWhileSentencia) s);
+        else if (s instanceof SwitchSentencia) segun((SwitchSentencia) s);
+        else if (s instanceof BreakSentencia) romper();
+        else if (s instanceof ContinueSentencia) continuar();
+        else if (s instanceof ReturnSentencia) retornar((ReturnSentencia) s);
+        else if (s instanceof IncDecSentencia) incDec((IncDecSentencia) s);
+        else if (s instanceof AsignacionIndexada) asignacionIndexada((AsignacionIndexada) s);
+        else if (s instanceof SentenciaExpresion) sentenciaExpresion(((SentenciaExpresion) s).getExpresion());
+        else if (s instanceof StartSentencia) start((StartSentencia) s);
+        else throw new NoSoportado(s.getClass().getSimpleName());
+    }
+
+    private void declaracion(DeclaracionVariable d) {
+        Tipo tipo = d.getTipo();
+        K k = almacenamiento(tipo, d);
+        String fila = nuevaFila();
+        // La fila existe antes de evaluar el inicializador, como en declararVariableEnSlot
+        linea("if (" + fila + " == null) " + fila + " = rt.filaVariable(" + literalJava(d.getIdentificador()) + ", "
+                + tipo(tipo) + ", " + d.getLine() + ", " + d.getColumn() + ", " + ambito + ");");
+        int slot = d.getSlot();
+        String nombre = (funcionActual == null ? "g" : "l") + slot;
+        Var v = new Var(nombre, tipo, k, fila, false, d);
+        String prefijo = funcionActual == null ? "" : v.java() + " ";
+
+        Expresion ini = d.getExpresionInicial();
+        if (ini instanceof NuevaLista) {
+            if (!tipo.isList()) {
+                if (k != K.VAL) marcarDinamica(d);
+                linea(prefijo + nombre + " = null;");
+                linea("rt.error(\"new List() solo es válido para variables List<T> (ejecución)\");");
+            } else {
+                linea(prefijo + nombre + " = rt.lista(" + tipo(tipo) + ");");
+                fijarFila(v);
+            }
+        } else if (ini != null) {
+            Exp e = expresion(ini);
+            if (e.k == K.VOID) throw new NoSoportado("inicializador void");
+            String c = k == K.VAL ? null : convertirTipado(e, k);
+            if (c != null) {
+                linea(prefijo + nombre + " = " + c + ";");
+                fijarFila(v);
+            } else {
+                // Si el valor no es asignable la variable queda sin valor: solo cabe en una dinámica
+                if (k != K.VAL) marcarDinamica(d);
+                linea(prefijo + nombre + " = null;");
+                escribir(v, e);
+            }
+        } else {
+            String valor;
+            if (tipo.isVector()) {
+                valor = "rt.vectorVacio(" + tipo(tipo) + ")";
+            } else if (tipo.isList()) {
+                valor = "rt.lista(" + tipo(tipo) + ")";
+            } else if (tipo.isMatrix()) {
+                valor = "rt.nuevaLista()";
+            } else {
+                switch (tipo) {
+                    case INT: valor = "0"; break;
+                    case DOUBLE: valor = "0.0"; break;
+                    case BOOL: valor = "false"; break;
+                    case CHAR: valor = "'\\u0000'"; break;
+                    case STRING: valor = "\"\""; break;
+                    default: throw new NoSoportado("tipo " + tipo);
+                }
+                if (k == K.VAL) valor = "(Object) " + valor;
+            }
+            linea(prefijo + nombre + " = " + valor + ";");
+            fijarFila(v);
+        }
+        if (funcionActual == null) globales[slot] = v;
+        else locales[slot] = v;
+    }
+
+    private void asignacion(AsignacionVariable a) {
+        Var v = variable(a.getProfundidad(), a.getSlot());
+        if (a.getExpresion() instanceof NuevaLista) {
+            if (!v.tipo.isList()) {
+                linea("rt.error(\"new List() solo se puede asignar a List<T> (ejecución)\");");
+                return;
+            }
+            linea(v.nombre + " = rt.lista(" + tipo(v.tipo) + ");");
+            fijarFila(v);
+            return;
+        }
+        escribir(v, expresion(a.getExpresion()));
+    }
+
+    private void println(PrintlnSentencia p) {
+        Exp e = expresion(p.getExpresion());
+        if (e.k == K.VOID) {
+            // Valor.VOID se imprime como null
+            linea(e.codigo + ";");
+            linea("rt.imprimir(\"null\");");
+        } else if (e.k == K.VAL) {
+            linea("rt.imprimir(" + e.codigo + ");");
+        } else {
+            linea("rt.imprimir(String.valueOf(" + e.codigo + "));");
+        }
+    }
+
+    private String condicion(Expresion c) {
+        Exp e = expresion(c);
+        if (e.k == K.BOOL) return e.codigo;
+        if (e.k == K.VOID) throw new NoSoportado("condición void");
+        return "rt.esVerdadero(" + val(e) + ")";
+    }
+
+    private void si(IfSentencia s) {
+        linea("if (" + condicion(s.getCondicion()) + ")");
+        bloque(s.getBloqueIf());
+        if (s.getBloqueElse() != null) {
+            linea("else");
+            bloque(s.getBloqueElse());
+        } else if (s.getElseIf() != null) {
+            linea("else {");
+            sangria++;
+            si(s.getElseIf());
+            sangria--;
+            linea("}");
+        }
+    }
+
+    private void cuerpoCiclo(BloqueSentencias cuerpo, Destino d) {
+        destinos.push(d);
+        linea(d.continuar + ":");
+        bloque(cuerpo);
+        destinos.pop();
+    }
+
+    private void vueltaCiclo(Sentencia ciclo) {
+        linea("rt.vueltaCiclo(" + ciclo.getLine() + ", " + ciclo.getColumn() + ");");
+    }
+
+    // Solo con límite de sentencias: sin él bastan los controles de ciclo y de llamada
+    private void puntoControl(Sentencia s) {
+        if (contarSentencias) linea("rt.puntoControl(" + s.getLine() + ", " + s.getColumn() + ");");
+    }
+
+    private void mientras(WhileSentencia w) {
+        Destino d = new Destino(true, etiqueta("c"), etiqueta("b"));
+        linea(d.salida + ":");
+        linea("for (;;) {");
+        sangria++;
+        linea("if (!(" + condicion(w.getCondicion()) + ")) break;");
+        vueltaCiclo(w);
+        cuerpoCiclo(w.getBloque(), d);
+        sangria--;
+        linea("}");
+    }
+
+    private void para(ForSentencia f) {
+        Destino d = new Destino(true, etiqueta("c"), etiqueta("b"));
+        linea("{");
+        sangria++;
+        if (f.getInicializacion() != null) sentencia(f.getInicializacion());
+        linea(d.salida + ":");
+        linea("for (;;) {");
+        sangria++;
+        if (f.getCondicion() != null) linea("if (!(" + condicion(f.getCondicion()) + ")) break;");
+        else linea("if (false) break;");
+        vueltaCiclo(f);
+        cuerpoCiclo(f.getBloque(), d);
+        if (f.getIncremento() != null) sentencia(f.getIncremento());
+        sangria--;
+        linea("}");
+        sangria--;
+        linea("}");
+    }
+
+    private void hacerMientras(DoWhileSentencia w) {
+        Destino d = new Destino(true, etiqueta("c"), etiqueta("b"));
+        linea(d.salida + ":");
+        linea("for (;;) {");
+        sangria++;
+        vueltaCiclo(w);
+        cuerpoCiclo(w.getBloque(), d);
+        linea("if (!(" + condicion(w.getCondicion()) + ")) break;");
+        sangria--;
+        linea("}");
+    }
+
+    // Como VisitanteEvaluacion.visit(SwitchSentencia): cuenta en switchDepth y abre su ámbito
+    private void segun(SwitchSentencia s) {
+        String salida = etiqueta("s");
+        String e = "e" + salida;
+        String m = "m" + salida;
+        String anterior = ambito;
+        ambito = "rt.ambito(" + ambitosSwitch.size() + ")";
+        ambitosSwitch.add("switch(" + s.getExpresion().toString() + ")");
+        Exp exp = expresion(s.getExpresion());
+        if (exp.k == K.VOID) throw new NoSoportado("switch sobre void");
+        linea(salida + ": {");
+        sangria++;
+        linea("rt.entrarSwitch();");
+        linea("try {");
+        sangria++;
+        linea(exp.k.java + " " + e + " = " + exp.codigo + ";");
+        linea("boolean " + m + " = false;");
+        destinos.push(new Destino(false, salida, null));
+        if (s.getCasos() != null) {
+            for (Case c : s.getCasos()) {
+                Exp v = expresion(c.getValor());
+                if (v.k == K.VOID) throw new NoSoportado("case void");
+                String cv = "v" + etiqueta("k");
+                linea("{");
+                linea("    " + v.k.java + " " + cv + " = " + v.codigo + ";");
+                linea("    if (!" + m + " && " + iguales(new Exp(e, exp.k), new Exp(cv, v.k)) + ") " + m + " = true;");
+                linea("}");
+                linea("if (" + m + ") {");
+                sangria++;
+                for (Sentencia st : c.getSentencias()) sentencia(st);
+                sangria--;
+                linea("}");
+            }
+        }
+        if (s.getCasoDefault() != null) {
+            linea("{");
+            sangria++;
+            for (Sentencia st : s.getCasoDefault().getSentencias()) sentencia(st);
+            sangria--;
+            linea("}");
+        }
+        destinos.pop();
+        sangria--;
+        linea("} finally {");
+        linea("    rt.salirSwitch();");
+        linea("}");
+        sangria--;
+        linea("}");
+        ambito = anterior;
+    }
+
+    // Operaciones.sonIguales: misma etiqueta; los double se comparan por bits
+    private static String iguales(Exp a, Exp b) {
+        if (a.k == K.VAL || b.k == K.VAL) return "rt.sonIguales(" + val(a) + ", " + val(b) + ")";
+        if (a.k != b.k) return "false";
+        switch (a.k) {
+            case INT:
+            case CHAR:
+            case BOOL:
+                return "(" + a.codigo + " == " + b.codigo + ")";
+            case DOUBLE:
+                return "(Double.doubleToLongBits(" + a.codigo + ") == Double.doubleToLongBits(" + b.codigo + "))";
+            default:
+                return a.codigo + ".equals(" + b.codigo + ")";
+        }
+    }
+
+    private boolean contieneLlamadaUsuario(ast.NodoAST nodo) {
+        class Buscador extends ast.RecorridoAST {
+            boolean hay;
+
+            @Override
+            public Void visit(LlamadaFuncion expr) {
+                if (funciones.containsKey(expr.getNombre() == null ? "" : expr.getNombre().toLowerCase())) hay = true;
+                return super.visit(expr);
+            }
+
+            @Override
+            public Void visit(StartSentencia stmt) {
+                hay = true;
+                return super.visit(stmt);
+            }
+        }
+        Buscador b = new Buscador();
+        nodo.accept(b);
+        return b.hay;
+    }
+
+    private void romper() {
+        Destino d = destinos.peek();
+        if (d == null) throw new NoSoportado("break fuera de ciclo/switch");
+        if (d.esCiclo) {
+            // En el intérprete un break dentro de un ciclo anidado en un switch
+            // (aunque sea en otra función) rompe el switch, no el ciclo.
+            for (Destino x : destinos) {
+                if (!x.esCiclo) throw new NoSoportado("break de ciclo dentro de switch");
+            }
+            if (hayLlamadaEnSwitch()) throw new NoSoportado("break con switch activo");
+        }
+        linea("if (true) break " + d.salida + ";");
+    }
+
+    private boolean hayLlamadaEnSwitch() {
+        if (llamadaEnSwitch == null) {
+            class Buscador extends ast.RecorridoAST {
+                boolean hay;
+
+                @Override
+                public Void visit(SwitchSentencia stmt) {
+                    hay = hay || contieneLlamadaUsuario(stmt);
+                    return super.visit(stmt);
+                }
+            }
+            Buscador b = new Buscador();
+            programa.accept(b);
+            llamadaEnSwitch = b.hay;
+        }
+        return llamadaEnSwitch;
+    }
+
+    private void continuar() {
+        for (Destino d : destinos) {
+            if (d.esCiclo) {
+                linea("if (true) break " + d.continuar + ";");
+                return;
+            }
+        }
+        throw new NoSoportado("continue fuera de ciclo");
+    }
+
+    private void retornar(ReturnSentencia r) {
+        if (funcionActual == null) throw new NoSoportado("return fuera de función");
+        K ret = retornoDe(funcionActual);
+        if (r.getValor() == null) {
+            if (ret != K.VOID) throw new NoSoportado("return vacío en función");
+            linea("if (true) return;");
+            return;
+        }
+        if (ret == K.VOID) throw new NoSoportado("return con valor en método");
+        Exp e = expresion(r.getValor());
+        if (e.k == K.VOID) throw new NoSoportado("return de void");
+        if (ret == K.VAL) {
+            linea("if (true) return " + val(e) + ";");
+            return;
+        }
+        if (e.k != ret) {
+            // El intérprete no convierte el valor de retorno
+            retornoDinamico.add(funcionActual.getNombre().toLowerCase());
+            throw new Reintentar();
+        }
+        linea("if (true) return " + e.codigo + ";");
+    }
+
+    private void incDec(IncDecSentencia s) {
+        Expresion obj = s.getObjetivo();
+        boolean inc = s.esIncremento();
+        if (obj instanceof Identificador) {
+            Identificador id = (Identificador) obj;
+            Var v = variable(id.getProfundidad(), id.getSlot());
+            switch (v.k) {
+                case INT:
+                case CHAR:
+                    linea(v.nombre + (inc ? "++;" : "--;"));
+                    fijarFila(v);
+                    return;
+                case DOUBLE:
+                    linea(v.nombre + (inc ? " += 1.0;" : " -= 1.0;"));
+                    fijarFila(v);
+                    return;
+                case VAL: {
+                    String t = etiqueta("t");
+                    linea("{");
+                    sangria++;
+                    linea("Object " + t + " = rt.incrementar(" + v.nombre + ", " + inc + ");");
+                    linea("if (" + t + " != null) {");
+                    sangria++;
+                    linea(v.nombre + " = " + t + ";");
+                    fijarFila(v);
+                    sangria--;
+                    linea("}");
+                    sangria--;
+                    linea("}");
+                    return;
+                }
+                default:
+                    linea("rt.error(\"++/-- solo aplica a int/double/char (ejecución)\");");
+                    return;
+            }
+        }
+        if (obj instanceof AccesoIndexado) {
+            AccesoIndexado acc = (AccesoIndexado) obj;
+            String cont = contenedor(expresion(acc.getObjetivo()));
+            String i1 = indice(acc.getIndice1());
+            if (acc.getIndice2() == null) linea("rt.incDec(" + cont + ", " + i1 + ", " + inc + ");");
+            else linea("rt.incDec(" + cont + ", " + i1 + ", " + indice(acc.getIndice2()) + ", " + inc + ");");
+            return;
+        }
+        throw new NoSoportado("++/-- sin identificador");
+    }
+
+    private void asignacionIndexada(AsignacionIndexada a) {
+        AccesoIndexado acc = a.getAcceso();
+        String cont = contenedor(expresion(acc.getObjetivo()));
+        String i1 = indice(acc.getIndice1());
+        Exp v = expresion(a.getValor());
+        if (v.k == K.VOID) throw new NoSoportado("asignación de void");
+        if (acc.getIndice2() == null) linea("rt.asignar(" + cont + ", " + i1 + ", " + val(v) + ");");
+        else linea("rt.asignar(" + cont + ", " + i1 + ", " + val(v) + ", " + indice(acc.getIndice2()) + ");");
+    }
+
+    private void sentenciaExpresion(Expresion e) {
+        if (e != null) sentenciaExpresion(expresion(e));
+    }
+
+    private void start(StartSentencia s) {
+        DeclaracionFuncion f = funciones.get(s.getNombre().toLowerCase());
+        if (f == null) throw new NoSoportado("start sin función");
+        sentenciaExpresion(llamadaUsuario(f, s.getArgumentos(), true));
+    }
+
+    private void sentenciaExpresion(Exp x) {
+        if (x.k == K.VOID) linea(x.codigo + ";");
+        else linea("rt.ignorar(" + x.codigo + ");");
+    }
+
+    // ---- expresiones ----
+
+    // Objeto a indexar: lo que da getValor() en el intérprete
+    private static String contenedor(Exp e) {
+        if (e.crudo != null) return e.crudo;
+        if (e.k == K.VAL) return e.codigo + ".getValor()";
+        if (e.k == K.VOID) throw new NoSoportado("indexación sobre void");
+        return e.codigo;
+    }
+
+    // Operaciones.toInt sobre el índice
+    private String indice(Expresion e) {
+        Exp x = expresion(e);
+        switch (x.k) {
+            case INT: return x.codigo;
+            case CHAR:
+            case DOUBLE:
+                return "((int) " + x.codigo + ")";
+            case VOID: throw new NoSoportado("índice void");
+            default: return "rt.indice(" + val(x) + ")";
+        }
+    }
+
+    private Exp expresion(Expresion e) {
+        if (e instanceof LiteralEntero) return new Exp("(" + ((LiteralEntero) e).getValor() + ")", K.INT);
+        if (e instanceof LiteralDouble) return new Exp("(" + ((LiteralDouble) e).getValor() + ")", K.DOUBLE);
+        if (e instanceof LiteralBooleano) return new Exp(String.valueOf(((LiteralBooleano) e).getValor()), K.BOOL);
+        if (e instanceof LiteralChar) return new Exp("((char) " + (int) ((LiteralChar) e).getValor() + ")", K.CHAR);
+        if (e instanceof LiteralString) return new Exp(literalJava(((LiteralString) e).getValor()), K.STRING);
+        if (e instanceof Identificador) {
+            Identificador id = (Identificador) e;
+            return leer(variable(id.getProfundidad(), id.getSlot()));
+        }
+        if (e instanceof ExpresionAgrupada) return expresion(((ExpresionAgrupada) e).getExpresion());
+        if (e instanceof ExpresionAritmetica) return aritmetica((ExpresionAritmetica) e);
+        if (e instanceof ExpresionRelacional) return relacional((ExpresionRelacional) e);
+        if (e instanceof ExpresionLogica) return logica((ExpresionLogica) e);
+        if (e instanceof ExpresionCasteo) return casteo((ExpresionCasteo) e);
+        if (e instanceof LlamadaFuncion) return llamada((LlamadaFuncion) e);
+        if (e instanceof LlamadaMiembro) return miembro((LlamadaMiembro) e);
+        if (e instanceof AccesoIndexado) {
+            AccesoIndexado acc = (AccesoIndexado) e;
+            String cont = contenedor(expresion(acc.getObjetivo()));
+            String i1 = indice(acc.getIndice1());
+            if (acc.getIndice2() == null) return new Exp("rt.indexar(" + cont + ", " + i1 + ")", K.VAL);
+            return new Exp("rt.indexar(" + cont + ", " + i1 + ", " + indice(acc.getIndice2()) + ")", K.VAL);
+        }
+        if (e instanceof LiteralVector) return vector((LiteralVector) e);
+        if (e instanceof LiteralMatriz) return matriz((LiteralMatriz) e);
+        throw new NoSoportado(e == null ? "expresión nula" : e.getClass().getSimpleName());
+    }
+
+    private static String literalJava(String s) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\%03o", (int) c));
+                    else out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private Exp vector(LiteralVector v) {
+        StringBuilder out = new StringBuilder("rt.vector(");
+        List<Expresion> elems = v.getElementos();
+        if (elems != null) {
+            for (int i = 0; i < elems.size(); i++) {
+                Exp x = expresion(elems.get(i));
+                if (x.k == K.VOID) throw new NoSoportado("elemento void");
+                if (i > 0) out.append(", ");
+                out.append(val(x));
+            }
+        }
+        return new Exp(out.append(")").toString(), K.VAL);
+    }
+
+    private Exp matriz(LiteralMatriz m) {
+        StringBuilder out = new StringBuilder("rt.matriz(");
+        List<LiteralVector> filas = m.getFilas();
+        if (filas != null) {
+            for (int i = 0; i < filas.size(); i++) {
+                if (i > 0) out.append(", ");
+                out.append(vector(filas.get(i)).codigo);
+            }
+        }
+        return new Exp(out.append(")").toString(), K.VAL);
+    }
+
+    private static String operador(Enum<?> op) {
+        return op.getDeclaringClass().getName() + "." + op.name();
+    }
+
+    private Exp aritmetica(ExpresionAritmetica a) {
+        if (a.getIzquierda() == null) {
+            if (a.getOperador() != ast.OperadorAritmetico.NEGACION_UNARIA) throw new NoSoportado("unario");
+            Exp d = expresion(a.getDerecha());
+            switch (d.k) {
+                case INT:
+                case DOUBLE:
+                    return new Exp("(-" + d.codigo + ")", d.k);
+                case CHAR:
+                    return new Exp("(-(int) " + d.codigo + ")", K.INT);
+                case VOID:
+                    throw new NoSoportado("negación de void");
+                default:
+                    return new Exp("rt.negar(" + val(d) + ")", K.VAL);
+            }
+        }
+        Exp i = expresion(a.getIzquierda());
+        Exp d = expresion(a.getDerecha());
+        if (i.k == K.VOID || d.k == K.VOID) throw new NoSoportado("operando void");
+        ast.OperadorAritmetico op = a.getOperador();
+        String general = "rt.aritmetica(" + operador(op) + ", " + val(i) + ", " + val(d) + ")";
+        if (!esTipado(i.k) || !esTipado(d.k)) return new Exp(general, K.VAL);
+        if (op == ast.OperadorAritmetico.SUMA && (i.k == K.STRING || d.k == K.STRING)) {
+            return new Exp("(String.valueOf(" + i.codigo + ") + String.valueOf(" + d.codigo + "))", K.STRING);
+        }
+        if (!esNum(i.k) || !esNum(d.k)) return new Exp(general, K.VAL);
+        boolean dbl = i.k == K.DOUBLE || d.k == K.DOUBLE;
+        switch (op) {
+            case SUMA:
+            case RESTA:
+            case MULTIPLICACION: {
+                String sim = op == ast.OperadorAritmetico.SUMA ? " + " : op == ast.OperadorAritmetico.RESTA ? " - " : " * ";
+                if (dbl) return new Exp("(" + comoDouble(i) + sim + comoDouble(d) + ")", K.DOUBLE);
+                return new Exp("(" + i.codigo + sim + d.codigo + ")", K.INT);
+            }
+            case DIVISION:
+                // Con divisor constante distinto de cero no hay error posible
+                if (divisorConstante(a.getDerecha()) != 0) {
+                    return new Exp("(" + comoDouble(i) + " / " + comoDouble(d) + ")", K.DOUBLE);
+                }
+                return new Exp("rt.dividir(" + comoDouble(i) + ", " + comoDouble(d) + ")", K.VAL);
+            case MODULO:
+                if (dbl) return new Exp(general, K.VAL);
+                if (divisorConstante(a.getDerecha()) != 0 && a.getDerecha() instanceof LiteralEntero) {
+                    return new Exp("(" + i.codigo + " % " + d.codigo + ")", K.INT);
+                }
+                return new Exp("rt.modulo(" + i.codigo + ", " + d.codigo + ")", K.VAL);
+            case POTENCIA:
+                if (i.k == K.INT && d.k == K.INT) {
+                    return new Exp("((int) Math.pow(" + i.codigo + ", " + d.codigo + "))", K.INT);
+                }
+                return new Exp("Math.pow(" + comoDouble(i) + ", " + comoDouble(d) + ")", K.DOUBLE);
+            default:
+                throw new NoSoportado(op.name());
+        }
+    }
+
+    // Valor absoluto de un literal numérico si no se confunde con cero (|x| >= 1e-9); 0 en otro caso
+    private static double divisorConstante(Expresion e) {
+        double x;
+        if (e instanceof LiteralEntero) x = ((LiteralEntero) e).getValor();
+        else if (e instanceof LiteralDouble) x = ((LiteralDouble) e).getValor();
+        else return 0;
+        return Math.abs(x) < 1e-9 ? 0 : Math.abs(x);
+    }
+
+    private Exp relacional(ExpresionRelacional r) {
+        Exp i = expresion(r.getIzquierda());
+        Exp d = expresion(r.getDerecha());
+        if (i.k == K.VOID || d.k == K.VOID) throw new NoSoportado("operando void");
+        ast.OperadorRelacional op = r.getOperador();
+        if (esNum(i.k) && esNum(d.k)) {
+            boolean dbl = i.k == K.DOUBLE || d.k == K.DOUBLE;
+            String a = dbl ? comoDouble(i) : i.codigo;
+            String b = dbl ? comoDouble(d) : d.codigo;
+            switch (op) {
+                case MENOR: return new Exp("(" + a + " < " + b + ")", K.BOOL);
+                case MAYOR: return new Exp("(" + a + " > " + b + ")", K.BOOL);
+                case MENOR_IGUAL: return new Exp("(" + a + " <= " + b + ")", K.BOOL);
+                case MAYOR_IGUAL: return new Exp("(" + a + " >= " + b + ")", K.BOOL);
+                case IGUAL:
+                    if (!dbl) return new Exp("(" + a + " == " + b + ")", K.BOOL);
+                    return new Exp("(Math.abs(" + a + " - " + b + ") < 1e-9)", K.BOOL);
+                case DIFERENTE:
+                    if (!dbl) return new Exp("(" + a + " != " + b + ")", K.BOOL);
+                    return new Exp("(Math.abs(" + a + " - " + b + ") >= 1e-9)", K.BOOL);
+                default:
+                    throw new NoSoportado(op.name());
+            }
+        }
+        boolean igualdad = op == ast.OperadorRelacional.IGUAL || op == ast.OperadorRelacional.DIFERENTE;
+        if (i.k == d.k && igualdad && (i.k == K.BOOL || i.k == K.STRING)) {
+            boolean igual = op == ast.OperadorRelacional.IGUAL;
+            if (i.k == K.BOOL) return new Exp("(" + i.codigo + (igual ? " == " : " != ") + d.codigo + ")", K.BOOL);
+            return new Exp("(" + (igual ? "" : "!") + i.codigo + ".equals(" + d.codigo + "))", K.BOOL);
+        }
+        return new Exp("rt.relacional(" + operador(op) + ", " + val(i) + ", " + val(d) + ")", K.BOOL);
+    }
+
+    private Exp logica(ExpresionLogica l) {
+        ast.OperadorLogico op = l.getOperador();
+        Exp i = l.getIzquierda() == null ? null : expresion(l.getIzquierda());
+        Exp d = expresion(l.getDerecha());
+        if ((i != null && i.k == K.VOID) || d.k == K.VOID) throw new NoSoportado("operando void");
+        if (i == null) {
+            if (d.k == K.BOOL) return new Exp("(!" + d.codigo + ")", K.BOOL);
+            return new Exp("rt.logica(" + operador(op) + ", null, " + val(d) + ")", K.BOOL);
+        }
+        if (i.k == K.BOOL && d.k == K.BOOL) {
+            // El intérprete evalúa siempre ambos lados
+            switch (op) {
+                case AND: return new Exp("(" + i.codigo + " & " + d.codigo + ")", K.BOOL);
+                case OR: return new Exp("(" + i.codigo + " | " + d.codigo + ")", K.BOOL);
+                case XOR: return new Exp("(" + i.codigo + " ^ " + d.codigo + ")", K.BOOL);
+                default: break;
+            }
+        }
+        return new Exp("rt.logica(" + operador(op) + ", " + val(i) + ", " + val(d) + ")", K.BOOL);
+    }
+
+    private Exp casteo(ExpresionCasteo c) {
+        Tipo destino = c.getTipoDestino();
+        Exp x = expresion(c.getExpresion());
+        if (x.k == K.VOID) throw new NoSoportado("casteo de void");
+        switch (destino) {
+            case INT:
+                if (x.k == K.DOUBLE || x.k == K.CHAR) return new Exp("((int) " + x.codigo + ")", K.INT);
+                break;
+            case DOUBLE:
+                if (x.k == K.INT || x.k == K.CHAR) return new Exp("((double) " + x.codigo + ")", K.DOUBLE);
+                break;
+            case CHAR:
+                if (x.k == K.INT) return new Exp("((char) " + x.codigo + ")", K.CHAR);
+                break;
+            case STRING:
+                if (x.k != K.VAL) return new Exp("String.valueOf(" + x.codigo + ")", K.STRING);
+                break;
+            default:
+                break;
+        }
+        return new Exp("rt.casteo(" + tipo(destino) + ", " + val(x) + ")", K.VAL);
+    }
+
+    private Exp llamada(LlamadaFuncion l) {
+        String nombre = l.getNombre() == null ? "" : l.getNombre().toLowerCase();
+        List<Expresion> args = l.getArgumentos() == null ? new ArrayList<>() : l.getArgumentos();
+        switch (nombre) {
+            case "round": {
+                if (args.size() != 1) throw new NoSoportado("round");
+                Exp a = argumento(args.get(0));
+                if (esNum(a.k)) return new Exp("((int) Math.round(" + comoDouble(a) + "))", K.INT);
+                return new Exp("rt.round(" + val(a) + ")", K.VAL);
+            }
+            case "length": {
+                if (args.size() != 1) throw new NoSoportado("length");
+                Exp a = argumento(args.get(0));
+                if (a.k == K.STRING) return new Exp(a.codigo + ".length()", K.INT);
+                return new Exp("rt.length(" + val(a) + ")", K.VAL);
+            }
+            case "tostring": {
+                if (args.size() != 1) throw new NoSoportado("toString");
+                Exp a = argumento(args.get(0));
+                if (a.k == K.VAL) return new Exp("rt.texto(" + a.codigo + ")", K.STRING);
+                return new Exp("String.valueOf(" + a.codigo + ")", K.STRING);
+            }
+            case "find": {
+                if (args.size() != 2) throw new NoSoportado("find");
+                Exp a = argumento(args.get(0));
+                Exp b = argumento(args.get(1));
+                if (a.k == K.STRING && b.k == K.STRING) return new Exp(a.codigo + ".indexOf(" + b.codigo + ")", K.INT);
+                return new Exp("rt.find(" + val(a) + ", " + val(b) + ")", K.VAL);
+            }
+            case "start_with":
+            case "startwith":
+            case "startswith": {
+                if (args.size() != 2) throw new NoSoportado("start_with");
+                Exp a = argumento(args.get(0));
+                Exp b = argumento(args.get(1));
+                if (a.k == K.STRING && b.k == K.STRING) return new Exp(a.codigo + ".startsWith(" + b.codigo + ")", K.BOOL);
+                return new Exp("rt.empiezaCon(" + val(a) + ", " + val(b) + ")", K.VAL);
+            }
+            default:
+                break;
+        }
+        DeclaracionFuncion f = funciones.get(nombre);
+        if (f == null) throw new NoSoportado("función no definida " + nombre);
+        return llamadaUsuario(f, args, false);
+    }
+
+    private Exp argumento(Expresion e) {
+        Exp a = expresion(e);
+        if (a.k == K.VOID) throw new NoSoportado("argumento void");
+        return a;
+    }
+
+    // El objetivo se evalúa antes que el argumento, y el argumento solo si el objetivo es una lista
+    private Exp miembro(LlamadaMiembro m) {
+        String cont = contenedor(expresion(m.getObjetivo()));
+        String nombre = m.getNombre() == null ? "" : m.getNombre().toLowerCase();
+        List<Expresion> args = m.getArgumentos() == null ? new ArrayList<>() : m.getArgumentos();
+        if (args.size() != 1) throw new NoSoportado(nombre + " requiere 1 argumento");
+        String metodo;
+        switch (nombre) {
+            case "append": metodo = "append"; break;
+            case "remove": metodo = "remove"; break;
+            case "find": metodo = "contiene"; break;
+            default: throw new NoSoportado("método " + nombre);
+        }
+        Exp a = argumento(args.get(0));
+        return new Exp("(rt.receptor(" + cont + ") ? rt." + metodo + "(rt.receptor(), " + val(a) + ") : Valor.ERROR)", K.VAL);
+    }
+}
@@ -0,0 +1,192 @@
+package interpreter.bytecode;
+
+import ast.Programa;
+import ast.sentencias.DeclaracionFuncion;
+import interpreter.ContextoEjecucion;
+import interpreter.EjecucionCancelada;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor que compila el programa a una clase JVM y la ejecuta. La clase se
+ * define como clase oculta (Lookup.defineHiddenClass) en este paquete.
+ *
+ * CompiladorBytecode genera código Java y los bytes de la clase los produce
+ * javac (javax.tools) en memoria; este modo depende a propósito de un JDK en
+ * lugar de emitir class files a mano. Sin javac (un JRE sin el módulo
+ * java.compiler) avisa una vez por stderr y siempre se interpreta.
+ *
+ * La compilación es parte de la corrida: un mismo programa corre siempre por
+ * el mismo camino. Las clases se guardan por código generado para no volver a
+ * llamar a javac. La corrida compilada no se repite en el intérprete: imprime
+ * en la consola del contexto a medida que avanza, comparte sus contadores de
+ * Presupuesto, registra sus errores de ejecución y llena su tabla de ejecución
+ * igual que VisitanteEvaluacion.
+ */
+public final class MotorBytecode {
+
+    private static final boolean DEPURAR = Boolean.getBoolean("javausac.bytecode.debug");
+    // Clases compiladas que se conservan (LRU)
+    private static final int CAPACIDAD = Integer.getInteger("javausac.bytecode.capacidad", 16);
+
+    /** Clase compilada de un programa; constructor null si javac la rechazó. */
+    private static final class Compilada {
+        final MethodHandle constructor;
+
+        Compilada(MethodHandle constructor) {
+            this.constructor = constructor;
+        }
+    }
+
+    private static final Compilada RECHAZADA = new Compilada(null);
+
+    private static final Map<String, Compilada> CLASES = new LinkedHashMap<String, Compilada>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Compilada> mayor) {
+            return size() > CAPACIDAD;
+        }
+    };
+
+    private static volatile boolean avisoSinJavac;
+
+    private MotorBytecode() {
+    }
+
+    /**
+     * Corre el programa compilado. Devuelve false sin haber tocado el contexto
+     * si no se puede compilar; el llamador debe interpretarlo.
+     */
+    public static boolean ejecutar(Programa programa, ContextoEjecucion contexto) {
+        CompiladorBytecode compilador = new CompiladorBytecode(programa, contexto.getPresupuesto().limitaSentencias());
+        String fuente;
+        try {
+            fuente = compilador.generar();
+        } catch (CompiladorBytecode.NoSoportado e) {
+            if (DEPURAR) System.err.println("bytecode: no soportado: " + e.getMessage());
+            return false;
+        }
+
+        Compilada compilada;
+        synchronized (CLASES) {
+            compilada = CLASES.get(fuente);
+        }
+        if (compilada == null) compilada = compilarYGuardar(fuente);
+        if (compilada.constructor == null) return false;
+
+        DeclaracionFuncion[] funciones = CompiladorBytecode.funciones(programa);
+        SoporteBytecode rt = new SoporteBytecode(contexto, funciones, compilador.getAmbitosSwitch());
+        ProgramaCompilado programaCompilado;
+        try {
+            programaCompilado = (ProgramaCompilado) compilada.constructor.invoke(rt);
+        } catch (Throwable e) {
+            if (DEPURAR) System.err.println("bytecode: no se pudo instanciar: " + e);
+            return false;
+        }
+        // Como VisitanteEvaluacion.visit(Programa): las funciones se registran antes de correr
+        for (DeclaracionFuncion f : funciones) {
+            contexto.registrarFuncion(f);
+        }
+        try {
+            programaCompilado.ejecutar();
+        } catch (EjecucionCancelada e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Un caso que CompiladorBytecode debió rechazar; la corrida ya imprimió
+            throw new EjecucionCancelada("Error interno del código compilado: " + e, 0, 0);
+        }
+        return true;
+    }
+
+    private static Compilada compilarYGuardar(String fuente) {
+        Compilada compilada = RECHAZADA;
+        byte[] bytes = compilar(fuente);
+        if (bytes != null) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+                MethodHandle ctor = lookup.findConstructor(lookup.lookupClass(),
+                        MethodType.methodType(void.class, SoporteBytecode.class));
+                compilada = new Compilada(ctor);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                if (DEPURAR) System.err.println("bytecode: no se pudo cargar: " + e);
+            }
+        }
+        synchronized (CLASES) {
+            CLASES.put(fuente, compilada);
+        }
+        return compilada;
+    }
+
+    private static byte[] compilar(String fuente) {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            if (!avisoSinJavac) {
+                avisoSinJavac = true;
+                System.err.println("bytecode: no hay compilador de Java en este entorno (se necesita un JDK); "
+                        + "los programas se interpretan");
+            }
+            return null;
+        }
+
+        JavaFileObject unidad = new SimpleJavaFileObject(
+                URI.create("string:///" + CompiladorBytecode.PAQUETE.replace('.', '/') + "/"
+                        + CompiladorBytecode.CLASE + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return fuente;
+            }
+        };
+
+        ByteArrayOutputStream clase = new ByteArrayOutputStream();
+        DiagnosticCollector<JavaFileObject> diagnosticos = new DiagnosticCollector<>();
+        StandardJavaFileManager estandar = javac.getStandardFileManager(diagnosticos, null, StandardCharsets.UTF_8);
+        JavaFileManager manager = new ForwardingJavaFileManager<JavaFileManager>(estandar) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                       JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return clase;
+                    }
+                };
+            }
+        };
+
+        List<String> opciones = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                "-nowarn", "-proc:none");
+        Boolean ok = javac.getTask(null, manager, diagnosticos, opciones, null, List.of(unidad)).call();
+        if (!Boolean.TRUE.equals(ok)) {
+            if (DEPURAR) {
+                for (Diagnostic<? extends JavaFileObject> d : diagnosticos.getDiagnostics()) {
+                    System.err.println(d);
+                }
+                System.err.println(fuente);
+            }
+            return null;
+        }
+        return clase.toByteArray();
+    }
+}
@@ -0,0 +1,9 @@
+package interpreter.bytecode;
+
+/**
+ * Contrato de la clase oculta que genera CompiladorBytecode.
+ */
+public interface ProgramaCompilado {
+
+    void ejecutar();
+}
@@ -0,0 +1,321 @@
+package interpreter.bytecode;
+
+import ast.OperadorAritmetico;
+import ast.OperadorLogico;
+import ast.OperadorRelacional;
+import ast.Parametro;
+import ast.sentencias.DeclaracionFuncion;
+import interpreter.CacheMemo;
+import interpreter.ContextoEjecucion;
+import interpreter.Operaciones;
+import interpreter.Valor;
+import interpreter.estructuras.VectorPrimitivo;
+import interpreter.estructuras.Vectores;
+import semantic.CategoriaSimbolo;
+import semantic.Simbolo;
+import semantic.Tipo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operaciones que el código generado no resuelve en línea: valores de tipo
+ * dinámico (Valor), estructuras, salida y tabla de símbolos. Trabaja sobre el
+ * ContextoEjecucion de la corrida: imprime en su consola, usa sus contadores
+ * de Presupuesto y llena su tabla de ejecución. Los errores de ejecución se
+ * registran en el contexto y la operación devuelve Valor.ERROR, igual que en
+ * VisitanteEvaluacion (todo lo que puede fallar pasa por Operaciones).
+ */
+public final class SoporteBytecode {
+
+    private final ContextoEjecucion contexto;
+    // Funciones del programa en orden de declaración; el código generado las nombra por índice
+    private final DeclaracionFuncion[] funciones;
+    private final String[] ambitosSwitch;
+    // Objetivo de la última llamada de miembro (ver receptor)
+    private Object receptor;
+
+    SoporteBytecode(ContextoEjecucion contexto, DeclaracionFuncion[] funciones, String[] ambitosSwitch) {
+        this.contexto = contexto;
+        this.funciones = funciones;
+        this.ambitosSwitch = ambitosSwitch;
+    }
+
+    public void imprimir(String texto) {
+        contexto.imprimir(texto);
+    }
+
+    public void imprimir(Valor v) {
+        contexto.imprimir(Operaciones.stringify(v.getValor()));
+    }
+
+    // Puntos de control con los contadores de la corrida
+
+    public void puntoControl(int linea, int columna) {
+        contexto.puntoControl(linea, columna);
+    }
+
+    public void vueltaCiclo(int linea, int columna) {
+        contexto.vueltaCiclo(linea, columna);
+    }
+
+    public void entrarLlamada(int linea, int columna) {
+        contexto.entrarLlamada(linea, columna);
+    }
+
+    public void entrarSwitch() {
+        contexto.entrarSwitch();
+    }
+
+    public void salirSwitch() {
+        contexto.salirSwitch();
+    }
+
+    public void ignorar(Object valor) {
+    }
+
+    public int errores() {
+        return contexto.getErrores().size();
+    }
+
+    public void error(String motivo) {
+        contexto.agregarError(motivo);
+    }
+
+    // ---- tabla de símbolos ----
+
+    public String ambito(int i) {
+        return ambitosSwitch[i];
+    }
+
+    public Simbolo filaVariable(String id, Tipo tipo, int linea, int columna, String ambito) {
+        return contexto.filaReporte(id, tipo, CategoriaSimbolo.VARIABLE, linea, columna, ambito);
+    }
+
+    public Simbolo filaParametro(String id, Tipo tipo, int linea, int columna, String ambito) {
+        return contexto.filaReporte(id, tipo, CategoriaSimbolo.PARAMETRO, linea, columna, ambito);
+    }
+
+    public void fijar(Simbolo fila, int v) {
+        fila.setValorSinCaja(Tipo.INT, v, 0.0);
+    }
+
+    public void fijar(Simbolo fila, double v) {
+        fila.setValorSinCaja(Tipo.DOUBLE, 0L, v);
+    }
+
+    public void fijar(Simbolo fila, boolean v) {
+        fila.setValorSinCaja(Tipo.BOOL, v ? 1L : 0L, 0.0);
+    }
+
+    public void fijar(Simbolo fila, char v) {
+        fila.setValorSinCaja(Tipo.CHAR, v, 0.0);
+    }
+
+    public void fijar(Simbolo fila, Object v) {
+        fila.setValor(v);
+    }
+
+    // ---- variables de tipo dinámico: guardan el objeto crudo y su tipo declarado ----
+
+    /** esAsignableRuntime; si no lo es registra el error y la variable queda como estaba. */
+    public boolean asignable(Tipo destino, Valor v) {
+        if (Operaciones.esAsignableRuntime(destino, v)) return true;
+        contexto.agregarError("Tipo incompatible en asignación (ejecución): se esperaba '" + destino
+                + "' y se recibió '" + v.getTipo() + "'");
+        return false;
+    }
+
+    public Object crudo(Tipo destino, Valor v) {
+        return Operaciones.convertirSiAplica(destino, v).getValorSinAplanar();
+    }
+
+    /** ++/-- sobre una variable dinámica; null (con el error registrado) si no es int/double/char. */
+    public Object incrementar(Object actual, boolean inc) {
+        Object nuevo = Operaciones.incrementar(actual, inc);
+        if (nuevo == null) contexto.agregarError("++/-- solo aplica a int/double/char (ejecución)");
+        return nuevo;
+    }
+
+    // ---- aritmética y comparaciones ----
+
+    public Valor dividir(double a, double b) {
+        if (Math.abs(b) < 1e-9) {
+            contexto.agregarError("División entre cero");
+            return Valor.ERROR;
+        }
+        return Valor.decimal(a / b);
+    }
+
+    public Valor modulo(int a, int b) {
+        if (b == 0) {
+            contexto.agregarError("Módulo por cero");
+            return Valor.ERROR;
+        }
+        return Valor.entero(a % b);
+    }
+
+    public Valor aritmetica(OperadorAritmetico op, Valor a, Valor b) {
+        return Operaciones.aritmetica(op, a, b, contexto);
+    }
+
+    public Valor negar(Valor a) {
+        return Operaciones.negar(a);
+    }
+
+    public boolean relacional(OperadorRelacional op, Valor a, Valor b) {
+        return Operaciones.relacional(op, a, b, contexto).comoBool();
+    }
+
+    public boolean logica(OperadorLogico op, Valor a, Valor b) {
+        return Operaciones.logica(op, a, b).comoBool();
+    }
+
+    public Valor casteo(Tipo destino, Valor a) {
+        return Operaciones.casteo(destino, a);
+    }
+
+    public boolean sonIguales(Valor a, Valor b) {
+        return Operaciones.sonIguales(a, b);
+    }
+
+    public boolean esVerdadero(Valor cond) {
+        return Operaciones.esVerdadero(cond);
+    }
+
+    public int indice(Valor v) {
+        return Operaciones.toInt(v);
+    }
+
+    // ---- nativas ----
+
+    public String texto(Valor v) {
+        return Operaciones.stringify(v.getValor());
+    }
+
+    public Valor round(Valor a) {
+        return Operaciones.round(a, contexto);
+    }
+
+    public Valor length(Valor a) {
+        return Operaciones.length(a, contexto);
+    }
+
+    public Valor find(Valor a, Valor b) {
+        return Operaciones.find(a, b, contexto);
+    }
+
+    public Valor empiezaCon(Valor a, Valor b) {
+        return Operaciones.empiezaCon(a, b, contexto);
+    }
+
+    // ---- vectores, matrices y listas ----
+
+    public Object nuevaLista() {
+        return new ArrayList<>();
+    }
+
+    public Object lista(Tipo tipo) {
+        return Vectores.lista(tipo);
+    }
+
+    public Object vectorVacio(Tipo tipo) {
+        return Vectores.vacio(tipo);
+    }
+
+    public Valor vector(Valor... elementos) {
+        return Operaciones.literalVector(elementos);
+    }
+
+    public Valor matriz(Valor... filas) {
+        return Operaciones.literalMatriz(filas);
+    }
+
+    public Valor indexar(Object cont, int i) {
+        return Operaciones.indexar(cont, i, contexto);
+    }
+
+    public Valor indexar(Object cont, int i, int j) {
+        return Operaciones.indexar(cont, i, j, contexto);
+    }
+
+    public void asignar(Object cont, int i, Valor valor) {
+        Operaciones.asignarIndexado(cont, i, valor, contexto);
+    }
+
+    // Mismo orden de evaluación que el intérprete: objetivo, fila, valor, columna
+    public void asignar(Object cont, int i, Valor valor, int j) {
+        Operaciones.asignarIndexado(cont, i, j, valor, contexto);
+    }
+
+    public void incDec(Object cont, int i, boolean inc) {
+        Operaciones.incDecIndexado(cont, i, inc, contexto);
+    }
+
+    public void incDec(Object cont, int i, int j, boolean inc) {
+        Operaciones.incDecIndexado(cont, i, j, inc, contexto);
+    }
+
+    // ---- métodos de List ----
+
+    /**
+     * Evalúa el objetivo de una llamada de miembro antes que su argumento:
+     * el código generado es receptor(obj) ? append(receptor(), arg) : Valor.ERROR.
+     */
+    public boolean receptor(Object obj) {
+        receptor = obj;
+        if (obj instanceof List) return true;
+        contexto.agregarError("Llamada de miembro solo soportada sobre List en esta fase (ejecución)");
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Object> receptor() {
+        return (List<Object>) receptor;
+    }
+
+    public Valor append(List<Object> lista, Valor v) {
+        if (lista instanceof VectorPrimitivo) ((VectorPrimitivo) lista).agregar(v);
+        else lista.add(v.getValor());
+        return Valor.VOID;
+    }
+
+    public Valor remove(List<Object> lista, Valor indice) {
+        return Operaciones.quitar(lista, indice, contexto);
+    }
+
+    public Valor contiene(List<Object> lista, Valor v) {
+        return Valor.booleano(Operaciones.posicion(lista, v.getValor()) >= 0);
+    }
+
+    // ---- llamadas a funciones del programa ----
+
+    public CacheMemo memoDe(int funcion) {
+        return contexto.memoDe(funciones[funcion]);
+    }
+
+    public boolean parametroValido(int funcion, int parametro, Valor v) {
+        return Operaciones.esAsignableRuntime(funciones[funcion].getParametros().get(parametro).getTipo(), v);
+    }
+
+    /**
+     * Lo que hace VisitanteEvaluacion.invocar cuando el argumento fallido no es
+     * asignable a su parámetro: entra a la llamada, declara los parámetros
+     * anteriores, registra el error y devuelve Valor.ERROR.
+     */
+    public Valor llamadaFallida(int funcion, int fallido, Valor... args) {
+        DeclaracionFuncion f = funciones[funcion];
+        contexto.entrarLlamada(f.getLine(), f.getColumn());
+        List<Parametro> params = f.getParametros();
+        for (int i = 0; i < fallido; i++) {
+            Parametro p = params.get(i);
+            Simbolo fila = filaParametro(p.getNombre(), p.getTipo(), p.getLine(), p.getColumn(), f.getNombre());
+            // La fila hace de símbolo de ejecución: setValor la escribe sin buscar otro reporte
+            if (!fila.tieneValor()) contexto.setValor(fila, Operaciones.convertirSiAplica(p.getTipo(), args[i]));
+        }
+        Parametro p = params.get(fallido);
+        contexto.agregarError("Parámetro incompatible en llamada a '" + f.getNombre()
+                + "': se esperaba '" + p.getTipo().toString() + "' y se recibió '" + args[fallido].getTipo() + "'");
+        return Valor.ERROR;
+    }
+}
@@ -0,0 +1,12 @@
+package interpreter.clausuras;
+
+import interpreter.Valor;
+
+/**
+ * Nodo ya enlazado por CompiladorClausuras. Las sentencias devuelven Valor.VOID.
+ */
+@FunctionalInterface
+public interface Clausura {
+
+    Valor ejecutar();
+}
@@ -0,0 +1,932 @@
+package interpreter.clausuras;
+
+import ast.NodoAST;
+import ast.OperadorAritmetico;
+import ast.OperadorLogico;
+import ast.OperadorRelacional;
+import ast.Parametro;
+import ast.Programa;
+import ast.Visitor;
+import ast.expresiones.*;
+import ast.sentencias.*;
+import interpreter.CacheMemo;
+import interpreter.ContextoEjecucion;
+import interpreter.Operaciones;
+import interpreter.Valor;
+import interpreter.estructuras.VectorPrimitivo;
+import interpreter.estructuras.Vectores;
+import semantic.Simbolo;
+import semantic.Tipo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convierte el AST en un árbol de clausuras una sola vez (ModoEjecucion.CLAUSURAS).
+ * El recorrido con Visitor ocurre al compilar; al ejecutar cada clausura llama
+ * directamente a sus hijas. La semántica es la de VisitanteEvaluacion: mismo
+ * orden de evaluación, mismas banderas de control en ContextoEjecucion y mismos
+ * errores.
+ */
+public class CompiladorClausuras implements Visitor<Clausura> {
+
+    private static final Clausura[] SIN_CLAUSURAS = new Clausura[0];
+
+    private static final class FuncionCompilada {
+        final DeclaracionFuncion declaracion;
+        Clausura cuerpo;
+
+        FuncionCompilada(DeclaracionFuncion declaracion) {
+            this.declaracion = declaracion;
+        }
+    }
+
+    private final ContextoEjecucion contexto;
+    private final Map<String, FuncionCompilada> funciones = new HashMap<>();
+    private boolean slots;
+
+    public CompiladorClausuras(ContextoEjecucion contexto) {
+        this.contexto = contexto;
+    }
+
+    public Clausura compilar(Programa programa) {
+        return programa.accept(this);
+    }
+
+    /**
+     * Compila un nodo suelto que no llama funciones de usuario (lo usa
+     * interpreter.pila.CompiladorPila para los tramos sin recursión).
+     */
+    public Clausura compilarFragmento(NodoAST nodo, boolean conSlots) {
+        slots = conSlots;
+        return nodo.accept(this);
+    }
+
+    private Clausura[] compilarTodas(List<? extends NodoAST> nodos) {
+        if (nodos == null || nodos.isEmpty()) return SIN_CLAUSURAS;
+        Clausura[] out = new Clausura[nodos.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = nodos.get(i).accept(this);
+        }
+        return out;
+    }
+
+    private boolean interrumpido() {
+        return contexto.debeBreakCiclo() || contexto.debeContinue() || contexto.debeBreakSwitch() || contexto.hayReturn();
+    }
+
+    @Override
+    public Clausura visit(Programa programa) {
+        int tamanoMarco = programa.getTamanoMarco();
+        slots = tamanoMarco >= 0;
+        List<DeclaracionFuncion> declaradas = new ArrayList<>();
+        for (Sentencia stmt : programa.getSentencias()) {
+            if (stmt instanceof DeclaracionFuncion) {
+                DeclaracionFuncion f = (DeclaracionFuncion) stmt;
+                declaradas.add(f);
+                funciones.put(f.getNombre().toLowerCase(), new FuncionCompilada(f));
+            }
+        }
+        for (FuncionCompilada f : funciones.values()) {
+            f.cuerpo = f.declaracion.getCuerpo().accept(this);
+        }
+
+        // Igual que VisitanteEvaluacion: las declaraciones siempre corren, el resto solo antes de start
+        List<Clausura> antes = new ArrayList<>();
+        Clausura start = null;
+        for (Sentencia stmt : programa.getSentencias()) {
+            if (stmt instanceof DeclaracionFuncion) continue;
+            if (stmt instanceof StartSentencia) {
+                if (start == null) start = stmt.accept(this);
+                continue;
+            }
+            if (stmt instanceof DeclaracionVariable || start == null) {
+                antes.add(stmt.accept(this));
+            }
+        }
+        Clausura[] globales = antes.toArray(SIN_CLAUSURAS);
+        Clausura inicio = start;
+        return () -> {
+            if (tamanoMarco >= 0) {
+                contexto.iniciarMarcoGlobal(tamanoMarco);
+            }
+            for (DeclaracionFuncion f : declaradas) {
+                contexto.registrarFuncion(f);
+            }
+            for (Clausura c : globales) {
+                c.ejecutar();
+                if (contexto.hayReturn()) {
+                    contexto.tomarReturnYLimpiar();
+                }
+                if (contexto.debeBreakCiclo() || contexto.debeContinue() || contexto.debeBreakSwitch()) {
+                    contexto.agregarError("Break/Continue fuera de ciclo/switch");
+                    contexto.setDebeBreakCiclo(false);
+                    contexto.setDebeBreakSwitch(false);
+                    contexto.setDebeContinue(false);
+                    break;
+                }
+            }
+            if (inicio != null) {
+                inicio.ejecutar();
+                if (contexto.hayReturn()) {
+                    contexto.tomarReturnYLimpiar();
+                }
+            } else {
+                contexto.agregarError("No se encontró sentencia START");
+            }
+            return Valor.VOID;
+        };
+    }
+
+    // ---- expresiones ----
+
+    @Override
+    public Clausura visit(LiteralEntero expr) {
+        Valor v = Valor.entero(expr.getValor());
+        return () -> v;
+    }
+
+    @Override
+    public Clausura visit(LiteralDouble expr) {
+        Valor v = Valor.decimal(expr.getValor());
+        return () -> v;
+    }
+
+    @Override
+    public Clausura visit(LiteralBooleano expr) {
+        Valor v = Valor.booleano(expr.getValor());
+        return () -> v;
+    }
+
+    @Override
+    public Clausura visit(LiteralChar expr) {
+        Valor v = Valor.caracter(expr.getValor());
+        return () -> v;
+    }
+
+    @Override
+    public Clausura visit(LiteralString expr) {
+        Valor v = Valor.cadena(expr.getValor());
+        return () -> v;
+    }
+
+    private interface BuscadorSimbolo {
+        Simbolo buscar();
+    }
+
+    private BuscadorSimbolo buscador(String nombre, int profundidad, int slot) {
+        if (slots) return () -> contexto.simboloEnSlot(profundidad, slot);
+        return () -> contexto.buscarSimbolo(nombre);
+    }
+
+    @Override
+    public Clausura visit(Identificador expr) {
+        String id = expr.getNombre();
+        BuscadorSimbolo b = buscador(id, expr.getProfundidad(), expr.getSlot());
+        return () -> {
+            Simbolo simbolo = b.buscar();
+            if (simbolo == null) {
+                contexto.agregarError("Variable '" + id + "' no declarada (ejecución)");
+                return Valor.ERROR;
+            }
+            return Valor.de(simbolo);
+        };
+    }
+
+    @Override
+    public Clausura visit(ExpresionAritmetica expr) {
+        OperadorAritmetico op = expr.getOperador();
+        Clausura der = expr.getDerecha().accept(this);
+        if (expr.getIzquierda() == null) {
+            return () -> Operaciones.aritmetica(op, null, der.ejecutar(), contexto);
+        }
+        Clausura izq = expr.getIzquierda().accept(this);
+        switch (op) {
+            case SUMA:
+                return () -> {
+                    Valor a = izq.ejecutar();
+                    return Operaciones.sumar(a, der.ejecutar(), contexto);
+                };
+            case RESTA:
+                return () -> {
+                    Valor a = izq.ejecutar();
+                    return Operaciones.restar(a, der.ejecutar(), contexto);
+                };
+            case MULTIPLICACION:
+                return () -> {
+                    Valor a = izq.ejecutar();
+                    return Operaciones.multiplicar(a, der.ejecutar(), contexto);
+                };
+            default:
+                return () -> {
+                    Valor a = izq.ejecutar();
+                    return Operaciones.aritmetica(op, a, der.ejecutar(), contexto);
+                };
+        }
+    }
+
+    @Override
+    public Clausura visit(ExpresionRelacional expr) {
+        OperadorRelacional op = expr.getOperador();
+        Clausura izq = expr.getIzquierda().accept(this);
+        Clausura der = expr.getDerecha().accept(this);
+        return () -> {
+            Valor a = izq.ejecutar();
+            return Operaciones.relacional(op, a, der.ejecutar(), contexto);
+        };
+    }
+
+    @Override
+    public Clausura visit(ExpresionLogica expr) {
+        OperadorLogico op = expr.getOperador();
+        Clausura der = expr.getDerecha().accept(this);
+        if (expr.getIzquierda() == null) {
+            return () -> Operaciones.logica(op, null, der.ejecutar());
+        }
+        Clausura izq = expr.getIzquierda().accept(this);
+        return () -> {
+            Valor a = izq.ejecutar();
+            return Operaciones.logica(op, a, der.ejecutar());
+        };
+    }
+
+    @Override
+    public Clausura visit(ExpresionCasteo expr) {
+        Tipo destino = expr.getTipoDestino();
+        Clausura valor = expr.getExpresion().accept(this);
+        return () -> Operaciones.casteo(destino, valor.ejecutar());
+    }
+
+    @Override
+    public Clausura visit(ExpresionAgrupada expr) {
+        return expr.getExpresion().accept(this);
+    }
+
+    @Override
+    public Clausura visit(LiteralVector expr) {
+        Clausura[] elems = compilarTodas(expr.getElementos());
+        return () -> Operaciones.literalVector(ejecutarTodas(elems));
+    }
+
+    @Override
+    public Clausura visit(LiteralMatriz expr) {
+        Clausura[] filas = compilarTodas(expr.getFilas());
+        return () -> Operaciones.literalMatriz(ejecutarTodas(filas));
+    }
+
+    private static Valor[] ejecutarTodas(Clausura[] clausuras) {
+        Valor[] out = new Valor[clausuras.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = clausuras[i].ejecutar();
+        }
+        return out;
+    }
+
+    @Override
+    public Clausura visit(NuevaLista expr) {
+        // VisitanteEvaluacion no la evalúa fuera de declaraciones/asignaciones
+        return () -> null;
+    }
+
+    private Clausura indiceOCero(Expresion e) {
+        if (e == null) {
+            Valor cero = Valor.entero(0);
+            return () -> cero;
+        }
+        return e.accept(this);
+    }
+
+    private Clausura objetivo(Expresion e) {
+        if (e == null) return () -> Valor.ERROR;
+        return e.accept(this);
+    }
+
+    @Override
+    public Clausura visit(AccesoIndexado expr) {
+        Clausura obj = objetivo(expr.getObjetivo());
+        Clausura i1 = indiceOCero(expr.getIndice1());
+        if (expr.getIndice2() == null) {
+            return () -> {
+                Object o = obj.ejecutar().getValor();
+                int i = Operaciones.toInt(i1.ejecutar());
+                return Operaciones.indexar(o, i, contexto);
+            };
+        }
+        Clausura i2 = expr.getIndice2().accept(this);
+        return () -> {
+            Object o = obj.ejecutar().getValor();
+            int i = Operaciones.toInt(i1.ejecutar());
+            int j = Operaciones.toInt(i2.ejecutar());
+            return Operaciones.indexar(o, i, j, contexto);
+        };
+    }
+
+    @Override
+    public Clausura visit(LlamadaFuncion expr) {
+        String nombre = expr.getNombre() == null ? "" : expr.getNombre().toLowerCase();
+        Clausura[] args = compilarTodas(expr.getArgumentos());
+        switch (nombre) {
+            case "round":
+                if (args.length != 1) return error("round(exp) requiere 1 argumento");
+                return () -> Operaciones.round(args[0].ejecutar(), contexto);
+            case "length":
+                if (args.length != 1) return error("length(exp) requiere 1 argumento");
+                return () -> Operaciones.length(args[0].ejecutar(), contexto);
+            case "tostring":
+                if (args.length != 1) return error("toString(exp) requiere 1 argumento");
+                return () -> Valor.cadena(Operaciones.stringify(args[0].ejecutar().getValor()));
+            case "find":
+                if (args.length != 2) return error("find(a,b) requiere 2 argumentos");
+                return () -> {
+                    Valor a0 = args[0].ejecutar();
+                    return Operaciones.find(a0, args[1].ejecutar(), contexto);
+                };
+            case "start_with":
+            case "startwith":
+            case "startswith":
+                if (args.length != 2) return error("START_WITH(a,b) requiere 2 argumentos");
+                return () -> {
+                    Valor a0 = args[0].ejecutar();
+                    return Operaciones.empiezaCon(a0, args[1].ejecutar(), contexto);
+                };
+            default:
+                break;
+        }
+        FuncionCompilada f = funciones.get(nombre);
+        if (f == null) return error("Función/método no definido: '" + expr.getNombre() + "'");
+        return llamada(f, args);
+    }
+
+    private Clausura error(String mensaje) {
+        return () -> {
+            contexto.agregarError(mensaje);
+            return Valor.ERROR;
+        };
+    }
+
+    private Clausura llamada(FuncionCompilada f, Clausura[] args) {
+        return llamada(f, args, f.declaracion.isPura());
+    }
+
+    private Clausura llamada(FuncionCompilada f, Clausura[] args, boolean memoizable) {
+        DeclaracionFuncion decl = f.declaracion;
+        List<Parametro> params = decl.getParametros();
+        Parametro[] ps = params == null ? new Parametro[0] : params.toArray(new Parametro[0]);
+        return () -> {
+            Valor[] evalArgs = new Valor[args.length];
+            for (int i = 0; i < args.length; i++) {
+                evalArgs[i] = args[i].ejecutar();
+            }
+            CacheMemo memo = memoizable ? contexto.memoDe(decl) : null;
+            List<Object> clave = memo == null ? null : CacheMemo.clave(evalArgs);
+            if (clave != null) {
+                Valor previo = memo.buscar(clave);
+                if (previo != null) return previo;
+                int errores = contexto.getErrores().size();
+                Valor v = invocar(f, ps, evalArgs);
+                if (v != Valor.ERROR && contexto.getErrores().size() == errores) memo.guardar(clave, v);
+                return v;
+            }
+            return invocar(f, ps, evalArgs);
+        };
+    }
+
+    private Valor invocar(FuncionCompilada f, Parametro[] ps, Valor[] evalArgs) {
+        String nombre = f.declaracion.getNombre();
+        int nParams = ps.length;
+        contexto.entrarLlamada(f.declaracion.getLine(), f.declaracion.getColumn());
+        contexto.pushCallFrame(nombre, f.declaracion.getTamanoMarco());
+        try {
+            if (nParams != evalArgs.length) {
+                contexto.agregarError("Aridad incorrecta al llamar '" + nombre + "': se esperaban "
+                        + nParams + " argumentos y se recibieron " + evalArgs.length);
+                return Valor.ERROR;
+            }
+            for (int i = 0; i < nParams; i++) {
+                Parametro p = ps[i];
+                Valor v = evalArgs[i];
+                if (!Operaciones.esAsignableRuntime(p.getTipo(), v)) {
+                    contexto.agregarError("Parámetro incompatible en llamada a '" + nombre
+                            + "': se esperaba '" + p.getTipo().toString() + "' y se recibió '" + v.getTipo() + "'");
+                    return Valor.ERROR;
+                }
+                v = Operaciones.convertirSiAplica(p.getTipo(), v);
+                Simbolo s = slots
+                        ? contexto.declararParametroEnSlot(i, p.getNombre(), p.getTipo(), p.getLine(), p.getColumn())
+                        : contexto.declararParametro(p.getNombre(), p.getTipo(), p.getLine(), p.getColumn());
+                if (s != null) {
+                    contexto.setValor(s, v);
+                }
+            }
+            f.cuerpo.ejecutar();
+            if (contexto.hayReturn()) {
+                return contexto.tomarReturnYLimpiar();
+            }
+            return Valor.VOID;
+        } finally {
+            contexto.popCallFrame();
+        }
+    }
+
+    @Override
+    public Clausura visit(LlamadaMiembro expr) {
+        Clausura obj = objetivo(expr.getObjetivo());
+        String nombre = expr.getNombre() == null ? "" : expr.getNombre().toLowerCase();
+        Clausura[] args = compilarTodas(expr.getArgumentos());
+        Clausura metodo;
+        switch (nombre) {
+            case "append":
+                if (args.length != 1) {
+                    metodo = error("append(x) requiere 1 argumento");
+                    break;
+                }
+                return () -> {
+                    List<Object> lista = lista(obj.ejecutar());
+                    if (lista == null) return Valor.ERROR;
+                    Valor v = args[0].ejecutar();
+                    if (lista instanceof VectorPrimitivo) ((VectorPrimitivo) lista).agregar(v);
+                    else lista.add(v.getValor());
+                    return Valor.VOID;
+                };
+            case "remove":
+                if (args.length != 1) {
+                    metodo = error("remove(indice) requiere 1 argumento");
+                    break;
+                }
+                return () -> {
+                    List<Object> lista = lista(obj.ejecutar());
+                    if (lista == null) return Valor.ERROR;
+                    return Operaciones.quitar(lista, args[0].ejecutar(), contexto);
+                };
+            case "find":
+                if (args.length != 1) {
+                    metodo = error("find(valor) requiere 1 argumento");
+                    break;
+                }
+                return () -> {
+                    List<Object> lista = lista(obj.ejecutar());
+                    if (lista == null) return Valor.ERROR;
+                    Valor v = args[0].ejecutar();
+                    return Valor.booleano(Operaciones.posicion(lista, v.getValor()) >= 0);
+                };
+            default:
+                metodo = error("Método no soportado en List: " + nombre);
+                break;
+        }
+        // El objetivo se evalúa y se valida antes de reportar el error del método
+        Clausura fallo = metodo;
+        return () -> {
+            if (lista(obj.ejecutar()) == null) return Valor.ERROR;
+            return fallo.ejecutar();
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> lista(Valor objV) {
+        Object obj = objV.getValor();
+        if (!(obj instanceof List)) {
+            contexto.agregarError("Llamada de miembro solo soportada sobre List en esta fase (ejecución)");
+            return null;
+        }
+        return (List<Object>) obj;
+    }
+
+    // ---- sentencias ----
+
+    @Override
+    public Clausura visit(BloqueSentencias stmt) {
+        Clausura[] cuerpo = compilarTodas(stmt.getSentencias());
+        int[] lineas = new int[cuerpo.length];
+        int[] columnas = new int[cuerpo.length];
+        for (int i = 0; i < cuerpo.length; i++) {
+            lineas[i] = stmt.getSentencias().get(i).getLine();
+            columnas[i] = stmt.getSentencias().get(i).getColumn();
+        }
+        return () -> {
+            contexto.pushBloque();
+            try {
+                for (int i = 0; i < cuerpo.length; i++) {
+                    contexto.puntoControl(lineas[i], columnas[i]);
+                    cuerpo[i].ejecutar();
+                    if (interrumpido()) break;
+                }
+            } finally {
+                contexto.popBloque();
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(DeclaracionVariable stmt) {
+        String id = stmt.getIdentificador();
+        Tipo tipo = stmt.getTipo();
+        int slot = stmt.getSlot();
+        int linea = stmt.getLine();
+        int columna = stmt.getColumn();
+        Expresion ini = stmt.getExpresionInicial();
+        Clausura valor = (ini == null || ini instanceof NuevaLista) ? null : ini.accept(this);
+        boolean nuevaLista = ini instanceof NuevaLista;
+        return () -> {
+            Simbolo simbolo = slots
+                    ? contexto.declararVariableEnSlot(slot, id, tipo, linea, columna)
+                    : contexto.declararVariable(id, tipo, linea, columna);
+            if (simbolo == null) return Valor.VOID;
+            if (nuevaLista) {
+                if (!tipo.isList()) {
+                    contexto.agregarError("new List() solo es válido para variables List<T> (ejecución)");
+                } else {
+                    contexto.setValor(simbolo, Vectores.lista(tipo));
+                }
+                return Valor.VOID;
+            }
+            if (valor != null) {
+                Valor v = Operaciones.convertirSiAplica(tipo, valor.ejecutar());
+                if (!Operaciones.esAsignableRuntime(tipo, v)) {
+                    contexto.agregarError("Tipo incompatible en declaración de '" + id + "' en ejecución. Esperado: "
+                            + tipo + ", recibido: " + v.getTipo());
+                } else {
+                    contexto.setValor(simbolo, v);
+                }
+                return Valor.VOID;
+            }
+            contexto.setValor(simbolo, valorPorDefecto(tipo));
+            return Valor.VOID;
+        };
+    }
+
+    private static Object valorPorDefecto(Tipo tipo) {
+        if (tipo == null) return null;
+        if (tipo.isVector()) return Vectores.vacio(tipo);
+        if (tipo.isList()) return Vectores.lista(tipo);
+        if (tipo.isMatrix()) return new ArrayList<>();
+        switch (tipo) {
+            case INT: return 0;
+            case DOUBLE: return 0.0;
+            case BOOL: return false;
+            case CHAR: return '\u0000';
+            case STRING: return "";
+            default: return null;
+        }
+    }
+
+    @Override
+    public Clausura visit(AsignacionVariable stmt) {
+        String id = stmt.getIdentificador();
+        BuscadorSimbolo b = buscador(id, stmt.getProfundidad(), stmt.getSlot());
+        if (stmt.getExpresion() instanceof NuevaLista) {
+            return () -> {
+                Simbolo simbolo = b.buscar();
+                if (simbolo == null) {
+                    contexto.agregarError("Variable '" + id + "' no declarada (ejecución)");
+                } else if (!simbolo.getTipo().isList()) {
+                    contexto.agregarError("new List() solo se puede asignar a List<T> (ejecución)");
+                } else {
+                    contexto.setValor(simbolo, Vectores.lista(simbolo.getTipo()));
+                }
+                return Valor.VOID;
+            };
+        }
+        Clausura valor = stmt.getExpresion().accept(this);
+        return () -> {
+            Simbolo simbolo = b.buscar();
+            if (simbolo == null) {
+                contexto.agregarError("Variable '" + id + "' no declarada (ejecución)");
+                return Valor.VOID;
+            }
+            Valor v = Operaciones.convertirSiAplica(simbolo.getTipo(), valor.ejecutar());
+            if (!Operaciones.esAsignableRuntime(simbolo.getTipo(), v)) {
+                contexto.agregarError("Tipo incompatible al asignar a '" + id + "' en ejecución. Esperado: "
+                        + simbolo.getTipo() + ", recibido: " + v.getTipo());
+                return Valor.VOID;
+            }
+            contexto.setValor(simbolo, v);
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(IfSentencia stmt) {
+        Clausura cond = stmt.getCondicion().accept(this);
+        Clausura si = stmt.getBloqueIf().accept(this);
+        Clausura sino = stmt.getBloqueElse() != null ? stmt.getBloqueElse().accept(this)
+                : stmt.getElseIf() != null ? stmt.getElseIf().accept(this) : null;
+        return () -> {
+            if (Operaciones.esVerdadero(cond.ejecutar())) {
+                si.ejecutar();
+            } else if (sino != null) {
+                sino.ejecutar();
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(SwitchSentencia stmt) {
+        String ambito = "switch(" + stmt.getExpresion().toString() + ")";
+        Clausura exp = stmt.getExpresion().accept(this);
+        List<Case> casos = stmt.getCasos() == null ? new ArrayList<>() : stmt.getCasos();
+        Clausura[] valores = new Clausura[casos.size()];
+        Clausura[] cuerpos = new Clausura[casos.size()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = casos.get(i).getValor().accept(this);
+            cuerpos[i] = casos.get(i).accept(this);
+        }
+        Clausura porDefecto = stmt.getCasoDefault() != null ? stmt.getCasoDefault().accept(this) : null;
+        return () -> {
+            contexto.entrarSwitch();
+            contexto.pushAmbito(ambito);
+            contexto.pushBloque();
+            try {
+                Valor v = exp.ejecutar();
+                boolean ejecutar = false;
+                for (int i = 0; i < valores.length; i++) {
+                    Valor casoValor = valores[i].ejecutar();
+                    if (!ejecutar && Operaciones.sonIguales(v, casoValor)) {
+                        ejecutar = true;
+                    }
+                    if (ejecutar) {
+                        cuerpos[i].ejecutar();
+                        if (contexto.debeBreakSwitch()) {
+                            contexto.setDebeBreakSwitch(false);
+                            return Valor.VOID;
+                        }
+                        if (contexto.debeContinue() || contexto.debeBreakCiclo() || contexto.hayReturn()) {
+                            return Valor.VOID;
+                        }
+                    }
+                }
+                if (porDefecto != null) {
+                    porDefecto.ejecutar();
+                    if (contexto.debeBreakSwitch()) contexto.setDebeBreakSwitch(false);
+                }
+                return Valor.VOID;
+            } finally {
+                contexto.popBloque();
+                contexto.popAmbito();
+                contexto.salirSwitch();
+            }
+        };
+    }
+
+    private Clausura secuencia(List<Sentencia> sentencias) {
+        Clausura[] cuerpo = compilarTodas(sentencias);
+        return () -> {
+            for (Clausura c : cuerpo) {
+                c.ejecutar();
+                if (interrumpido()) break;
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(Case stmt) {
+        return secuencia(stmt.getSentencias());
+    }
+
+    @Override
+    public Clausura visit(Default stmt) {
+        return secuencia(stmt.getSentencias());
+    }
+
+    @Override
+    public Clausura visit(WhileSentencia stmt) {
+        Clausura cond = stmt.getCondicion().accept(this);
+        Clausura cuerpo = stmt.getBloque().accept(this);
+        int linea = stmt.getLine();
+        int columna = stmt.getColumn();
+        return () -> {
+            contexto.entrarCiclo();
+            try {
+                while (true) {
+                    if (!Operaciones.esVerdadero(cond.ejecutar())) break;
+                    contexto.vueltaCiclo(linea, columna);
+                    cuerpo.ejecutar();
+                    if (contexto.hayReturn()) break;
+                    if (contexto.debeBreakCiclo()) {
+                        contexto.setDebeBreakCiclo(false);
+                        break;
+                    }
+                    if (contexto.debeContinue()) {
+                        contexto.setDebeContinue(false);
+                    }
+                }
+            } finally {
+                contexto.salirCiclo();
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(ForSentencia stmt) {
+        Clausura init = stmt.getInicializacion() != null ? stmt.getInicializacion().accept(this) : null;
+        Clausura cond = stmt.getCondicion() != null ? stmt.getCondicion().accept(this) : null;
+        Clausura cuerpo = stmt.getBloque() != null ? stmt.getBloque().accept(this) : null;
+        Clausura incremento = stmt.getIncremento() != null ? stmt.getIncremento().accept(this) : null;
+        int linea = stmt.getLine();
+        int columna = stmt.getColumn();
+        return () -> {
+            contexto.entrarCiclo();
+            try {
+                if (init != null) init.ejecutar();
+                while (true) {
+                    if (cond != null && !Operaciones.esVerdadero(cond.ejecutar())) break;
+                    contexto.vueltaCiclo(linea, columna);
+                    if (cuerpo != null) cuerpo.ejecutar();
+                    if (contexto.hayReturn()) break;
+                    if (contexto.debeBreakCiclo()) {
+                        contexto.setDebeBreakCiclo(false);
+                        break;
+                    }
+                    if (contexto.debeContinue()) {
+                        contexto.setDebeContinue(false);
+                    }
+                    if (incremento != null) incremento.ejecutar();
+                }
+            } finally {
+                contexto.salirCiclo();
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(DoWhileSentencia stmt) {
+        Clausura cuerpo = stmt.getBloque().accept(this);
+        Clausura cond = stmt.getCondicion().accept(this);
+        int linea = stmt.getLine();
+        int columna = stmt.getColumn();
+        return () -> {
+            contexto.entrarCiclo();
+            try {
+                do {
+                    contexto.vueltaCiclo(linea, columna);
+                    cuerpo.ejecutar();
+                    if (contexto.hayReturn()) break;
+                    if (contexto.debeBreakCiclo()) {
+                        contexto.setDebeBreakCiclo(false);
+                        break;
+                    }
+                    if (contexto.debeContinue()) {
+                        contexto.setDebeContinue(false);
+                    }
+                } while (Operaciones.esVerdadero(cond.ejecutar()));
+            } finally {
+                contexto.salirCiclo();
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(BreakSentencia stmt) {
+        return () -> {
+            if (contexto.isEnSwitch()) {
+                contexto.setDebeBreakSwitch(true);
+            } else if (contexto.isEnCiclo()) {
+                contexto.setDebeBreakCiclo(true);
+            } else {
+                contexto.agregarError("Break fuera de ciclo/switch");
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(ContinueSentencia stmt) {
+        return () -> {
+            if (contexto.isEnCiclo()) {
+                contexto.setDebeContinue(true);
+            } else {
+                contexto.agregarError("Continue fuera de ciclo");
+            }
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(PrintlnSentencia stmt) {
+        Clausura exp = stmt.getExpresion().accept(this);
+        return () -> {
+            Valor v = exp.ejecutar();
+            contexto.imprimir(Operaciones.stringify(v != null ? v.getValor() : null));
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(DeclaracionFuncion stmt) {
+        return () -> Valor.VOID;
+    }
+
+    @Override
+    public Clausura visit(StartSentencia stmt) {
+        FuncionCompilada f = funciones.get(stmt.getNombre() == null ? "" : stmt.getNombre().toLowerCase());
+        if (f == null) {
+            String mensaje = "No existe la función/método para start: '" + stmt.getNombre() + "'";
+            return () -> {
+                contexto.agregarError(mensaje);
+                return Valor.VOID;
+            };
+        }
+        return llamada(f, compilarTodas(stmt.getArgumentos()), false);
+    }
+
+    @Override
+    public Clausura visit(ReturnSentencia stmt) {
+        if (stmt.getValor() == null) {
+            return () -> {
+                contexto.activarReturn(Valor.VOID);
+                return Valor.VOID;
+            };
+        }
+        Clausura valor = stmt.getValor().accept(this);
+        return () -> {
+            contexto.activarReturn(valor.ejecutar());
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(SentenciaExpresion stmt) {
+        if (stmt.getExpresion() == null) return () -> Valor.VOID;
+        Clausura exp = stmt.getExpresion().accept(this);
+        return () -> {
+            exp.ejecutar();
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(IncDecSentencia stmt) {
+        Expresion obj = stmt.getObjetivo();
+        boolean inc = stmt.esIncremento();
+        if (obj instanceof Identificador) {
+            Identificador ident = (Identificador) obj;
+            String id = ident.getNombre();
+            BuscadorSimbolo b = buscador(id, ident.getProfundidad(), ident.getSlot());
+            return () -> {
+                Simbolo s = b.buscar();
+                if (s == null) {
+                    contexto.agregarError("Variable '" + id + "' no declarada para ++/--");
+                    return Valor.VOID;
+                }
+                if (!contexto.incrementar(s, inc)) contexto.agregarError("++/-- solo aplica a int/double/char (ejecución)");
+                return Valor.VOID;
+            };
+        }
+        if (obj instanceof AccesoIndexado) {
+            AccesoIndexado acc = (AccesoIndexado) obj;
+            Clausura cont = objetivo(acc.getObjetivo());
+            Clausura i1 = indiceOCero(acc.getIndice1());
+            if (acc.getIndice2() == null) {
+                return () -> {
+                    Object o = cont.ejecutar().getValor();
+                    Operaciones.incDecIndexado(o, Operaciones.toInt(i1.ejecutar()), inc, contexto);
+                    return Valor.VOID;
+                };
+            }
+            Clausura i2 = acc.getIndice2().accept(this);
+            return () -> {
+                Object o = cont.ejecutar().getValor();
+                int i = Operaciones.toInt(i1.ejecutar());
+                int j = Operaciones.toInt(i2.ejecutar());
+                Operaciones.incDecIndexado(o, i, j, inc, contexto);
+                return Valor.VOID;
+            };
+        }
+        return () -> {
+            contexto.agregarError("++/-- requiere identificador o acceso indexado (ejecución)");
+            return Valor.VOID;
+        };
+    }
+
+    @Override
+    public Clausura visit(AsignacionIndexada stmt) {
+        AccesoIndexado acc = stmt.getAcceso();
+        Clausura obj = objetivo(acc.getObjetivo());
+        Clausura i1 = indiceOCero(acc.getIndice1());
+        Clausura valor = objetivo(stmt.getValor());
+        if (acc.getIndice2() == null) {
+            return () -> {
+                Object o = obj.ejecutar().getValor();
+                int i = Operaciones.toInt(i1.ejecutar());
+                Operaciones.asignarIndexado(o, i, valor.ejecutar(), contexto);
+                return Valor.VOID;
+            };
+        }
+        Clausura i2 = acc.getIndice2().accept(this);
+        return () -> {
+            Object o = obj.ejecutar().getValor();
+            int i = Operaciones.toInt(i1.ejecutar());
+            Valor v = valor.ejecutar();
+            int j = Operaciones.toInt(i2.ejecutar());
+            Operaciones.asignarIndexado(o, i, j, v, contexto);
+            return Valor.VOID;
+        };
+    }
+}
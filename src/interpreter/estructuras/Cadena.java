@@ -0,0 +1,71 @@
+package interpreter.estructuras;
+
+import java.util.Objects;
+
+/**
+ * String de JavaUSAC que se está armando con concatenaciones ({@code s = s + x}
+ * dentro de un ciclo). Es una vista de los primeros {@code largo} caracteres de
+ * un StringBuilder: si la cadena es la punta del buffer, concatenar agrega en el
+ * mismo buffer y devuelve otra vista más larga, así que armar n caracteres es
+ * O(n) y no O(n²). Las vistas anteriores siguen viendo su prefijo, de modo que
+ * para el programa se comporta como un string inmutable.
+ *
+ * Solo vive dentro de Valor y en las variables; Valor.getValor() la aplana
+ * (una vez, queda en caché) para length, find, START_WITH, ==, println, etc.
+ */
+public final class Cadena implements CharSequence {
+
+    // Por debajo de este largo se sigue usando String: no vale la pena el buffer
+    private static final int UMBRAL = 64;
+
+    private final StringBuilder buffer;
+    private final int largo;
+    private String plano;
+
+    private Cadena(StringBuilder buffer, int largo) {
+        this.buffer = buffer;
+        this.largo = largo;
+    }
+
+    /** izq + der; izq es un String o una Cadena. Devuelve String o Cadena. */
+    public static Object concatenar(Object izq, String der) {
+        if (izq instanceof Cadena) {
+            Cadena c = (Cadena) izq;
+            if (c.largo == c.buffer.length()) {
+                c.buffer.append(der);
+                return new Cadena(c.buffer, c.buffer.length());
+            }
+            StringBuilder b = new StringBuilder(Math.max((c.largo + der.length()) * 2, UMBRAL));
+            b.append(c.buffer, 0, c.largo).append(der);
+            return new Cadena(b, b.length());
+        }
+        String s = String.valueOf(izq);
+        int total = s.length() + der.length();
+        if (total < UMBRAL) return s + der;
+        StringBuilder b = new StringBuilder(total * 2);
+        b.append(s).append(der);
+        return new Cadena(b, total);
+    }
+
+    @Override
+    public int length() {
+        return largo;
+    }
+
+    @Override
+    public char charAt(int i) {
+        Objects.checkIndex(i, largo);
+        return buffer.charAt(i);
+    }
+
+    @Override
+    public CharSequence subSequence(int inicio, int fin) {
+        return toString().subSequence(inicio, fin);
+    }
+
+    @Override
+    public String toString() {
+        if (plano == null) plano = buffer.substring(0, largo);
+        return plano;
+    }
+}
@@ -0,0 +1,47 @@
+package interpreter.estructuras;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/** m[i] de una MatrizPrimitiva: vista sobre la fila i, sin copiar. */
+final class FilaMatriz extends AbstractList<Object> implements RandomAccess {
+
+    private final MatrizPrimitiva matriz;
+    private final int fila;
+
+    FilaMatriz(MatrizPrimitiva matriz, int fila) {
+        this.matriz = matriz;
+        this.fila = fila;
+    }
+
+    @Override
+    public int size() {
+        return matriz.columnas(fila);
+    }
+
+    @Override
+    public Object get(int j) {
+        Objects.checkIndex(j, size());
+        return matriz.elemento(fila, j);
+    }
+
+    @Override
+    public Object set(int j, Object v) {
+        Object previo = get(j);
+        matriz.fijar(fila, j, v);
+        return previo;
+    }
+
+    @Override
+    public void add(int j, Object v) {
+        modCount++;
+        matriz.filaGenerica(fila).add(j, v);
+    }
+
+    @Override
+    public Object remove(int j) {
+        modCount++;
+        return matriz.filaGenerica(fila).remove(j);
+    }
+}
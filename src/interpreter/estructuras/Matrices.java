@@ -0,0 +1,60 @@
+package interpreter.estructuras;
+
+import semantic.Tipo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Elige el almacenamiento de una matriz: un arreglo plano (MatrizPrimitiva) si
+ * las filas son rectangulares y del mismo primitivo, y la lista de filas en
+ * cualquier otro caso. javausac.matriz.plana=false fuerza siempre la lista.
+ */
+public final class Matrices {
+
+    private static final boolean PLANA = Boolean.parseBoolean(System.getProperty("javausac.matriz.plana", "true"));
+
+    private Matrices() {
+    }
+
+    public static boolean esPlana() {
+        return PLANA;
+    }
+
+    /** Matriz con las filas ya construidas (vectores de Vectores.desde). */
+    public static List<Object> desde(Object[] filas) {
+        MatrizPrimitiva m = PLANA ? aplanar(filas) : null;
+        return m != null ? m : new ArrayList<>(Arrays.asList(filas));
+    }
+
+    private static MatrizPrimitiva aplanar(Object[] filas) {
+        if (filas.length == 0 || !(filas[0] instanceof VectorPrimitivo)) return null;
+        VectorPrimitivo primera = (VectorPrimitivo) filas[0];
+        int columnas = primera.size();
+        if (columnas == 0) return null;
+        for (Object f : filas) {
+            if (f == null || f.getClass() != primera.getClass()) return null;
+            VectorPrimitivo v = (VectorPrimitivo) f;
+            if (!v.esTipado() || v.size() != columnas) return null;
+        }
+        MatrizPrimitiva m = nueva(primera.getTipo(), filas.length, columnas);
+        for (int i = 0; i < filas.length; i++) {
+            VectorPrimitivo v = (VectorPrimitivo) filas[i];
+            for (int j = 0; j < columnas; j++) {
+                m.asignar(i, j, v.valorEn(j));
+            }
+        }
+        return m;
+    }
+
+    private static MatrizPrimitiva nueva(Tipo tipoFila, int filas, int columnas) {
+        switch (tipoFila) {
+            case VECTOR_INT: return new MatrizEntera(filas, columnas);
+            case VECTOR_DOUBLE: return new MatrizDecimal(filas, columnas);
+            case VECTOR_CHAR: return new MatrizCaracter(filas, columnas);
+            case VECTOR_BOOL: return new MatrizBooleana(filas, columnas);
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package interpreter.estructuras;
+
+import interpreter.Valor;
+import semantic.Tipo;
+
+/** bool[][] de JavaUSAC sobre un solo boolean[]; ++/-- no aplica. */
+public final class MatrizBooleana extends MatrizPrimitiva {
+
+    private boolean[] datos;
+
+    public MatrizBooleana(int filas, int columnas) {
+        super(filas, columnas);
+        this.datos = new boolean[filas * columnas];
+    }
+
+    @Override
+    public Tipo getTipo() {
+        return Tipo.MATRIX_BOOL;
+    }
+
+    @Override
+    public Tipo getTipoFila() {
+        return Tipo.VECTOR_BOOL;
+    }
+
+    @Override
+    protected Object caja(int k) {
+        return datos[k];
+    }
+
+    @Override
+    protected Valor valorPrimitivo(int k) {
+        return Valor.booleano(datos[k]);
+    }
+
+    @Override
+    protected boolean guardar(int k, Object v) {
+        if (!(v instanceof Boolean)) return false;
+        datos[k] = (Boolean) v;
+        return true;
+    }
+
+    @Override
+    protected boolean asignarPrimitivo(int k, Valor v) {
+        if (v.getEtiqueta() != Tipo.BOOL || !v.isSinCaja()) return false;
+        datos[k] = v.comoBool();
+        return true;
+    }
+
+    @Override
+    protected boolean incrementarPrimitivo(int k, boolean inc) {
+        return false;
+    }
+
+    @Override
+    protected void liberar() {
+        datos = null;
+    }
+}
@@ -0,0 +1,60 @@
+package interpreter.estructuras;
+
+import interpreter.Valor;
+import semantic.Tipo;
+
+/** char[][] de JavaUSAC sobre un solo char[]. */
+public final class MatrizCaracter extends MatrizPrimitiva {
+
+    private char[] datos;
+
+    public MatrizCaracter(int filas, int columnas) {
+        super(filas, columnas);
+        this.datos = new char[filas * columnas];
+    }
+
+    @Override
+    public Tipo getTipo() {
+        return Tipo.MATRIX_CHAR;
+    }
+
+    @Override
+    public Tipo getTipoFila() {
+        return Tipo.VECTOR_CHAR;
+    }
+
+    @Override
+    protected Object caja(int k) {
+        return datos[k];
+    }
+
+    @Override
+    protected Valor valorPrimitivo(int k) {
+        return Valor.caracter(datos[k]);
+    }
+
+    @Override
+    protected boolean guardar(int k, Object v) {
+        if (!(v instanceof Character)) return false;
+        datos[k] = (Character) v;
+        return true;
+    }
+
+    @Override
+    protected boolean asignarPrimitivo(int k, Valor v) {
+        if (v.getEtiqueta() != Tipo.CHAR || !v.isSinCaja()) return false;
+        datos[k] = v.comoChar();
+        return true;
+    }
+
+    @Override
+    protected boolean incrementarPrimitivo(int k, boolean inc) {
+        datos[k] = (char) (datos[k] + (inc ? 1 : -1));
+        return true;
+    }
+
+    @Override
+    protected void liberar() {
+        datos = null;
+    }
+}
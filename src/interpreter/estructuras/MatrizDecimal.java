@@ -0,0 +1,60 @@
+package interpreter.estructuras;
+
+import interpreter.Valor;
+import semantic.Tipo;
+
+/** double[][] de JavaUSAC sobre un solo double[]. */
+public final class MatrizDecimal extends MatrizPrimitiva {
+
+    private double[] datos;
+
+    public MatrizDecimal(int filas, int columnas) {
+        super(filas, columnas);
+        this.datos = new double[filas * columnas];
+    }
+
+    @Override
+    public Tipo getTipo() {
+        return Tipo.MATRIX_DOUBLE;
+    }
+
+    @Override
+    public Tipo getTipoFila() {
+        return Tipo.VECTOR_DOUBLE;
+    }
+
+    @Override
+    protected Object caja(int k) {
+        return datos[k];
+    }
+
+    @Override
+    protected Valor valorPrimitivo(int k) {
+        return Valor.decimal(datos[k]);
+    }
+
+    @Override
+    protected boolean guardar(int k, Object v) {
+        if (!(v instanceof Double)) return false;
+        datos[k] = (Double) v;
+        return true;
+    }
+
+    @Override
+    protected boolean asignarPrimitivo(int k, Valor v) {
+        if (v.getEtiqueta() != Tipo.DOUBLE || !v.isSinCaja()) return false;
+        datos[k] = v.comoDouble();
+        return true;
+    }
+
+    @Override
+    protected boolean incrementarPrimitivo(int k, boolean inc) {
+        datos[k] += inc ? 1.0 : -1.0;
+        return true;
+    }
+
+    @Override
+    protected void liberar() {
+        datos = null;
+    }
+}
@@ -0,0 +1,60 @@
+package interpreter.estructuras;
+
+import interpreter.Valor;
+import semantic.Tipo;
+
+/** int[][] de JavaUSAC sobre un solo int[]. */
+public final class MatrizEntera extends MatrizPrimitiva {
+
+    private int[] datos;
+
+    public MatrizEntera(int filas, int columnas) {
+        super(filas, columnas);
+        this.datos = new int[filas * columnas];
+    }
+
+    @Override
+    public Tipo getTipo() {
+        return Tipo.MATRIX_INT;
+    }
+
+    @Override
+    public Tipo getTipoFila() {
+        return Tipo.VECTOR_INT;
+    }
+
+    @Override
+    protected Object caja(int k) {
+        return datos[k];
+    }
+
+    @Override
+    protected Valor valorPrimitivo(int k) {
+        return Valor.entero(datos[k]);
+    }
+
+    @Override
+    protected boolean guardar(int k, Object v) {
+        if (!(v instanceof Integer)) return false;
+        datos[k] = (Integer) v;
+        return true;
+    }
+
+    @Override
+    protected boolean asignarPrimitivo(int k, Valor v) {
+        if (v.getEtiqueta() != Tipo.INT || !v.isSinCaja()) return false;
+        datos[k] = v.comoInt();
+        return true;
+    }
+
+    @Override
+    protected boolean incrementarPrimitivo(int k, boolean inc) {
+        datos[k] += inc ? 1 : -1;
+        return true;
+    }
+
+    @Override
+    protected void liberar() {
+        datos = null;
+    }
+}
@@ -0,0 +1,152 @@
+package interpreter.estructuras;
+
+import interpreter.Operaciones;
+import interpreter.Valor;
+import semantic.Tipo;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Matriz rectangular de JavaUSAC en un solo arreglo primitivo, fila por fila
+ * (el elemento [i][j] está en i * columnas + j). valorEn, asignar e
+ * incrementar son el camino de indexación 2D de todos los motores.
+ *
+ * Como List&lt;Object&gt; es la lista de filas: m[i] entrega una FilaMatriz que
+ * lee y escribe sobre el mismo arreglo. Si algo rompe la forma (append/remove
+ * sobre una fila, reemplazar una fila, un elemento de otro tipo) la matriz pasa
+ * a filas separadas y las FilaMatriz ya entregadas siguen apuntando a ellas.
+ */
+public abstract class MatrizPrimitiva extends AbstractList<Object> implements RandomAccess {
+
+    protected final int filas;
+    protected final int columnas;
+    private ArrayList<Object> generico;
+
+    protected MatrizPrimitiva(int filas, int columnas) {
+        this.filas = filas;
+        this.columnas = columnas;
+    }
+
+    /** MATRIX_INT, MATRIX_DOUBLE, ... */
+    public abstract Tipo getTipo();
+
+    /** Tipo de m[i]: VECTOR_INT, VECTOR_DOUBLE, ... */
+    public abstract Tipo getTipoFila();
+
+    protected abstract Object caja(int k);
+
+    protected abstract Valor valorPrimitivo(int k);
+
+    // false si v no es del tipo del arreglo
+    protected abstract boolean guardar(int k, Object v);
+
+    protected abstract boolean asignarPrimitivo(int k, Valor v);
+
+    protected abstract boolean incrementarPrimitivo(int k, boolean inc);
+
+    protected abstract void liberar();
+
+    public final boolean esTipado() {
+        return generico == null;
+    }
+
+    public final int filas() {
+        return generico != null ? generico.size() : filas;
+    }
+
+    public final int columnas(int i) {
+        return generico != null ? ((List<?>) generico.get(i)).size() : columnas;
+    }
+
+    // ---- acceso 2D; los índices ya vienen validados contra filas()/columnas(i) ----
+
+    public final Valor valorEn(int i, int j) {
+        if (generico == null) return valorPrimitivo(i * columnas + j);
+        List<Object> fila = filaGenerica(i);
+        if (fila instanceof VectorPrimitivo) return ((VectorPrimitivo) fila).valorEn(j);
+        return Operaciones.desdeElemento(fila.get(j));
+    }
+
+    public final Object elemento(int i, int j) {
+        return generico == null ? caja(i * columnas + j) : filaGenerica(i).get(j);
+    }
+
+    public final void asignar(int i, int j, Valor v) {
+        if (generico == null && asignarPrimitivo(i * columnas + j, v)) return;
+        fijar(i, j, v.getValor());
+    }
+
+    public final void fijar(int i, int j, Object v) {
+        if (generico == null && guardar(i * columnas + j, v)) return;
+        filaGenerica(i).set(j, v);
+    }
+
+    /** ++/-- sobre [i][j]; false si el elemento no es int/double/char. */
+    public final boolean incrementar(int i, int j, boolean inc) {
+        if (generico == null) return incrementarPrimitivo(i * columnas + j, inc);
+        List<Object> fila = filaGenerica(i);
+        if (fila instanceof VectorPrimitivo) return ((VectorPrimitivo) fila).incrementar(j, inc);
+        Object nuevo = Operaciones.incrementar(fila.get(j), inc);
+        if (nuevo == null) return false;
+        fila.set(j, nuevo);
+        return true;
+    }
+
+    // ---- lista de filas ----
+
+    @Override
+    public final int size() {
+        return filas();
+    }
+
+    @Override
+    public final Object get(int i) {
+        if (generico != null) return generico.get(i);
+        Objects.checkIndex(i, filas);
+        return new FilaMatriz(this, i);
+    }
+
+    @Override
+    public final Object set(int i, Object fila) {
+        desespecializar();
+        return generico.set(i, fila);
+    }
+
+    @Override
+    public final void add(int i, Object fila) {
+        modCount++;
+        desespecializar();
+        generico.add(i, fila);
+    }
+
+    @Override
+    public final Object remove(int i) {
+        modCount++;
+        desespecializar();
+        return generico.remove(i);
+    }
+
+    @SuppressWarnings("unchecked")
+    final List<Object> filaGenerica(int i) {
+        desespecializar();
+        return (List<Object>) generico.get(i);
+    }
+
+    private void desespecializar() {
+        if (generico != null) return;
+        ArrayList<Object> out = new ArrayList<>(filas);
+        Object[] fila = new Object[columnas];
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                fila[j] = caja(i * columnas + j);
+            }
+            out.add(Vectores.desde(fila));
+        }
+        generico = out;
+        liberar();
+    }
+}
@@ -0,0 +1,88 @@
+package interpreter.estructuras;
+
+import interpreter.Valor;
+import semantic.Tipo;
+
+import java.util.Arrays;
+
+/** bool[] de JavaUSAC sobre boolean[]; ++/-- no aplica. */
+public final class VectorBooleano extends VectorPrimitivo {
+
+    private boolean[] datos;
+
+    public VectorBooleano(int capacidad) {
+        this.datos = new boolean[Math.max(capacidad, 4)];
+    }
+
+    @Override
+    public Tipo getTipo() {
+        return Tipo.VECTOR_BOOL;
+    }
+
+    @Override
+    protected Object caja(int i) {
+        return datos[i];
+    }
+
+    @Override
+    protected Valor valorPrimitivo(int i) {
+        return Valor.booleano(datos[i]);
+    }
+
+    @Override
+    protected boolean guardar(int i, Object v) {
+        if (!(v instanceof Boolean)) return false;
+        datos[i] = (Boolean) v;
+        return true;
+    }
+
+    @Override
+    protected boolean asignarPrimitivo(int i, Valor v) {
+        if (v.getEtiqueta() != Tipo.BOOL || !v.isSinCaja()) return false;
+        datos[i] = v.comoBool();
+        return true;
+    }
+
+    @Override
+    protected boolean insertar(int i, Object v) {
+        if (!(v instanceof Boolean)) return false;
+        if (tamano == datos.length) datos = Arrays.copyOf(datos, tamano * 2);
+        System.arraycopy(datos, i, datos, i + 1, tamano - i);
+        datos[i] = (Boolean) v;
+        return true;
+    }
+
+    @Override
+    protected boolean anexarPrimitivo(Valor v) {
+        if (v.getEtiqueta() != Tipo.BOOL || !v.isSinCaja()) return false;
+        if (tamano == datos.length) datos = Arrays.copyOf(datos, tamano * 2);
+        datos[tamano] = v.comoBool();
+        return true;
+    }
+
+    @Override
+    protected void quitar(int i) {
+        System.arraycopy(datos, i + 1, datos, i, tamano - i - 1);
+        if (datos.length > 16 && tamano - 1 <= datos.length / 4) datos = Arrays.copyOf(datos, datos.length / 2);
+    }
+
+    @Override
+    protected int buscarPrimitivo(Object v) {
+        if (!(v instanceof Boolean)) return -1;
+        boolean x = (Boolean) v;
+        for (int i = 0; i < tamano; i++) {
+            if (datos[i] == x) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    protected boolean incrementarPrimitivo(int i, boolean inc) {
+        return false;
+    }
+
+    @Override
+    protected void liberar() {
+        datos = null;
+    }
+}
@@ -0,0 +1,89 @@
+package interpreter.estructuras;
+
+import interpreter.Valor;
+import semantic.Tipo;
+
+import java.util.Arrays;
+
+/** double[] de JavaUSAC sobre double[]. */
+public final class VectorDecimal extends VectorPrimitivo {
+
+    private double[] datos;
+
+    public VectorDecimal(int capacidad) {
+        this.datos = new double[Math.max(capacidad, 4)];
+    }
+
+    @Override
+    public Tipo getTipo() {
+        return Tipo.VECTOR_DOUBLE;
+    }
+
+    @Override
+    protected Object caja(int i) {
+        return datos[i];
+    }
+
+    @Override
+    protected Valor valorPrimitivo(int i) {
+        return Valor.decimal(datos[i]);
+    }
+
+    @Override
+    protected boolean guardar(int i, Object v) {
+        if (!(v instanceof Double)) return false;
+        datos[i] = (Double) v;
+        return true;
+    }
+
+    @Override
+    protected boolean asignarPrimitivo(int i, Valor v) {
+        if (v.getEtiqueta() != Tipo.DOUBLE || !v.isSinCaja()) return false;
+        datos[i] = v.comoDouble();
+        return true;
+    }
+
+    @Override
+    protected boolean insertar(int i, Object v) {
+        if (!(v instanceof Double)) return false;
+        if (tamano == datos.length) datos = Arrays.copyOf(datos, tamano * 2);
+        System.arraycopy(datos, i, datos, i + 1, tamano - i);
+        datos[i] = (Double) v;
+        return true;
+    }
+
+    @Override
+    protected boolean anexarPrimitivo(Valor v) {
+        if (v.getEtiqueta() != Tipo.DOUBLE || !v.isSinCaja()) return false;
+        if (tamano == datos.length) datos = Arrays.copyOf(datos, tamano * 2);
+        datos[tamano] = v.comoDouble();
+        return true;
+    }
+
+    @Override
+    protected void quitar(int i) {
+        System.arraycopy(datos, i + 1, datos, i, tamano - i - 1);
+        if (datos.length > 16 && tamano - 1 <= datos.length / 4) datos = Arrays.copyOf(datos, datos.length / 2);
+    }
+
+    @Override
+    protected int buscarPrimitivo(Object v) {
+        if (!(v instanceof Double)) return -1;
+        long bits = Double.doubleToLongBits((Double) v);
+        for (int i = 0; i < tamano; i++) {
+            if (Double.doubleToLongBits(datos[i]) == bits) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    protected boolean incrementarPrimitivo(int i, boolean inc) {
+        datos[i] += inc ? 1.0 : -1.0;
+        return true;
+    }
+
+    @Override
+    protected void liberar() {
+        datos = null;
+    }
+}
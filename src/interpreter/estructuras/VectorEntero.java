@@ -0,0 +1,89 @@
+package interpreter.estructuras;
+
+import interpreter.Valor;
+import semantic.Tipo;
+
+import java.util.Arrays;
+
+/** int[] de JavaUSAC sobre int[]. */
+public final class VectorEntero extends VectorPrimitivo {
+
+    private int[] datos;
+
+    public VectorEntero(int capacidad) {
+        this.datos = new int[Math.max(capacidad, 4)];
+    }
+
+    @Override
+    public Tipo getTipo() {
+        return Tipo.VECTOR_INT;
+    }
+
+    @Override
+    protected Object caja(int i) {
+        return datos[i];
+    }
+
+    @Override
+    protected Valor valorPrimitivo(int i) {
+        return Valor.entero(datos[i]);
+    }
+
+    @Override
+    protected boolean guardar(int i, Object v) {
+        if (!(v instanceof Integer)) return false;
+        datos[i] = (Integer) v;
+        return true;
+    }
+
+    @Override
+    protected boolean asignarPrimitivo(int i, Valor v) {
+        if (v.getEtiqueta() != Tipo.INT || !v.isSinCaja()) return false;
+        datos[i] = v.comoInt();
+        return true;
+    }
+
+    @Override
+    protected boolean insertar(int i, Object v) {
+        if (!(v instanceof Integer)) return false;
+        if (tamano == datos.length) datos = Arrays.copyOf(datos, tamano * 2);
+        System.arraycopy(datos, i, datos, i + 1, tamano - i);
+        datos[i] = (Integer) v;
+        return true;
+    }
+
+    @Override
+    protected boolean anexarPrimitivo(Valor v) {
+        if (v.getEtiqueta() != Tipo.INT || !v.isSinCaja()) return false;
+        if (tamano == datos.length) datos = Arrays.copyOf(datos, tamano * 2);
+        datos[tamano] = v.comoInt();
+        return true;
+    }
+
+    @Override
+    protected void quitar(int i) {
+        System.arraycopy(datos, i + 1, datos, i, tamano - i - 1);
+        if (datos.length > 16 && tamano - 1 <= datos.length / 4) datos = Arrays.copyOf(datos, datos.length / 2);
+    }
+
+    @Override
+    protected int buscarPrimitivo(Object v) {
+        if (!(v instanceof Integer)) return -1;
+        int x = (Integer) v;
+        for (int i = 0; i < tamano; i++) {
+            if (datos[i] == x) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    protected boolean incrementarPrimitivo(int i, boolean inc) {
+        datos[i] += inc ? 1 : -1;
+        return true;
+    }
+
+    @Override
+    protected void liberar() {
+        datos = null;
+    }
+}
@@ -0,0 +1,152 @@
+package interpreter.estructuras;
+
+import interpreter.Operaciones;
+import interpreter.Valor;
+import semantic.Tipo;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Vector o List&lt;T&gt; de JavaUSAC respaldado por un arreglo primitivo. Sigue
+ * siendo un List&lt;Object&gt;, así que stringify, length, find, append y remove no
+ * cambian; los motores usan valorEn, asignar, incrementar, agregar y posicion
+ * para no encajonar.
+ *
+ * Si se guarda un elemento de otro tipo (un bool en un int[], por ejemplo)
+ * el vector pasa a una ArrayList interna y conserva el valor tal cual, igual
+ * que hacía la ArrayList&lt;Object&gt; que reemplaza.
+ */
+public abstract class VectorPrimitivo extends AbstractList<Object> implements RandomAccess {
+
+    protected int tamano;
+    private ArrayList<Object> generico;
+
+    /** VECTOR_INT, VECTOR_DOUBLE, ... según el arreglo de respaldo. */
+    public abstract Tipo getTipo();
+
+    protected abstract Object caja(int i);
+
+    protected abstract Valor valorPrimitivo(int i);
+
+    // false si v no es del tipo del arreglo
+    protected abstract boolean guardar(int i, Object v);
+
+    protected abstract boolean asignarPrimitivo(int i, Valor v);
+
+    protected abstract boolean insertar(int i, Object v);
+
+    // append sin encajonar; false si v no es del tipo del arreglo
+    protected abstract boolean anexarPrimitivo(Valor v);
+
+    // compacta el arreglo si queda a menos de un cuarto de su capacidad
+    protected abstract void quitar(int i);
+
+    protected abstract int buscarPrimitivo(Object v);
+
+    protected abstract boolean incrementarPrimitivo(int i, boolean inc);
+
+    protected abstract void liberar();
+
+    public final boolean esTipado() {
+        return generico == null;
+    }
+
+    @Override
+    public final int size() {
+        return generico != null ? generico.size() : tamano;
+    }
+
+    @Override
+    public final Object get(int i) {
+        if (generico != null) return generico.get(i);
+        Objects.checkIndex(i, tamano);
+        return caja(i);
+    }
+
+    @Override
+    public final Object set(int i, Object v) {
+        if (generico != null) return generico.set(i, v);
+        Objects.checkIndex(i, tamano);
+        Object previo = caja(i);
+        if (!guardar(i, v)) {
+            desespecializar();
+            generico.set(i, v);
+        }
+        return previo;
+    }
+
+    @Override
+    public final void add(int i, Object v) {
+        modCount++;
+        if (generico == null) {
+            Objects.checkIndex(i, tamano + 1);
+            if (insertar(i, v)) {
+                tamano++;
+                return;
+            }
+            desespecializar();
+        }
+        generico.add(i, v);
+    }
+
+    @Override
+    public final Object remove(int i) {
+        modCount++;
+        if (generico != null) return generico.remove(i);
+        Objects.checkIndex(i, tamano);
+        Object previo = caja(i);
+        quitar(i);
+        tamano--;
+        return previo;
+    }
+
+    /** Elemento i como Valor sin pasar por su caja; el índice ya viene validado. */
+    public final Valor valorEn(int i) {
+        return generico != null ? Operaciones.desdeElemento(generico.get(i)) : valorPrimitivo(i);
+    }
+
+    /** append de List y vectores: crece duplicando el arreglo. */
+    public final void agregar(Valor v) {
+        if (generico == null && anexarPrimitivo(v)) {
+            modCount++;
+            tamano++;
+            return;
+        }
+        add(v.getValor());
+    }
+
+    /** Posición de v con la misma igualdad que Objects.equals, o -1. */
+    public final int posicion(Object v) {
+        if (generico == null) return buscarPrimitivo(v);
+        for (int i = 0; i < generico.size(); i++) {
+            if (Objects.equals(generico.get(i), v)) return i;
+        }
+        return -1;
+    }
+
+    public final void asignar(int i, Valor v) {
+        if (generico != null || !asignarPrimitivo(i, v)) set(i, v.getValor());
+    }
+
+    /** ++/-- sobre el elemento i; false si el elemento no es int/double/char. */
+    public final boolean incrementar(int i, boolean inc) {
+        if (generico == null) return incrementarPrimitivo(i, inc);
+        Object nuevo = Operaciones.incrementar(generico.get(i), inc);
+        if (nuevo == null) return false;
+        generico.set(i, nuevo);
+        return true;
+    }
+
+    private void desespecializar() {
+        ArrayList<Object> l = new ArrayList<>(Math.max(tamano * 2, 10));
+        for (int i = 0; i < tamano; i++) {
+            l.add(caja(i));
+        }
+        generico = l;
+        tamano = 0;
+        liberar();
+    }
+}
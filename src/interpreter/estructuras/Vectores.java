@@ -0,0 +1,62 @@
+package interpreter.estructuras;
+
+import semantic.Tipo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Elige el almacenamiento de un vector o List&lt;T&gt;: arreglo primitivo para
+ * int/double/char/bool y ArrayList para string, filas de matriz o literales con
+ * tipos mezclados.
+ */
+public final class Vectores {
+
+    private Vectores() {
+    }
+
+    /** Vector vacío para una variable declarada sin valor inicial. */
+    public static List<Object> vacio(Tipo tipo) {
+        VectorPrimitivo v = nuevo(tipo, 8);
+        return v != null ? v : new ArrayList<>();
+    }
+
+    /** Lista vacía de new List&lt;T&gt;() o de una variable List&lt;T&gt; sin valor inicial. */
+    public static List<Object> lista(Tipo tipo) {
+        return vacio(Tipo.vectorOf(tipo.baseType()));
+    }
+
+    /** Vector con los elementos ya evaluados; tipado solo si todos son del mismo primitivo. */
+    public static List<Object> desde(Object[] elementos) {
+        VectorPrimitivo v = elementos.length == 0 ? null : nuevo(tipoComun(elementos), elementos.length);
+        if (v == null) return new ArrayList<>(Arrays.asList(elementos));
+        for (Object e : elementos) {
+            v.add(e);
+        }
+        return v;
+    }
+
+    private static VectorPrimitivo nuevo(Tipo tipo, int capacidad) {
+        if (tipo == null) return null;
+        switch (tipo) {
+            case VECTOR_INT: return new VectorEntero(capacidad);
+            case VECTOR_DOUBLE: return new VectorDecimal(capacidad);
+            case VECTOR_CHAR: return new VectorCaracter(capacidad);
+            case VECTOR_BOOL: return new VectorBooleano(capacidad);
+            default: return null;
+        }
+    }
+
+    private static Tipo tipoComun(Object[] elementos) {
+        Class<?> c = elementos[0] == null ? null : elementos[0].getClass();
+        for (Object e : elementos) {
+            if (e == null || e.getClass() != c) return null;
+        }
+        if (c == Integer.class) return Tipo.VECTOR_INT;
+        if (c == Double.class) return Tipo.VECTOR_DOUBLE;
+        if (c == Character.class) return Tipo.VECTOR_CHAR;
+        if (c == Boolean.class) return Tipo.VECTOR_BOOL;
+        return null;
+    }
+}
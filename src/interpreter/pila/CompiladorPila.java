@@ -0,0 +1,824 @@
+package interpreter.pila;
+
+import ast.NodoAST;
+import ast.OperadorAritmetico;
+import ast.OperadorLogico;
+import ast.OperadorRelacional;
+import ast.Programa;
+import ast.RecorridoAST;
+import ast.expresiones.*;
+import ast.sentencias.*;
+import interpreter.ContextoEjecucion;
+import interpreter.Operaciones;
+import interpreter.Valor;
+import interpreter.clausuras.Clausura;
+import interpreter.clausuras.CompiladorClausuras;
+import interpreter.estructuras.VectorPrimitivo;
+import semantic.Simbolo;
+import semantic.Tipo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traduce el programa a rutinas lineales para MaquinaPila. Solo los nodos que
+ * contienen una llamada a función de usuario se traducen a instrucciones; el
+ * resto se compila con CompiladorClausuras y queda como una sola instrucción,
+ * porque sin llamadas su profundidad en la pila de Java está acotada por el
+ * propio árbol.
+ *
+ * Las banderas de control (break, continue, return) se consultan en
+ * ContextoEjecucion en los mismos puntos que VisitanteEvaluacion, así que las
+ * dos formas se pueden mezclar dentro de una misma función.
+ */
+public class CompiladorPila {
+
+    private final ContextoEjecucion contexto;
+    private final CompiladorClausuras clausuras;
+    private final Map<String, Rutina> funciones = new HashMap<>();
+    private final Map<NodoAST, Boolean> conLlamada = new IdentityHashMap<>();
+    private boolean slots;
+
+    public CompiladorPila(ContextoEjecucion contexto) {
+        this.contexto = contexto;
+        this.clausuras = new CompiladorClausuras(contexto);
+    }
+
+    private static final class Etiqueta {
+        int destino = -1;
+    }
+
+    // Código de una rutina en construcción
+    private static final class Emisor {
+        final List<Instruccion> codigo = new ArrayList<>();
+        final Rutina rutina;
+        int temporales;
+        // ciclos y switch abiertos en el punto de emisión (para return en cola)
+        int ciclos;
+        int switches;
+
+        Emisor(Rutina rutina) {
+            this.rutina = rutina;
+        }
+
+        void emitir(Instruccion i) {
+            codigo.add(i);
+        }
+
+        void marcar(Etiqueta e) {
+            e.destino = codigo.size();
+        }
+
+        int temporal() {
+            return temporales++;
+        }
+
+        void cerrar() {
+            rutina.codigo = codigo.toArray(new Instruccion[0]);
+            rutina.temporales = temporales;
+        }
+    }
+
+    private static boolean esNativa(String nombre) {
+        switch (nombre) {
+            case "round":
+            case "length":
+            case "tostring":
+            case "find":
+            case "start_with":
+            case "startwith":
+            case "startswith":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String norm(String s) {
+        return s == null ? "" : s.toLowerCase();
+    }
+
+    private static final class BuscadorLlamadas extends RecorridoAST {
+        boolean encontrada;
+
+        @Override
+        public Void visit(LlamadaFuncion expr) {
+            if (!esNativa(norm(expr.getNombre()))) encontrada = true;
+            return super.visit(expr);
+        }
+
+        @Override
+        public Void visit(StartSentencia stmt) {
+            encontrada = true;
+            return null;
+        }
+    }
+
+    private boolean tieneLlamada(NodoAST nodo) {
+        if (nodo == null) return false;
+        Boolean r = conLlamada.get(nodo);
+        if (r == null) {
+            BuscadorLlamadas b = new BuscadorLlamadas();
+            nodo.accept(b);
+            r = b.encontrada;
+            conLlamada.put(nodo, r);
+        }
+        return r;
+    }
+
+    private static boolean interrumpido(ContextoEjecucion c) {
+        return c.debeBreakCiclo() || c.debeContinue() || c.debeBreakSwitch() || c.hayReturn();
+    }
+
+    // ---- programa ----
+
+    public Rutina compilar(Programa programa) {
+        int tamanoMarco = programa.getTamanoMarco();
+        slots = tamanoMarco >= 0;
+        List<DeclaracionFuncion> declaradas = new ArrayList<>();
+        for (Sentencia stmt : programa.getSentencias()) {
+            if (stmt instanceof DeclaracionFuncion) {
+                DeclaracionFuncion f = (DeclaracionFuncion) stmt;
+                declaradas.add(f);
+                funciones.put(norm(f.getNombre()), new Rutina(f));
+            }
+        }
+        for (Rutina r : funciones.values()) {
+            Emisor e = new Emisor(r);
+            sentencia(r.funcion.getCuerpo(), e);
+            e.emitir(MaquinaPila::retornar);
+            e.cerrar();
+        }
+
+        Emisor e = new Emisor(new Rutina(null));
+        e.emitir(m -> {
+            if (tamanoMarco >= 0) {
+                contexto.iniciarMarcoGlobal(tamanoMarco);
+            }
+            for (DeclaracionFuncion f : declaradas) {
+                contexto.registrarFuncion(f);
+            }
+        });
+        // Igual que VisitanteEvaluacion: las declaraciones siempre corren, el resto solo antes de start
+        StartSentencia start = null;
+        Etiqueta inicio = new Etiqueta();
+        for (Sentencia stmt : programa.getSentencias()) {
+            if (stmt instanceof DeclaracionFuncion) continue;
+            if (stmt instanceof StartSentencia) {
+                if (start == null) start = (StartSentencia) stmt;
+                continue;
+            }
+            if (!(stmt instanceof DeclaracionVariable) && start != null) continue;
+            sentencia(stmt, e);
+            e.emitir(m -> {
+                if (contexto.hayReturn()) {
+                    contexto.tomarReturnYLimpiar();
+                }
+                if (contexto.debeBreakCiclo() || contexto.debeContinue() || contexto.debeBreakSwitch()) {
+                    contexto.agregarError("Break/Continue fuera de ciclo/switch");
+                    contexto.setDebeBreakCiclo(false);
+                    contexto.setDebeBreakSwitch(false);
+                    contexto.setDebeContinue(false);
+                    m.saltar(inicio.destino);
+                }
+            });
+        }
+        e.marcar(inicio);
+        if (start != null) {
+            sentencia(start, e);
+            e.emitir(m -> {
+                if (contexto.hayReturn()) {
+                    contexto.tomarReturnYLimpiar();
+                }
+            });
+        } else {
+            e.emitir(m -> contexto.agregarError("No se encontró sentencia START"));
+        }
+        e.emitir(MaquinaPila::terminar);
+        e.cerrar();
+        return e.rutina;
+    }
+
+    // ---- sentencias ----
+
+    private void sentencia(Sentencia s, Emisor e) {
+        if (!tieneLlamada(s)) {
+            Clausura c = clausuras.compilarFragmento(s, slots);
+            e.emitir(m -> c.ejecutar());
+            return;
+        }
+        if (s instanceof BloqueSentencias) bloque((BloqueSentencias) s, e);
+        else if (s instanceof DeclaracionVariable) declaracion((DeclaracionVariable) s, e);
+        else if (s instanceof AsignacionVariable) asignacion((AsignacionVariable) s, e);
+        else if (s instanceof AsignacionIndexada) asignacionIndexada((AsignacionIndexada) s, e);
+        else if (s instanceof IncDecSentencia) incDec((IncDecSentencia) s, e);
+        else if (s instanceof IfSentencia) si((IfSentencia) s, e);
+        else if (s instanceof SwitchSentencia) seleccion((SwitchSentencia) s, e);
+        else if (s instanceof WhileSentencia) mientras((WhileSentencia) s, e);
+        else if (s instanceof ForSentencia) para((ForSentencia) s, e);
+        else if (s instanceof DoWhileSentencia) hacerMientras((DoWhileSentencia) s, e);
+        else if (s instanceof PrintlnSentencia) imprimir((PrintlnSentencia) s, e);
+        else if (s instanceof ReturnSentencia) retorno((ReturnSentencia) s, e);
+        else if (s instanceof StartSentencia) inicio((StartSentencia) s, e);
+        else if (s instanceof SentenciaExpresion) {
+            expresion(((SentenciaExpresion) s).getExpresion(), e);
+            e.emitir(MaquinaPila::desapilar);
+        } else {
+            throw new IllegalStateException("Sentencia sin traducción: " + s.getClass().getSimpleName());
+        }
+    }
+
+    private void bloque(BloqueSentencias b, Emisor e) {
+        e.emitir(m -> contexto.pushBloque());
+        Etiqueta fin = new Etiqueta();
+        sentenciasInterrumpibles(b.getSentencias(), fin, e);
+        e.marcar(fin);
+        e.emitir(m -> contexto.popBloque());
+    }
+
+    // Cada sentencia seguida de la revisión de banderas de BloqueSentencias/Case/Default
+    private void sentenciasInterrumpibles(List<Sentencia> sentencias, Etiqueta fin, Emisor e) {
+        if (sentencias == null) return;
+        for (Sentencia s : sentencias) {
+            int linea = s.getLine();
+            int columna = s.getColumn();
+            e.emitir(m -> contexto.puntoControl(linea, columna));
+            sentencia(s, e);
+            e.emitir(m -> {
+                if (interrumpido(contexto)) m.saltar(fin.destino);
+            });
+        }
+    }
+
+    private void declaracion(DeclaracionVariable stmt, Emisor e) {
+        String id = stmt.getIdentificador();
+        Tipo tipo = stmt.getTipo();
+        int slot = stmt.getSlot();
+        int linea = stmt.getLine();
+        int columna = stmt.getColumn();
+        int t = e.temporal();
+        Etiqueta fin = new Etiqueta();
+        e.emitir(m -> {
+            Simbolo s = slots
+                    ? contexto.declararVariableEnSlot(slot, id, tipo, linea, columna)
+                    : contexto.declararVariable(id, tipo, linea, columna);
+            if (s == null) m.saltar(fin.destino);
+            else m.temporal(t, s);
+        });
+        expresion(stmt.getExpresionInicial(), e);
+        e.emitir(m -> {
+            Simbolo s = (Simbolo) m.temporal(t);
+            Valor v = Operaciones.convertirSiAplica(tipo, m.desapilar());
+            if (!Operaciones.esAsignableRuntime(tipo, v)) {
+                contexto.agregarError("Tipo incompatible en declaración de '" + id + "' en ejecución. Esperado: "
+                        + tipo + ", recibido: " + v.getTipo());
+            } else {
+                contexto.setValor(s, v);
+            }
+        });
+        e.marcar(fin);
+    }
+
+    private void asignacion(AsignacionVariable stmt, Emisor e) {
+        String id = stmt.getIdentificador();
+        int profundidad = stmt.getProfundidad();
+        int slot = stmt.getSlot();
+        int t = e.temporal();
+        Etiqueta fin = new Etiqueta();
+        e.emitir(m -> {
+            Simbolo s = slots ? contexto.simboloEnSlot(profundidad, slot) : contexto.buscarSimbolo(id);
+            if (s == null) {
+                contexto.agregarError("Variable '" + id + "' no declarada (ejecución)");
+                m.saltar(fin.destino);
+            } else {
+                m.temporal(t, s);
+            }
+        });
+        expresion(stmt.getExpresion(), e);
+        e.emitir(m -> {
+            Simbolo s = (Simbolo) m.temporal(t);
+            Valor v = Operaciones.convertirSiAplica(s.getTipo(), m.desapilar());
+            if (!Operaciones.esAsignableRuntime(s.getTipo(), v)) {
+                contexto.agregarError("Tipo incompatible al asignar a '" + id + "' en ejecución. Esperado: "
+                        + s.getTipo() + ", recibido: " + v.getTipo());
+                return;
+            }
+            contexto.setValor(s, v);
+        });
+        e.marcar(fin);
+    }
+
+    private void asignacionIndexada(AsignacionIndexada stmt, Emisor e) {
+        AccesoIndexado acc = stmt.getAcceso();
+        expresionO(acc.getObjetivo(), Valor.ERROR, e);
+        expresionO(acc.getIndice1(), Valor.entero(0), e);
+        expresionO(stmt.getValor(), Valor.ERROR, e);
+        if (acc.getIndice2() == null) {
+            e.emitir(m -> {
+                Valor val = m.desapilar();
+                int i1 = Operaciones.toInt(m.desapilar());
+                Operaciones.asignarIndexado(m.desapilar().getValor(), i1, val, contexto);
+            });
+            return;
+        }
+        expresion(acc.getIndice2(), e);
+        e.emitir(m -> {
+            int i2 = Operaciones.toInt(m.desapilar());
+            Valor val = m.desapilar();
+            int i1 = Operaciones.toInt(m.desapilar());
+            Operaciones.asignarIndexado(m.desapilar().getValor(), i1, i2, val, contexto);
+        });
+    }
+
+    private void incDec(IncDecSentencia stmt, Emisor e) {
+        // Solo la forma indexada puede llevar llamadas (en los índices)
+        AccesoIndexado acc = (AccesoIndexado) stmt.getObjetivo();
+        boolean inc = stmt.esIncremento();
+        expresionO(acc.getObjetivo(), Valor.ERROR, e);
+        expresionO(acc.getIndice1(), Valor.entero(0), e);
+        if (acc.getIndice2() == null) {
+            e.emitir(m -> {
+                int i1 = Operaciones.toInt(m.desapilar());
+                Operaciones.incDecIndexado(m.desapilar().getValor(), i1, inc, contexto);
+            });
+            return;
+        }
+        expresion(acc.getIndice2(), e);
+        e.emitir(m -> {
+            int i2 = Operaciones.toInt(m.desapilar());
+            int i1 = Operaciones.toInt(m.desapilar());
+            Operaciones.incDecIndexado(m.desapilar().getValor(), i1, i2, inc, contexto);
+        });
+    }
+
+    private void si(IfSentencia stmt, Emisor e) {
+        Etiqueta sino = new Etiqueta();
+        Etiqueta fin = new Etiqueta();
+        expresion(stmt.getCondicion(), e);
+        e.emitir(m -> {
+            if (!Operaciones.esVerdadero(m.desapilar())) m.saltar(sino.destino);
+        });
+        sentencia(stmt.getBloqueIf(), e);
+        e.emitir(m -> m.saltar(fin.destino));
+        e.marcar(sino);
+        if (stmt.getBloqueElse() != null) {
+            sentencia(stmt.getBloqueElse(), e);
+        } else if (stmt.getElseIf() != null) {
+            sentencia(stmt.getElseIf(), e);
+        }
+        e.marcar(fin);
+    }
+
+    private void seleccion(SwitchSentencia stmt, Emisor e) {
+        String ambito = "switch(" + stmt.getExpresion().toString() + ")";
+        int tExp = e.temporal();
+        int tEjecutar = e.temporal();
+        Etiqueta salida = new Etiqueta();
+        e.emitir(m -> {
+            contexto.entrarSwitch();
+            contexto.pushAmbito(ambito);
+            contexto.pushBloque();
+        });
+        e.switches++;
+        expresion(stmt.getExpresion(), e);
+        e.emitir(m -> {
+            m.temporal(tExp, m.desapilar());
+            m.temporal(tEjecutar, Boolean.FALSE);
+        });
+        if (stmt.getCasos() != null) {
+            for (Case caso : stmt.getCasos()) {
+                Etiqueta siguiente = new Etiqueta();
+                Etiqueta finCaso = new Etiqueta();
+                expresion(caso.getValor(), e);
+                e.emitir(m -> {
+                    Valor casoValor = m.desapilar();
+                    if (m.temporal(tEjecutar) == Boolean.FALSE
+                            && Operaciones.sonIguales((Valor) m.temporal(tExp), casoValor)) {
+                        m.temporal(tEjecutar, Boolean.TRUE);
+                    }
+                    if (m.temporal(tEjecutar) == Boolean.FALSE) m.saltar(siguiente.destino);
+                });
+                sentenciasCaso(caso.getSentencias(), finCaso, e);
+                e.marcar(finCaso);
+                e.emitir(m -> {
+                    if (contexto.debeBreakSwitch()) {
+                        contexto.setDebeBreakSwitch(false);
+                        m.saltar(salida.destino);
+                    } else if (contexto.debeContinue() || contexto.debeBreakCiclo() || contexto.hayReturn()) {
+                        m.saltar(salida.destino);
+                    }
+                });
+                e.marcar(siguiente);
+            }
+        }
+        if (stmt.getCasoDefault() != null) {
+            Etiqueta finDefault = new Etiqueta();
+            sentenciasCaso(stmt.getCasoDefault().getSentencias(), finDefault, e);
+            e.marcar(finDefault);
+            e.emitir(m -> {
+                if (contexto.debeBreakSwitch()) contexto.setDebeBreakSwitch(false);
+            });
+        }
+        e.switches--;
+        e.marcar(salida);
+        e.emitir(m -> {
+            contexto.popBloque();
+            contexto.popAmbito();
+            contexto.salirSwitch();
+        });
+    }
+
+    // Case y Default revisan sus banderas después de cada sentencia
+    private void sentenciasCaso(List<Sentencia> sentencias, Etiqueta fin, Emisor e) {
+        if (sentencias == null) return;
+        for (Sentencia s : sentencias) {
+            sentencia(s, e);
+            e.emitir(m -> {
+                if (contexto.debeBreakSwitch() || contexto.debeBreakCiclo() || contexto.debeContinue() || contexto.hayReturn()) {
+                    m.saltar(fin.destino);
+                }
+            });
+        }
+    }
+
+    // Revisión de banderas al final de cada vuelta de While/For/DoWhile
+    private Instruccion controlCiclo(Etiqueta salida, Etiqueta continuar) {
+        return m -> {
+            if (contexto.hayReturn()) {
+                m.saltar(salida.destino);
+            } else if (contexto.debeBreakCiclo()) {
+                contexto.setDebeBreakCiclo(false);
+                m.saltar(salida.destino);
+            } else if (contexto.debeContinue()) {
+                contexto.setDebeContinue(false);
+                m.saltar(continuar.destino);
+            }
+        };
+    }
+
+    private Instruccion salirSiFalso(Etiqueta salida) {
+        return m -> {
+            if (!Operaciones.esVerdadero(m.desapilar())) m.saltar(salida.destino);
+        };
+    }
+
+    private void mientras(WhileSentencia stmt, Emisor e) {
+        Etiqueta arriba = new Etiqueta();
+        Etiqueta salida = new Etiqueta();
+        e.emitir(m -> contexto.entrarCiclo());
+        e.ciclos++;
+        e.marcar(arriba);
+        expresion(stmt.getCondicion(), e);
+        e.emitir(salirSiFalso(salida));
+        e.emitir(vueltaCiclo(stmt));
+        sentencia(stmt.getBloque(), e);
+        e.emitir(controlCiclo(salida, arriba));
+        e.emitir(m -> m.saltar(arriba.destino));
+        e.ciclos--;
+        e.marcar(salida);
+        e.emitir(m -> contexto.salirCiclo());
+    }
+
+    private void para(ForSentencia stmt, Emisor e) {
+        Etiqueta arriba = new Etiqueta();
+        Etiqueta incremento = new Etiqueta();
+        Etiqueta salida = new Etiqueta();
+        e.emitir(m -> contexto.entrarCiclo());
+        e.ciclos++;
+        if (stmt.getInicializacion() != null) {
+            sentencia(stmt.getInicializacion(), e);
+        }
+        e.marcar(arriba);
+        if (stmt.getCondicion() != null) {
+            expresion(stmt.getCondicion(), e);
+            e.emitir(salirSiFalso(salida));
+        }
+        e.emitir(vueltaCiclo(stmt));
+        if (stmt.getBloque() != null) {
+            sentencia(stmt.getBloque(), e);
+        }
+        e.emitir(controlCiclo(salida, incremento));
+        e.marcar(incremento);
+        if (stmt.getIncremento() != null) {
+            sentencia(stmt.getIncremento(), e);
+        }
+        e.emitir(m -> m.saltar(arriba.destino));
+        e.ciclos--;
+        e.marcar(salida);
+        e.emitir(m -> contexto.salirCiclo());
+    }
+
+    private void hacerMientras(DoWhileSentencia stmt, Emisor e) {
+        Etiqueta arriba = new Etiqueta();
+        Etiqueta condicion = new Etiqueta();
+        Etiqueta salida = new Etiqueta();
+        e.emitir(m -> contexto.entrarCiclo());
+        e.ciclos++;
+        e.marcar(arriba);
+        e.emitir(vueltaCiclo(stmt));
+        sentencia(stmt.getBloque(), e);
+        e.emitir(controlCiclo(salida, condicion));
+        e.marcar(condicion);
+        expresion(stmt.getCondicion(), e);
+        e.emitir(salirSiFalso(salida));
+        e.emitir(m -> m.saltar(arriba.destino));
+        e.ciclos--;
+        e.marcar(salida);
+        e.emitir(m -> contexto.salirCiclo());
+    }
+
+    private Instruccion vueltaCiclo(Sentencia ciclo) {
+        int linea = ciclo.getLine();
+        int columna = ciclo.getColumn();
+        return m -> contexto.vueltaCiclo(linea, columna);
+    }
+
+    private void imprimir(PrintlnSentencia stmt, Emisor e) {
+        expresion(stmt.getExpresion(), e);
+        e.emitir(m -> {
+            Valor v = m.desapilar();
+            contexto.imprimir(Operaciones.stringify(v != null ? v.getValor() : null));
+        });
+    }
+
+    private void retorno(ReturnSentencia stmt, Emisor e) {
+        Expresion valor = stmt.getValor();
+        while (valor instanceof ExpresionAgrupada) {
+            valor = ((ExpresionAgrupada) valor).getExpresion();
+        }
+        if (slots && e.rutina.funcion != null && valor instanceof LlamadaFuncion
+                && funciones.get(norm(((LlamadaFuncion) valor).getNombre())) == e.rutina) {
+            // Llamada en cola a la misma función: se reutiliza el marco
+            List<Expresion> args = ((LlamadaFuncion) valor).getArgumentos();
+            int n = argumentos(args, e);
+            int ciclos = e.ciclos;
+            int switches = e.switches;
+            e.emitir(m -> m.llamarEnCola(m.desapilar(n), ciclos, switches));
+            return;
+        }
+        expresion(stmt.getValor(), e);
+        e.emitir(m -> contexto.activarReturn(m.desapilar()));
+    }
+
+    private void inicio(StartSentencia stmt, Emisor e) {
+        Rutina r = funciones.get(norm(stmt.getNombre()));
+        if (r == null) {
+            String nombre = stmt.getNombre();
+            e.emitir(m -> contexto.agregarError("No existe la función/método para start: '" + nombre + "'"));
+            return;
+        }
+        int n = argumentos(stmt.getArgumentos(), e);
+        e.emitir(m -> m.llamar(r, m.desapilar(n), false));
+        e.emitir(MaquinaPila::desapilar);
+    }
+
+    // ---- expresiones: cada una deja exactamente un Valor en la pila ----
+
+    private void expresion(Expresion x, Emisor e) {
+        if (!tieneLlamada(x)) {
+            Clausura c = clausuras.compilarFragmento(x, slots);
+            e.emitir(m -> m.apilar(c.ejecutar()));
+            return;
+        }
+        if (x instanceof ExpresionAgrupada) expresion(((ExpresionAgrupada) x).getExpresion(), e);
+        else if (x instanceof ExpresionAritmetica) aritmetica((ExpresionAritmetica) x, e);
+        else if (x instanceof ExpresionRelacional) relacional((ExpresionRelacional) x, e);
+        else if (x instanceof ExpresionLogica) logica((ExpresionLogica) x, e);
+        else if (x instanceof ExpresionCasteo) casteo((ExpresionCasteo) x, e);
+        else if (x instanceof AccesoIndexado) acceso((AccesoIndexado) x, e);
+        else if (x instanceof LiteralVector) vector((LiteralVector) x, e);
+        else if (x instanceof LiteralMatriz) matriz((LiteralMatriz) x, e);
+        else if (x instanceof LlamadaFuncion) funcion((LlamadaFuncion) x, e);
+        else if (x instanceof LlamadaMiembro) miembro((LlamadaMiembro) x, e);
+        else throw new IllegalStateException("Expresión sin traducción: " + x.getClass().getSimpleName());
+    }
+
+    private void expresionO(Expresion x, Valor siFalta, Emisor e) {
+        if (x == null) e.emitir(m -> m.apilar(siFalta));
+        else expresion(x, e);
+    }
+
+    private int argumentos(List<Expresion> args, Emisor e) {
+        if (args == null) return 0;
+        for (Expresion a : args) {
+            expresion(a, e);
+        }
+        return args.size();
+    }
+
+    private void aritmetica(ExpresionAritmetica x, Emisor e) {
+        OperadorAritmetico op = x.getOperador();
+        if (x.getIzquierda() == null) {
+            expresion(x.getDerecha(), e);
+            e.emitir(m -> m.apilar(Operaciones.aritmetica(op, null, m.desapilar(), contexto)));
+            return;
+        }
+        expresion(x.getIzquierda(), e);
+        expresion(x.getDerecha(), e);
+        e.emitir(m -> {
+            Valor der = m.desapilar();
+            m.apilar(Operaciones.aritmetica(op, m.desapilar(), der, contexto));
+        });
+    }
+
+    private void relacional(ExpresionRelacional x, Emisor e) {
+        OperadorRelacional op = x.getOperador();
+        expresion(x.getIzquierda(), e);
+        expresion(x.getDerecha(), e);
+        e.emitir(m -> {
+            Valor der = m.desapilar();
+            m.apilar(Operaciones.relacional(op, m.desapilar(), der, contexto));
+        });
+    }
+
+    private void logica(ExpresionLogica x, Emisor e) {
+        OperadorLogico op = x.getOperador();
+        if (x.getIzquierda() == null) {
+            expresion(x.getDerecha(), e);
+            e.emitir(m -> m.apilar(Operaciones.logica(op, null, m.desapilar())));
+            return;
+        }
+        expresion(x.getIzquierda(), e);
+        expresion(x.getDerecha(), e);
+        e.emitir(m -> {
+            Valor der = m.desapilar();
+            m.apilar(Operaciones.logica(op, m.desapilar(), der));
+        });
+    }
+
+    private void casteo(ExpresionCasteo x, Emisor e) {
+        Tipo destino = x.getTipoDestino();
+        expresion(x.getExpresion(), e);
+        e.emitir(m -> m.apilar(Operaciones.casteo(destino, m.desapilar())));
+    }
+
+    private void acceso(AccesoIndexado x, Emisor e) {
+        expresionO(x.getObjetivo(), Valor.ERROR, e);
+        expresionO(x.getIndice1(), Valor.entero(0), e);
+        if (x.getIndice2() == null) {
+            e.emitir(m -> {
+                int i1 = Operaciones.toInt(m.desapilar());
+                m.apilar(Operaciones.indexar(m.desapilar().getValor(), i1, contexto));
+            });
+            return;
+        }
+        expresion(x.getIndice2(), e);
+        e.emitir(m -> {
+            int i2 = Operaciones.toInt(m.desapilar());
+            int i1 = Operaciones.toInt(m.desapilar());
+            m.apilar(Operaciones.indexar(m.desapilar().getValor(), i1, i2, contexto));
+        });
+    }
+
+    private void vector(LiteralVector x, Emisor e) {
+        int n = argumentos(x.getElementos(), e);
+        e.emitir(m -> m.apilar(Operaciones.literalVector(m.desapilar(n))));
+    }
+
+    private void matriz(LiteralMatriz x, Emisor e) {
+        int n = 0;
+        if (x.getFilas() != null) {
+            for (LiteralVector fila : x.getFilas()) {
+                expresion(fila, e);
+                n++;
+            }
+        }
+        int filas = n;
+        e.emitir(m -> m.apilar(Operaciones.literalMatriz(m.desapilar(filas))));
+    }
+
+    private void error(String mensaje, Emisor e) {
+        e.emitir(m -> {
+            contexto.agregarError(mensaje);
+            m.apilar(Valor.ERROR);
+        });
+    }
+
+    private void funcion(LlamadaFuncion x, Emisor e) {
+        String nombre = norm(x.getNombre());
+        List<Expresion> args = x.getArgumentos();
+        int n = args == null ? 0 : args.size();
+        switch (nombre) {
+            case "round":
+                if (n != 1) error("round(exp) requiere 1 argumento", e);
+                else nativa(args, e, a -> Operaciones.round(a[0], contexto));
+                return;
+            case "length":
+                if (n != 1) error("length(exp) requiere 1 argumento", e);
+                else nativa(args, e, a -> Operaciones.length(a[0], contexto));
+                return;
+            case "tostring":
+                if (n != 1) error("toString(exp) requiere 1 argumento", e);
+                else nativa(args, e, a -> Valor.cadena(Operaciones.stringify(a[0].getValor())));
+                return;
+            case "find":
+                if (n != 2) error("find(a,b) requiere 2 argumentos", e);
+                else nativa(args, e, a -> Operaciones.find(a[0], a[1], contexto));
+                return;
+            case "start_with":
+            case "startwith":
+            case "startswith":
+                if (n != 2) error("START_WITH(a,b) requiere 2 argumentos", e);
+                else nativa(args, e, a -> Operaciones.empiezaCon(a[0], a[1], contexto));
+                return;
+            default:
+                break;
+        }
+        Rutina r = funciones.get(nombre);
+        if (r == null) {
+            error("Función/método no definido: '" + x.getNombre() + "'", e);
+            return;
+        }
+        llamada(r, args, e);
+    }
+
+    private interface Nativa {
+        Valor aplicar(Valor[] args);
+    }
+
+    private void nativa(List<Expresion> args, Emisor e, Nativa f) {
+        int n = argumentos(args, e);
+        e.emitir(m -> m.apilar(f.aplicar(m.desapilar(n))));
+    }
+
+    private void llamada(Rutina r, List<Expresion> args, Emisor e) {
+        int n = argumentos(args, e);
+        boolean memoizable = r.funcion.isPura();
+        e.emitir(m -> m.llamar(r, m.desapilar(n), memoizable));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void miembro(LlamadaMiembro x, Emisor e) {
+        String nombre = norm(x.getNombre());
+        List<Expresion> args = x.getArgumentos();
+        int n = args == null ? 0 : args.size();
+        Etiqueta fin = new Etiqueta();
+        expresionO(x.getObjetivo(), Valor.ERROR, e);
+        // El objetivo se valida antes de evaluar argumentos o reportar el método
+        e.emitir(m -> {
+            Valor obj = m.desapilar();
+            if (!(obj.getValor() instanceof List)) {
+                contexto.agregarError("Llamada de miembro solo soportada sobre List en esta fase (ejecución)");
+                m.apilar(Valor.ERROR);
+                m.saltar(fin.destino);
+            } else {
+                m.apilar(obj);
+            }
+        });
+        String falla = null;
+        switch (nombre) {
+            case "append":
+                if (n != 1) {
+                    falla = "append(x) requiere 1 argumento";
+                    break;
+                }
+                expresion(args.get(0), e);
+                e.emitir(m -> {
+                    Valor v = m.desapilar();
+                    List<Object> lista = (List<Object>) m.desapilar().getValor();
+                    if (lista instanceof VectorPrimitivo) ((VectorPrimitivo) lista).agregar(v);
+                    else lista.add(v.getValor());
+                    m.apilar(Valor.VOID);
+                });
+                break;
+            case "remove":
+                if (n != 1) {
+                    falla = "remove(indice) requiere 1 argumento";
+                    break;
+                }
+                expresion(args.get(0), e);
+                e.emitir(m -> {
+                    Valor v = m.desapilar();
+                    m.apilar(Operaciones.quitar((List<Object>) m.desapilar().getValor(), v, contexto));
+                });
+                break;
+            case "find":
+                if (n != 1) {
+                    falla = "find(valor) requiere 1 argumento";
+                    break;
+                }
+                expresion(args.get(0), e);
+                e.emitir(m -> {
+                    Valor v = m.desapilar();
+                    List<Object> lista = (List<Object>) m.desapilar().getValor();
+                    m.apilar(Valor.booleano(Operaciones.posicion(lista, v.getValor()) >= 0));
+                });
+                break;
+            default:
+                falla = "Método no soportado en List: " + nombre;
+                break;
+        }
+        if (falla != null) {
+            String mensaje = falla;
+            e.emitir(m -> {
+                m.desapilar();
+                contexto.agregarError(mensaje);
+                m.apilar(Valor.ERROR);
+            });
+        }
+        e.marcar(fin);
+    }
+}
@@ -0,0 +1,10 @@
+package interpreter.pila;
+
+/**
+ * Paso de una Rutina. Las instrucciones leen y escriben la pila de operandos
+ * de la máquina y pueden saltar dentro de la rutina en curso.
+ */
+@FunctionalInterface
+public interface Instruccion {
+    void ejecutar(MaquinaPila m);
+}
@@ -0,0 +1,240 @@
+package interpreter.pila;
+
+import ast.Parametro;
+import ast.sentencias.DeclaracionFuncion;
+import interpreter.CacheMemo;
+import interpreter.ContextoEjecucion;
+import interpreter.Operaciones;
+import interpreter.Valor;
+import semantic.Simbolo;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ejecuta las rutinas de CompiladorPila (ModoEjecucion.PILA). Cada llamada a
+ * una función de usuario es un Marco en un arreglo del heap, no un marco de
+ * la pila de Java, así que la recursión solo la limita profundidadMaxima. Al
+ * superarla la corrida se detiene con un error de ejecución.
+ */
+public final class MaquinaPila {
+
+    public static final int PROFUNDIDAD_POR_DEFECTO = Integer.getInteger("javausac.pila.profundidad", 100_000);
+
+    private static final class Marco {
+        final Rutina rutina;
+        final Instruccion[] codigo;
+        final int base;
+        final Object[] temporales;
+        int pc;
+        CacheMemo memo;
+        List<Object> clave;
+        int errores;
+
+        Marco(Rutina rutina, int base) {
+            this.rutina = rutina;
+            this.codigo = rutina.codigo;
+            this.base = base;
+            this.temporales = rutina.temporales == 0 ? null : new Object[rutina.temporales];
+        }
+    }
+
+    private final ContextoEjecucion contexto;
+    private final int profundidadMaxima;
+
+    private Marco[] marcos = new Marco[32];
+    private int profundidad;
+    private Marco actual;
+
+    private Valor[] operandos = new Valor[64];
+    private int sp;
+
+    private String errorPila;
+    private DeclaracionFuncion funcionDesbordada;
+
+    public MaquinaPila(ContextoEjecucion contexto, int profundidadMaxima) {
+        this.contexto = contexto;
+        this.profundidadMaxima = profundidadMaxima;
+    }
+
+    public MaquinaPila(ContextoEjecucion contexto) {
+        this(contexto, PROFUNDIDAD_POR_DEFECTO);
+    }
+
+    /** Corre la rutina del nivel superior hasta terminar o hasta exceder la profundidad. */
+    public void ejecutar(Rutina programa) {
+        actual = new Marco(programa, 0);
+        while (actual != null) {
+            Marco m = actual;
+            m.codigo[m.pc++].ejecutar(this);
+        }
+    }
+
+    /** Mensaje del desbordamiento que detuvo la corrida, o null si terminó normalmente. */
+    public String getErrorPila() {
+        return errorPila;
+    }
+
+    /** Función cuya llamada excedió la profundidad, o null. */
+    public DeclaracionFuncion getFuncionDesbordada() {
+        return funcionDesbordada;
+    }
+
+    public int getProfundidadMaxima() {
+        return profundidadMaxima;
+    }
+
+    // ---- pila de operandos ----
+
+    void apilar(Valor v) {
+        if (sp == operandos.length) operandos = Arrays.copyOf(operandos, sp * 2);
+        operandos[sp++] = v;
+    }
+
+    Valor desapilar() {
+        Valor v = operandos[--sp];
+        operandos[sp] = null;
+        return v;
+    }
+
+    Valor[] desapilar(int n) {
+        Valor[] out = new Valor[n];
+        for (int i = n - 1; i >= 0; i--) {
+            out[i] = desapilar();
+        }
+        return out;
+    }
+
+    // ---- marco en curso ----
+
+    void saltar(int destino) {
+        actual.pc = destino;
+    }
+
+    Object temporal(int i) {
+        return actual.temporales[i];
+    }
+
+    void temporal(int i, Object v) {
+        actual.temporales[i] = v;
+    }
+
+    void terminar() {
+        actual = null;
+    }
+
+    // ---- llamadas ----
+
+    /** Misma secuencia que VisitanteEvaluacion.ejecutarCallable, con el cuerpo en un marco nuevo. */
+    void llamar(Rutina rutina, Valor[] args, boolean memoizable) {
+        DeclaracionFuncion f = rutina.funcion;
+        CacheMemo memo = memoizable ? contexto.memoDe(f) : null;
+        List<Object> clave = memo == null ? null : CacheMemo.clave(args);
+        if (clave != null) {
+            Valor previo = memo.buscar(clave);
+            if (previo != null) {
+                apilar(previo);
+                return;
+            }
+        }
+        if (profundidad >= profundidadMaxima) {
+            desbordar(f);
+            return;
+        }
+        contexto.entrarLlamada(f.getLine(), f.getColumn());
+        contexto.pushCallFrame(f.getNombre(), f.getTamanoMarco());
+        if (!enlazarParametros(f, args)) {
+            contexto.popCallFrame();
+            apilar(Valor.ERROR);
+            return;
+        }
+        if (profundidad == marcos.length) marcos = Arrays.copyOf(marcos, profundidad * 2);
+        marcos[profundidad++] = actual;
+        actual = new Marco(rutina, sp);
+        if (clave != null) {
+            actual.memo = memo;
+            actual.clave = clave;
+            actual.errores = contexto.getErrores().size();
+        }
+    }
+
+    /**
+     * return f(...) dentro de la propia f: cierra los ciclos y switch abiertos
+     * en el marco, rehace el marco de la llamada y vuelve al inicio de la rutina
+     * en lugar de apilar otro Marco.
+     */
+    void llamarEnCola(Valor[] args, int ciclos, int switches) {
+        for (int i = 0; i < ciclos; i++) {
+            contexto.salirCiclo();
+        }
+        for (int i = 0; i < switches; i++) {
+            contexto.popBloque();
+            contexto.popAmbito();
+            contexto.salirSwitch();
+        }
+        DeclaracionFuncion f = actual.rutina.funcion;
+        contexto.entrarLlamada(f.getLine(), f.getColumn());
+        contexto.popCallFrame();
+        contexto.pushCallFrame(f.getNombre(), f.getTamanoMarco());
+        sp = actual.base;
+        if (!enlazarParametros(f, args)) {
+            contexto.popCallFrame();
+            volver(Valor.ERROR);
+            return;
+        }
+        actual.pc = 0;
+    }
+
+    /** Fin de la rutina de una función: entrega el valor de return al llamador. */
+    void retornar() {
+        Valor v = contexto.hayReturn() ? contexto.tomarReturnYLimpiar() : Valor.VOID;
+        contexto.popCallFrame();
+        Marco m = actual;
+        if (m.clave != null && v != Valor.ERROR && contexto.getErrores().size() == m.errores) {
+            m.memo.guardar(m.clave, v);
+        }
+        volver(v);
+    }
+
+    private void volver(Valor v) {
+        while (sp > actual.base) desapilar();
+        actual = marcos[--profundidad];
+        marcos[profundidad] = null;
+        apilar(v);
+    }
+
+    private boolean enlazarParametros(DeclaracionFuncion f, Valor[] args) {
+        List<Parametro> params = f.getParametros();
+        int nParams = (params == null) ? 0 : params.size();
+        if (nParams != args.length) {
+            contexto.agregarError("Aridad incorrecta al llamar '" + f.getNombre() + "': se esperaban "
+                    + nParams + " argumentos y se recibieron " + args.length);
+            return false;
+        }
+        for (int i = 0; i < nParams; i++) {
+            Parametro p = params.get(i);
+            Valor v = args[i];
+            if (!Operaciones.esAsignableRuntime(p.getTipo(), v)) {
+                contexto.agregarError("Parámetro incompatible en llamada a '" + f.getNombre()
+                        + "': se esperaba '" + p.getTipo().toString() + "' y se recibió '" + v.getTipo() + "'");
+                return false;
+            }
+            v = Operaciones.convertirSiAplica(p.getTipo(), v);
+            Simbolo s = contexto.usaSlots()
+                    ? contexto.declararParametroEnSlot(i, p.getNombre(), p.getTipo(), p.getLine(), p.getColumn())
+                    : contexto.declararParametro(p.getNombre(), p.getTipo(), p.getLine(), p.getColumn());
+            if (s != null) {
+                contexto.setValor(s, v);
+            }
+        }
+        return true;
+    }
+
+    private void desbordar(DeclaracionFuncion f) {
+        errorPila = "Desbordamiento de pila: se superaron " + profundidadMaxima
+                + " llamadas anidadas al llamar '" + f.getNombre() + "'";
+        funcionDesbordada = f;
+        contexto.agregarError(errorPila);
+        actual = null;
+    }
+}
@@ -0,0 +1,26 @@
+package interpreter.pila;
+
+import ast.sentencias.DeclaracionFuncion;
+
+/**
+ * Código lineal de una función (o del nivel superior del programa, con
+ * funcion == null) generado por CompiladorPila.
+ */
+public final class Rutina {
+
+    final DeclaracionFuncion funcion;
+    Instruccion[] codigo;
+    int temporales;
+
+    Rutina(DeclaracionFuncion funcion) {
+        this.funcion = funcion;
+    }
+
+    public DeclaracionFuncion getFuncion() {
+        return funcion;
+    }
+
+    public int getLongitud() {
+        return codigo == null ? 0 : codigo.length;
+    }
+}
@@ -0,0 +1,255 @@
+package lexer;
+
+import reports.ErrorTipo;
+import reports.TablaErrores;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Preproceso del fuente mientras el Lexer lo lee, una línea a la vez y en una
+ * sola pasada: reporta símbolos no reconocidos (los cambia por espacio),
+ * completa "+ ;" con un 0 y cierra los paréntesis que falten en una línea con
+ * println. Los finales de línea salen como '\n'.
+ */
+public class FiltroPreproceso extends Reader {
+
+    private static final String PRINTLN = "println";
+
+    private final Reader entrada;
+    private final TablaErrores tablaErrores;
+
+    private final char[] buffer = new char[8192];
+    private int posBuffer;
+    private int finBuffer;
+    private boolean saltarLf;
+    private boolean finArchivo;
+
+    // Línea ya reparada y lo que el Lexer ya se llevó de ella
+    private final StringBuilder linea = new StringBuilder();
+    private int entregado;
+    private int numeroLinea;
+
+    // Columnas de los "+ ;" de la línea; se reportan después de los símbolos no reconocidos
+    private int[] columnasMas = new int[4];
+    private int cantidadMas;
+
+    // Líneas reparadas: columnas (ya en el texto filtrado) de los caracteres insertados
+    private final Map<Integer, int[]> insertados = new HashMap<>();
+
+    /** lineaBase: líneas que hay antes del texto en el archivo (fragmentos del editor). */
+    public FiltroPreproceso(Reader entrada, int lineaBase, TablaErrores tablaErrores) {
+        this.entrada = entrada;
+        this.numeroLinea = lineaBase;
+        this.tablaErrores = tablaErrores;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        while (entregado == linea.length()) {
+            if (finArchivo) return -1;
+            siguienteLinea();
+        }
+        int n = Math.min(len, linea.length() - entregado);
+        linea.getChars(entregado, entregado + n, cbuf, off);
+        entregado += n;
+        return n;
+    }
+
+    /** Lee lo que el Lexer no alcanzó a pedir, para que se reporte todo el archivo. */
+    public void consumirResto() throws IOException {
+        while (!finArchivo) {
+            siguienteLinea();
+        }
+        entregado = linea.length();
+    }
+
+    /**
+     * Pasa los tokens de las líneas reparadas a columnas del fuente original y
+     * quita los que solo existen por una reparación (el 0 y los ')').
+     */
+    public void corregir(RegistroTokens registro) {
+        if (insertados.isEmpty()) return;
+        boolean[] quitar = null;
+        for (int i = 0; i < registro.getTamano(); i++) {
+            int[] columnas = insertados.get(registro.linea(i));
+            if (columnas == null) continue;
+            int inicio = registro.columna(i);
+            int fin = inicio + registro.largo(i);
+            int antes = 0;
+            int dentro = 0;
+            boolean insertado = false;
+            for (int c : columnas) {
+                if (c < inicio) antes++;
+                else if (c == inicio) insertado = true;
+                else if (c < fin) dentro++;
+            }
+            if (insertado) {
+                if (quitar == null) quitar = new boolean[registro.getTamano()];
+                quitar[i] = true;
+            } else {
+                registro.reemplazar(i, inicio - antes, registro.largo(i) - dentro);
+            }
+        }
+        if (quitar != null) registro.compactar(quitar);
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    private void siguienteLinea() throws IOException {
+        linea.setLength(0);
+        entregado = 0;
+        cantidadMas = 0;
+        numeroLinea++;
+
+        boolean enString = false;
+        boolean enChar = false;
+        boolean escape = false;
+        boolean masPendiente = false;
+        int coincidePrintln = 0;
+        boolean hayPrintln = false;
+        int abiertos = 0;
+        int cerrados = 0;
+        int ultimoPuntoYComa = -1;
+        int columna = 0;
+
+        while (true) {
+            if (posBuffer == finBuffer) {
+                finBuffer = entrada.read(buffer, 0, buffer.length);
+                posBuffer = 0;
+                if (finBuffer <= 0) {
+                    finBuffer = 0;
+                    finArchivo = true;
+                    break;
+                }
+            }
+            char ch = buffer[posBuffer++];
+            if (saltarLf) {
+                saltarLf = false;
+                if (ch == '\n') continue;
+            }
+            if (ch == '\n') break;
+            if (ch == '\r') {
+                saltarLf = true;
+                break;
+            }
+            columna++;
+
+            // Símbolos no reconocidos y paréntesis, fuera de strings y chars
+            char sale = ch;
+            if (escape) {
+                escape = false;
+            } else if (ch == '\\') {
+                if (enString || enChar) escape = true;
+            } else if (ch == '"' && !enChar) {
+                enString = !enString;
+            } else if (ch == '\'' && !enString) {
+                enChar = !enChar;
+            } else if (!enString && !enChar) {
+                if (!esCharPermitido(ch)) {
+                    tablaErrores.agregarError(
+                        ErrorTipo.LEXICO,
+                        "Símbolo no reconocido: '" + ch + "'",
+                        numeroLinea,
+                        columna
+                    );
+                    sale = ' ';
+                } else if (ch == '(') {
+                    abiertos++;
+                } else if (ch == ')') {
+                    cerrados++;
+                }
+            }
+
+            // '+' suelto seguido de ';' (también dentro de strings, como siempre)
+            if (sale == '+') {
+                masPendiente = linea.length() == 0 || linea.charAt(linea.length() - 1) != '+';
+            } else if (sale == ';') {
+                if (masPendiente) {
+                    if (cantidadMas == columnasMas.length) {
+                        columnasMas = Arrays.copyOf(columnasMas, cantidadMas * 2);
+                    }
+                    columnasMas[cantidadMas++] = linea.length() + 1;
+                    linea.append('0');
+                }
+                masPendiente = false;
+                ultimoPuntoYComa = linea.length();
+            } else if (!Character.isWhitespace(sale)) {
+                masPendiente = false;
+            }
+
+            if (!hayPrintln) {
+                char minuscula = Character.toLowerCase(sale);
+                if (minuscula == PRINTLN.charAt(coincidePrintln)) {
+                    coincidePrintln++;
+                    hayPrintln = coincidePrintln == PRINTLN.length();
+                } else {
+                    coincidePrintln = minuscula == 'p' ? 1 : 0;
+                }
+            }
+
+            linea.append(sale);
+        }
+
+        for (int i = 0; i < cantidadMas; i++) {
+            tablaErrores.agregarError(
+                ErrorTipo.SINTACTICO,
+                "Se esperaba una expresión después de '+', encontró ';'.",
+                numeroLinea,
+                columnasMas[i]
+            );
+        }
+
+        if (hayPrintln && ultimoPuntoYComa >= 0 && abiertos > cerrados) {
+            tablaErrores.agregarError(
+                ErrorTipo.SINTACTICO,
+                "Paréntesis desbalanceados en println(...): se esperaba ')' antes de ';'.",
+                numeroLinea,
+                ultimoPuntoYComa + 1
+            );
+            char[] faltan = new char[abiertos - cerrados];
+            Arrays.fill(faltan, ')');
+            linea.insert(ultimoPuntoYComa, faltan);
+
+            // Los ')' van después de todos los 0, que siempre quedan antes del último ';'
+            int[] columnas = Arrays.copyOf(columnasMas, cantidadMas + faltan.length);
+            for (int i = 0; i < faltan.length; i++) {
+                columnas[cantidadMas + i] = ultimoPuntoYComa + 1 + i;
+            }
+            insertados.put(numeroLinea, columnas);
+        } else if (cantidadMas > 0) {
+            insertados.put(numeroLinea, Arrays.copyOf(columnasMas, cantidadMas));
+        }
+
+        if (!finArchivo) {
+            linea.append('\n');
+        }
+    }
+
+    private static boolean esCharPermitido(char ch) {
+        if (Character.isWhitespace(ch)) return true;
+        if (Character.isLetterOrDigit(ch)) return true;
+        if (ch == '_') return true;
+
+        switch (ch) {
+            case '+': case '-': case '*': case '/': case '%': case '^':
+            case '=': case '<': case '>': case '!':
+            case '&': case '|':
+            case ';': case ':': case ',':
+            case '(': case ')':
+            case '{': case '}':
+            case '[': case ']':
+            case '.':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -501,6 +501,18 @@ public class Lexer implements java_cup.runtime.Scanner {
         this.tablaErrores = tablaErrores;
     }
 
+    /** Líneas que hay antes del texto leído; para lexear un fragmento de un archivo más grande. */
+    public void setLineaBase(int lineas) {
+        yyline = lineas;
+    }
+
+    private RegistroTokens registro;
+
+    /** Si se da, cada token que se entrega queda anotado ahí. */
+    public void setRegistro(RegistroTokens registro) {
+        this.registro = registro;
+    }
+
     private void agregarErrorLexico(String caracter, int linea, int columna) {
         String desc = String.format("Símbolo no reconocido: '%s'", caracter);
         if (tablaErrores != null) {
@@ -527,13 +539,21 @@ public class Lexer implements java_cup.runtime.Scanner {
     }
 
     private Symbol symbol(int type) {
+        anotar(type);
         return symbol(type, yyline + 1, yycolumn + 1);
     }
 
     private Symbol symbol(int type, Object value) {
+        anotar(type);
         return symbol(type, value, yyline + 1, yycolumn + 1);
     }
 
+    private void anotar(int type) {
+        if (registro != null && type != sym.EOF) {
+            registro.agregar(type, yyline + 1, yycolumn + 1, yylength());
+        }
+    }
+
     // Helper method to unescape strings
     private String unescape(String s) {
         StringBuilder sb = new StringBuilder();
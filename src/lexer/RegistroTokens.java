@@ -0,0 +1,75 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * Tokens que entregó el Lexer, en orden: tipo (parser.sym), línea, columna
+ * (ambas desde 1, sobre el fuente original) y largo. Se llena una vez al
+ * parsear y sirve para ubicar errores y declaraciones sin volver a recorrer
+ * el texto.
+ */
+public final class RegistroTokens {
+
+    private int[] tipos = new int[256];
+    private int[] lineas = new int[256];
+    private int[] columnas = new int[256];
+    private int[] largos = new int[256];
+    private int tamano;
+
+    public void agregar(int tipo, int linea, int columna, int largo) {
+        if (tamano == tipos.length) {
+            crecer(tamano * 2);
+        }
+        tipos[tamano] = tipo;
+        lineas[tamano] = linea;
+        columnas[tamano] = columna;
+        largos[tamano] = largo;
+        tamano++;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public int tipo(int i) {
+        return tipos[i];
+    }
+
+    public int linea(int i) {
+        return lineas[i];
+    }
+
+    public int columna(int i) {
+        return columnas[i];
+    }
+
+    public int largo(int i) {
+        return largos[i];
+    }
+
+    // Para FiltroPreproceso: ajusta columnas y quita los tokens que él insertó
+    void reemplazar(int i, int columna, int largo) {
+        columnas[i] = columna;
+        largos[i] = largo;
+    }
+
+    void compactar(boolean[] quitar) {
+        int n = 0;
+        for (int i = 0; i < tamano; i++) {
+            if (quitar[i]) continue;
+            tipos[n] = tipos[i];
+            lineas[n] = lineas[i];
+            columnas[n] = columnas[i];
+            largos[n] = largos[i];
+            n++;
+        }
+        tamano = n;
+    }
+
+    private void crecer(int capacidad) {
+        tipos = Arrays.copyOf(tipos, capacidad);
+        lineas = Arrays.copyOf(lineas, capacidad);
+        columnas = Arrays.copyOf(columnas, capacidad);
+        largos = Arrays.copyOf(largos, capacidad);
+    }
+}
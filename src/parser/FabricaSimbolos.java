@@ -0,0 +1,45 @@
+package parser;
+
+import java_cup.runtime.Symbol;
+import java_cup.runtime.SymbolFactory;
+
+/**
+ * Símbolos simples para Parser, los mismos que arma el Lexer. Hace lo que
+ * DefaultSymbolFactory (el constructor Parser(Scanner) la usa), que en CUP 11b
+ * está deprecada; ComplexSymbolFactory no sirve porque espera sus propios
+ * símbolos en los tokens.
+ */
+public final class FabricaSimbolos implements SymbolFactory {
+
+    @Override
+    public Symbol newSymbol(String nombre, int id, Symbol izquierdo, Symbol derecho, Object valor) {
+        return new Symbol(id, izquierdo, derecho, valor);
+    }
+
+    @Override
+    public Symbol newSymbol(String nombre, int id, Symbol izquierdo, Symbol derecho) {
+        return new Symbol(id, izquierdo, derecho);
+    }
+
+    @Override
+    public Symbol newSymbol(String nombre, int id, Symbol izquierdo, Object valor) {
+        return new Symbol(id, izquierdo, valor);
+    }
+
+    @Override
+    public Symbol newSymbol(String nombre, int id, Object valor) {
+        return new Symbol(id, valor);
+    }
+
+    @Override
+    public Symbol newSymbol(String nombre, int id) {
+        return new Symbol(id);
+    }
+
+    @Override
+    public Symbol startSymbol(String nombre, int id, int estado) {
+        Symbol s = new Symbol(id, 0, 0);
+        s.parse_state = estado;
+        return s;
+    }
+}
@@ -3,5 +3,6 @@ package reports;
 public enum ErrorTipo {
     LEXICO,
     SINTACTICO,
-    SEMANTICO
+    SEMANTICO,
+    EJECUCION
 }
\ No newline at end of file
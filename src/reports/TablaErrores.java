@@ -13,6 +13,13 @@ public class TablaErrores {
         errores.add(new ErrorInfo(numeroInterno, tipo, descripcion, linea, columna));
     }
 
+    /** Copia los errores de otra tabla en el orden en que se registraron allá. */
+    public void agregarErrores(TablaErrores otra) {
+        for (ErrorInfo e : otra.errores) {
+            agregarError(e.getTipo(), e.getDescripcion(), e.getLinea(), e.getColumna());
+        }
+    }
+
     public boolean tieneErrores() {
         return !errores.isEmpty();
     }
@@ -78,6 +85,7 @@ public boolean tieneErroresSintacticos() {
         case LEXICO: return 0;
         case SEMANTICO: return 1;
         case SINTACTICO: return 2;
+        case EJECUCION: return 3;
         default: return 99;
     }
 }
@@ -89,6 +97,7 @@ public boolean tieneErroresSintacticos() {
             case LEXICO: return "Léxico";
             case SINTACTICO: return "Sintáctico";
             case SEMANTICO: return "Semántico";
+            case EJECUCION: return "Ejecución";
             default: return "Desconocido";
         }
     }
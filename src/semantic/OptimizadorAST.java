@@ -0,0 +1,528 @@
+package semantic;
+
+import ast.DesplazadorLineas;
+import ast.NodoAST;
+import ast.Parametro;
+import ast.Programa;
+import ast.RecorridoAST;
+import ast.Visitor;
+import ast.expresiones.*;
+import ast.sentencias.*;
+import interpreter.CacheMemo;
+import interpreter.ContextoEjecucion;
+import interpreter.Operaciones;
+import interpreter.Valor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Pasada entre VisitanteSemantico y la ejecución que reescribe el AST:
+ * pliega expresiones aritméticas, relacionales, lógicas y casteos con operandos
+ * literales, sustituye las variables primitivas declaradas una sola vez con un
+ * valor constante y nunca reasignadas y elimina ramas de if/while que no se
+ * pueden ejecutar. Los nodos nuevos conservan la línea y columna del original.
+ *
+ * Con Memoria (documentos del editor) una función de nivel superior que es el
+ * mismo nodo que en la corrida anterior se reutiliza ya optimizada si las
+ * constantes que leyó y lo que el censo dijo de sus declaraciones no
+ * cambiaron; su parte del censo tampoco se vuelve a contar.
+ */
+public class OptimizadorAST implements Visitor<NodoAST> {
+
+    /** Declaraciones (variables y parámetros) y escrituras por nombre en todo el programa. */
+    private static class Censo extends RecorridoAST {
+        final Map<String, Integer> declaraciones = new HashMap<>();
+        final Set<String> reasignadas = new HashSet<>();
+
+        private void declarar(String nombre) {
+            declaraciones.merge(nombre.toLowerCase(), 1, Integer::sum);
+        }
+
+        @Override
+        public Void visit(DeclaracionVariable stmt) {
+            declarar(stmt.getIdentificador());
+            return super.visit(stmt);
+        }
+
+        @Override
+        public Void visit(AsignacionVariable stmt) {
+            reasignadas.add(stmt.getIdentificador().toLowerCase());
+            return super.visit(stmt);
+        }
+
+        @Override
+        public Void visit(IncDecSentencia stmt) {
+            if (stmt.getObjetivo() instanceof Identificador) {
+                reasignadas.add(((Identificador) stmt.getObjetivo()).getNombre().toLowerCase());
+            }
+            return super.visit(stmt);
+        }
+
+        @Override
+        public Void visit(DeclaracionFuncion stmt) {
+            if (stmt.getParametros() != null) {
+                for (Parametro p : stmt.getParametros()) declarar(p.getNombre());
+            }
+            return super.visit(stmt);
+        }
+
+        void sumar(Censo otro) {
+            for (Map.Entry<String, Integer> e : otro.declaraciones.entrySet()) {
+                declaraciones.merge(e.getKey(), e.getValue(), Integer::sum);
+            }
+            if (!otro.reasignadas.isEmpty()) reasignadas.addAll(otro.reasignadas);
+        }
+    }
+
+    /** Funciones de nivel superior optimizadas en la corrida anterior de un documento, por nodo original. */
+    public static final class Memoria {
+        private Map<DeclaracionFuncion, Optimizada> optimizadas = new IdentityHashMap<>();
+    }
+
+    private static final class Optimizada {
+        // Parte del censo de la función original
+        final Censo censo;
+        DeclaracionFuncion resultado;
+        // Lo que consultó fuera de sí: si cada declaración era única para el censo y
+        // las constantes que leyó antes de declararlas ella (null si no había)
+        final Map<String, Boolean> unicas = new HashMap<>();
+        final Map<String, Valor> leidas = new HashMap<>();
+        // Constantes que agrega, en orden
+        final Map<String, Valor> puestas = new LinkedHashMap<>();
+
+        Optimizada(Censo censo) {
+            this.censo = censo;
+        }
+    }
+
+    private Censo censo;
+    private final Map<String, Valor> constantes = new HashMap<>();
+    // Los errores de Operaciones caen aquí; si aparece alguno no se pliega
+    private ContextoEjecucion prueba;
+    // Función de nivel superior que se está optimizando con memoria
+    private Optimizada registro;
+
+    public Programa optimizar(Programa programa) {
+        return optimizar(programa, null);
+    }
+
+    /** Con memoria reutiliza las funciones que no cambiaron y la deja con las de este programa. */
+    public Programa optimizar(Programa programa, Memoria memoria) {
+        constantes.clear();
+        if (memoria == null) {
+            censo = new Censo();
+            programa.accept(censo);
+            return (Programa) programa.accept(this);
+        }
+
+        Map<DeclaracionFuncion, Optimizada> nuevas = new IdentityHashMap<>();
+        censo = new Censo();
+        for (Sentencia s : programa.getSentencias()) {
+            if (s instanceof DeclaracionFuncion) {
+                Optimizada o = memoria.optimizadas.get(s);
+                if (o == null) {
+                    Censo parte = new Censo();
+                    s.accept(parte);
+                    o = new Optimizada(parte);
+                }
+                nuevas.put((DeclaracionFuncion) s, o);
+                censo.sumar(o.censo);
+            } else {
+                s.accept(censo);
+            }
+        }
+
+        List<Sentencia> out = new ArrayList<>(programa.getSentencias().size());
+        for (Sentencia s : programa.getSentencias()) {
+            Sentencia r = s instanceof DeclaracionFuncion
+                    ? funcion((DeclaracionFuncion) s, nuevas.get(s))
+                    : sentencia(s);
+            if (r != null) out.add(r);
+        }
+        memoria.optimizadas = nuevas;
+        return new Programa(out, programa.getLine(), programa.getColumn());
+    }
+
+    private DeclaracionFuncion funcion(DeclaracionFuncion original, Optimizada o) {
+        if (o.resultado != null && vigente(o)) {
+            if (!o.puestas.isEmpty()) constantes.putAll(o.puestas);
+            o.resultado.setPura(original.isPura());
+            return o.resultado;
+        }
+        o.unicas.clear();
+        o.leidas.clear();
+        o.puestas.clear();
+        registro = o;
+        try {
+            o.resultado = (DeclaracionFuncion) original.accept(this);
+        } finally {
+            registro = null;
+        }
+        DesplazadorLineas.anclarComo(o.resultado, original);
+        return o.resultado;
+    }
+
+    private boolean vigente(Optimizada o) {
+        for (Map.Entry<String, Boolean> e : o.unicas.entrySet()) {
+            if (unica(e.getKey()) != e.getValue()) return false;
+        }
+        for (Map.Entry<String, Valor> e : o.leidas.entrySet()) {
+            if (!mismoValor(constantes.get(e.getKey()), e.getValue())) return false;
+        }
+        return true;
+    }
+
+    private static boolean mismoValor(Valor a, Valor b) {
+        if (a == null || b == null) return a == b;
+        return a.getEtiqueta() == b.getEtiqueta() && Objects.equals(a.getValor(), b.getValor());
+    }
+
+    // Declarada una sola vez en el programa y nunca reasignada
+    private boolean unica(String id) {
+        return censo.declaraciones.getOrDefault(id, 0) == 1 && !censo.reasignadas.contains(id);
+    }
+
+    private boolean unicaRegistrada(String id) {
+        boolean u = unica(id);
+        if (registro != null) registro.unicas.putIfAbsent(id, u);
+        return u;
+    }
+
+    private Valor constanteDe(String id) {
+        Valor v = constantes.get(id);
+        if (registro != null && !registro.puestas.containsKey(id)) registro.leidas.putIfAbsent(id, v);
+        return v;
+    }
+
+    // ---- helpers ----
+
+    private static Valor constante(Expresion e) {
+        if (e instanceof LiteralEntero) return Valor.entero(((LiteralEntero) e).getValor());
+        if (e instanceof LiteralDouble) return Valor.decimal(((LiteralDouble) e).getValor());
+        if (e instanceof LiteralBooleano) return Valor.booleano(((LiteralBooleano) e).getValor());
+        if (e instanceof LiteralChar) return Valor.caracter(((LiteralChar) e).getValor());
+        if (e instanceof LiteralString) return Valor.cadena(((LiteralString) e).getValor());
+        return null;
+    }
+
+    private static Expresion literal(Valor v, NodoAST origen) {
+        if (v == null) return null;
+        int l = origen.getLine();
+        int c = origen.getColumn();
+        switch (v.getEtiqueta()) {
+            case INT:
+                return new LiteralEntero(v.comoInt(), l, c);
+            case DOUBLE:
+                return new LiteralDouble(v.comoDouble(), l, c);
+            case BOOL:
+                return new LiteralBooleano(v.comoBool(), l, c);
+            case CHAR:
+                return new LiteralChar(v.comoChar(), l, c);
+            case STRING:
+                return v.getValor() == null ? null : new LiteralString((String) v.getValor(), l, c);
+            default:
+                return null;
+        }
+    }
+
+    private interface Plegado {
+        Valor calcular(ContextoEjecucion ctx);
+    }
+
+    private Expresion plegar(Plegado p, NodoAST origen) {
+        if (prueba == null || !prueba.getErrores().isEmpty()) prueba = new ContextoEjecucion(null);
+        Valor v = p.calcular(prueba);
+        if (v == Valor.ERROR || !prueba.getErrores().isEmpty()) return null;
+        return literal(v, origen);
+    }
+
+    private Expresion expr(Expresion e) {
+        return e == null ? null : (Expresion) e.accept(this);
+    }
+
+    private List<Expresion> exprs(List<Expresion> es) {
+        if (es == null) return null;
+        List<Expresion> out = new ArrayList<>(es.size());
+        for (Expresion e : es) out.add(expr(e));
+        return out;
+    }
+
+    private BloqueSentencias bloque(BloqueSentencias b) {
+        return b == null ? null : (BloqueSentencias) b.accept(this);
+    }
+
+    private Sentencia sentencia(Sentencia s) {
+        return s == null ? null : (Sentencia) s.accept(this);
+    }
+
+    private List<Sentencia> sentencias(List<Sentencia> ss) {
+        if (ss == null) return null;
+        List<Sentencia> out = new ArrayList<>(ss.size());
+        for (Sentencia s : ss) {
+            Sentencia r = sentencia(s);
+            if (r != null) out.add(r);
+        }
+        return out;
+    }
+
+    private static Boolean condicionFija(Expresion e) {
+        return e instanceof LiteralBooleano ? ((LiteralBooleano) e).getValor() : null;
+    }
+
+    // Objetivos de miembro o índice: el motor los necesita como nombre, no como valor
+    private Expresion objetivo(Expresion e) {
+        return e instanceof Identificador ? e : expr(e);
+    }
+
+    // ---- programa y literales ----
+
+    @Override
+    public NodoAST visit(Programa programa) {
+        return new Programa(sentencias(programa.getSentencias()), programa.getLine(), programa.getColumn());
+    }
+
+    @Override public NodoAST visit(LiteralEntero expr) { return expr; }
+    @Override public NodoAST visit(LiteralDouble expr) { return expr; }
+    @Override public NodoAST visit(LiteralBooleano expr) { return expr; }
+    @Override public NodoAST visit(LiteralChar expr) { return expr; }
+    @Override public NodoAST visit(LiteralString expr) { return expr; }
+    @Override public NodoAST visit(NuevaLista expr) { return expr; }
+
+    @Override
+    public NodoAST visit(Identificador expr) {
+        Expresion lit = literal(constanteDe(expr.getNombre().toLowerCase()), expr);
+        return lit != null ? lit : expr;
+    }
+
+    // ---- expresiones ----
+
+    @Override
+    public NodoAST visit(ExpresionAritmetica expr) {
+        Expresion izq = expr(expr.getIzquierda());
+        Expresion der = expr(expr.getDerecha());
+        Valor a = constante(izq);
+        Valor b = constante(der);
+        if (b != null && (izq == null || a != null)) {
+            Expresion r = plegar(ctx -> Operaciones.aritmetica(expr.getOperador(), a, b, ctx), expr);
+            if (r != null) return r;
+        }
+        if (izq == expr.getIzquierda() && der == expr.getDerecha()) return expr;
+        return new ExpresionAritmetica(izq, der, expr.getOperador(), expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(ExpresionRelacional expr) {
+        Expresion izq = expr(expr.getIzquierda());
+        Expresion der = expr(expr.getDerecha());
+        Valor a = constante(izq);
+        Valor b = constante(der);
+        if (a != null && b != null) {
+            Expresion r = plegar(ctx -> Operaciones.relacional(expr.getOperador(), a, b, ctx), expr);
+            if (r != null) return r;
+        }
+        if (izq == expr.getIzquierda() && der == expr.getDerecha()) return expr;
+        return new ExpresionRelacional(izq, der, expr.getOperador(), expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(ExpresionLogica expr) {
+        Expresion izq = expr(expr.getIzquierda());
+        Expresion der = expr(expr.getDerecha());
+        Valor a = constante(izq);
+        Valor b = constante(der);
+        if (b != null && (izq == null || a != null)) {
+            Expresion r = plegar(ctx -> Operaciones.logica(expr.getOperador(), a, b), expr);
+            if (r != null) return r;
+        }
+        if (izq == expr.getIzquierda() && der == expr.getDerecha()) return expr;
+        return new ExpresionLogica(izq, der, expr.getOperador(), expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(ExpresionCasteo expr) {
+        Expresion e = expr(expr.getExpresion());
+        Valor v = constante(e);
+        if (v != null) {
+            Expresion r = plegar(ctx -> Operaciones.casteo(expr.getTipoDestino(), v), expr);
+            if (r != null) return r;
+        }
+        if (e == expr.getExpresion()) return expr;
+        return new ExpresionCasteo(expr.getTipoDestino(), e, expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(ExpresionAgrupada expr) {
+        Expresion e = expr(expr.getExpresion());
+        if (constante(e) != null) return e;
+        if (e == expr.getExpresion()) return expr;
+        return new ExpresionAgrupada(e, expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(LlamadaFuncion expr) {
+        return new LlamadaFuncion(expr.getNombre(), exprs(expr.getArgumentos()), expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(LiteralVector expr) {
+        return new LiteralVector(exprs(expr.getElementos()), expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(LiteralMatriz expr) {
+        List<LiteralVector> filas = new ArrayList<>();
+        if (expr.getFilas() != null) {
+            for (LiteralVector f : expr.getFilas()) filas.add((LiteralVector) f.accept(this));
+        }
+        return new LiteralMatriz(filas, expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(AccesoIndexado expr) {
+        return new AccesoIndexado(objetivo(expr.getObjetivo()), expr(expr.getIndice1()), expr(expr.getIndice2()),
+                expr.getLine(), expr.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(LlamadaMiembro expr) {
+        return new LlamadaMiembro(objetivo(expr.getObjetivo()), expr.getNombre(), exprs(expr.getArgumentos()),
+                expr.getLine(), expr.getColumn());
+    }
+
+    // ---- sentencias ----
+
+    @Override
+    public NodoAST visit(BloqueSentencias stmt) {
+        return new BloqueSentencias(sentencias(stmt.getSentencias()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(DeclaracionVariable stmt) {
+        Expresion ini = expr(stmt.getExpresionInicial());
+        String id = stmt.getIdentificador().toLowerCase();
+        Valor v = constante(ini);
+        if (v != null && CacheMemo.esPrimitivo(stmt.getTipo()) && unicaRegistrada(id)
+                && Operaciones.esAsignableRuntime(stmt.getTipo(), v)) {
+            Valor c = Operaciones.convertirSiAplica(stmt.getTipo(), v);
+            constantes.put(id, c);
+            if (registro != null) registro.puestas.put(id, c);
+        }
+        return new DeclaracionVariable(stmt.getIdentificador(), stmt.getTipo(), ini, stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(AsignacionVariable stmt) {
+        return new AsignacionVariable(stmt.getIdentificador(), expr(stmt.getExpresion()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(IfSentencia stmt) {
+        Expresion cond = expr(stmt.getCondicion());
+        Boolean fija = condicionFija(cond);
+        if (fija != null) {
+            if (fija) return bloque(stmt.getBloqueIf());
+            if (stmt.getBloqueElse() != null) return bloque(stmt.getBloqueElse());
+            return sentencia(stmt.getElseIf());
+        }
+        BloqueSentencias bloqueElse = bloque(stmt.getBloqueElse());
+        IfSentencia elseIf = null;
+        if (stmt.getElseIf() != null) {
+            NodoAST r = stmt.getElseIf().accept(this);
+            if (r instanceof IfSentencia) {
+                elseIf = (IfSentencia) r;
+            } else if (r instanceof BloqueSentencias && bloqueElse == null) {
+                bloqueElse = (BloqueSentencias) r;
+            }
+        }
+        return new IfSentencia(cond, bloque(stmt.getBloqueIf()), bloqueElse, elseIf, stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(SwitchSentencia stmt) {
+        List<Case> casos = null;
+        if (stmt.getCasos() != null) {
+            casos = new ArrayList<>();
+            for (Case c : stmt.getCasos()) casos.add((Case) c.accept(this));
+        }
+        Default def = stmt.getCasoDefault() == null ? null : (Default) stmt.getCasoDefault().accept(this);
+        return new SwitchSentencia(expr(stmt.getExpresion()), casos, def, stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(Case stmt) {
+        return new Case(expr(stmt.getValor()), sentencias(stmt.getSentencias()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(Default stmt) {
+        return new Default(sentencias(stmt.getSentencias()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(WhileSentencia stmt) {
+        Expresion cond = expr(stmt.getCondicion());
+        if (Boolean.FALSE.equals(condicionFija(cond))) return null;
+        return new WhileSentencia(cond, bloque(stmt.getBloque()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(ForSentencia stmt) {
+        return new ForSentencia(sentencia(stmt.getInicializacion()), expr(stmt.getCondicion()),
+                sentencia(stmt.getIncremento()), bloque(stmt.getBloque()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(DoWhileSentencia stmt) {
+        return new DoWhileSentencia(bloque(stmt.getBloque()), expr(stmt.getCondicion()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override public NodoAST visit(BreakSentencia stmt) { return stmt; }
+    @Override public NodoAST visit(ContinueSentencia stmt) { return stmt; }
+
+    @Override
+    public NodoAST visit(PrintlnSentencia stmt) {
+        return new PrintlnSentencia(expr(stmt.getExpresion()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(DeclaracionFuncion stmt) {
+        DeclaracionFuncion df = new DeclaracionFuncion(stmt.getTipoRetorno(), stmt.getNombre(), stmt.getParametros(),
+                bloque(stmt.getCuerpo()), stmt.getLine(), stmt.getColumn());
+        df.setPura(stmt.isPura());
+        return df;
+    }
+
+    @Override
+    public NodoAST visit(ReturnSentencia stmt) {
+        return new ReturnSentencia(expr(stmt.getValor()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(StartSentencia stmt) {
+        return new StartSentencia(stmt.getNombre(), exprs(stmt.getArgumentos()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(SentenciaExpresion stmt) {
+        return new SentenciaExpresion(expr(stmt.getExpresion()), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(IncDecSentencia stmt) {
+        return new IncDecSentencia(objetivo(stmt.getObjetivo()), stmt.esIncremento(), stmt.getLine(), stmt.getColumn());
+    }
+
+    @Override
+    public NodoAST visit(AsignacionIndexada stmt) {
+        AccesoIndexado acceso = (AccesoIndexado) stmt.getAcceso().accept(this);
+        return new AsignacionIndexada(acceso, expr(stmt.getValor()), stmt.getLine(), stmt.getColumn());
+    }
+}
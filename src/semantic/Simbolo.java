@@ -5,6 +5,11 @@ public class Simbolo {
     private final Tipo tipo;
     private final CategoriaSimbolo categoria;
     private Object valor;
+    // Valor de ejecución sin caja: int/char/bool en entero, double en decimal;
+    // etiquetaSinCaja es su tipo (null si el valor está en valor)
+    private Tipo etiquetaSinCaja;
+    private long entero;
+    private double decimal;
     private int linea;
     private int columna;
 
@@ -13,6 +18,9 @@ public class Simbolo {
 
     private boolean valorPorDefecto;
 
+    // Símbolos de ejecución: su fila en la tabla de reportes, para copiarle el valor
+    private Simbolo reporte;
+
     public Simbolo(String identificador,
                    Tipo tipo,
                    CategoriaSimbolo categoria,
@@ -33,8 +41,34 @@ public class Simbolo {
     public Tipo getTipo() { return tipo; }
     public CategoriaSimbolo getCategoria() { return categoria; }
 
-    public Object getValor() { return valor; }
-    public void setValor(Object valor) { this.valor = valor; }
+    public Object getValor() {
+        if (etiquetaSinCaja == null) return valor;
+        switch (etiquetaSinCaja) {
+            case INT: return (int) entero;
+            case DOUBLE: return decimal;
+            case CHAR: return (char) entero;
+            default: return entero != 0;
+        }
+    }
+
+    public void setValor(Object valor) {
+        this.valor = valor;
+        this.etiquetaSinCaja = null;
+    }
+
+    /** Guarda un int/char/bool (en entero) o double (en decimal) sin crear la caja. */
+    public void setValorSinCaja(Tipo etiqueta, long entero, double decimal) {
+        this.valor = null;
+        this.etiquetaSinCaja = etiqueta;
+        this.entero = entero;
+        this.decimal = decimal;
+    }
+
+    public boolean tieneValor() { return etiquetaSinCaja != null || valor != null; }
+
+    public Tipo getEtiquetaSinCaja() { return etiquetaSinCaja; }
+    public long getEntero() { return entero; }
+    public double getDecimal() { return decimal; }
 
     public int getLinea() { return linea; }
     public int getColumna() { return columna; }
@@ -46,6 +80,10 @@ public class Simbolo {
     public void setValorPorDefecto(boolean valorPorDefecto) { this.valorPorDefecto = valorPorDefecto; }
 
 
+    public Simbolo getReporte() { return reporte; }
+    public void setReporte(Simbolo reporte) { this.reporte = reporte; }
+
+
     public String getAmbito() {
         return ambito;
     }
@@ -61,6 +99,6 @@ public class Simbolo {
     @Override
     public String toString() {
         return identificador + " (" + tipo + ") = "
-                + (valor != null ? valor.toString() : "null");
+                + (tieneValor() ? getValor().toString() : "null");
     }
 }
@@ -1,43 +1,116 @@
 package semantic;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Símbolos para los reportes, en orden de inserción y por línea. Se buscan
+ * por nombre o por (identificador, ámbito, categoría) sin recorrer la lista;
+ * las listas que entrega son vistas de solo lectura, no copias.
+ */
 public class TablaSimbolos {
     private final List<Simbolo> simbolos;
+    private final List<Simbolo> porLinea;
+    private final List<Simbolo> vistaSimbolos;
+    private final List<Simbolo> vistaPorLinea;
+
+    // Primer símbolo de cada nombre y de cada clave, sin distinguir mayúsculas
+    private final Map<String, Simbolo> porNombre;
+    private final Map<String, Simbolo> porClave;
+
+    // Un símbolo reubicado deja porLinea desordenada hasta la próxima consulta
+    private boolean reordenar;
 
     public TablaSimbolos() {
         this.simbolos = new ArrayList<>();
+        this.porLinea = new ArrayList<>();
+        this.vistaSimbolos = Collections.unmodifiableList(simbolos);
+        this.vistaPorLinea = Collections.unmodifiableList(porLinea);
+        this.porNombre = new HashMap<>();
+        this.porClave = new HashMap<>();
     }
 
     public void agregarSimbolo(Simbolo simbolo) {
         simbolos.add(simbolo);
+        porNombre.putIfAbsent(normalizar(simbolo.getIdentificador()), simbolo);
+        porClave.putIfAbsent(clave(simbolo.getIdentificador(), simbolo.getAmbito(), simbolo.getCategoria()), simbolo);
+        if (reordenar) return;
+        // Casi siempre llegan en orden de línea: se agrega al final
+        int i = porLinea.size();
+        if (i > 0 && porLinea.get(i - 1).getLinea() > simbolo.getLinea()) {
+            i = despuesDeLinea(simbolo.getLinea());
+        }
+        porLinea.add(i, simbolo);
     }
 
     public void agregarDesdeEntorno(Entorno entorno) {
         for (Map.Entry<String, Simbolo> entry : entorno.getTabla().entrySet()) {
-            simbolos.add(entry.getValue());
+            agregarSimbolo(entry.getValue());
         }
     }
 
-        public Simbolo buscar(String identificador) {
+    public Simbolo buscar(String identificador) {
         if (identificador == null) return null;
-        String idLower = identificador.toLowerCase();
-        for (Simbolo s : simbolos) {
-            if (s.getIdentificador() != null &&
-                s.getIdentificador().toLowerCase().equals(idLower)) {
-                return s;
-            }
-        }
-        return null;
+        return porNombre.get(normalizar(identificador));
+    }
+
+    public Simbolo buscar(String identificador, String ambito, CategoriaSimbolo categoria) {
+        if (identificador == null) return null;
+        return porClave.get(clave(identificador, ambito, categoria));
     }
 
+    /** Cambia la posición de un símbolo de la tabla; no usar setLinea directo. */
+    public void reubicar(Simbolo simbolo, int linea, int columna) {
+        if (simbolo.getLinea() != linea) reordenar = true;
+        simbolo.setLinea(linea);
+        simbolo.setColumna(columna);
+    }
+
+    /** En orden de inserción. */
     public List<Simbolo> getSimbolos() {
-        return new ArrayList<>(simbolos);
+        return vistaSimbolos;
+    }
+
+    /** Por línea; los de la misma línea, en orden de inserción. */
+    public List<Simbolo> getSimbolosPorLinea() {
+        if (reordenar) {
+            porLinea.clear();
+            porLinea.addAll(simbolos);
+            porLinea.sort(Comparator.comparingInt(Simbolo::getLinea));
+            reordenar = false;
+        }
+        return vistaPorLinea;
     }
-    
+
     public void limpiar() {
         simbolos.clear();
+        porLinea.clear();
+        porNombre.clear();
+        porClave.clear();
+        reordenar = false;
+    }
+
+    // Primer índice con línea mayor a la dada
+    private int despuesDeLinea(int linea) {
+        int lo = 0;
+        int hi = porLinea.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (porLinea.get(mid).getLinea() <= linea) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static String normalizar(String s) {
+        return s == null ? "" : s.toLowerCase();
+    }
+
+    private static String clave(String identificador, String ambito, CategoriaSimbolo categoria) {
+        return normalizar(identificador) + "|" + normalizar(ambito) + "|" + categoria;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,238 @@
+package semantic;
+
+import ast.Parametro;
+import ast.Programa;
+import ast.RecorridoAST;
+import ast.expresiones.ExpresionAritmetica;
+import ast.expresiones.ExpresionRelacional;
+import ast.expresiones.Identificador;
+import ast.sentencias.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pasada posterior a VisitanteSemantico: asigna a cada variable un slot dentro
+ * del marco de su función (o del marco global) y anota cada uso con el par
+ * (profundidad, slot). Sigue las mismas reglas de ámbito que el análisis semántico.
+ * También numera los sitios aritméticos y relacionales, para que
+ * VisitanteEspecializado guarde su estado por corrida y no en el nodo.
+ *
+ * Con Memoria (documentos del editor) una función de nivel superior que ya se
+ * resolvió en la corrida anterior conserva sus slots y sus sitios mientras las
+ * globales que usa sigan en los mismos slots del marco global.
+ */
+public class VisitanteResolucion extends RecorridoAST {
+
+    private static class Marco {
+        final Deque<Map<String, Integer>> bloques = new ArrayDeque<>();
+        int siguiente;
+    }
+
+    /** Funciones ya resueltas en la corrida anterior de un documento y el siguiente sitio libre. */
+    public static final class Memoria {
+        private Map<DeclaracionFuncion, Resuelta> resueltas = new IdentityHashMap<>();
+        private int siguienteSitio;
+        // Sitios que usó la última corrida
+        private int sitiosVivos;
+    }
+
+    private static final class Resuelta {
+        // Slot global de cada nombre que la función busca fuera de su marco (null si no existe)
+        final Map<String, Integer> globales = new HashMap<>();
+        int sitios;
+    }
+
+    // Sitios de sobra antes de volver a numerar desde 0
+    private static final int HOLGURA_SITIOS = 4096;
+
+    private final Marco global = new Marco();
+    private Marco actual = global;
+    private boolean completo = true;
+    private int sitios;
+    // Función de nivel superior que se está resolviendo con memoria
+    private Resuelta registro;
+
+    /**
+     * Resuelve todo el programa. Si algún identificador no se puede resolver
+     * el programa queda sin marco (tamaño -1) y se ejecuta buscando por nombre.
+     */
+    public boolean resolver(Programa programa) {
+        return resolver(programa, null);
+    }
+
+    /**
+     * Con memoria las funciones reutilizadas conservan sus sitios y los nuevos
+     * se numeran a continuación, así que no se repiten dentro del programa.
+     */
+    public boolean resolver(Programa programa, Memoria memoria) {
+        if (memoria == null) {
+            programa.accept(this);
+        } else {
+            if (memoria.siguienteSitio > 2 * memoria.sitiosVivos + HOLGURA_SITIOS) {
+                memoria.resueltas = new IdentityHashMap<>();
+                memoria.siguienteSitio = 0;
+            }
+            sitios = memoria.siguienteSitio;
+            Map<DeclaracionFuncion, Resuelta> nuevas = new IdentityHashMap<>();
+            int reutilizados = 0;
+            abrirBloque();
+            for (Sentencia s : programa.getSentencias()) {
+                if (!(s instanceof DeclaracionFuncion)) {
+                    recorrer(s);
+                    continue;
+                }
+                Resuelta r = memoria.resueltas.get(s);
+                if (r != null && vigente(r)) {
+                    reutilizados += r.sitios;
+                } else {
+                    r = new Resuelta();
+                    int desde = sitios;
+                    registro = r;
+                    recorrer(s);
+                    registro = null;
+                    r.sitios = sitios - desde;
+                }
+                if (r.globales.containsValue(null)) completo = false;
+                nuevas.put((DeclaracionFuncion) s, r);
+            }
+            memoria.sitiosVivos = reutilizados + sitios - memoria.siguienteSitio;
+            memoria.siguienteSitio = sitios;
+            memoria.resueltas = nuevas;
+        }
+        programa.setTamanoMarco(completo ? global.siguiente : -1);
+        programa.setSitios(sitios);
+        return completo;
+    }
+
+    private boolean vigente(Resuelta r) {
+        for (Map.Entry<String, Integer> e : r.globales.entrySet()) {
+            if (!Objects.equals(buscarEn(global, e.getKey()), e.getValue())) return false;
+        }
+        return true;
+    }
+
+    private int declarar(String nombre) {
+        int slot = actual.siguiente++;
+        actual.bloques.peek().put(nombre.toLowerCase(), slot);
+        return slot;
+    }
+
+    private void abrirBloque() {
+        actual.bloques.push(new HashMap<>());
+    }
+
+    private void cerrarBloque() {
+        actual.bloques.pop();
+    }
+
+    private static Integer buscarEn(Marco m, String k) {
+        for (Map<String, Integer> b : m.bloques) {
+            Integer slot = b.get(k);
+            if (slot != null) return slot;
+        }
+        return null;
+    }
+
+    // {profundidad, slot} o null si no existe
+    private int[] buscar(String nombre) {
+        String k = nombre.toLowerCase();
+        Integer slot = buscarEn(actual, k);
+        if (slot != null) return new int[]{0, slot};
+        if (actual != global) {
+            slot = buscarEn(global, k);
+            if (registro != null) registro.globales.putIfAbsent(k, slot);
+            if (slot != null) return new int[]{1, slot};
+        }
+        completo = false;
+        return null;
+    }
+
+    @Override
+    public Void visit(ExpresionAritmetica expr) {
+        expr.setSitio(sitios++);
+        return super.visit(expr);
+    }
+
+    @Override
+    public Void visit(ExpresionRelacional expr) {
+        expr.setSitio(sitios++);
+        return super.visit(expr);
+    }
+
+    @Override
+    public Void visit(Programa programa) {
+        abrirBloque();
+        recorrer(programa.getSentencias());
+        return null;
+    }
+
+    @Override
+    public Void visit(DeclaracionFuncion stmt) {
+        Marco anterior = actual;
+        actual = new Marco();
+        abrirBloque();
+        List<Parametro> ps = stmt.getParametros();
+        if (ps != null) {
+            for (Parametro p : ps) declarar(p.getNombre());
+        }
+        recorrer(stmt.getCuerpo());
+        stmt.setTamanoMarco(actual.siguiente);
+        actual = anterior;
+        return null;
+    }
+
+    @Override
+    public Void visit(BloqueSentencias stmt) {
+        abrirBloque();
+        recorrer(stmt.getSentencias());
+        cerrarBloque();
+        return null;
+    }
+
+    @Override
+    public Void visit(ForSentencia stmt) {
+        abrirBloque();
+        super.visit(stmt);
+        cerrarBloque();
+        return null;
+    }
+
+    @Override
+    public Void visit(SwitchSentencia stmt) {
+        recorrer(stmt.getExpresion());
+        abrirBloque();
+        recorrer(stmt.getCasos());
+        recorrer(stmt.getCasoDefault());
+        cerrarBloque();
+        return null;
+    }
+
+    @Override
+    public Void visit(DeclaracionVariable stmt) {
+        // Igual que en el semántico: el inicializador se resuelve antes de declarar
+        recorrer(stmt.getExpresionInicial());
+        stmt.setSlot(declarar(stmt.getIdentificador()));
+        return null;
+    }
+
+    @Override
+    public Void visit(AsignacionVariable stmt) {
+        recorrer(stmt.getExpresion());
+        int[] r = buscar(stmt.getIdentificador());
+        if (r != null) stmt.setSlot(r[0], r[1]);
+        return null;
+    }
+
+    @Override
+    public Void visit(Identificador expr) {
+        int[] r = buscar(expr.getNombre());
+        if (r != null) expr.setSlot(r[0], r[1]);
+        return null;
+    }
+}
@@ -4,6 +4,8 @@ import ast.*;
 import ast.expresiones.*;
 import ast.sentencias.*;
 
+import interpreter.CacheMemo;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -11,6 +13,10 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
 
 public class VisitanteSemantico implements Visitor<ResultadoExpresion> {
 
@@ -27,8 +33,80 @@ public class VisitanteSemantico implements Visitor<ResultadoExpresion> {
     private boolean enFuncion;
     private boolean returnEncontrado;
 
+    // ---- Pureza de funciones (memoización en ejecución) ----
+    private final Entorno entornoGlobal;
+    private DeclaracionFuncion funcionActual;
+    private final Set<DeclaracionFuncion> impuras = new HashSet<>();
+    private final Map<DeclaracionFuncion, Set<String>> llamadasUsuario = new HashMap<>();
+
+    // ---- Reutilización entre corridas de un mismo documento ----
+    private final Memoria memoria;
+    private final Map<DeclaracionFuncion, Resumen> resumenes = new IdentityHashMap<>();
+    // Firma de cada función registrada en la primera pasada, por nombre en minúsculas
+    private final Map<String, String> firmas = new HashMap<>();
+    // Resumen de la función de nivel superior que se está analizando (solo con memoria)
+    private Resumen registro;
+
+    /**
+     * Lo que dejó el análisis de cada función de nivel superior en la corrida
+     * anterior de un documento. Una función que es el mismo nodo (su fragmento
+     * no se volvió a parsear) no se recorre otra vez si las globales que
+     * consultó están igual al entrar y las funciones que llama tienen la misma
+     * firma: se repiten sus errores, sus símbolos, lo que dejó en las globales
+     * y lo que sabe de su pureza, con las líneas corridas lo que se movió.
+     */
+    public static final class Memoria {
+        private Map<DeclaracionFuncion, Resumen> resumenes = new IdentityHashMap<>();
+    }
+
+    /** Cómo estaba una global: lo que de ella puede leer o cambiar una función. */
+    private static final class EstadoGlobal {
+        final Tipo tipo;
+        final CategoriaSimbolo categoria;
+        final Object valor;
+        final boolean porDefecto;
+
+        EstadoGlobal(Simbolo s) {
+            this.tipo = s.getTipo();
+            this.categoria = s.getCategoria();
+            this.valor = s.getValor();
+            this.porDefecto = s.isValorPorDefecto();
+        }
+
+        boolean igual(Simbolo s) {
+            return s != null && s.getTipo() == tipo && s.getCategoria() == categoria
+                    && Objects.equals(s.getValor(), valor) && s.isValorPorDefecto() == porDefecto;
+        }
+    }
+
+    private static final class Resumen {
+        // Línea de la función cuando se analizó
+        final int linea;
+        final List<SemanticError> errores = new ArrayList<>();
+        final List<Simbolo> simbolos = new ArrayList<>();
+        // Globales por nombre en minúsculas: al entrar (null si no existía) y al salir
+        final Map<String, EstadoGlobal> globales = new HashMap<>();
+        final Map<String, EstadoGlobal> globalesSalida = new HashMap<>();
+        // Funciones consultadas y su firma (null si no existía)
+        final Map<String, String> firmas = new HashMap<>();
+        final Set<DeclaracionFuncion> impuras = new HashSet<>();
+        final Map<DeclaracionFuncion, Set<String>> llamadas = new HashMap<>();
+        int starts;
+
+        Resumen(int linea) {
+            this.linea = linea;
+        }
+    }
+
     public VisitanteSemantico() {
+        this(null);
+    }
+
+    /** Con memoria reutiliza y actualiza el análisis de las funciones de la corrida anterior. */
+    public VisitanteSemantico(Memoria memoria) {
+        this.memoria = memoria;
         this.entornoActual = new Entorno(null);
+        this.entornoGlobal = this.entornoActual;
         this.errores = new ArrayList<>();
         this.tablaSimbolos = new TablaSimbolos();
         this.ambitoStack = new ArrayDeque<>();
@@ -95,6 +173,134 @@ public class VisitanteSemantico implements Visitor<ResultadoExpresion> {
         return sb.toString();
     }
 
+    private void marcarImpura() {
+        if (funcionActual == null) return;
+        impuras.add(funcionActual);
+        if (registro != null) registro.impuras.add(funcionActual);
+    }
+
+    private void marcarSiGlobal(Simbolo simbolo) {
+        if (funcionActual != null && simbolo != null
+                && entornoGlobal.buscarLocal(simbolo.getIdentificador()) == simbolo) {
+            marcarImpura();
+        }
+    }
+
+    // entornoActual.buscar; dentro de una función que se registra anota las globales que consulta
+    private Simbolo buscarSimbolo(String id) {
+        Simbolo simbolo = entornoActual.buscar(id);
+        if (registro != null) {
+            String k = id.toLowerCase();
+            Simbolo global = entornoGlobal.buscarLocal(k);
+            if (simbolo == global && !registro.globales.containsKey(k)) {
+                registro.globales.put(k, global == null ? null : new EstadoGlobal(global));
+            }
+        }
+        return simbolo;
+    }
+
+    private DeclaracionFuncion buscarFuncion(String key) {
+        if (registro != null) registro.firmas.putIfAbsent(key, firmas.get(key));
+        return funciones.get(key);
+    }
+
+    /** Analiza una función de nivel superior o repite su resumen de la corrida anterior si sigue valiendo. */
+    private void analizarFuncion(DeclaracionFuncion df) {
+        Resumen r = memoria.resumenes.get(df);
+        if (r != null && vigente(r)) {
+            repetir(r, df.getLine() - r.linea);
+        } else {
+            r = new Resumen(df.getLine());
+            int errores0 = errores.size();
+            int simbolos0 = tablaSimbolos.getSimbolos().size();
+            int starts0 = startCount;
+            registro = r;
+            try {
+                df.accept(this);
+            } finally {
+                registro = null;
+            }
+            r.errores.addAll(errores.subList(errores0, errores.size()));
+            List<Simbolo> nuevos = tablaSimbolos.getSimbolos();
+            for (int i = simbolos0; i < nuevos.size(); i++) r.simbolos.add(copiar(nuevos.get(i), 0));
+            for (String k : r.globales.keySet()) {
+                Simbolo global = entornoGlobal.buscarLocal(k);
+                if (global != null) r.globalesSalida.put(k, new EstadoGlobal(global));
+            }
+            r.starts = startCount - starts0;
+        }
+        resumenes.put(df, r);
+    }
+
+    private boolean vigente(Resumen r) {
+        for (Map.Entry<String, EstadoGlobal> e : r.globales.entrySet()) {
+            Simbolo global = entornoGlobal.buscarLocal(e.getKey());
+            if (e.getValue() == null ? global != null : !e.getValue().igual(global)) return false;
+        }
+        for (Map.Entry<String, String> e : r.firmas.entrySet()) {
+            if (!Objects.equals(firmas.get(e.getKey()), e.getValue())) return false;
+        }
+        return true;
+    }
+
+    private void repetir(Resumen r, int delta) {
+        for (SemanticError e : r.errores) {
+            errores.add(delta == 0 || e.getLinea() <= 0 ? e
+                    : new SemanticError(e.getTipo(), e.getMensaje(), e.getLinea() + delta, e.getColumna()));
+        }
+        for (Simbolo s : r.simbolos) tablaSimbolos.agregarSimbolo(copiar(s, delta));
+        for (Map.Entry<String, EstadoGlobal> e : r.globalesSalida.entrySet()) {
+            Simbolo global = entornoGlobal.buscarLocal(e.getKey());
+            global.setValor(e.getValue().valor);
+            global.setValorPorDefecto(e.getValue().porDefecto);
+        }
+        if (!r.impuras.isEmpty()) impuras.addAll(r.impuras);
+        for (Map.Entry<DeclaracionFuncion, Set<String>> e : r.llamadas.entrySet()) {
+            llamadasUsuario.computeIfAbsent(e.getKey(), k -> new HashSet<>()).addAll(e.getValue());
+        }
+        startCount += r.starts;
+    }
+
+    private static Simbolo copiar(Simbolo s, int delta) {
+        Simbolo c = new Simbolo(s.getIdentificador(), s.getTipo(), s.getCategoria(),
+                s.getLinea() > 0 ? s.getLinea() + delta : s.getLinea(), s.getColumna());
+        c.setAmbito(s.getAmbito());
+        c.setValor(s.getValor());
+        c.setValorPorDefecto(s.isValorPorDefecto());
+        return c;
+    }
+
+    /** Propaga la impureza por las llamadas hasta un punto fijo y marca cada declaración. */
+    private void clasificarPureza() {
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (Map.Entry<DeclaracionFuncion, Set<String>> e : llamadasUsuario.entrySet()) {
+                if (impuras.contains(e.getKey())) continue;
+                for (String llamada : e.getValue()) {
+                    DeclaracionFuncion destino = funciones.get(llamada);
+                    if (destino == null || impuras.contains(destino)) {
+                        impuras.add(e.getKey());
+                        cambio = true;
+                        break;
+                    }
+                }
+            }
+        }
+        for (DeclaracionFuncion df : funciones.values()) {
+            df.setPura(!impuras.contains(df) && parametrosPrimitivos(df));
+        }
+    }
+
+    // CacheMemo solo arma claves con argumentos primitivos: con un vector, matriz o lista nunca acertaría
+    private static boolean parametrosPrimitivos(DeclaracionFuncion df) {
+        if (df.getParametros() == null) return true;
+        for (Parametro p : df.getParametros()) {
+            if (!CacheMemo.esPrimitivo(p.getTipo())) return false;
+        }
+        return true;
+    }
+
     private String exprToString(Expresion e) {
         if (e == null) return "";
         if (e instanceof Identificador) return ((Identificador) e).getNombre();
@@ -140,6 +346,7 @@ public class VisitanteSemantico implements Visitor<ResultadoExpresion> {
     public ResultadoExpresion visit(Programa programa) {
         // Primera pasada: registrar firmas de funciones/métodos (sin analizar cuerpos aún)
         funciones.clear();
+        firmas.clear();
         funcionesDeclaradas = 0;
         startCount = 0;
 
@@ -153,13 +360,14 @@ public class VisitanteSemantico implements Visitor<ResultadoExpresion> {
                     continue;
                 }
                 funciones.put(key, df);
+                firmas.put(key, firma(df));
                 funcionesDeclaradas++;
 
                 // Reporte en tabla de símbolos (global)
                 CategoriaSimbolo cat = (df.getTipoRetorno() == Tipo.VOID) ? CategoriaSimbolo.METODO : CategoriaSimbolo.FUNCION;
                 Simbolo simbolo = new Simbolo(df.getNombre(), df.getTipoRetorno(), cat, df.getLine(), df.getColumn());
                 simbolo.setAmbito("Global");
-                simbolo.setValor(firma(df));
+                simbolo.setValor(firmas.get(key));
                 simbolo.setValorPorDefecto(false);
                 tablaSimbolos.agregarSimbolo(simbolo);
             }
@@ -167,8 +375,14 @@ public class VisitanteSemantico implements Visitor<ResultadoExpresion> {
 
         // Segunda pasada: análisis semántico completo
         for (Sentencia stmt : programa.getSentencias()) {
-            stmt.accept(this);
+            if (memoria != null && stmt instanceof DeclaracionFuncion) {
+                analizarFuncion((DeclaracionFuncion) stmt);
+            } else {
+                stmt.accept(this);
+            }
         }
+        if (memoria != null) memoria.resumenes = resumenes;
+        clasificarPureza();
 
         // START es obligatorio para programas que declaran funciones/métodos o usan start
         if (funcionesDeclaradas > 0 || startCount > 0) {
@@ -211,11 +425,12 @@ public class VisitanteSemantico implements Visitor<ResultadoExpresion> {
 
     @Override
     public ResultadoExpresion visit(Identificador expr) {
-        Simbolo simbolo = entornoActual.buscar(expr.getNombre());
+        Simbolo simbolo = buscarSimbolo(expr.getNombre());
         if (simbolo == null) {
             agregarError("Variable '" + expr.getNombre() + "' no declarada", expr.getLine(), expr.getColumn());
             return new ResultadoExpresion(Tipo.ERROR, null);
         }
+        marcarSiGlobal(simbolo);
         return new ResultadoExpresion(simbolo.getTipo(), simbolo.getValor());
     }
 
@@ -500,12 +715,13 @@ public ResultadoExpresion visit(ExpresionRelacional expr) {
     @Override
     public ResultadoExpresion visit(AsignacionVariable stmt) {
         String id = stmt.getIdentificador();
-        Simbolo simbolo = entornoActual.buscar(id);
+        Simbolo simbolo = buscarSimbolo(id);
         if (simbolo == null) {
             agregarError("Variable '" + id + "' no declarada",
                     stmt.getLine(), stmt.getColumn());
             return new ResultadoExpresion(Tipo.ERROR, null);
         }
+        marcarSiGlobal(simbolo);
 
         Expresion expr = stmt.getExpresion();
 
@@ -754,11 +970,15 @@ public ResultadoExpresion visit(ExpresionRelacional expr) {
         }
 
         // ---- Funciones/Métodos del usuario ----
-        DeclaracionFuncion df = funciones.get(key);
+        DeclaracionFuncion df = buscarFuncion(key);
         if (df == null) {
             agregarError("Función/método '" + nombre + "' no declarado", expr.getLine(), expr.getColumn());
             return new ResultadoExpresion(Tipo.ERROR, null);
         }
+        if (funcionActual != null) {
+            llamadasUsuario.computeIfAbsent(funcionActual, k -> new HashSet<>()).add(key);
+            if (registro != null) registro.llamadas.computeIfAbsent(funcionActual, k -> new HashSet<>()).add(key);
+        }
 
         List<Parametro> params = df.getParametros();
         int nParams = (params == null) ? 0 : params.size();
@@ -794,6 +1014,7 @@ public ResultadoExpresion visit(ExpresionRelacional expr) {
 
     @Override
     public ResultadoExpresion visit(PrintlnSentencia stmt) {
+        marcarImpura();
         ResultadoExpresion res = stmt.getExpresion().accept(this);
         if (res.tieneError()) return res;
         return new ResultadoExpresion(Tipo.ERROR, null);
@@ -808,10 +1029,12 @@ public ResultadoExpresion visit(ExpresionRelacional expr) {
         if (stmt == null) return new ResultadoExpresion(Tipo.ERROR, null);
 
         boolean prevEnFuncion = this.enFuncion;
+        DeclaracionFuncion prevFuncion = this.funcionActual;
         Tipo prevRetorno = this.retornoEsperado;
         boolean prevReturnEncontrado = this.returnEncontrado;
 
         this.enFuncion = true;
+        this.funcionActual = stmt;
         this.retornoEsperado = stmt.getTipoRetorno();
         this.returnEncontrado = false;
 
@@ -852,6 +1075,7 @@ public ResultadoExpresion visit(ExpresionRelacional expr) {
         popAmbito();
 
         this.enFuncion = prevEnFuncion;
+        this.funcionActual = prevFuncion;
         this.retornoEsperado = prevRetorno;
         this.returnEncontrado = prevReturnEncontrado;
 
@@ -863,7 +1087,7 @@ public ResultadoExpresion visit(ExpresionRelacional expr) {
 
         // Validación mínima: que exista la función/método
         String nombre = (stmt.getNombre() == null) ? "" : stmt.getNombre();
-        DeclaracionFuncion df = funciones.get(nombre.toLowerCase());
+        DeclaracionFuncion df = buscarFuncion(nombre.toLowerCase());
         if (df == null) {
             agregarError("Función/método '" + nombre + "' no declarado (usado en start)", stmt.getLine(), stmt.getColumn());
             return new ResultadoExpresion(Tipo.ERROR, null);
@@ -1057,6 +1281,9 @@ public ResultadoExpresion visit(ExpresionRelacional expr) {
         if (args == null) args = Collections.emptyList();
 
         Tipo to = obj.getTipo();
+        if (m.equals("append") || m.equals("remove")) {
+            marcarImpura();
+        }
 
         if (m.equals("append")) {
             if (!(to.isList() || to.isVector())) {
@@ -0,0 +1,59 @@
+package servidor;
+
+import interpreter.Consola;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consola de una petición: guarda la salida y los mensajes en memoria hasta
+ * {@code maxLineas}; lo que pase de ahí solo se cuenta.
+ */
+final class ConsolaMemoria implements Consola {
+
+    private final int maxLineas;
+    private final List<String> salida = new ArrayList<>();
+    private final List<String> diagnosticos = new ArrayList<>();
+    private int omitidas;
+
+    ConsolaMemoria(int maxLineas) {
+        this.maxLineas = maxLineas;
+    }
+
+    List<String> getSalida() {
+        return salida;
+    }
+
+    List<String> getDiagnosticos() {
+        return diagnosticos;
+    }
+
+    int getOmitidas() {
+        return omitidas;
+    }
+
+    @Override
+    public void clear() {
+        salida.clear();
+        diagnosticos.clear();
+        omitidas = 0;
+    }
+
+    @Override
+    public void appendLine(String texto) {
+        agregar(salida, texto);
+    }
+
+    @Override
+    public void appendDiagnostico(String texto) {
+        agregar(diagnosticos, texto);
+    }
+
+    private void agregar(List<String> destino, String texto) {
+        if (salida.size() + diagnosticos.size() >= maxLineas) {
+            omitidas++;
+            return;
+        }
+        destino.add(texto);
+    }
+}
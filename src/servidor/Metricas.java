@@ -0,0 +1,70 @@
+package servidor;
+
+import interpreter.CacheAnalisis;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Contadores del servidor y latencias de las últimas {@code VENTANA}
+ * peticiones atendidas, para los percentiles y el throughput de /salud.
+ */
+final class Metricas {
+
+    private static final int VENTANA = 1024;
+
+    private final long inicio = System.nanoTime();
+    private final long[] latencias = new long[VENTANA];
+    private final long[] finales = new long[VENTANA];
+    private int siguiente;
+    private long atendidas;
+    private long rechazadas;
+    private long conErrores;
+
+    synchronized void registrar(long latenciaNanos, boolean huboErrores) {
+        latencias[siguiente] = latenciaNanos;
+        finales[siguiente] = System.nanoTime();
+        siguiente = (siguiente + 1) % VENTANA;
+        atendidas++;
+        if (huboErrores) conErrores++;
+    }
+
+    synchronized void rechazada() {
+        rechazadas++;
+    }
+
+    /** JSON de /salud; enCola y activas vienen del pool en el momento de la consulta. */
+    synchronized String json(int enCola, int activas, int hilos, int capacidadCola, CacheAnalisis cache) {
+        int n = (int) Math.min(atendidas, VENTANA);
+        long[] ordenadas = Arrays.copyOf(latencias, n);
+        Arrays.sort(ordenadas);
+        long ahora = System.nanoTime();
+        double segundos = (ahora - inicio) / 1e9;
+
+        // Throughput reciente: peticiones de la ventana que terminaron en los últimos 60 s
+        int recientes = 0;
+        for (int i = 0; i < n; i++) {
+            if (ahora - finales[i] <= 60_000_000_000L) recientes++;
+        }
+        double ventanaSegundos = Math.min(60.0, segundos);
+
+        return String.format(Locale.ROOT,
+                "{\"estado\":\"ok\",\"segundosActivo\":%.1f,\"hilos\":%d,\"capacidadCola\":%d,"
+                        + "\"enCola\":%d,\"activas\":%d,\"atendidas\":%d,\"conErrores\":%d,\"rechazadas\":%d,"
+                        + "\"porSegundo\":%.2f,\"porSegundoUltimoMinuto\":%.2f,"
+                        + "\"latenciaMs\":{\"muestras\":%d,\"p50\":%.2f,\"p90\":%.2f,\"p99\":%.2f,\"max\":%.2f},"
+                        + "\"cacheAnalisis\":{\"aciertos\":%d,\"fallos\":%d,\"entradas\":%d,\"peso\":%d,\"capacidad\":%d}}",
+                segundos, hilos, capacidadCola, enCola, activas, atendidas, conErrores, rechazadas,
+                segundos > 0 ? atendidas / segundos : 0.0,
+                ventanaSegundos > 0 ? recientes / ventanaSegundos : 0.0,
+                n, percentil(ordenadas, 0.50), percentil(ordenadas, 0.90), percentil(ordenadas, 0.99),
+                n == 0 ? 0.0 : ordenadas[n - 1] / 1e6,
+                cache.getAciertos(), cache.getFallos(), cache.getEntradas(), cache.getPeso(), cache.getCapacidad());
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0.0;
+        int i = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(i, ordenadas.length - 1))] / 1e6;
+    }
+}
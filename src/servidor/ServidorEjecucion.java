@@ -0,0 +1,355 @@
+package servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import interpreter.Ejecutor;
+import interpreter.ModoEjecucion;
+import interpreter.Presupuesto;
+import interpreter.SesionEjecucion;
+import reports.ErrorInfo;
+import semantic.Simbolo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio HTTP local para ejecutar programas sin levantar una JVM por cada
+ * uno. Cada petición corre con su propia SesionEjecucion (del estado de
+ * ejecución nada se comparte entre programas) en un pool fijo de hilos que
+ * queda caliente: el JIT ya compiló el intérprete para las peticiones
+ * siguientes, y un código repetido reutiliza su análisis (CacheAnalisis).
+ *
+ *   POST /ejecutar?modo=PILA&amp;ms=2000&amp;sentencias=..&amp;iteraciones=..
+ *        cuerpo: código JavaUSAC (UTF-8). Responde JSON con salida, errores
+ *        (TablaErrores) y tabla de símbolos. Los límites de la petición solo
+ *        pueden bajar los del servidor.
+ *   GET  /salud
+ *        contadores, cola, throughput, percentiles de latencia y la caché de
+ *        análisis.
+ *
+ * Si el pool y su cola (acotada) están llenos, la petición se rechaza con 503
+ * antes de leer el cuerpo. Los hilos HTTP también son un pool acotado: uno por
+ * ejecución admitida más unos pocos para /salud y los rechazos.
+ *
+ * Uso: java Main --servidor [-p PUERTO] [--host HOST] [-j HILOS] [--cola N] [--limite-ms MS]
+ */
+public final class ServidorEjecucion {
+
+    // Pila de los hilos de ejecución, como en cli.LineaComandos
+    private static final long PILA_HILO = Long.getLong("javausac.cli.pila", 64L << 20);
+    private static final int MAX_CUERPO = 1 << 20;
+    private static final int MAX_LINEAS = Integer.getInteger("javausac.servidor.lineas", 10_000);
+    private static final long LIMITE_MS_POR_DEFECTO = 10_000;
+    // Hilos HTTP además de los que esperan una ejecución
+    private static final int HILOS_HTTP_EXTRA = 4;
+
+    private final ThreadPoolExecutor pool;
+    private final int capacidadCola;
+    // Ejecuciones admitidas (corriendo o en cola); se toma antes de leer el cuerpo
+    private final Semaphore cupos;
+    private final Presupuesto maximo;
+    private final Metricas metricas = new Metricas();
+
+    private ServidorEjecucion(int hilos, int capacidadCola, Presupuesto maximo) {
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), r -> {
+                    Thread t = new Thread(null, r, "javausac-servidor-" + contador.incrementAndGet(), PILA_HILO);
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.capacidadCola = capacidadCola;
+        this.cupos = new Semaphore(hilos + capacidadCola);
+        this.maximo = maximo;
+    }
+
+    /** Arranca el servidor y devuelve 0; 2 si los argumentos no son válidos. */
+    public static int iniciar(String[] args) {
+        String host = "127.0.0.1";
+        int puerto = 8080;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int cola = 64;
+        Presupuesto base = Presupuesto.POR_DEFECTO;
+        long limiteMs = base.getMaxMilis() > 0 ? base.getMaxMilis() : LIMITE_MS_POR_DEFECTO;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String a = args[i];
+                if (i + 1 == args.length) throw new IllegalArgumentException("Falta el valor de " + a);
+                String v = args[++i];
+                switch (a) {
+                    case "-p":
+                    case "--puerto":
+                        puerto = Integer.parseInt(v);
+                        break;
+                    case "--host":
+                        host = v;
+                        break;
+                    case "-j":
+                    case "--hilos":
+                        hilos = Integer.parseInt(v);
+                        break;
+                    case "--cola":
+                        cola = Integer.parseInt(v);
+                        break;
+                    case "--limite-ms":
+                        limiteMs = Long.parseLong(v);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opción desconocida: " + a);
+                }
+            }
+            if (hilos < 1 || cola < 1) throw new IllegalArgumentException("Hilos y cola deben ser al menos 1");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: java Main --servidor [-p PUERTO] [--host HOST] [-j HILOS] [--cola N] [--limite-ms MS]");
+            return 2;
+        }
+
+        Presupuesto maximo = new Presupuesto(base.getMaxSentencias(), base.getMaxIteraciones(), limiteMs);
+        ServidorEjecucion servidor = new ServidorEjecucion(hilos, cola, maximo);
+        HttpServer http;
+        try {
+            http = HttpServer.create(new InetSocketAddress(host, puerto), 0);
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir " + host + ":" + puerto + ": " + e.getMessage());
+            return 2;
+        }
+        http.createContext("/ejecutar", servidor::ejecutar);
+        http.createContext("/salud", servidor::salud);
+        // Los hilos HTTP solo esperan el resultado; el trabajo y la cola acotada están en el pool.
+        // Con todos ocupados y su cola llena atiende el hilo del HttpServer: para entonces no
+        // quedan cupos y la respuesta es un 503 sin leer el cuerpo.
+        int hilosHttp = hilos + cola + HILOS_HTTP_EXTRA;
+        ThreadPoolExecutor atencion = new ThreadPoolExecutor(hilosHttp, hilosHttp, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola), r -> {
+                    Thread t = new Thread(r, "javausac-http");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        atencion.allowCoreThreadTimeOut(true);
+        http.setExecutor(atencion);
+        http.start();
+        System.out.println("JavaUSAC escuchando en http://" + host + ":" + http.getAddress().getPort()
+                + " (" + hilos + " hilos, cola " + cola + ", límite " + limiteMs + " ms)");
+        return 0;
+    }
+
+    private void ejecutar(HttpExchange ex) throws IOException {
+        long inicio = System.nanoTime();
+        try (ex) {
+            if (!"POST".equals(ex.getRequestMethod())) {
+                responder(ex, 405, error("Use POST con el código en el cuerpo"));
+                return;
+            }
+            if (!cupos.tryAcquire()) {
+                metricas.rechazada();
+                responder(ex, 503, error("Servidor ocupado: cola llena"));
+                return;
+            }
+            try {
+                admitida(ex, inicio);
+            } finally {
+                cupos.release();
+            }
+        }
+    }
+
+    // Ya con cupo: lee el cuerpo, encola la ejecución y espera su resultado
+    private void admitida(HttpExchange ex, long inicio) throws IOException {
+        byte[] cuerpo = leer(ex.getRequestBody());
+        if (cuerpo == null) {
+            responder(ex, 413, error("El programa excede " + MAX_CUERPO + " bytes"));
+            return;
+        }
+        Map<String, String> params = parametros(ex.getRequestURI().getRawQuery());
+        ModoEjecucion modo;
+        Presupuesto presupuesto;
+        try {
+            modo = ModoEjecucion.valueOf(params.getOrDefault("modo", "INTERPRETE").toUpperCase(Locale.ROOT));
+            presupuesto = new Presupuesto(
+                    acotar(maximo.getMaxSentencias(), params.get("sentencias")),
+                    acotar(maximo.getMaxIteraciones(), params.get("iteraciones")),
+                    acotar(maximo.getMaxMilis(), params.get("ms")));
+        } catch (IllegalArgumentException e) {
+            responder(ex, 400, error("Parámetro inválido: " + e.getMessage()));
+            return;
+        }
+
+        String codigo = new String(cuerpo, StandardCharsets.UTF_8);
+        Future<String> tarea;
+        try {
+            tarea = pool.submit(() -> correr(codigo, modo, presupuesto, inicio));
+        } catch (RejectedExecutionException e) {
+            metricas.rechazada();
+            responder(ex, 503, error("Servidor ocupado: cola llena"));
+            return;
+        }
+        try {
+            responder(ex, 200, tarea.get());
+        } catch (ExecutionException e) {
+            responder(ex, 500, error("Error interno: " + e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tarea.cancel(true);
+        }
+    }
+
+    private String correr(String codigo, ModoEjecucion modo, Presupuesto presupuesto, long inicio) {
+        ConsolaMemoria consola = new ConsolaMemoria(MAX_LINEAS);
+        SesionEjecucion sesion = new SesionEjecucion(consola, modo, presupuesto, null);
+        try {
+            Ejecutor.ejecutar(codigo, sesion);
+        } finally {
+            // El hilo vuelve al pool: que un Detener tardío no corte la siguiente petición
+            Thread.interrupted();
+        }
+        long latencia = System.nanoTime() - inicio;
+        metricas.registrar(latencia, sesion.getTablaErrores().tieneErrores());
+        return respuesta(sesion, consola, latencia);
+    }
+
+    private void salud(HttpExchange ex) throws IOException {
+        try (ex) {
+            responder(ex, 200, metricas.json(pool.getQueue().size(), pool.getActiveCount(),
+                    pool.getCorePoolSize(), capacidadCola, Ejecutor.getCacheAnalisis()));
+        }
+    }
+
+    // ---- JSON ----
+
+    private static String respuesta(SesionEjecucion sesion, ConsolaMemoria consola, long latencia) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"modo\":").append(cadena(sesion.getModo().name()));
+        sb.append(",\"ms\":").append(String.format(Locale.ROOT, "%.2f", latencia / 1e6));
+        sb.append(",\"salida\":");
+        lista(sb, consola.getSalida());
+        sb.append(",\"mensajes\":");
+        lista(sb, consola.getDiagnosticos());
+        sb.append(",\"lineasOmitidas\":").append(consola.getOmitidas());
+
+        sb.append(",\"errores\":[");
+        List<ErrorInfo> errores = sesion.getTablaErrores().getErrores();
+        for (int i = 0; i < errores.size(); i++) {
+            ErrorInfo e = errores.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"numero\":").append(e.getNumero())
+                    .append(",\"tipo\":").append(cadena(String.valueOf(e.getTipo())))
+                    .append(",\"descripcion\":").append(cadena(e.getDescripcion()))
+                    .append(",\"linea\":").append(e.getLinea())
+                    .append(",\"columna\":").append(e.getColumna()).append('}');
+        }
+        sb.append(']');
+
+        sb.append(",\"simbolos\":[");
+        if (sesion.getTablaSimbolos() != null) {
+            boolean primero = true;
+            for (Simbolo s : sesion.getTablaSimbolos().getSimbolos()) {
+                if (!primero) sb.append(',');
+                primero = false;
+                sb.append("{\"identificador\":").append(cadena(s.getIdentificador()))
+                        .append(",\"categoria\":").append(cadena(String.valueOf(s.getCategoria())))
+                        .append(",\"tipo\":").append(cadena(String.valueOf(s.getTipo())))
+                        .append(",\"entorno\":").append(cadena(s.getAmbito() != null ? s.getAmbito() : "Global"))
+                        .append(",\"valor\":").append(s.getValor() == null ? "null" : cadena(s.getValor().toString()))
+                        .append(",\"valorPorDefecto\":").append(s.isValorPorDefecto())
+                        .append(",\"linea\":").append(s.getLinea())
+                        .append(",\"columna\":").append(s.getColumna()).append('}');
+            }
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    private static void lista(StringBuilder sb, List<String> lineas) {
+        sb.append('[');
+        for (int i = 0; i < lineas.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(cadena(lineas.get(i)));
+        }
+        sb.append(']');
+    }
+
+    private static String error(String mensaje) {
+        return "{\"error\":" + cadena(mensaje) + "}";
+    }
+
+    private static String cadena(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // ---- HTTP ----
+
+    private static void responder(HttpExchange ex, int estado, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // null si el cuerpo pasa de MAX_CUERPO
+    private static byte[] leer(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            if (out.size() + n > MAX_CUERPO) return null;
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> parametros(String query) {
+        Map<String, String> out = new HashMap<>();
+        if (query == null || query.isEmpty()) return out;
+        for (String par : query.split("&")) {
+            int igual = par.indexOf('=');
+            String clave = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            out.put(URLDecoder.decode(clave, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    // El límite pedido solo puede bajar el del servidor; 0 es sin límite
+    private static long acotar(long maximo, String pedido) {
+        if (pedido == null) return maximo;
+        long v = Long.parseLong(pedido);
+        if (v < 0) throw new IllegalArgumentException(pedido);
+        if (v == 0) return maximo;
+        return maximo == 0 ? v : Math.min(v, maximo);
+    }
+}
@@ -1,12 +1,21 @@
 package ui;
 
+import interpreter.Consola;
+
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
 import java.awt.*;
 
 
-public class ConsolePanel extends JPanel {
+public class ConsolePanel extends JPanel implements Consola {
+
+    // Líneas que se conservan en pantalla y en el buffer de pendientes
+    private static final int LINEAS_MAXIMAS = Integer.getInteger("javausac.consola.lineas", 5000);
+    private static final int INTERVALO_MS = Integer.getInteger("javausac.consola.intervalo", 50);
 
     private final JTextArea consoleArea;
+    private final SalidaConsola salida = new SalidaConsola(LINEAS_MAXIMAS);
+    private int omitidas;
 
     public ConsolePanel() {
         setLayout(new BorderLayout());
@@ -23,17 +32,45 @@ public class ConsolePanel extends JPanel {
         setBorder(BorderFactory.createTitledBorder("Consola"));
 
         setPreferredSize(new Dimension(1000, 260));
+
+        new Timer(INTERVALO_MS, e -> volcar()).start();
     }
 
+    // clear y appendLine se pueden llamar desde cualquier hilo; la consola se actualiza en volcar()
+
+    @Override
     public void clear() {
-        consoleArea.setText("");
+        salida.limpiar();
     }
 
+    @Override
     public void appendLine(String text) {
-        if (consoleArea.getText().length() == 0) {
-            consoleArea.append(text);
-        } else {
-            consoleArea.append("\n" + text);
+        salida.escribir(text);
+    }
+
+    /** Aplica lo pendiente de una vez; también sirve para forzar el volcado al terminar una ejecución. */
+    public void volcar() {
+        SalidaConsola.Lote lote = salida.drenar();
+        if (lote == null) return;
+        if (lote.limpiar) {
+            consoleArea.setText("");
+            omitidas = 0;
+        }
+        if (lote.lineas > 0) {
+            consoleArea.append(consoleArea.getDocument().getLength() > 0 ? "\n" + lote.texto : lote.texto);
+        }
+
+        // Si se descartaron pendientes, el lote llenó el buffer y todo lo anterior sale de pantalla:
+        // las líneas omitidas siempre quedan arriba, en un solo aviso en la primera línea
+        try {
+            int marcador = omitidas > 0 ? 1 : 0;
+            int exceso = consoleArea.getLineCount() - marcador - LINEAS_MAXIMAS;
+            if (exceso > 0 || lote.descartadas > 0) {
+                omitidas += lote.descartadas + Math.max(exceso, 0);
+                int fin = consoleArea.getLineStartOffset(marcador + Math.max(exceso, 0));
+                consoleArea.replaceRange("... " + omitidas + " líneas omitidas ...\n", 0, fin);
+            }
+        } catch (BadLocationException ignored) {
         }
         consoleArea.setCaretPosition(consoleArea.getDocument().getLength());
     }
@@ -1,6 +1,10 @@
 package ui;
 
+import interpreter.FuenteIncremental;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.nio.file.Path;
 import java.util.HashMap;
@@ -16,6 +20,8 @@ public class EditorTabPanel extends JPanel {
     private static class EditorTabInfo {
         Path filePath;
         JTextArea textArea;
+        // Qué parte del documento cambió desde la última corrida
+        final FuenteIncremental fuente = new FuenteIncremental();
 
         EditorTabInfo(Path filePath, JTextArea textArea) {
             this.filePath = filePath;
@@ -50,6 +56,22 @@ public class EditorTabPanel extends JPanel {
 
         EditorTabInfo info = new EditorTabInfo(filePath, textArea);
         tabsInfo.put(scrollPane, info);
+        textArea.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                info.fuente.editado(e.getOffset(), e.getLength(), 0, e.getDocument().getLength());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                info.fuente.editado(e.getOffset(), 0, e.getLength(), e.getDocument().getLength());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Solo atributos; el texto no cambió
+            }
+        });
 
         tabbedPane.addTab(title, scrollPane);
         tabbedPane.setSelectedComponent(scrollPane);
@@ -93,6 +115,15 @@ public class EditorTabPanel extends JPanel {
         }
     }
 
+    public FuenteIncremental getCurrentFuente() {
+        Component comp = tabbedPane.getSelectedComponent();
+        if (comp == null) {
+            return null;
+        }
+        EditorTabInfo info = tabsInfo.get(comp);
+        return info != null ? info.fuente : null;
+    }
+
     public String getCurrentFileContent() {
         JTextArea area = getCurrentTextArea();
         return area != null ? area.getText() : null;
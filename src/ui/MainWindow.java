@@ -10,6 +10,10 @@ public class MainWindow extends JFrame {
     private final ConsolePanel consolePanel;
     private final UiController controller;
 
+    private JMenuItem itemEjecutar;
+    private JMenuItem itemDetener;
+    private JMenu menuReportes;
+
     public MainWindow() {
         super("JavaUSAC - Fase 1");
 
@@ -66,12 +70,16 @@ public class MainWindow extends JFrame {
 
 
         JMenu menuEjecutar = new JMenu("Ejecutar");
-        JMenuItem itemEjecutar = new JMenuItem("Ejecutar archivo actual");
+        itemEjecutar = new JMenuItem("Ejecutar archivo actual");
+        itemDetener = new JMenuItem("Detener");
         itemEjecutar.addActionListener(e -> controller.ejecutarArchivoActual());
+        itemDetener.addActionListener(e -> controller.detenerEjecucion());
+        itemDetener.setEnabled(false);
         menuEjecutar.add(itemEjecutar);
+        menuEjecutar.add(itemDetener);
 
 
-        JMenu menuReportes = new JMenu("Reportes");
+        menuReportes = new JMenu("Reportes");
         JMenuItem itemReporteErrores = new JMenuItem("Reporte de Errores");
         JMenuItem itemReporteSimbolos = new JMenuItem("Reporte Tabla de Símbolos");
         JMenuItem itemReporteAst = new JMenuItem("Reporte AST");
@@ -96,6 +104,13 @@ menuReportes.add(itemReporteAst);
 
 
 
+    /** Durante una corrida se habilita Detener y se bloquean Ejecutar y los reportes. */
+    public void setEjecutando(boolean ejecutando) {
+        itemEjecutar.setEnabled(!ejecutando);
+        itemDetener.setEnabled(ejecutando);
+        menuReportes.setEnabled(!ejecutando);
+    }
+
     public EditorTabPanel getEditorTabPanel() {
         return editorTabPanel;
     }
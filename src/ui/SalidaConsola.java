@@ -0,0 +1,80 @@
+package ui;
+
+/**
+ * Salida de println hacia la consola. El intérprete escribe aquí desde
+ * cualquier hilo sin tocar Swing; ConsolePanel la drena en lote con un Timer
+ * del EDT. Las líneas pendientes van en un buffer circular de {@code capacidad}
+ * líneas: si el programa imprime más rápido de lo que se drena, se descartan
+ * las más viejas y se cuentan para mostrar el aviso de líneas omitidas.
+ */
+public class SalidaConsola {
+
+    /** Lo que hay que aplicar en la consola en un drenado. */
+    public static final class Lote {
+        public final boolean limpiar;
+        public final int descartadas;
+        public final int lineas;
+        public final String texto;
+
+        Lote(boolean limpiar, int descartadas, int lineas, String texto) {
+            this.limpiar = limpiar;
+            this.descartadas = descartadas;
+            this.lineas = lineas;
+            this.texto = texto;
+        }
+    }
+
+    private final String[] lineas;
+    private int inicio;
+    private int cantidad;
+    private int descartadas;
+    private boolean limpiar;
+
+    public SalidaConsola(int capacidad) {
+        this.lineas = new String[Math.max(capacidad, 1)];
+    }
+
+    public int getCapacidad() {
+        return lineas.length;
+    }
+
+    public synchronized void escribir(String linea) {
+        if (cantidad == lineas.length) {
+            lineas[inicio] = null;
+            inicio = (inicio + 1) % lineas.length;
+            cantidad--;
+            descartadas++;
+        }
+        lineas[(inicio + cantidad) % lineas.length] = linea;
+        cantidad++;
+    }
+
+    /** Descarta lo pendiente y pide vaciar la consola en el próximo drenado. */
+    public synchronized void limpiar() {
+        while (cantidad > 0) {
+            lineas[inicio] = null;
+            inicio = (inicio + 1) % lineas.length;
+            cantidad--;
+        }
+        descartadas = 0;
+        limpiar = true;
+    }
+
+    /** null si no hay nada nuevo. */
+    public synchronized Lote drenar() {
+        if (cantidad == 0 && descartadas == 0 && !limpiar) return null;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cantidad; i++) {
+            int k = (inicio + i) % lineas.length;
+            if (i > 0) sb.append('\n');
+            sb.append(lineas[k]);
+            lineas[k] = null;
+        }
+        Lote lote = new Lote(limpiar, descartadas, cantidad, sb.toString());
+        inicio = 0;
+        cantidad = 0;
+        descartadas = 0;
+        limpiar = false;
+        return lote;
+    }
+}
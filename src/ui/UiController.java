@@ -1,6 +1,7 @@
 package ui;
 
 import interpreter.Ejecutor;
+import interpreter.FuenteIncremental;
 import reports.TablaErrores;
 import reports.ErrorTipo;
 import reports.ErrorInfo;
@@ -22,6 +23,8 @@ import java.util.List;
 public class UiController {
 
     private final MainWindow mainWindow;
+    // Solo se toca desde el EDT
+    private Thread ejecucion;
 
     public UiController(MainWindow mainWindow) {
         this.mainWindow = mainWindow;
@@ -153,7 +156,44 @@ public class UiController {
             return;
         }
 
-        Ejecutor.ejecutar(codigo, console);
+        if (ejecucion != null) {
+            mainWindow.showInfoDialog("Ya hay un programa en ejecución.");
+            return;
+        }
+
+        // En el EDT junto con el texto: la próxima corrida solo reparsea lo que se edite desde aquí
+        FuenteIncremental fuente = editor.getCurrentFuente();
+        if (fuente != null) {
+            fuente.tomar(codigo);
+        }
+
+        // La corrida va en su propio hilo para no bloquear el EDT; la salida se
+        // ve mientras corre porque ConsolePanel drena su buffer con un Timer
+        Thread hilo = new Thread(() -> {
+            try {
+                Ejecutor.ejecutar(codigo, console, fuente);
+            } finally {
+                SwingUtilities.invokeLater(this::ejecucionTerminada);
+            }
+        }, "javausac-ejecucion");
+        hilo.setDaemon(true);
+        ejecucion = hilo;
+        mainWindow.setEjecutando(true);
+        hilo.start();
+    }
+
+    /** Interrumpe el hilo; el intérprete se detiene en el siguiente punto de control. */
+    public void detenerEjecucion() {
+        Thread hilo = ejecucion;
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    private void ejecucionTerminada() {
+        ejecucion = null;
+        mainWindow.getConsolePanel().volcar();
+        mainWindow.setEjecutando(false);
     }
 
     public void mostrarReporteErrores() {
@@ -188,8 +228,7 @@ public class UiController {
         return;
     }
 
-    List<Simbolo> simbolos = tabla.getSimbolos();
-    simbolos.sort((s1, s2) -> Integer.compare(s1.getLinea(), s2.getLinea()));
+    List<Simbolo> simbolos = tabla.getSimbolosPorLinea();
 
     List<String[]> rows = new ArrayList<>();
     int index = 1;
@@ -0,0 +1,79 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Inicio de cada línea de un texto (separadas por \r\n, \r o \n, como las
+ * cuenta el lexer). Se arma una vez; de offset a Position es una búsqueda
+ * binaria y de línea a texto es directo. Líneas y columnas desde 1.
+ */
+public final class LineTable {
+
+    private final String text;
+    // starts[i]: offset donde empieza la línea i + 1; el último es el largo del texto
+    private final int[] starts;
+
+    public LineTable(String text) {
+        this.text = text;
+        int[] out = new int[16];
+        int n = 1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') i++;
+            if (c == '\r' || c == '\n') {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = i + 1;
+            }
+        }
+        if (n == out.length) out = Arrays.copyOf(out, n + 1);
+        out[n++] = text.length();
+        this.starts = Arrays.copyOf(out, n);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getLineCount() {
+        return starts.length - 1;
+    }
+
+    /** Offset del primer carácter de la línea; con getLineCount() + 1 da el largo del texto. */
+    public int lineStart(int line) {
+        return starts[line - 1];
+    }
+
+    /** Offset donde termina la línea, sin el fin de línea. */
+    public int lineEnd(int line) {
+        int end = starts[line];
+        int start = starts[line - 1];
+        while (end > start && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) end--;
+        return end;
+    }
+
+    public String lineText(int line) {
+        if (line < 1 || line > getLineCount()) return "";
+        return text.substring(starts[line - 1], lineEnd(line));
+    }
+
+    /** Texto de la línea entre dos columnas (la segunda excluida), recortado a la línea. */
+    public String substring(int line, int fromColumn, int toColumn) {
+        if (line < 1 || line > getLineCount()) return "";
+        int start = starts[line - 1];
+        int end = lineEnd(line);
+        int a = (int) Math.min((long) start + Math.max(fromColumn, 1) - 1, end);
+        int b = (int) Math.min((long) start + Math.max(toColumn, 1) - 1, end);
+        return b > a ? text.substring(a, b) : "";
+    }
+
+    public Position position(int offset) {
+        int i = Arrays.binarySearch(starts, 0, starts.length - 1, offset);
+        // Sin el largo final los inicios son estrictamente crecientes: cada línea trae su fin de línea
+        int line = i >= 0 ? i + 1 : -i - 1;
+        return new Position(line, offset - starts[line - 1] + 1);
+    }
+
+    public int offset(int line, int column) {
+        return starts[line - 1] + column - 1;
+    }
+}